@@ -1,17 +1,19 @@
 package fi.metatavu.famifarm.campaigns;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.CampaignDAO;
 import fi.metatavu.famifarm.persistence.dao.CampaignProductDAO;
 import fi.metatavu.famifarm.persistence.model.Campaign;
 import fi.metatavu.famifarm.persistence.model.CampaignProduct;
 import fi.metatavu.famifarm.persistence.model.Product;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -26,6 +28,12 @@ public class CampaignController {
   @Inject
   private CampaignProductDAO campaignProductDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
   /**
    * Adds a new campaign to the database
    *
@@ -36,10 +44,9 @@ public class CampaignController {
    * @return created campaign
    */
   public Campaign create (String name, HashMap<Product, Integer> campaignProducts, Facility facility, UUID creatorId) {
-    Campaign createdCampaign = campaignDAO.create(UUID.randomUUID(), name, facility, creatorId);
-    for (Map.Entry<Product, Integer> campaignProduct : campaignProducts.entrySet()) {
-      campaignProductDAO.create(UUID.randomUUID(), campaignProduct.getValue(), campaignProduct.getKey(), createdCampaign, creatorId);
-    }
+    Campaign createdCampaign = campaignDAO.create(idController.generateId(), name, facility, creatorId);
+    campaignProductDAO.createAll(campaignProducts, createdCampaign, creatorId);
+    reportWatermarkController.bumpWatermark(facility);
 
     return createdCampaign;
   }
@@ -75,15 +82,9 @@ public class CampaignController {
    * @return updated campaign
    */
   public Campaign update (Campaign campaign, String name, HashMap<Product, Integer> campaignProducts, UUID modifierId) {
-    List<CampaignProduct> existingCampaignProducts = campaignProductDAO.listByCampaign(campaign);
-
-    for (CampaignProduct campaignProduct: existingCampaignProducts) {
-      campaignProductDAO.delete(campaignProduct);
-    }
-
-    for (Map.Entry<Product, Integer> campaignProduct : campaignProducts.entrySet()) {
-      campaignProductDAO.create(UUID.randomUUID(), campaignProduct.getValue(), campaignProduct.getKey(), campaign, modifierId);
-    }
+    campaignProductDAO.deleteAll(campaignProductDAO.listByCampaign(campaign));
+    campaignProductDAO.createAll(campaignProducts, campaign, modifierId);
+    reportWatermarkController.bumpWatermark(campaign.getFacility());
 
     return campaignDAO.updateName(campaign, name, modifierId);
   }
@@ -100,6 +101,7 @@ public class CampaignController {
       campaignProductDAO.delete(campaignProduct);
     }
     campaignDAO.delete(campaign);
+    reportWatermarkController.bumpWatermark(campaign.getFacility());
   }
 
   /**
@@ -111,4 +113,14 @@ public class CampaignController {
   public List<CampaignProduct> listCampaingProductsByCampaign(Campaign campaign) {
     return campaignProductDAO.listByCampaign(campaign);
   }
+
+  /**
+   * Lists campaign products of multiple campaigns in a single query
+   *
+   * @param campaigns campaigns to list the products from
+   * @return list of campaign products
+   */
+  public List<CampaignProduct> listCampaignProductsByCampaigns(Collection<Campaign> campaigns) {
+    return campaignProductDAO.listByCampaigns(campaigns);
+  }
 }
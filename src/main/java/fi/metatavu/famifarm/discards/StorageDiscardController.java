@@ -1,10 +1,13 @@
 package fi.metatavu.famifarm.discards;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.StorageDiscardDAO;
 import fi.metatavu.famifarm.persistence.model.PackageSize;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.StorageDiscard;
+import fi.metatavu.famifarm.persistence.model.StorageDiscardTotals;
 import fi.metatavu.famifarm.rest.model.Facility;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -21,6 +24,12 @@ public class StorageDiscardController {
     @Inject
     private StorageDiscardDAO storageDiscardDAO;
 
+    @Inject
+    private ReportWatermarkController reportWatermarkController;
+
+    @Inject
+    private IdController idController;
+
     /**
      * Creates discard event
      *
@@ -38,7 +47,8 @@ public class StorageDiscardController {
         OffsetDateTime discardDate,
         UUID creatorId
     ) {
-        return storageDiscardDAO.create(UUID.randomUUID(), product, packageSize, discardAmount, discardDate, creatorId, creatorId);
+        reportWatermarkController.bumpWatermark(product.getFacility());
+        return storageDiscardDAO.create(idController.generateId(), product, packageSize, discardAmount, discardDate, creatorId, creatorId);
     }
 
     /**
@@ -57,6 +67,7 @@ public class StorageDiscardController {
      * @param storageDiscard storage discard to remove
      */
     public void deleteStorageDiscard(StorageDiscard storageDiscard) {
+        reportWatermarkController.bumpWatermark(storageDiscard.getProduct().getFacility());
         storageDiscardDAO.delete(storageDiscard);
     }
 
@@ -82,6 +93,18 @@ public class StorageDiscardController {
         return storageDiscardDAO.list(firstResult, maxResults, fromTime, toTime, productId, facility);
     }
 
+    /**
+     * Lists wasted packed units of storage discards grouped by product
+     *
+     * @param fromTime from time
+     * @param toTime to time
+     * @param facility facility
+     * @return totals of products with storage discards
+     */
+    public List<StorageDiscardTotals> listStorageDiscardTotals(OffsetDateTime fromTime, OffsetDateTime toTime, Facility facility) {
+        return storageDiscardDAO.listTotalsByProduct(fromTime, toTime, facility);
+    }
+
     /**
      * Updates storage discard object
      *
@@ -94,10 +117,12 @@ public class StorageDiscardController {
      * @return updated entity
      */
     public StorageDiscard updateStorageDiscard(StorageDiscard original, Integer discardAmount, OffsetDateTime discardDate, Product product, PackageSize packageSize, UUID userId) {
-        StorageDiscard updated = storageDiscardDAO.updateDiscardAmount(original, discardAmount, userId);
-        updated = storageDiscardDAO.updateDiscardDate(updated, discardDate, userId);
-        updated = storageDiscardDAO.updateProduct(updated, product, userId);
-        updated = storageDiscardDAO.updatePackageSize(updated, packageSize, userId);
-        return updated;
+        reportWatermarkController.bumpWatermark(product.getFacility());
+        return storageDiscardDAO.patch(original, userId, changed -> {
+            changed.setDiscardAmount(discardAmount);
+            changed.setDiscardDate(discardDate);
+            changed.setProduct(product);
+            changed.setPackageSize(packageSize);
+        });
     }
 }
@@ -6,6 +6,7 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.DraftDAO;
 import fi.metatavu.famifarm.persistence.model.Draft;
 import fi.metatavu.famifarm.rest.model.Facility;
@@ -20,9 +21,12 @@ public class DraftController {
 
   @Inject
   private DraftDAO draftDAO;
+
+  @Inject
+  private IdController idController;
   
   public Draft createDraft(String type, String data, Facility facility, UUID creatorId) {
-    return draftDAO.create(UUID.randomUUID(), type, data, facility, creatorId, creatorId);
+    return draftDAO.create(idController.generateId(), type, data, facility, creatorId, creatorId);
   }
   
   /**
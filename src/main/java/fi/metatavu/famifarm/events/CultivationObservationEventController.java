@@ -1,6 +1,9 @@
 package fi.metatavu.famifarm.events;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +14,7 @@ import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.CultivationObservationEventActionDAO;
 import fi.metatavu.famifarm.persistence.dao.CultivationObservationEventDAO;
 import fi.metatavu.famifarm.persistence.dao.CultivationObservationEventPestDAO;
@@ -20,6 +24,7 @@ import fi.metatavu.famifarm.persistence.model.CultivationObservationEventPest;
 import fi.metatavu.famifarm.persistence.model.PerformedCultivationAction;
 import fi.metatavu.famifarm.persistence.model.Pest;
 import fi.metatavu.famifarm.persistence.model.Product;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for cultivation observation events
@@ -37,6 +42,12 @@ public class CultivationObservationEventController {
 
   @Inject
   private CultivationObservationEventPestDAO cultivationObservationEventPestDAO;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Create cultivationActionEvent
@@ -53,14 +64,15 @@ public class CultivationObservationEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public CultivationObservationEvent createCultivationActionEvent(Product product, OffsetDateTime startTime, OffsetDateTime endTime, Double weight, Double luminance, List<Pest> pests, List<PerformedCultivationAction> actions, String additionalInformation, UUID creatorId) {
-    CultivationObservationEvent event = cultivationObservationEventDAO.create(UUID.randomUUID(), weight, luminance, product, startTime, endTime, 0, additionalInformation, creatorId, creatorId);
+    reportWatermarkController.bumpWatermark(product.getFacility());
+    CultivationObservationEvent event = cultivationObservationEventDAO.create(idController.generateId(), weight, luminance, product, startTime, endTime, 0, additionalInformation, creatorId, creatorId);
     
     if (actions != null) {
-      actions.stream().forEach(action -> cultivationObservationEventActionDAO.create(UUID.randomUUID(), event, action));
+      cultivationObservationEventActionDAO.createAll(event, actions);
     }
     
     if (pests != null) {
-      pests.stream().forEach(pest -> cultivationObservationEventPestDAO.create(UUID.randomUUID(), event, pest));
+      cultivationObservationEventPestDAO.createAll(event, pests);
     }
     
     return event;
@@ -103,12 +115,15 @@ public class CultivationObservationEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public CultivationObservationEvent updateCultivationActionEvent(CultivationObservationEvent cultivationActionEvent, Product product, OffsetDateTime startTime, OffsetDateTime endTime, Double weight, Double luminance, List<Pest> pests, List<PerformedCultivationAction> actions, String additionalInformation, UUID modifier) {
-    cultivationObservationEventDAO.updateProduct(cultivationActionEvent, product, modifier);
-    cultivationObservationEventDAO.updateStartTime(cultivationActionEvent, startTime, modifier);
-    cultivationObservationEventDAO.updateEndTime(cultivationActionEvent, endTime, modifier);
-    cultivationObservationEventDAO.updateWeight(cultivationActionEvent, weight, modifier);
-    cultivationObservationEventDAO.updateLuminance(cultivationActionEvent, luminance, modifier);
-    cultivationObservationEventDAO.updateAdditionalInformation(cultivationActionEvent, additionalInformation, modifier);
+    reportWatermarkController.bumpWatermark(product.getFacility());
+    cultivationObservationEventDAO.patch(cultivationActionEvent, modifier, changed -> {
+      changed.setProduct(product);
+      changed.setStartTime(startTime);
+      changed.setEndTime(endTime);
+      changed.setWeight(weight);
+      changed.setLuminance(luminance);
+      changed.setAdditionalInformation(additionalInformation);
+    });
     
     List<CultivationObservationEventAction> eventActions = cultivationObservationEventActionDAO.listByEvent(cultivationActionEvent);
 
@@ -116,18 +131,18 @@ public class CultivationObservationEventController {
       .collect(Collectors.toMap(eventAction -> eventAction.getAction().getId(), eventAction -> eventAction));  
     
     Set<UUID> existingActionIds = new HashSet<>(eventActionMap.keySet());
+    List<PerformedCultivationAction> addedActions = new ArrayList<>();
     
     for (PerformedCultivationAction action : actions) {
       if (!existingActionIds.contains(action.getId())) {
-        cultivationObservationEventActionDAO.create(UUID.randomUUID(), cultivationActionEvent, action);
+        addedActions.add(action);
       } else {
         existingActionIds.remove(action.getId());
       }
     }
-   
-    for (UUID removedId : existingActionIds) {
-      cultivationObservationEventActionDAO.delete(eventActionMap.get(removedId));
-    }
+
+    cultivationObservationEventActionDAO.createAll(cultivationActionEvent, addedActions);
+    cultivationObservationEventActionDAO.deleteAll(existingActionIds.stream().map(eventActionMap::get).collect(Collectors.toList()));
 
     List<CultivationObservationEventPest> eventPests = cultivationObservationEventPestDAO.listByEvent(cultivationActionEvent);
 
@@ -135,18 +150,18 @@ public class CultivationObservationEventController {
       .collect(Collectors.toMap(eventPest -> eventPest.getPest().getId(), eventPest -> eventPest));  
     
     Set<UUID> existingPestIds = new HashSet<>(eventPestMap.keySet());
+    List<Pest> addedPests = new ArrayList<>();
     
     for (Pest pest : pests) {
       if (!existingPestIds.contains(pest.getId())) {
-        cultivationObservationEventPestDAO.create(UUID.randomUUID(), cultivationActionEvent, pest);
+        addedPests.add(pest);
       } else {
         existingPestIds.remove(pest.getId());
       }
     }
-   
-    for (UUID removedId : existingPestIds) {
-      cultivationObservationEventPestDAO.delete(eventPestMap.get(removedId));
-    }
+
+    cultivationObservationEventPestDAO.createAll(cultivationActionEvent, addedPests);
+    cultivationObservationEventPestDAO.deleteAll(existingPestIds.stream().map(eventPestMap::get).collect(Collectors.toList()));
     
     
     
@@ -160,6 +175,7 @@ public class CultivationObservationEventController {
    * @param cultivationActionEvent event to be deleted
    */
   public void deleteCultivationActionEvent(CultivationObservationEvent cultivationActionEvent) {
+    reportWatermarkController.bumpWatermark(cultivationActionEvent.getProduct().getFacility());
     cultivationObservationEventActionDAO.listByEvent(cultivationActionEvent).stream()
       .forEach(cultivationObservationEventActionDAO::delete);    
     
@@ -188,5 +204,43 @@ public class CultivationObservationEventController {
   public List<UUID> listEventPestIds(CultivationObservationEvent event) {
     return cultivationObservationEventActionDAO.listPestIdsByEvent(event);
   }
+
+  /**
+   * Lists performed cultivation action ids of given events with a single query
+   * 
+   * @param events events
+   * @return performed cultivation action ids mapped by event ids. Events without actions are not included
+   */
+  public Map<UUID, List<UUID>> listEventPerformedActionIds(Collection<CultivationObservationEvent> events) {
+    Map<UUID, List<UUID>> result = new HashMap<>();
+    if (events.isEmpty()) {
+      return result;
+    }
+
+    for (CultivationObservationEventAction eventAction : cultivationObservationEventActionDAO.listByEvents(events)) {
+      result.computeIfAbsent(eventAction.getEvent().getId(), eventId -> new ArrayList<>()).add(eventAction.getAction().getId());
+    }
+
+    return result;
+  }
+
+  /**
+   * Lists pest ids of given events with a single query
+   * 
+   * @param events events
+   * @return pest ids mapped by event ids. Events without pests are not included
+   */
+  public Map<UUID, List<UUID>> listEventPestIds(Collection<CultivationObservationEvent> events) {
+    Map<UUID, List<UUID>> result = new HashMap<>();
+    if (events.isEmpty()) {
+      return result;
+    }
+
+    for (CultivationObservationEventPest eventPest : cultivationObservationEventPestDAO.listByEvents(events)) {
+      result.computeIfAbsent(eventPest.getEvent().getId(), eventId -> new ArrayList<>()).add(eventPest.getPest().getId());
+    }
+
+    return result;
+  }
   
 }
@@ -12,6 +12,9 @@ import fi.metatavu.famifarm.rest.model.Facility;
 import org.slf4j.Logger;
 
 import fi.metatavu.famifarm.persistence.dao.EventDAO;
+import fi.metatavu.famifarm.persistence.dao.ListCursor;
+import fi.metatavu.famifarm.persistence.dao.ProductionLineDAO;
+import fi.metatavu.famifarm.persistence.dao.WastageReasonDAO;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.CultivationObservationEvent;
 import fi.metatavu.famifarm.persistence.model.Event;
@@ -20,6 +23,7 @@ import fi.metatavu.famifarm.persistence.model.PlantingEvent;
 import fi.metatavu.famifarm.persistence.model.SowingEvent;
 import fi.metatavu.famifarm.persistence.model.TableSpreadEvent;
 import fi.metatavu.famifarm.persistence.model.WastageEvent;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for events
@@ -33,6 +37,9 @@ public class EventController {
   @Inject
   private Logger logger;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
   @Inject
   private SowingEventController sowingEventController;
 
@@ -53,6 +60,12 @@ public class EventController {
 
   @Inject
   private EventDAO eventDAO;
+
+  @Inject
+  private ProductionLineDAO productionLineDAO;
+
+  @Inject
+  private WastageReasonDAO wastageReasonDAO;
   
   /**
    * Finds event by id
@@ -76,7 +89,9 @@ public class EventController {
   }
 
   /**
-   * Lists events between dates
+   * Lists events for reports between dates and event type. 
+   * 
+   * Associations used by reports are loaded in the same query
    *
    * @param facility facility
    * @param createdBefore created before
@@ -84,20 +99,29 @@ public class EventController {
    * @param eventType event type
    * @return list of events
    */
-  public List<Event> listByTimeFrameAndType(Facility facility, OffsetDateTime createdBefore, OffsetDateTime createdAfter, EventType eventType) {
-    return eventDAO.listByTimeFrameAndType(facility, createdBefore, createdAfter, eventType);
+  public List<Event> listReportEventsByTimeFrameAndType(Facility facility, OffsetDateTime createdBefore, OffsetDateTime createdAfter, EventType eventType) {
+    return eventDAO.listReportEventsByTimeFrameAndType(facility, createdBefore, createdAfter, eventType);
   }
   
   /**
-   * Lists events between dates
+   * Lists events of all types for reports between dates.
+   * 
+   * Products are loaded in the same query. Production lines and wastage reasons of the facility are loaded 
+   * beforehand with one query each, so that events resolve them from the persistence context instead of 
+   * loading them one by one
    *
    * @param facility facility
    * @param startBefore start before
    * @param startAfter start after
    * @return list of events
    */
-  public List<Event> listByFacilityAndStartTimeAfterAndStartTimeBefore(Facility facility, OffsetDateTime startBefore, OffsetDateTime startAfter) {
-    return eventDAO.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, startBefore, startAfter);
+  public List<Event> listReportEvents(Facility facility, OffsetDateTime startBefore, OffsetDateTime startAfter) {
+    if (facility != null) {
+      productionLineDAO.listSortByLineNumber(facility, null, null);
+      wastageReasonDAO.listAll(null, null, facility);
+    }
+
+    return eventDAO.listReportEvents(facility, startBefore, startAfter);
   }
 
   /**
@@ -126,11 +150,12 @@ public class EventController {
    * @param firstResult first result
    * @param eventType event type
    * @param maxResults max results
+   * @param after return only events after this cursor
    *
    * @return list of events
    */
-  public List<Event> listEventsRest(Facility facility, Product product, OffsetDateTime startTimeAfter, OffsetDateTime startTimeBefore, Integer firstResult, EventType eventType, Integer maxResults) {
-    return eventDAO.listForRestApi(facility, product, startTimeAfter, startTimeBefore, firstResult, eventType, maxResults);
+  public List<Event> listEventsRest(Facility facility, Product product, OffsetDateTime startTimeAfter, OffsetDateTime startTimeBefore, Integer firstResult, EventType eventType, Integer maxResults, ListCursor after) {
+    return eventDAO.listForRestApi(facility, product, startTimeAfter, startTimeBefore, firstResult, eventType, maxResults, after);
   }
   
   /**
@@ -151,6 +176,7 @@ public class EventController {
    * @return updated event
    */
   public Event updateRemainingUnits(Event event, Integer remainingUnits) {
+    reportWatermarkController.bumpWatermark(event.getProduct().getFacility());
     return eventDAO.updateRemainingUnits(event, remainingUnits);
   }
   
@@ -0,0 +1,486 @@
+package fi.metatavu.famifarm.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import fi.metatavu.famifarm.performedcultivationactions.PerformedCultivationActionsController;
+import fi.metatavu.famifarm.persistence.model.PerformedCultivationAction;
+import fi.metatavu.famifarm.persistence.model.Pest;
+import fi.metatavu.famifarm.persistence.model.Product;
+import fi.metatavu.famifarm.persistence.model.ProductionLine;
+import fi.metatavu.famifarm.persistence.model.SeedBatch;
+import fi.metatavu.famifarm.persistence.model.WastageReason;
+import fi.metatavu.famifarm.pests.PestsController;
+import fi.metatavu.famifarm.productionlines.ProductionLineController;
+import fi.metatavu.famifarm.products.ProductController;
+import fi.metatavu.famifarm.rest.model.CultivationObservationEventData;
+import fi.metatavu.famifarm.rest.model.Event;
+import fi.metatavu.famifarm.rest.model.Facility;
+import fi.metatavu.famifarm.rest.model.HarvestBasket;
+import fi.metatavu.famifarm.rest.model.HarvestEventData;
+import fi.metatavu.famifarm.rest.model.PlantingEventData;
+import fi.metatavu.famifarm.rest.model.PotType;
+import fi.metatavu.famifarm.rest.model.SowingEventData;
+import fi.metatavu.famifarm.rest.model.TableSpreadEventData;
+import fi.metatavu.famifarm.rest.model.WastageEventData;
+import fi.metatavu.famifarm.seedbatches.SeedBatchesController;
+import fi.metatavu.famifarm.wastagereason.WastageReasonsController;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.RunOptions;
+
+/**
+ * Controller for bulk event imports.
+ *
+ * Imported events are read one at a time from a JSON array with a streaming parser and persisted in chunks,
+ * each chunk in its own transaction. Products and production lines of the facility are loaded once per import
+ * and other referenced entities are looked up only once per import, so an import issues a fixed number of
+ * queries per chunk instead of a full create request per event.
+ */
+@ApplicationScoped
+public class EventImportController {
+
+  private static final String FAILED_TO_READ_EVENT_DATA = "Failed to read event data";
+
+  private static final String FAILED_TO_PERSIST_EVENTS = "Failed to persist events";
+
+  private static final ObjectMapper objectMapper = new ObjectMapper()
+    .registerModule(new JavaTimeModule())
+    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  @Inject
+  private Logger logger;
+
+  @ConfigProperty(name = "famifarm.events.import.chunk-size", defaultValue = "500")
+  private int chunkSize;
+
+  @Inject
+  private ProductController productController;
+
+  @Inject
+  private ProductionLineController productionLineController;
+
+  @Inject
+  private SeedBatchesController seedBatchController;
+
+  @Inject
+  private PestsController pestsController;
+
+  @Inject
+  private PerformedCultivationActionsController performedCultivationActionsController;
+
+  @Inject
+  private WastageReasonsController wastageReasonsController;
+
+  @Inject
+  private SowingEventController sowingEventController;
+
+  @Inject
+  private TableSpreadEventController tableSpreadEventController;
+
+  @Inject
+  private CultivationObservationEventController cultivationObservationEventController;
+
+  @Inject
+  private HarvestEventController harvestEventController;
+
+  @Inject
+  private PlantingEventController plantingEventController;
+
+  @Inject
+  private WastageEventController wastageEventController;
+
+  /**
+   * Opens a JSON array of events for importing. Only the start of the array is read, so malformed input
+   * can be rejected before any events are imported
+   *
+   * @param input input stream containing JSON array of events
+   * @return parser positioned at the start of the array
+   * @throws IOException thrown when input is not a JSON array
+   */
+  public JsonParser openImport(InputStream input) throws IOException {
+    JsonParser parser = objectMapper.getFactory().createParser(input);
+
+    try {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new JsonParseException(parser, "Expected a JSON array of events");
+      }
+    } catch (IOException e) {
+      parser.close();
+      throw e;
+    }
+
+    return parser;
+  }
+
+  /**
+   * Imports events from a JSON array opened with {@link #openImport(InputStream)}. Parser is closed when
+   * the import finishes.
+   *
+   * Result of each event is passed to the result consumer in the order of the array as soon as the chunk
+   * containing the event has been persisted. If the array becomes unreadable in the middle, the import stops
+   * and a failure is reported for the index that could not be read. Chunks persisted before that are kept.
+   *
+   * @param parser parser positioned at the start of the array
+   * @param facility facility
+   * @param creatorId creator id
+   * @param resultConsumer consumer for per event results
+   * @throws IOException thrown when reading the input fails
+   */
+  public void importEvents(JsonParser parser, Facility facility, UUID creatorId, Consumer<EventImportResult> resultConsumer) throws IOException {
+    try (parser) {
+      ImportLookups lookups = QuarkusTransaction.call(requireNew(), () -> new ImportLookups(facility));
+      List<Event> chunk = new ArrayList<>(chunkSize);
+      int chunkStart = 0;
+
+      try {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          chunk.add(objectMapper.readValue(parser, Event.class));
+
+          if (chunk.size() >= chunkSize) {
+            importChunk(chunk, chunkStart, lookups, creatorId, resultConsumer);
+            chunkStart += chunk.size();
+            chunk.clear();
+          }
+        }
+
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+          throw new JsonParseException(parser, "Expected a JSON object");
+        }
+      } catch (JsonProcessingException e) {
+        int failedIndex = chunkStart + chunk.size();
+        importChunk(chunk, chunkStart, lookups, creatorId, resultConsumer);
+        resultConsumer.accept(EventImportResult.failed(failedIndex, e.getOriginalMessage()));
+        return;
+      }
+
+      importChunk(chunk, chunkStart, lookups, creatorId, resultConsumer);
+    }
+  }
+
+  /**
+   * Persists a chunk of events in a single transaction.
+   *
+   * Invalid events are reported as failed without affecting the rest of the chunk. If the transaction fails,
+   * all events of the chunk are reported as failed.
+   *
+   * @param events events
+   * @param firstIndex index of the first event of the chunk in the imported array
+   * @param lookups lookups
+   * @param creatorId creator id
+   * @param resultConsumer consumer for per event results
+   */
+  private void importChunk(List<Event> events, int firstIndex, ImportLookups lookups, UUID creatorId, Consumer<EventImportResult> resultConsumer) {
+    if (events.isEmpty()) {
+      return;
+    }
+
+    List<EventImportResult> results = new ArrayList<>(events.size());
+
+    try {
+      QuarkusTransaction.run(requireNew(), () -> {
+        for (int i = 0; i < events.size(); i++) {
+          int index = firstIndex + i;
+
+          try {
+            results.add(EventImportResult.created(index, createEvent(events.get(i), lookups, creatorId)));
+          } catch (EventImportException e) {
+            results.add(EventImportResult.failed(index, e.getMessage()));
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      logger.error("Failed to import events", e);
+
+      List<EventImportResult> failedResults = new ArrayList<>(events.size());
+      for (int i = 0; i < events.size(); i++) {
+        EventImportResult result = i < results.size() ? results.get(i) : null;
+        boolean validationFailure = result != null && result.getStatus() == EventImportStatus.FAILED;
+        failedResults.add(validationFailure ? result : EventImportResult.failed(firstIndex + i, FAILED_TO_PERSIST_EVENTS));
+      }
+
+      results.clear();
+      results.addAll(failedResults);
+    }
+
+    results.forEach(resultConsumer);
+  }
+
+  /**
+   * Creates an event
+   *
+   * @param event event
+   * @param lookups lookups
+   * @param creatorId creator id
+   * @return id of the created event
+   * @throws EventImportException thrown when event is invalid
+   */
+  private UUID createEvent(Event event, ImportLookups lookups, UUID creatorId) throws EventImportException {
+    Product product = event.getProductId() != null ? lookups.products.get(event.getProductId()) : null;
+    if (product == null) {
+      throw new EventImportException(String.format("Invalid product id %s", event.getProductId()));
+    }
+
+    if (event.getType() == null) {
+      throw new EventImportException("Missing event type");
+    }
+
+    switch (event.getType()) {
+    case SOWING:
+      return createSowingEvent(product, event, lookups, creatorId);
+    case TABLE_SPREAD:
+      TableSpreadEventData tableSpreadData = readEventData(TableSpreadEventData.class, event.getData());
+      return tableSpreadEventController.createTableSpreadEvent(product, event.getStartTime(), event.getEndTime(),
+        tableSpreadData.getTrayCount(), event.getAdditionalInformation(), creatorId).getId();
+    case CULTIVATION_OBSERVATION:
+      return createCultivationObservationEvent(product, event, lookups, creatorId);
+    case HARVEST:
+      return createHarvestEvent(product, event, lookups, creatorId);
+    case PLANTING:
+      PlantingEventData plantingData = readEventData(PlantingEventData.class, event.getData());
+      return plantingEventController.createPlantingEvent(product, event.getStartTime(), event.getEndTime(),
+        lookups.findProductionLine(plantingData.getProductionLineId()), plantingData.getSowingDate(), plantingData.getGutterHoleCount(),
+        plantingData.getGutterCount(), plantingData.getTrayCount(), plantingData.getWorkerCount(), event.getAdditionalInformation(), creatorId).getId();
+    case WASTAGE:
+      WastageEventData wastageData = readEventData(WastageEventData.class, event.getData());
+      return wastageEventController.createWastageEvent(product, event.getStartTime(), event.getEndTime(), wastageData.getAmount(),
+        lookups.findWastageReason(wastageData.getReasonId()), wastageData.getPhase(), event.getAdditionalInformation(),
+        lookups.findProductionLine(wastageData.getProductionLineId()), creatorId).getId();
+    default:
+      throw new EventImportException(String.format("Unsupported event type %s", event.getType()));
+    }
+  }
+
+  /**
+   * Creates a sowing event
+   *
+   * @param product product
+   * @param event event
+   * @param lookups lookups
+   * @param creatorId creator id
+   * @return id of the created event
+   * @throws EventImportException thrown when event is invalid
+   */
+  private UUID createSowingEvent(Product product, Event event, ImportLookups lookups, UUID creatorId) throws EventImportException {
+    SowingEventData eventData = readEventData(SowingEventData.class, event.getData());
+
+    List<SeedBatch> seedBatches = new ArrayList<>();
+    for (UUID seedBatchId : nullToEmpty(eventData.getSeedBatchIds())) {
+      seedBatches.add(lookups.findRequired(lookups.seedBatches, seedBatchId, seedBatchController::findSeedBatch, "seed batch"));
+    }
+
+    ProductionLine productionLine = lookups.findProductionLine(eventData.getProductionLineId());
+
+    return sowingEventController.createSowingEvent(product, event.getStartTime(), event.getEndTime(), productionLine, seedBatches,
+      PotType.PAPER, eventData.getAmount(), event.getAdditionalInformation(), creatorId).getId();
+  }
+
+  /**
+   * Creates a cultivation observation event
+   *
+   * @param product product
+   * @param event event
+   * @param lookups lookups
+   * @param creatorId creator id
+   * @return id of the created event
+   * @throws EventImportException thrown when event is invalid
+   */
+  private UUID createCultivationObservationEvent(Product product, Event event, ImportLookups lookups, UUID creatorId) throws EventImportException {
+    CultivationObservationEventData eventData = readEventData(CultivationObservationEventData.class, event.getData());
+
+    List<PerformedCultivationAction> actions = new ArrayList<>();
+    for (UUID actionId : nullToEmpty(eventData.getPerformedActionIds())) {
+      actions.add(lookups.findRequired(lookups.performedCultivationActions, actionId, performedCultivationActionsController::findPerformedCultivationAction, "performed action"));
+    }
+
+    List<Pest> pests = new ArrayList<>();
+    for (UUID pestId : nullToEmpty(eventData.getPestIds())) {
+      pests.add(lookups.findRequired(lookups.pests, pestId, pestsController::findPest, "pest"));
+    }
+
+    return cultivationObservationEventController.createCultivationActionEvent(product, event.getStartTime(), event.getEndTime(),
+      eventData.getWeight(), eventData.getLuminance(), pests, actions, event.getAdditionalInformation(), creatorId).getId();
+  }
+
+  /**
+   * Creates a harvest event
+   *
+   * @param product product
+   * @param event event
+   * @param lookups lookups
+   * @param creatorId creator id
+   * @return id of the created event
+   * @throws EventImportException thrown when event is invalid
+   */
+  private UUID createHarvestEvent(Product product, Event event, ImportLookups lookups, UUID creatorId) throws EventImportException {
+    HarvestEventData eventData = readEventData(HarvestEventData.class, event.getData());
+    ProductionLine productionLine = lookups.findProductionLine(eventData.getProductionLineId());
+    List<HarvestBasket> baskets = nullToEmpty(eventData.getBaskets());
+
+    return harvestEventController.createHarvestEvent(product, event.getStartTime(), event.getEndTime(), eventData.getType(),
+      productionLine, eventData.getSowingDate(), event.getAdditionalInformation(), eventData.getGutterCount(),
+      eventData.getGutterHoleCount(), eventData.getCuttingHeight(), baskets, creatorId).getId();
+  }
+
+  /**
+   * Reads event data into given type
+   *
+   * @param targetClass target class
+   * @param data event data
+   * @return event data
+   * @throws EventImportException thrown when data is missing or invalid
+   */
+  private <D> D readEventData(Class<D> targetClass, Object data) throws EventImportException {
+    if (data == null) {
+      throw new EventImportException(FAILED_TO_READ_EVENT_DATA);
+    }
+
+    try {
+      return objectMapper.convertValue(data, targetClass);
+    } catch (IllegalArgumentException e) {
+      throw new EventImportException(FAILED_TO_READ_EVENT_DATA);
+    }
+  }
+
+  /**
+   * Returns given list or an empty list if the list is null
+   *
+   * @param list list
+   * @return list or an empty list
+   */
+  private <T> List<T> nullToEmpty(List<T> list) {
+    return list != null ? list : Collections.emptyList();
+  }
+
+  /**
+   * Returns transaction options for running in a new transaction
+   *
+   * @return transaction options
+   */
+  private RunOptions requireNew() {
+    return QuarkusTransaction.runOptions().semantic(RunOptions.Semantic.REQUIRE_NEW);
+  }
+
+  /**
+   * Entities referenced by the events of a single import.
+   *
+   * Products and production lines are loaded up front and limited to the import facility. Other entities
+   * are looked up when first referenced and remembered for the rest of the import, including ids that
+   * were not found.
+   */
+  private class ImportLookups {
+
+    private final Map<UUID, Product> products;
+
+    private final Map<UUID, ProductionLine> productionLines;
+
+    private final Map<UUID, SeedBatch> seedBatches = new HashMap<>();
+
+    private final Map<UUID, Pest> pests = new HashMap<>();
+
+    private final Map<UUID, PerformedCultivationAction> performedCultivationActions = new HashMap<>();
+
+    private final Map<UUID, WastageReason> wastageReasons = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param facility facility
+     */
+    public ImportLookups(Facility facility) {
+      products = productController.listProducts(facility, null, null, true, true, null, null).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+      productionLines = productionLineController.listProductionLines(facility, null, null).stream()
+        .collect(Collectors.toMap(ProductionLine::getId, Function.identity()));
+    }
+
+    /**
+     * Finds a production line
+     *
+     * @param productionLineId production line id or null
+     * @return production line or null if id is null
+     * @throws EventImportException thrown when production line is not found from the import facility
+     */
+    public ProductionLine findProductionLine(UUID productionLineId) throws EventImportException {
+      if (productionLineId == null) {
+        return null;
+      }
+
+      ProductionLine productionLine = productionLines.get(productionLineId);
+      if (productionLine == null) {
+        throw new EventImportException(String.format("Invalid production line id %s", productionLineId));
+      }
+
+      return productionLine;
+    }
+
+    /**
+     * Finds a wastage reason
+     *
+     * @param wastageReasonId wastage reason id or null
+     * @return wastage reason or null if not found
+     */
+    public WastageReason findWastageReason(UUID wastageReasonId) {
+      return wastageReasonId != null ? find(wastageReasons, wastageReasonId, wastageReasonsController::findWastageReason) : null;
+    }
+
+    /**
+     * Finds an entity that must exist
+     *
+     * @param cache cache
+     * @param id id
+     * @param finder finder used when id has not been looked up yet
+     * @param name name of the entity used in the error message
+     * @return entity
+     * @throws EventImportException thrown when entity is not found
+     */
+    public <T> T findRequired(Map<UUID, T> cache, UUID id, Function<UUID, T> finder, String name) throws EventImportException {
+      T result = find(cache, id, finder);
+      if (result == null) {
+        throw new EventImportException(String.format("Invalid %s id %s", name, id));
+      }
+
+      return result;
+    }
+
+    /**
+     * Finds an entity from the cache or with given finder
+     *
+     * @param cache cache
+     * @param id id
+     * @param finder finder used when id has not been looked up yet
+     * @return entity or null if not found
+     */
+    private <T> T find(Map<UUID, T> cache, UUID id, Function<UUID, T> finder) {
+      if (!cache.containsKey(id)) {
+        cache.put(id, finder.apply(id));
+      }
+
+      return cache.get(id);
+    }
+
+  }
+
+}
@@ -0,0 +1,19 @@
+package fi.metatavu.famifarm.events;
+
+/**
+ * Exception thrown when a single event in a bulk event import is invalid
+ */
+public class EventImportException extends Exception {
+
+  private static final long serialVersionUID = -2470931839213553436L;
+
+  /**
+   * Constructor
+   *
+   * @param message message
+   */
+  public EventImportException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,71 @@
+package fi.metatavu.famifarm.events;
+
+import java.util.UUID;
+
+/**
+ * Result of a single event in a bulk event import
+ */
+public class EventImportResult {
+
+  private final int index;
+
+  private final UUID id;
+
+  private final EventImportStatus status;
+
+  private final String message;
+
+  /**
+   * Constructor
+   *
+   * @param index index of the event in the imported array
+   * @param id id of the created event or null if the event was not created
+   * @param status status
+   * @param message error message or null
+   */
+  public EventImportResult(int index, UUID id, EventImportStatus status, String message) {
+    this.index = index;
+    this.id = id;
+    this.status = status;
+    this.message = message;
+  }
+
+  /**
+   * Creates result for a created event
+   *
+   * @param index index of the event in the imported array
+   * @param id id of the created event
+   * @return result
+   */
+  public static EventImportResult created(int index, UUID id) {
+    return new EventImportResult(index, id, EventImportStatus.CREATED, null);
+  }
+
+  /**
+   * Creates result for an event that could not be created
+   *
+   * @param index index of the event in the imported array
+   * @param message error message
+   * @return result
+   */
+  public static EventImportResult failed(int index, String message) {
+    return new EventImportResult(index, null, EventImportStatus.FAILED, message);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public EventImportStatus getStatus() {
+    return status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+}
@@ -0,0 +1,11 @@
+package fi.metatavu.famifarm.events;
+
+/**
+ * Status of a single event in a bulk event import
+ */
+public enum EventImportStatus {
+
+  CREATED,
+  FAILED
+
+}
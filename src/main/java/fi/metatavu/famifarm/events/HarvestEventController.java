@@ -1,19 +1,26 @@
 package fi.metatavu.famifarm.events;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.HarvestBasketDAO;
 import fi.metatavu.famifarm.persistence.dao.HarvestEventDAO;
 import fi.metatavu.famifarm.persistence.model.Product;
+import fi.metatavu.famifarm.persistence.model.HarvestBasketTotals;
 import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.persistence.model.ProductionLine;
 import fi.metatavu.famifarm.rest.model.HarvestBasket;
 import fi.metatavu.famifarm.rest.model.HarvestEventType;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for harvest events
@@ -26,8 +33,14 @@ public class HarvestEventController {
   @Inject
   private HarvestEventDAO harvestEventDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
   @Inject
   private HarvestBasketDAO harvestBasketDAO;
+
+  @Inject
+  private IdController idController;
   
 
   /**
@@ -61,8 +74,9 @@ public class HarvestEventController {
     List<HarvestBasket> baskets,
     UUID creatorId
   ) {
+    reportWatermarkController.bumpWatermark(product.getFacility());
     HarvestEvent harvestEvent = harvestEventDAO.create(
-      UUID.randomUUID(),
+      idController.generateId(),
       product,
       startTime,
       endTime,
@@ -77,9 +91,7 @@ public class HarvestEventController {
       creatorId,
       creatorId
     );
-    baskets.forEach(basket -> {
-      harvestBasketDAO.create(UUID.randomUUID(), basket.getWeight(), harvestEvent);
-    });
+    harvestBasketDAO.createAll(baskets.stream().map(HarvestBasket::getWeight).collect(Collectors.toList()), harvestEvent);
     return harvestEvent;
   }
   
@@ -135,6 +147,7 @@ public class HarvestEventController {
     List<HarvestBasket> baskets,
     UUID modifier
   ) {
+    reportWatermarkController.bumpWatermark(product.getFacility());
     harvestEventDAO.updateProduct(harvestEvent, product, modifier);
     harvestEventDAO.updateStartTime(harvestEvent, startTime, modifier);
     harvestEventDAO.updateEndTime(harvestEvent, endTime, modifier);
@@ -147,10 +160,8 @@ public class HarvestEventController {
     harvestEventDAO.updateCuttingHeight(harvestEvent, cuttingHeight, modifier);
 
     // re-create baskets
-    harvestBasketDAO.listByHarvestEvent(harvestEvent).forEach(harvestBasketDAO::delete);
-    baskets.forEach(basket -> {
-      harvestBasketDAO.create(UUID.randomUUID(), basket.getWeight(), harvestEvent);
-    });
+    harvestBasketDAO.deleteAll(harvestBasketDAO.listByHarvestEvent(harvestEvent));
+    harvestBasketDAO.createAll(baskets.stream().map(HarvestBasket::getWeight).collect(Collectors.toList()), harvestEvent);
 
     return harvestEvent;
   }
@@ -161,6 +172,7 @@ public class HarvestEventController {
    * @param harvestEvent harvest event to be deleted
    */
   public void deleteHarvestEvent(HarvestEvent harvestEvent) {
+    reportWatermarkController.bumpWatermark(harvestEvent.getProduct().getFacility());
     harvestBasketDAO.listByHarvestEvent(harvestEvent).forEach(harvestBasketDAO::delete);
     harvestEventDAO.delete(harvestEvent);
   }
@@ -174,4 +186,27 @@ public class HarvestEventController {
   public List<fi.metatavu.famifarm.persistence.model.HarvestBasket> listHarvestBaskets(HarvestEvent harvestEvent) {
     return harvestBasketDAO.listByHarvestEvent(harvestEvent);
   }
+
+  /**
+   * Returns basket counts and total basket weights of given harvest events. All totals are loaded with a single query
+   *
+   * @param harvestEvents harvest events
+   * @return basket totals mapped by harvest event id. Harvest events without baskets are mapped to empty totals
+   */
+  public Map<UUID, HarvestBasketTotals> getHarvestBasketTotals(Collection<HarvestEvent> harvestEvents) {
+    Map<UUID, HarvestBasketTotals> result = new HashMap<>();
+    if (harvestEvents.isEmpty()) {
+      return result;
+    }
+
+    for (HarvestBasketTotals harvestBasketTotals : harvestBasketDAO.listTotalsByHarvestEvents(harvestEvents)) {
+      result.put(harvestBasketTotals.getHarvestEventId(), harvestBasketTotals);
+    }
+
+    for (HarvestEvent harvestEvent : harvestEvents) {
+      result.computeIfAbsent(harvestEvent.getId(), harvestEventId -> new HarvestBasketTotals(harvestEventId, 0L, 0d));
+    }
+
+    return result;
+  }
 }
@@ -1,16 +1,24 @@
 package fi.metatavu.famifarm.events;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.PlantingEventDAO;
+import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.PlantingEvent;
 import fi.metatavu.famifarm.persistence.model.ProductionLine;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for planting events
@@ -23,6 +31,12 @@ public class PlantingEventController {
   @Inject
   private PlantingEventDAO plantingEventDAO;  
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
   /**
    * Creates new plantingEvent
    *
@@ -40,7 +54,8 @@ public class PlantingEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public PlantingEvent createPlantingEvent(Product product, OffsetDateTime startTime, OffsetDateTime endTime, ProductionLine productionLine, OffsetDateTime sowingDate, Integer gutterHoleCount, Integer gutterCount, Integer trayCount, Integer workerCount, String additionalInformation, UUID creatorId) {
-    return plantingEventDAO.create(UUID.randomUUID(), product, startTime, endTime, productionLine, sowingDate, gutterHoleCount, gutterCount, trayCount, workerCount, 0, additionalInformation, creatorId, creatorId);
+    reportWatermarkController.bumpWatermark(product.getFacility());
+    return plantingEventDAO.create(idController.generateId(), product, startTime, endTime, productionLine, sowingDate, gutterHoleCount, gutterCount, trayCount, workerCount, 0, additionalInformation, creatorId, creatorId);
   }
   
   /**
@@ -75,6 +90,53 @@ public class PlantingEventController {
     return plantingEventDAO.listLatestByProductAndProductionLine(product, productionLine, startBefore);
   }
 
+  /**
+   * Resolves latest planting events started before given harvest events on the same product and production line.
+   * All planting events are resolved with a single query
+   *
+   * @param harvestEvents harvest events
+   * @return latest planting events mapped by harvest event id. Harvest events without planting are not included
+   */
+  public Map<UUID, PlantingEvent> findLatestPlantingEventsByHarvestEvents(Collection<HarvestEvent> harvestEvents) {
+    Map<UUID, PlantingEvent> result = new HashMap<>();
+    if (harvestEvents.isEmpty()) {
+      return result;
+    }
+
+    Map<UUID, Product> products = new HashMap<>();
+    Map<UUID, ProductionLine> productionLines = new HashMap<>();
+    OffsetDateTime windowStart = null;
+    OffsetDateTime windowEnd = null;
+
+    for (HarvestEvent harvestEvent : harvestEvents) {
+      products.putIfAbsent(harvestEvent.getProduct().getId(), harvestEvent.getProduct());
+      productionLines.putIfAbsent(harvestEvent.getProductionLine().getId(), harvestEvent.getProductionLine());
+      OffsetDateTime startTime = harvestEvent.getStartTime();
+
+      if (windowStart == null || startTime.isBefore(windowStart)) {
+        windowStart = startTime;
+      }
+
+      if (windowEnd == null || startTime.isAfter(windowEnd)) {
+        windowEnd = startTime;
+      }
+    }
+
+    Map<List<UUID>, List<PlantingEvent>> plantingEvents = plantingEventDAO.listLatestByProductsAndProductionLines(products.values(), productionLines.values(), windowStart, windowEnd)
+      .stream()
+      .collect(Collectors.groupingBy(plantingEvent -> List.of(plantingEvent.getProduct().getId(), plantingEvent.getProductionLine().getId())));
+
+    for (HarvestEvent harvestEvent : harvestEvents) {
+      plantingEvents.getOrDefault(List.of(harvestEvent.getProduct().getId(), harvestEvent.getProductionLine().getId()), Collections.emptyList())
+        .stream()
+        .filter(plantingEvent -> !plantingEvent.getStartTime().isAfter(harvestEvent.getStartTime()))
+        .findFirst()
+        .ifPresent(plantingEvent -> result.put(harvestEvent.getId(), plantingEvent));
+    }
+
+    return result;
+  }
+
   /**
    * Update plantingEvent
    *
@@ -94,6 +156,7 @@ public class PlantingEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public PlantingEvent updatePlantingEvent(PlantingEvent plantingEvent, Product product, OffsetDateTime startTime, OffsetDateTime endTime, ProductionLine productionLine, OffsetDateTime sowingDate, Integer gutterHoleCount, Integer gutterCount, Integer trayCount, Integer workerCount, String additionalInformation, UUID modifier) {
+    reportWatermarkController.bumpWatermark(product.getFacility());
     plantingEventDAO.updateProduct(plantingEvent, product, modifier);
     plantingEventDAO.updateStartTime(plantingEvent, startTime, modifier);
     plantingEventDAO.updateEndTime(plantingEvent, endTime, modifier);
@@ -113,6 +176,7 @@ public class PlantingEventController {
    * @param plantingEvent planting event to be deleted
    */
   public void deletePlantingEvent(PlantingEvent plantingEvent) {
+    reportWatermarkController.bumpWatermark(plantingEvent.getProduct().getFacility());
     plantingEventDAO.delete(plantingEvent);
   }
 
@@ -1,7 +1,10 @@
 package fi.metatavu.famifarm.events;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -11,6 +14,7 @@ import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.SowingEventDAO;
 import fi.metatavu.famifarm.persistence.dao.SowingEventSeedBatchDAO;
 import fi.metatavu.famifarm.persistence.model.Product;
@@ -19,6 +23,7 @@ import fi.metatavu.famifarm.persistence.model.SeedBatch;
 import fi.metatavu.famifarm.persistence.model.SowingEvent;
 import fi.metatavu.famifarm.persistence.model.SowingEventSeedBatch;
 import fi.metatavu.famifarm.rest.model.PotType;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for sowing events
@@ -31,8 +36,14 @@ public class SowingEventController {
   @Inject
   private SowingEventDAO sowingEventDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
   @Inject
   private SowingEventSeedBatchDAO sowingEventSeedBatchDAO;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Update sowingEvent
@@ -49,7 +60,8 @@ public class SowingEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public SowingEvent createSowingEvent(Product product, OffsetDateTime startTime, OffsetDateTime endTime, ProductionLine productionLine, Collection<SeedBatch> seedBatches, PotType potType, Integer amount, String additionalInformation, UUID creatorId) {
-    SowingEvent sowingEvent = sowingEventDAO.create(UUID.randomUUID(), product, startTime, endTime, productionLine, potType, amount, 0, additionalInformation, creatorId, creatorId);
+    reportWatermarkController.bumpWatermark(product.getFacility());
+    SowingEvent sowingEvent = sowingEventDAO.create(idController.generateId(), product, startTime, endTime, productionLine, potType, amount, 0, additionalInformation, creatorId, creatorId);
     setSowingEventSeedBatches(sowingEvent, seedBatches);
     return sowingEvent;
   }
@@ -102,6 +114,7 @@ public class SowingEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public SowingEvent updateSowingEvent(SowingEvent sowingEvent, Product product, OffsetDateTime startTime, OffsetDateTime endTime, ProductionLine productionLine, Collection<SeedBatch> seedBatches, PotType potType, Integer amount, String additionalInformation, UUID modifier) {
+    reportWatermarkController.bumpWatermark(product.getFacility());
     sowingEventDAO.updateProduct(sowingEvent, product, modifier);
     sowingEventDAO.updateStartTime(sowingEvent, startTime, modifier);
     sowingEventDAO.updateEndTime(sowingEvent, endTime, modifier);
@@ -121,10 +134,33 @@ public class SowingEventController {
    * @param sowingEvent sowing event to be deleted
    */
   public void deleteSowingEvent(SowingEvent sowingEvent) {
+    reportWatermarkController.bumpWatermark(sowingEvent.getProduct().getFacility());
     sowingEventSeedBatchDAO.listBySowingEvent(sowingEvent).forEach(sowingEventSeedBatchDAO::delete);
     sowingEventDAO.delete(sowingEvent);
   }
 
+  /**
+   * Resolves the pot type of the first sowing event of each given product
+   *
+   * @param products products
+   * @return pot types mapped by product id. Products without sowing events are not included
+   */
+  public Map<UUID, PotType> getFirstSowingPotTypes(Collection<Product> products) {
+    Map<UUID, PotType> result = new HashMap<>();
+    if (products.isEmpty()) {
+      return result;
+    }
+
+    for (SowingEvent sowingEvent : sowingEventDAO.listFirstByProducts(products)) {
+      UUID productId = sowingEvent.getProduct().getId();
+      if (!result.containsKey(productId)) {
+        result.put(productId, sowingEvent.getPotType());
+      }
+    }
+
+    return result;
+  }
+
   /**
    * Lists seed batches by event
    * 
@@ -134,6 +170,25 @@ public class SowingEventController {
   public List<SeedBatch> listSowingEventSeedBatches(SowingEvent sowingEvent) {
     return sowingEventSeedBatchDAO.listSeedBatchesBySowingEvent(sowingEvent);
   }
+
+  /**
+   * Lists seed batch ids of given events with a single query
+   * 
+   * @param sowingEvents sowing events
+   * @return seed batch ids mapped by sowing event ids. Events without seed batches are not included
+   */
+  public Map<UUID, List<UUID>> listSowingEventSeedBatchIds(Collection<SowingEvent> sowingEvents) {
+    Map<UUID, List<UUID>> result = new HashMap<>();
+    if (sowingEvents.isEmpty()) {
+      return result;
+    }
+
+    for (SowingEventSeedBatch sowingEventSeedBatch : sowingEventSeedBatchDAO.listBySowingEvents(sowingEvents)) {
+      result.computeIfAbsent(sowingEventSeedBatch.getSowingEvent().getId(), sowingEventId -> new ArrayList<>()).add(sowingEventSeedBatch.getSeedBatch().getId());
+    }
+
+    return result;
+  }
   
   /**
    * Updates sowing event seed batches into the database
@@ -145,17 +200,17 @@ public class SowingEventController {
     Map<UUID, SowingEventSeedBatch> seedBatchMap = sowingEventSeedBatchDAO.listBySowingEvent(sowingEvent).stream()
       .collect(Collectors.toMap(sowingEventSeedBatch -> sowingEventSeedBatch.getSeedBatch().getId(), sowingEventSeedBatch -> sowingEventSeedBatch));  
      
-    Set<UUID> existingSeedBatchIds = seedBatchMap.keySet();
+    Set<UUID> existingSeedBatchIds = new HashSet<>(seedBatchMap.keySet());
+    List<SeedBatch> addedSeedBatches = new ArrayList<>();
     
     for (SeedBatch seedBatch : seedBatches) {
       if (!existingSeedBatchIds.remove(seedBatch.getId())) {
-        sowingEventSeedBatchDAO.create(UUID.randomUUID(), sowingEvent, seedBatch);
+        addedSeedBatches.add(seedBatch);
       }
     }
-    
-    for (UUID removedSeedBatchId : existingSeedBatchIds) {
-      sowingEventSeedBatchDAO.delete(seedBatchMap.get(removedSeedBatchId));
-    }
+
+    sowingEventSeedBatchDAO.createAll(sowingEvent, addedSeedBatches);
+    sowingEventSeedBatchDAO.deleteAll(existingSeedBatchIds.stream().map(seedBatchMap::get).collect(Collectors.toList()));
   }
 
 }
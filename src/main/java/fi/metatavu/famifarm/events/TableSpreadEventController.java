@@ -7,9 +7,11 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.TableSpreadEventDAO;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.TableSpreadEvent;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for sowing events
@@ -21,6 +23,12 @@ public class TableSpreadEventController {
 
   @Inject
   private TableSpreadEventDAO tableSpreadEventDAO;  
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Update tableSpreadEvent
@@ -35,7 +43,8 @@ public class TableSpreadEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public TableSpreadEvent createTableSpreadEvent(Product product, OffsetDateTime startTime, OffsetDateTime endTime, Integer trayCount, String additionalInformation, UUID creatorId) {
-    return tableSpreadEventDAO.create(UUID.randomUUID(), trayCount, product, startTime, endTime, 0, additionalInformation, creatorId, creatorId);
+    reportWatermarkController.bumpWatermark(product.getFacility());
+    return tableSpreadEventDAO.create(idController.generateId(), trayCount, product, startTime, endTime, 0, additionalInformation, creatorId, creatorId);
   }
   
   /**
@@ -73,6 +82,7 @@ public class TableSpreadEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public TableSpreadEvent updateTableSpreadEvent(TableSpreadEvent tableSpreadEvent, Product product, OffsetDateTime startTime, OffsetDateTime endTime, Integer trayCount, String additionalInformation, UUID modifier) {
+    reportWatermarkController.bumpWatermark(product.getFacility());
     tableSpreadEventDAO.updateProduct(tableSpreadEvent, product, modifier);
     tableSpreadEventDAO.updateStartTime(tableSpreadEvent, startTime, modifier);
     tableSpreadEventDAO.updateEndTime(tableSpreadEvent, endTime, modifier);
@@ -87,6 +97,7 @@ public class TableSpreadEventController {
    * @param tableSpreadEvent sowing event to be deleted
    */
   public void deleteTableSpreadEvent(TableSpreadEvent tableSpreadEvent) {
+    reportWatermarkController.bumpWatermark(tableSpreadEvent.getProduct().getFacility());
     tableSpreadEventDAO.delete(tableSpreadEvent);
   }
 
@@ -7,9 +7,11 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.WastageEventDAO;
 import fi.metatavu.famifarm.persistence.model.*;
 import fi.metatavu.famifarm.rest.model.EventType;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
  * Controller for wastage events
@@ -22,6 +24,12 @@ public class WastageEventController {
   @Inject
   private WastageEventDAO wastageEventDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
   /**
    * Creates new wastage event
    * 
@@ -37,7 +45,8 @@ public class WastageEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public WastageEvent createWastageEvent(Product product, OffsetDateTime startTime, OffsetDateTime endTime, Integer amount, WastageReason wastageReason, EventType phase, String additionalInformation, ProductionLine productionLine, UUID creatorId) {
-    return wastageEventDAO.create(UUID.randomUUID(), amount, product, wastageReason, startTime, endTime, 0, phase, additionalInformation,  productionLine, creatorId, creatorId);
+    reportWatermarkController.bumpWatermark(product.getFacility());
+    return wastageEventDAO.create(idController.generateId(), amount, product, wastageReason, startTime, endTime, 0, phase, additionalInformation,  productionLine, creatorId, creatorId);
   }
 
   /**
@@ -56,6 +65,7 @@ public class WastageEventController {
    */
   @SuppressWarnings ("squid:S00107")
   public WastageEvent updateWastageEvent(WastageEvent wastageEvent, Product product, OffsetDateTime startTime, OffsetDateTime endTime, Integer amount, WastageReason wastageReason, EventType phase, String additionalInformation, ProductionLine productionLine, UUID lastModifierId) {
+    reportWatermarkController.bumpWatermark(product.getFacility());
     wastageEventDAO.updateAmount(wastageEvent, amount, lastModifierId);
     wastageEventDAO.updateProduct(wastageEvent, product, lastModifierId);
     wastageEventDAO.updateEndTime(wastageEvent, endTime, lastModifierId);
@@ -94,6 +104,7 @@ public class WastageEventController {
    * @param wastageEvent wastage event to delete
    */
   public void deleteWastageEvent(WastageEvent wastageEvent) {
+    reportWatermarkController.bumpWatermark(wastageEvent.getProduct().getFacility());
     wastageEventDAO.delete(wastageEvent);
   }
 
@@ -1,5 +1,6 @@
 package fi.metatavu.famifarm.filmbatches;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.PackagingFilmBatchDAO;
 import fi.metatavu.famifarm.persistence.dao.PackingDAO;
 import fi.metatavu.famifarm.persistence.model.PackagingFilmBatch;
@@ -24,6 +25,9 @@ public class PackagingFilmBatchController {
   @Inject
   public PackingDAO packingDAO;
 
+  @Inject
+  private IdController idController;
+
   /**
    * Creates new packaging film batch
    *
@@ -34,7 +38,7 @@ public class PackagingFilmBatchController {
    */
   public PackagingFilmBatch create(Facility facility, fi.metatavu.famifarm.rest.model.PackagingFilmBatch packagingFilmBatch, UUID loggerUserId) {
     return packagingFilmBatchDAO.create(
-      UUID.randomUUID(),
+      idController.generateId(),
       facility,
       packagingFilmBatch.getName(),
       packagingFilmBatch.getActive(),
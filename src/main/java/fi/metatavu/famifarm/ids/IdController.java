@@ -0,0 +1,49 @@
+package fi.metatavu.famifarm.ids;
+
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Controller for generating entity ids.
+ *
+ * Ids are time-ordered by default. Random ids can be restored by setting famifarm.ids.generator to random.
+ */
+@ApplicationScoped
+public class IdController {
+
+  @ConfigProperty(name = "famifarm.ids.generator", defaultValue = "time-ordered")
+  private String generatorName;
+
+  private IdGenerator idGenerator;
+
+  /**
+   * Initializes the configured generator
+   */
+  @PostConstruct
+  public void init() {
+    switch (generatorName) {
+      case "time-ordered":
+        idGenerator = new TimeOrderedIdGenerator();
+        break;
+      case "random":
+        idGenerator = new RandomIdGenerator();
+        break;
+      default:
+        throw new IllegalStateException(String.format("Unknown id generator %s", generatorName));
+    }
+  }
+
+  /**
+   * Generates new entity id
+   *
+   * @return generated id
+   */
+  public UUID generateId() {
+    return idGenerator.generateId();
+  }
+
+}
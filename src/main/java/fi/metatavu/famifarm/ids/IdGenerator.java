@@ -0,0 +1,17 @@
+package fi.metatavu.famifarm.ids;
+
+import java.util.UUID;
+
+/**
+ * Interface for entity id generators
+ */
+public interface IdGenerator {
+
+  /**
+   * Generates new id
+   *
+   * @return generated id
+   */
+  UUID generateId();
+
+}
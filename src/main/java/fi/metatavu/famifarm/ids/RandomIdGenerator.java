@@ -0,0 +1,15 @@
+package fi.metatavu.famifarm.ids;
+
+import java.util.UUID;
+
+/**
+ * Id generator generating random (version 4) UUIDs
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+  @Override
+  public UUID generateId() {
+    return UUID.randomUUID();
+  }
+
+}
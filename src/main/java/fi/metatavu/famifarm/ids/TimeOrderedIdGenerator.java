@@ -0,0 +1,44 @@
+package fi.metatavu.famifarm.ids;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id generator generating time-ordered (version 7) UUIDs.
+ *
+ * The 48 most significant bits contain the Unix time in milliseconds and the following 12 bits a sequence
+ * within the millisecond, so ids generated by a single instance are strictly increasing. The remaining 62 bits
+ * are random. Ids stored as binary(16) are therefore appended to the end of clustered indexes instead of
+ * being inserted into random pages.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+  private static final int SEQUENCE_BITS = 12;
+
+  private final SecureRandom random = new SecureRandom();
+
+  private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+  @Override
+  public UUID generateId() {
+    long timestampAndSequence = nextTimestampAndSequence();
+    long mostSigBits = ((timestampAndSequence >>> SEQUENCE_BITS) << 16) | 0x7000L | (timestampAndSequence & 0xfffL);
+    long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
+  /**
+   * Returns next combined timestamp and sequence value.
+   *
+   * When the sequence of a millisecond is exhausted, the value overflows into the next millisecond, which keeps
+   * the ids increasing without waiting for the clock.
+   *
+   * @return timestamp shifted left by the sequence bits combined with the sequence
+   */
+  private long nextTimestampAndSequence() {
+    long current = System.currentTimeMillis() << SEQUENCE_BITS;
+    return lastTimestampAndSequence.updateAndGet(last -> Math.max(last + 1, current));
+  }
+
+}
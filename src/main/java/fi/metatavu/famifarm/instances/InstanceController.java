@@ -0,0 +1,56 @@
+package fi.metatavu.famifarm.instances;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Controller for identifying this server instance.
+ *
+ * Instance id is used for recognizing background jobs owned by the instance when several instances share 
+ * the database. Id can be configured with famifarm.instance-id and defaults to host name and process id.
+ */
+@ApplicationScoped
+public class InstanceController {
+
+  @ConfigProperty(name = "famifarm.instance-id")
+  private Optional<String> configuredInstanceId;
+
+  private String instanceId;
+
+  /**
+   * Resolves the instance id
+   */
+  @PostConstruct
+  public void init() {
+    instanceId = configuredInstanceId.orElseGet(() -> String.format("%s-%d", getHostName(), ProcessHandle.current().pid()));
+  }
+
+  /**
+   * Returns id of this server instance
+   *
+   * @return instance id
+   */
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * Returns host name of the server
+   *
+   * @return host name
+   */
+  private String getHostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "localhost";
+    }
+  }
+
+}
@@ -1,32 +1,89 @@
 package fi.metatavu.famifarm.localization;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.LocalizedEntryDAO;
 import fi.metatavu.famifarm.persistence.dao.LocalizedValueDAO;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.LocalizedValue;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 /**
- * Controller for localized values
+ * Controller for localized values.
+ * 
+ * Values are cached per entry in a bounded cache. Cached entries are invalidated when entry values are changed or 
+ * the entry is deleted. Invalidation only reaches the local server instance, so entries also expire after configured 
+ * time to live.
+ * 
+ * Each entry id maps to a version that is incremented on invalidation. Loaded values are cached only if the version 
+ * has not changed during the load, so a load racing with a change can not put outdated values back into the cache.
  * 
  * @author Antti Leppä
  */
 @ApplicationScoped
 public class LocalizedValueController {
+
+  private static final int VERSION_COUNT = 1024;
   
   @Inject
   private LocalizedEntryDAO localizedEntryDAO;
 
   @Inject
   private LocalizedValueDAO localizedValueDAO;
+
+  @Inject
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
+  @ConfigProperty(name = "famifarm.localization.cache.size", defaultValue = "10000")
+  private long cacheSize;
+
+  @ConfigProperty(name = "famifarm.localization.cache.ttl-minutes", defaultValue = "10")
+  private long cacheTtlMinutes;
+
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_COUNT);
+
+  private Cache<UUID, Map<String, String>> valueCache;
+
+  /**
+   * Initializes the value cache
+   */
+  @PostConstruct
+  public void init() {
+    valueCache = Caffeine.newBuilder()
+      .maximumSize(cacheSize)
+      .expireAfterWrite(cacheTtlMinutes, TimeUnit.MINUTES)
+      .build();
+  }
   
   /**
    * Creates new localized entry
@@ -34,7 +91,7 @@ public class LocalizedValueController {
    * @return new localized entry
    */
   public LocalizedEntry createEntry() {
-    return localizedEntryDAO.create(UUID.randomUUID());
+    return localizedEntryDAO.create(idController.generateId());
   }
   
   /**
@@ -46,13 +103,15 @@ public class LocalizedValueController {
    * @return localized entry
    */
   public LocalizedEntry setEntryValues(LocalizedEntry entry, Map<Locale, String> values) {
+    invalidateCachedValues(entry);
     localizedValueDAO.listByEntry(entry).stream().forEach(localizedValueDAO::delete);
 
     for (Entry<Locale, String> localeEntry : values.entrySet()) {
       Locale locale = localeEntry.getKey();
-      localizedValueDAO.create(UUID.randomUUID(), entry, locale, localeEntry.getValue());
+      localizedValueDAO.create(idController.generateId(), entry, locale, localeEntry.getValue());
     }
-    
+
+    reportWatermarkController.bumpAllWatermarks();
     return entry;
   } 
   
@@ -69,8 +128,63 @@ public class LocalizedValueController {
       return null;
     }
     
-    LocalizedValue localizedValue = localizedValueDAO.findByEntryAndLocale(entry, new Locale(locale.getLanguage()));
-    return localizedValue != null ? localizedValue.getValue() : null;
+    return getValues(Collections.singletonList(entry), locale).get(entry.getId());
+  }
+
+  /**
+   * Returns values of given entries in given locale. Values missing from the cache are loaded with a single query
+   * 
+   * @param entries entries
+   * @param locale locale
+   * @return values mapped by entry ids. Entries without value in given locale are not included
+   */
+  public Map<UUID, String> getValues(Collection<LocalizedEntry> entries, Locale locale) {
+    Map<UUID, Map<String, String>> entryValues = new HashMap<>();
+    List<LocalizedEntry> uncachedEntries = new ArrayList<>();
+
+    for (LocalizedEntry entry : entries) {
+      if (entry != null && !entryValues.containsKey(entry.getId())) {
+        Map<String, String> cachedValues = valueCache.getIfPresent(entry.getId());
+        if (cachedValues == null) {
+          uncachedEntries.add(entry);
+        }
+
+        entryValues.put(entry.getId(), cachedValues);
+      }
+    }
+
+    if (!uncachedEntries.isEmpty()) {
+      Map<UUID, Long> loadVersions = new HashMap<>();
+      Map<UUID, Map<String, String>> loadedValues = new HashMap<>();
+
+      for (LocalizedEntry entry : uncachedEntries) {
+        loadVersions.put(entry.getId(), versions.get(getVersionIndex(entry.getId())));
+        loadedValues.put(entry.getId(), new HashMap<>());
+      }
+
+      for (LocalizedValue localizedValue : localizedValueDAO.listByEntries(uncachedEntries)) {
+        loadedValues.get(localizedValue.getEntry().getId()).put(localizedValue.getLocale().getLanguage(), localizedValue.getValue());
+      }
+
+      loadedValues.forEach((entryId, values) -> {
+        Map<String, String> unmodifiableValues = Collections.unmodifiableMap(values);
+        long loadVersion = loadVersions.get(entryId);
+        valueCache.asMap().compute(entryId, (key, current) -> versions.get(getVersionIndex(key)) == loadVersion ? unmodifiableValues : current);
+        entryValues.put(entryId, unmodifiableValues);
+      });
+    }
+
+    String language = locale.getLanguage();
+    Map<UUID, String> result = new HashMap<>();
+
+    entryValues.forEach((entryId, values) -> {
+      String value = values.get(language);
+      if (value != null) {
+        result.put(entryId, value);
+      }
+    });
+
+    return result;
   }
   
   /**
@@ -83,14 +197,80 @@ public class LocalizedValueController {
     return localizedValueDAO.listByEntry(entry);
   }
 
+  /**
+   * Lists localized values of given entries with a single query
+   * 
+   * @param entries entries
+   * @return localized values mapped by entry ids. Entries without values are not included
+   */
+  public Map<UUID, List<LocalizedValue>> listLocalizedValues(Collection<LocalizedEntry> entries) {
+    if (entries.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    return localizedValueDAO.listByEntries(entries).stream()
+      .collect(Collectors.groupingBy(localizedValue -> localizedValue.getEntry().getId()));
+  }
+
   /**
    * Deletes localized entry
    * 
    * @param entry entry
    */
   public void deleteEntry(LocalizedEntry entry) {
+    invalidateCachedValues(entry);
     localizedValueDAO.listByEntry(entry).stream().forEach(localizedValueDAO::delete);
     localizedEntryDAO.delete(entry);
+    reportWatermarkController.bumpAllWatermarks();
   }
-  
+
+  /**
+   * Removes cached values of an entry. 
+   * 
+   * Values are removed again after the current transaction completes so that values read by concurrent requests 
+   * before the commit do not remain in the cache
+   * 
+   * @param entry entry
+   */
+  private void invalidateCachedValues(LocalizedEntry entry) {
+    UUID entryId = entry.getId();
+    removeCachedValues(entryId);
+
+    if (transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+
+        @Override
+        public void beforeCompletion() {
+          // Nothing to do before completion
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          removeCachedValues(entryId);
+        }
+
+      });
+    }
+  }
+
+  /**
+   * Increments version of an entry and removes its values from the cache
+   * 
+   * @param entryId entry id
+   */
+  private void removeCachedValues(UUID entryId) {
+    versions.incrementAndGet(getVersionIndex(entryId));
+    valueCache.invalidate(entryId);
+  }
+
+  /**
+   * Returns index of the version of an entry. Entries share versions when their ids collide
+   * 
+   * @param entryId entry id
+   * @return version index
+   */
+  private int getVersionIndex(UUID entryId) {
+    return Math.floorMod(entryId.hashCode(), VERSION_COUNT);
+  }
+
 }
@@ -6,10 +6,12 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.PackageSizeDAO;
 import fi.metatavu.famifarm.persistence.dao.ProductPackageSizeDAO;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.PackageSize;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
@@ -26,6 +28,12 @@ public class PackageSizeController {
   @Inject
   private PackageSizeDAO packageSizeDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
   /**
    * Creates new package size
    * 
@@ -36,7 +44,8 @@ public class PackageSizeController {
    * @return created package size
    */
   public PackageSize createPackageSize(LocalizedEntry name, Integer size, Facility facility, UUID userId) {
-    return packageSizeDAO.create(UUID.randomUUID(), name, size, facility, userId, userId);
+    reportWatermarkController.bumpWatermark(facility);
+    return packageSizeDAO.create(idController.generateId(), name, size, facility, userId, userId);
   }
 
   /**
@@ -73,6 +82,7 @@ public class PackageSizeController {
   public PackageSize updatePackageSize(PackageSize packageSize, LocalizedEntry name, Integer size, UUID lastModifierId) {
     packageSizeDAO.updateName(packageSize, name, lastModifierId);
     packageSizeDAO.updateSize(packageSize, size, lastModifierId);
+    reportWatermarkController.bumpWatermark(packageSize.getFacility());
     return packageSize;
   }
 
@@ -86,6 +96,7 @@ public class PackageSizeController {
             productPackageSize -> productPackageSizeDAO.delete(productPackageSize)
     );
     packageSizeDAO.delete(packageSize);
+    reportWatermarkController.bumpWatermark(packageSize.getFacility());
   }
 
 }
@@ -1,12 +1,15 @@
 package fi.metatavu.famifarm.packings;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.CutPackingDAO;
+import fi.metatavu.famifarm.persistence.dao.ListCursor;
 import fi.metatavu.famifarm.persistence.dao.ProductDAO;
 import fi.metatavu.famifarm.persistence.dao.ProductionLineDAO;
 import fi.metatavu.famifarm.persistence.model.CutPacking;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.ProductionLine;
 import fi.metatavu.famifarm.rest.model.Facility;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -25,6 +28,12 @@ public class CutPackingController {
     @Inject
     private ProductionLineDAO productionLineDAO;
 
+    @Inject
+    private ReportWatermarkController reportWatermarkController;
+
+    @Inject
+    private IdController idController;
+
     /**
      * Creates
      *
@@ -74,7 +83,8 @@ public class CutPackingController {
             throw new CutPackingInvalidParametersException(String.format("Production line with id %s doesn't belong to facility %s", productionLineId, facility));
         }
 
-        return cutPackingDAO.create(UUID.randomUUID(), product, productionLine, weight, sowingDay, cuttingDay, producer, contactInformation, gutterCount, gutterHoleCount, storageCondition, creatorId);
+        reportWatermarkController.bumpWatermark(facility);
+        return cutPackingDAO.create(idController.generateId(), product, productionLine, weight, sowingDay, cuttingDay, producer, contactInformation, gutterCount, gutterHoleCount, storageCondition, creatorId);
     }
 
     /**
@@ -122,18 +132,19 @@ public class CutPackingController {
             throw new CutPackingInvalidParametersException(String.format("Production line with id %s not found!", productionLineId));
         }
 
-        cutPackingDAO.updateProduct(cutPacking, product, modifierId);
-        cutPackingDAO.updateProductionLine(cutPacking, productionLine, modifierId);
-        cutPackingDAO.updateWeight(cutPacking, weight, modifierId);
-        cutPackingDAO.updateSowingDay(cutPacking, sowingDay, modifierId);
-        cutPackingDAO.updateCuttingDay(cutPacking, cuttingDay, modifierId);
-        cutPackingDAO.updateProducer(cutPacking, producer, modifierId);
-        cutPackingDAO.updateContactInformation(cutPacking, contactInformation, modifierId);
-        cutPackingDAO.updateGutterCount(cutPacking, gutterCount, modifierId);
-        cutPackingDAO.updateGutterHoleCount(cutPacking, gutterHoleCount, modifierId);
-        cutPackingDAO.updateStorageCondition(cutPacking, storageCondition, modifierId);
-
-        return cutPacking;
+        reportWatermarkController.bumpWatermark(facility);
+        return cutPackingDAO.patch(cutPacking, modifierId, changed -> {
+            changed.setProduct(product);
+            changed.setProductionLine(productionLine);
+            changed.setWeight(weight);
+            changed.setSowingDay(sowingDay);
+            changed.setCuttingDay(cuttingDay);
+            changed.setProducer(producer);
+            changed.setContactInformation(contactInformation);
+            changed.setGutterCount(gutterCount);
+            changed.setGutterHoleCount(gutterHoleCount);
+            changed.setStorageCondition(storageCondition);
+        });
     }
 
     /**
@@ -157,10 +168,11 @@ public class CutPackingController {
      * @param productionLine return only packings belonging to this production line
      * @param createdBefore  return only packing created after this date
      * @param createdAfter   return only packing created before this date
+     * @param after          return only packings after this cursor
      * @return cut packings
      */
-    public List<CutPacking> list(Facility facility, Integer firstResult, Integer maxResults, Product product, ProductionLine productionLine, OffsetDateTime createdBefore, OffsetDateTime createdAfter) {
-        return cutPackingDAO.list(facility, firstResult, maxResults, product, productionLine, createdBefore, createdAfter);
+    public List<CutPacking> list(Facility facility, Integer firstResult, Integer maxResults, Product product, ProductionLine productionLine, OffsetDateTime createdBefore, OffsetDateTime createdAfter, ListCursor after) {
+        return cutPackingDAO.list(facility, firstResult, maxResults, product, productionLine, createdBefore, createdAfter, after);
     }
 
     /**
@@ -169,6 +181,7 @@ public class CutPackingController {
      * @param cutPacking cut packing to delete
      */
     public void delete(CutPacking cutPacking) {
+        reportWatermarkController.bumpWatermark(cutPacking.getProduct().getFacility());
         cutPackingDAO.delete(cutPacking);
     }
 }
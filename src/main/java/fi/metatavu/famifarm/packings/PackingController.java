@@ -1,5 +1,7 @@
 package fi.metatavu.famifarm.packings;
 
+import fi.metatavu.famifarm.ids.IdController;
+import fi.metatavu.famifarm.persistence.dao.ListCursor;
 import fi.metatavu.famifarm.persistence.dao.PackingBasketDAO;
 import fi.metatavu.famifarm.persistence.dao.PackingDAO;
 import fi.metatavu.famifarm.persistence.dao.PackingVerificationWeightingDAO;
@@ -7,10 +9,16 @@ import fi.metatavu.famifarm.persistence.model.*;
 import fi.metatavu.famifarm.rest.model.Facility;
 import fi.metatavu.famifarm.rest.model.PackingState;
 import fi.metatavu.famifarm.rest.model.PackingType;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,6 +40,12 @@ public class PackingController {
   @Inject
   PackingVerificationWeightingDAO packingVerificationWeightingDAO;
 
+  @Inject
+  ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  IdController idController;
+
   /**
    * Creates a new packing
    *
@@ -57,11 +71,12 @@ public class PackingController {
     Campaign campaign,
     PackingType type
   ) {
+    reportWatermarkController.bumpWatermark(facility);
     Packing createdPacking = packingDAO.create(
       creatorId,
       facility,
       product,
-      UUID.randomUUID(),
+      idController.generateId(),
       packageSize,
       packingBody.getPackedCount(),
       packingBody.getState(),
@@ -75,17 +90,11 @@ public class PackingController {
     );
 
     if (packingBaskets != null) {
-      for (PackingBasket packingBasket : packingBaskets) {
-        packingBasket.setPacking(createdPacking);
-        packingBasketDAO.persist(packingBasket);
-      }
+      packingBaskets.forEach(packingBasket -> packingBasket.setPacking(createdPacking));
+      packingBasketDAO.persistAll(packingBaskets);
     }
 
-    if (packingBody.getVerificationWeightings() != null) {
-      for (fi.metatavu.famifarm.rest.model.PackingVerificationWeighing packingVerificationWeighing : packingBody.getVerificationWeightings()) {
-        packingVerificationWeightingDAO.create(UUID.randomUUID(), createdPacking, packingVerificationWeighing.getWeight(), packingVerificationWeighing.getTime());
-      }
-    }
+    packingVerificationWeightingDAO.persistAll(buildVerificationWeightings(createdPacking, packingBody.getVerificationWeightings()));
     return createdPacking;
   }
 
@@ -113,7 +122,25 @@ public class PackingController {
    * @return packings
    */
   public List<Packing> listPackings(Integer firstResult, Integer maxResults, Facility facility, Product product, Campaign campaign, PackingState state, OffsetDateTime createdBefore, OffsetDateTime createdAfter) {
-    return packingDAO.list(firstResult, maxResults, facility, product, campaign, state, createdBefore, createdAfter);
+    return listPackings(firstResult, maxResults, facility, product, campaign, state, createdBefore, createdAfter, null);
+  }
+
+  /**
+   * Return list of packings continuing after given cursor
+   *
+   * @param firstResult
+   * @param maxResults
+   * @param facility      non nullable facility
+   * @param product
+   * @param campaign
+   * @param state
+   * @param createdBefore
+   * @param createdAfter
+   * @param after         return only packings after this cursor
+   * @return packings
+   */
+  public List<Packing> listPackings(Integer firstResult, Integer maxResults, Facility facility, Product product, Campaign campaign, PackingState state, OffsetDateTime createdBefore, OffsetDateTime createdAfter, ListCursor after) {
+    return packingDAO.list(firstResult, maxResults, facility, product, campaign, state, createdBefore, createdAfter, after);
   }
 
   /**
@@ -137,37 +164,26 @@ public class PackingController {
     Campaign campaign,
     UUID modifier
   ) {
-    packingDAO.updatePackageSize(packing, packageSize, modifier);
-    packingDAO.updatePackedCount(packing, packingBody.getPackedCount(), modifier);
-    packingDAO.updatePackingState(packing, packingBody.getState(), modifier);
-    packingDAO.updateProduct(packing, product, modifier);
-    packingDAO.updateTime(packing, packingBody.getTime(), modifier);
-    packingDAO.updateCampaign(packing, campaign, modifier);
-    packingDAO.updateType(packing, packingBody.getType(), modifier);
-    packingDAO.updatePackagingFilmBatch(packing, packagingFilmBatch, modifier);
-    packingDAO.updateStartTime(packing, packingBody.getStartTime(), modifier);
-    packingDAO.updateEndTime(packing, packingBody.getEndTime(), modifier);
-    packingDAO.updateAdditionalInformation(packing, packingBody.getAdditionalInformation(), modifier);
-
-    List<PackingBasket> existingBaskets = packingBasketDAO.listByPacking(packing);
-    for (PackingBasket existingBasket : existingBaskets) {
-      packingBasketDAO.delete(existingBasket);
-    }
-    if (validPackingBaskets != null) {
-      for (PackingBasket packingBasket : validPackingBaskets) {
-        packingBasketDAO.persist(packingBasket);
-      }
-    }
-
-    List<PackingVerificationWeighting> existingVerificationWeightings = packingVerificationWeightingDAO.listByPacking(packing);
-    for (PackingVerificationWeighting existingVerificationWeighing : existingVerificationWeightings) {
-      packingVerificationWeightingDAO.delete(existingVerificationWeighing);
-    }
-    if (packingBody.getVerificationWeightings() != null) {
-      for (fi.metatavu.famifarm.rest.model.PackingVerificationWeighing packingVerificationWeighing : packingBody.getVerificationWeightings()) {
-        packingVerificationWeightingDAO.create(UUID.randomUUID(), packing, packingVerificationWeighing.getWeight(), packingVerificationWeighing.getTime());
-      }
-    }
+    reportWatermarkController.bumpWatermark(packing.getFacility());
+    packingDAO.patch(packing, modifier, changed -> {
+      changed.setPackageSize(packageSize);
+      changed.setPackedCount(packingBody.getPackedCount());
+      changed.setPackingState(packingBody.getState());
+      changed.setProduct(product);
+      changed.setTime(packingBody.getTime());
+      changed.setCampaign(campaign);
+      changed.setType(packingBody.getType());
+      changed.setPackagingFilmBatch(packagingFilmBatch);
+      changed.setStartTime(packingBody.getStartTime());
+      changed.setEndTime(packingBody.getEndTime());
+      changed.setAdditionalInformation(packingBody.getAdditionalInformation());
+    });
+
+    List<PackingBasket> packingBaskets = validPackingBaskets != null ? validPackingBaskets : Collections.emptyList();
+    packingBasketDAO.synchronize(packingBasketDAO.listByPacking(packing), packingBaskets, PackingController::getPackingBasketKey);
+
+    List<PackingVerificationWeighting> verificationWeightings = buildVerificationWeightings(packing, packingBody.getVerificationWeightings());
+    packingVerificationWeightingDAO.synchronize(packingVerificationWeightingDAO.listByPacking(packing), verificationWeightings, PackingController::getVerificationWeightingKey);
 
     return packing;
   }
@@ -178,14 +194,57 @@ public class PackingController {
    * @param packing to be deleted
    */
   public void deletePacking(Packing packing) {
-    List<PackingBasket> packingBaskets = packingBasketDAO.listByPacking(packing);
-    for (PackingBasket packingBasket : packingBaskets) {
-      packingBasketDAO.delete(packingBasket);
+    reportWatermarkController.bumpWatermark(packing.getFacility());
+    packingBasketDAO.deleteAll(packingBasketDAO.listByPacking(packing));
+    packingVerificationWeightingDAO.deleteAll(packingVerificationWeightingDAO.listByPacking(packing));
+    packingDAO.delete(packing);
+  }
+
+  /**
+   * Builds verification weighting entities from REST verification weighings
+   *
+   * @param packing packing
+   * @param packingVerificationWeighings REST verification weighings or null
+   * @return verification weighting entities that are not yet persisted
+   */
+  private List<PackingVerificationWeighting> buildVerificationWeightings(Packing packing, List<fi.metatavu.famifarm.rest.model.PackingVerificationWeighing> packingVerificationWeighings) {
+    List<PackingVerificationWeighting> verificationWeightings = new ArrayList<>();
+    if (packingVerificationWeighings == null) {
+      return verificationWeightings;
     }
-    List<PackingVerificationWeighting> packingVerificationWeightings = packingVerificationWeightingDAO.listByPacking(packing);
-    for (PackingVerificationWeighting packingVerificationWeighting : packingVerificationWeightings) {
-      packingVerificationWeightingDAO.delete(packingVerificationWeighting);
+
+    for (fi.metatavu.famifarm.rest.model.PackingVerificationWeighing packingVerificationWeighing : packingVerificationWeighings) {
+      PackingVerificationWeighting verificationWeighting = new PackingVerificationWeighting();
+      verificationWeighting.setId(idController.generateId());
+      verificationWeighting.setPacking(packing);
+      verificationWeighting.setWeight(packingVerificationWeighing.getWeight());
+      verificationWeighting.setTime(packingVerificationWeighing.getTime());
+      verificationWeightings.add(verificationWeighting);
     }
-    packingDAO.delete(packing);
+
+    return verificationWeightings;
+  }
+
+  /**
+   * Returns content key of a packing basket
+   *
+   * @param packingBasket packing basket
+   * @return content key
+   */
+  private static List<Object> getPackingBasketKey(PackingBasket packingBasket) {
+    UUID productId = packingBasket.getProduct() != null ? packingBasket.getProduct().getId() : null;
+    return Arrays.asList(productId, packingBasket.getCount());
+  }
+
+  /**
+   * Returns content key of a verification weighting. Time is compared as an instant with the precision of the database column.
+   *
+   * @param verificationWeighting verification weighting
+   * @return content key
+   */
+  private static List<Object> getVerificationWeightingKey(PackingVerificationWeighting verificationWeighting) {
+    OffsetDateTime time = verificationWeighting.getTime();
+    Instant instant = time != null ? time.toInstant().truncatedTo(ChronoUnit.MICROS) : null;
+    return Arrays.asList(verificationWeighting.getWeight(), instant);
   }
 }
@@ -6,10 +6,12 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.dao.PerformedCultivationActionDAO;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.PerformedCultivationAction;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
@@ -25,6 +27,12 @@ public class PerformedCultivationActionsController {
   
   @Inject
   private PerformedCultivationActionDAO performedCultivationActionDAO;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Creates new performed cultivation action
@@ -35,7 +43,7 @@ public class PerformedCultivationActionsController {
    * @return created performed cultivation action
    */
   public PerformedCultivationAction createPerformedCultivationAction(LocalizedEntry name, Facility facility, UUID creatorId) {
-    return performedCultivationActionDAO.create(UUID.randomUUID(), name, facility, creatorId, creatorId);
+    return performedCultivationActionDAO.create(idController.generateId(), name, facility, creatorId, creatorId);
   }
 
   /**
@@ -69,6 +77,7 @@ public class PerformedCultivationActionsController {
    */
   public PerformedCultivationAction updatePerformedCultivationAction(PerformedCultivationAction performedCultivationAction, LocalizedEntry name, UUID lastModifierId) {
     performedCultivationActionDAO.updateName(performedCultivationAction, name, lastModifierId);
+    reportWatermarkController.bumpWatermark(performedCultivationAction.getFacility());
     return performedCultivationAction;
   }
 
@@ -80,6 +89,7 @@ public class PerformedCultivationActionsController {
   public void deletePerformedCultivationAction(PerformedCultivationAction performedCultivationAction) {
     LocalizedEntry name = performedCultivationAction.getName();
     performedCultivationActionDAO.delete(performedCultivationAction);
+    reportWatermarkController.bumpWatermark(performedCultivationAction.getFacility());
     localizedValueController.deleteEntry(name);
   }
   
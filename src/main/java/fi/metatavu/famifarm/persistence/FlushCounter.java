@@ -0,0 +1,47 @@
+package fi.metatavu.famifarm.persistence;
+
+import javax.enterprise.context.RequestScoped;
+
+/**
+ * Request scoped counter for persistence context flushes and prepared SQL statements
+ */
+@RequestScoped
+public class FlushCounter {
+
+  private int count;
+
+  private int statementCount;
+
+  /**
+   * Increments flush count
+   */
+  public void increment() {
+    count++;
+  }
+
+  /**
+   * Increments prepared statement count
+   */
+  public void incrementStatements() {
+    statementCount++;
+  }
+
+  /**
+   * Returns number of flushes done during the request
+   *
+   * @return flush count
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns number of SQL statements prepared during the request. Batched statements are prepared once per batch
+   *
+   * @return statement count
+   */
+  public int getStatementCount() {
+    return statementCount;
+  }
+
+}
@@ -0,0 +1,44 @@
+package fi.metatavu.famifarm.persistence;
+
+import java.util.Iterator;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.hibernate.EmptyInterceptor;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+
+/**
+ * Hibernate interceptor that counts persistence context flushes and prepared SQL statements of the current request.
+ *
+ * Hibernate calls onPrepareStatement for every statement it prepares when no statement inspector is configured
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class FlushCountingInterceptor extends EmptyInterceptor {
+
+  private static final long serialVersionUID = 1L;
+
+  @Inject
+  FlushCounter flushCounter;
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public void preFlush(Iterator entities) {
+    if (Arc.container().requestContext().isActive()) {
+      flushCounter.increment();
+    }
+  }
+
+  @Override
+  public String onPrepareStatement(String sql) {
+    if (Arc.container().requestContext().isActive()) {
+      flushCounter.incrementStatements();
+    }
+
+    return sql;
+  }
+
+}
@@ -2,18 +2,31 @@ package fi.metatavu.famifarm.persistence.dao;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 
 import org.slf4j.Logger;
 
+import fi.metatavu.famifarm.ids.IdController;
+import fi.metatavu.famifarm.persistence.model.ModifiableEntity;
+
 /**
  * Abstract base class for all DAO classes
  * 
@@ -27,6 +40,9 @@ public abstract class AbstractDAO<T> {
   @Inject
   private Logger logger;
   
+  @Inject
+  private IdController idController;
+
   @PersistenceContext
   private EntityManager entityManager;
   
@@ -142,6 +158,61 @@ public abstract class AbstractDAO<T> {
     flush();
   }
 
+  /**
+   * Deletes entities with a single bulk delete statement. Deleted entities are detached from the persistence context.
+   * 
+   * @param entities entities to delete
+   */
+  public void deleteAll(Collection<T> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    EntityManager entityManager = getEntityManager();
+    PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+    List<Object> ids = entities.stream().map(persistenceUnitUtil::getIdentifier).collect(Collectors.toList());
+    entities.forEach(entityManager::detach);
+
+    Query query = entityManager.createQuery("delete from " + getGenericTypeClass().getName() + " o where o.id in :ids");
+    query.setParameter("ids", ids);
+    query.executeUpdate();
+  }
+
+  /**
+   * Synchronizes stored child rows with incoming rows.
+   * 
+   * Rows are matched by their content key. Stored rows without a matching incoming row are removed with a bulk delete
+   * and incoming rows without a matching stored row are persisted. Unchanged rows are left untouched and the 
+   * persistence context is flushed only when something changed.
+   * 
+   * @param existing stored rows
+   * @param incoming incoming rows that are not yet persisted
+   * @param keyExtractor function that returns content key of a row
+   */
+  public void synchronize(Collection<T> existing, Collection<T> incoming, Function<T, ?> keyExtractor) {
+    Map<Object, Deque<T>> storedRows = new HashMap<>();
+    for (T row : existing) {
+      storedRows.computeIfAbsent(keyExtractor.apply(row), key -> new ArrayDeque<>()).add(row);
+    }
+
+    List<T> createdRows = new ArrayList<>();
+    for (T row : incoming) {
+      Deque<T> matchingRows = storedRows.get(keyExtractor.apply(row));
+      if (matchingRows == null || matchingRows.poll() == null) {
+        createdRows.add(row);
+      }
+    }
+
+    List<T> removedRows = storedRows.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+    if (removedRows.isEmpty() && createdRows.isEmpty()) {
+      return;
+    }
+
+    deleteAll(removedRows);
+    persistAll(createdRows);
+    flush();
+  }
+
   /**
    * Flushes persistence context state
    */
@@ -175,6 +246,46 @@ public abstract class AbstractDAO<T> {
     return object;
   }
 
+  /**
+   * Applies a set of field changes and the modifier to a managed entity in one operation.
+   * 
+   * The entity is not persisted again; the persistence context tracks the changes and writes them 
+   * with a single UPDATE statement when the transaction is flushed.
+   * 
+   * @param entity managed entity
+   * @param lastModifierId modifier id or null when entity does not track its modifier
+   * @param changes field changes
+   * @return patched entity
+   */
+  public T patch(T entity, UUID lastModifierId, Consumer<T> changes) {
+    changes.accept(entity);
+
+    if (lastModifierId != null) {
+      if (!(entity instanceof ModifiableEntity)) {
+        throw new IllegalArgumentException(String.format("%s does not track modifiers", getGenericTypeClass().getName()));
+      }
+
+      ((ModifiableEntity) entity).setLastModifierId(lastModifierId);
+    }
+
+    return entity;
+  }
+
+  /**
+   * Persists a collection of entities.
+   * 
+   * Inserts are queued in the persistence context and sent to the database in ordered JDBC batches 
+   * when the persistence context is flushed.
+   * 
+   * @param entities entities to be persisted
+   * @return persisted entities
+   */
+  public List<T> persistAll(Collection<T> entities) {
+    EntityManager entityManager = getEntityManager();
+    entities.forEach(entityManager::persist);
+    return new ArrayList<>(entities);
+  }
+
   /**
    * Returns single result entity or null if result is empty
    * 
@@ -212,6 +323,15 @@ public abstract class AbstractDAO<T> {
     return null;
   }
 
+  /**
+   * Generates id for a new entity
+   *
+   * @return generated id
+   */
+  protected UUID generateId() {
+    return idController.generateId();
+  }
+
   protected EntityManager getEntityManager() {
     return entityManager;
   }
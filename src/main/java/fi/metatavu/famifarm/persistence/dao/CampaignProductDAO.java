@@ -8,8 +8,12 @@ import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * A DAO class for campaign products
@@ -28,15 +32,22 @@ public class CampaignProductDAO extends AbstractDAO<CampaignProduct> {
    * @return created campaign product
    */
   public CampaignProduct create (UUID id, int count, Product product, Campaign campaign, UUID creatorId) {
-    CampaignProduct campaignProduct = new CampaignProduct();
-    campaignProduct.setId(id);
-    campaignProduct.setCount(count);
-    campaignProduct.setProduct(product);
-    campaignProduct.setCampaign(campaign);
-    campaignProduct.setCreatorId(creatorId);
-    campaignProduct.setLastModifierId(creatorId);
+    return persist(build(id, count, product, campaign, creatorId));
+  }
 
-    return persist(campaignProduct);
+  /**
+   * Adds campaign products to the database in a single batch
+   *
+   * @param productCounts amounts of products
+   * @param campaign campaign
+   * @param creatorId user id of the creator of the campaign products
+   *
+   * @return created campaign products
+   */
+  public List<CampaignProduct> createAll (Map<Product, Integer> productCounts, Campaign campaign, UUID creatorId) {
+    return persistAll(productCounts.entrySet().stream()
+      .map(productCount -> build(generateId(), productCount.getValue(), productCount.getKey(), campaign, creatorId))
+      .collect(Collectors.toList()));
   }
 
   /**
@@ -60,6 +71,31 @@ public class CampaignProductDAO extends AbstractDAO<CampaignProduct> {
     return query.getResultList();
   }
 
+  /**
+   * Lists campaign products belonging to any of specified campaigns
+   *
+   * @param campaigns campaigns to filter by
+   *
+   * @return campaign products belonging to specified campaigns
+   */
+  public List<CampaignProduct> listByCampaigns(Collection<Campaign> campaigns) {
+    if (campaigns.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<CampaignProduct> criteria = criteriaBuilder.createQuery(CampaignProduct.class);
+    Root<CampaignProduct> root = criteria.from(CampaignProduct.class);
+    criteria.select(root);
+    criteria.where(root.get(CampaignProduct_.campaign).in(campaigns));
+
+    TypedQuery<CampaignProduct> query = entityManager.createQuery(criteria);
+
+    return query.getResultList();
+  }
+
   /**
    * Lists campaign products belonging to a specified product
    *
@@ -80,4 +116,27 @@ public class CampaignProductDAO extends AbstractDAO<CampaignProduct> {
 
     return query.getResultList();
   }
+
+  /**
+   * Builds a campaign product entity
+   *
+   * @param id an unique UUID for separation
+   * @param count amount of products
+   * @param product product
+   * @param campaign campaign
+   * @param creatorId user id of the creator of this campaign
+   *
+   * @return built campaign product
+   */
+  private CampaignProduct build (UUID id, int count, Product product, Campaign campaign, UUID creatorId) {
+    CampaignProduct campaignProduct = new CampaignProduct();
+    campaignProduct.setId(id);
+    campaignProduct.setCount(count);
+    campaignProduct.setProduct(product);
+    campaignProduct.setCampaign(campaign);
+    campaignProduct.setCreatorId(creatorId);
+    campaignProduct.setLastModifierId(creatorId);
+
+    return campaignProduct;
+  }
 }
@@ -1,7 +1,9 @@
 package fi.metatavu.famifarm.persistence.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.persistence.EntityManager;
@@ -37,11 +39,18 @@ public class CultivationObservationEventActionDAO extends AbstractDAO<Cultivatio
    * @param lastModifier modifier
    */
   public CultivationObservationEventAction create(UUID id, CultivationObservationEvent event, PerformedCultivationAction action) {
-    CultivationObservationEventAction cultivationActionEventAction = new CultivationObservationEventAction();
-    cultivationActionEventAction.setEvent(event);
-    cultivationActionEventAction.setAction(action);
-    cultivationActionEventAction.setId(id);
-    return persist(cultivationActionEventAction);
+    return persist(build(id, event, action));
+  }
+
+  /**
+   * Creates new cultivationActionEventActions for given actions in a single batch
+   *
+   * @param event event
+   * @param actions actions
+   * @return created cultivationActionEventActions
+   */
+  public List<CultivationObservationEventAction> createAll(CultivationObservationEvent event, Collection<PerformedCultivationAction> actions) {
+    return persistAll(actions.stream().map(action -> build(generateId(), event, action)).collect(Collectors.toList()));
   }
 
   /**
@@ -79,6 +88,24 @@ public class CultivationObservationEventActionDAO extends AbstractDAO<Cultivatio
     return entityManager.createQuery(criteria).getResultList();
   }
 
+  /**
+   * Lists actions of given events with a single query
+   * 
+   * @param events events
+   * @return actions
+   */
+  public List<CultivationObservationEventAction> listByEvents(Collection<CultivationObservationEvent> events) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<CultivationObservationEventAction> criteria = criteriaBuilder.createQuery(CultivationObservationEventAction.class);
+    Root<CultivationObservationEventAction> root = criteria.from(CultivationObservationEventAction.class);
+    criteria.select(root);
+    criteria.where(root.get(CultivationObservationEventAction_.event).in(events));
+    
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
   /**
    * Lists pest ids by event
    * 
@@ -118,4 +145,20 @@ public class CultivationObservationEventActionDAO extends AbstractDAO<Cultivatio
     return persist(cultivationActionEventAction);
   }
 
+  /**
+   * Builds new cultivationActionEventAction entity
+   *
+   * @param id id
+   * @param event event
+   * @param action action
+   * @return built entity
+   */
+  private CultivationObservationEventAction build(UUID id, CultivationObservationEvent event, PerformedCultivationAction action) {
+    CultivationObservationEventAction cultivationActionEventAction = new CultivationObservationEventAction();
+    cultivationActionEventAction.setEvent(event);
+    cultivationActionEventAction.setAction(action);
+    cultivationActionEventAction.setId(id);
+    return cultivationActionEventAction;
+  }
+
 }
@@ -46,31 +46,4 @@ public class CultivationObservationEventDAO extends AbstractEventDAO<Cultivation
     cultivationActionEvent.setAdditionalInformation(additionalInformation);
     return persist(cultivationActionEvent);
   }
-
-  /**
-   * Updates weight
-   *
-   * @param weight weight
-   * @param lastModifier modifier
-   * @return updated cultivationActionEvent
-   */
-  public CultivationObservationEvent updateWeight(CultivationObservationEvent cultivationActionEvent, Double weight, UUID lastModifierId) {
-    cultivationActionEvent.setLastModifierId(lastModifierId);
-    cultivationActionEvent.setWeight(weight);
-    return persist(cultivationActionEvent);
-  }
-
-  /**
-   * Updates luminance
-   *
-   * @param luminance luminance
-   * @param lastModifier modifier
-   * @return updated cultivationActionEvent
-   */
-  public CultivationObservationEvent updateLuminance(CultivationObservationEvent cultivationActionEvent, Double luminance, UUID lastModifierId) {
-    cultivationActionEvent.setLastModifierId(lastModifierId);
-    cultivationActionEvent.setLuminance(luminance);
-    return persist(cultivationActionEvent);
-  }
-
 }
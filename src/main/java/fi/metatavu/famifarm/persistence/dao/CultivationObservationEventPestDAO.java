@@ -1,7 +1,9 @@
 package fi.metatavu.famifarm.persistence.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.persistence.EntityManager;
@@ -37,11 +39,18 @@ public class CultivationObservationEventPestDAO extends AbstractDAO<CultivationO
    * @param lastModifier modifier
    */
   public CultivationObservationEventPest create(UUID id, CultivationObservationEvent event, Pest pest) {
-    CultivationObservationEventPest cultivationPestEventPest = new CultivationObservationEventPest();
-    cultivationPestEventPest.setEvent(event);
-    cultivationPestEventPest.setPest(pest);
-    cultivationPestEventPest.setId(id);
-    return persist(cultivationPestEventPest);
+    return persist(build(id, event, pest));
+  }
+
+  /**
+   * Creates new cultivationPestEventPests for given pests in a single batch
+   *
+   * @param event event
+   * @param pests pests
+   * @return created cultivationPestEventPests
+   */
+  public List<CultivationObservationEventPest> createAll(CultivationObservationEvent event, Collection<Pest> pests) {
+    return persistAll(pests.stream().map(pest -> build(generateId(), event, pest)).collect(Collectors.toList()));
   }
 
   /**
@@ -79,6 +88,24 @@ public class CultivationObservationEventPestDAO extends AbstractDAO<CultivationO
     return entityManager.createQuery(criteria).getResultList();
   }
 
+  /**
+   * Lists pests of given events with a single query
+   * 
+   * @param events events
+   * @return pests
+   */
+  public List<CultivationObservationEventPest> listByEvents(Collection<CultivationObservationEvent> events) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<CultivationObservationEventPest> criteria = criteriaBuilder.createQuery(CultivationObservationEventPest.class);
+    Root<CultivationObservationEventPest> root = criteria.from(CultivationObservationEventPest.class);
+    criteria.select(root);
+    criteria.where(root.get(CultivationObservationEventPest_.event).in(events));
+    
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
   /**
    * Lists pest ids by event
    * 
@@ -118,4 +145,20 @@ public class CultivationObservationEventPestDAO extends AbstractDAO<CultivationO
     return persist(cultivationPestEventPest);
   }
 
+  /**
+   * Builds new cultivationPestEventPest entity
+   *
+   * @param id id
+   * @param event event
+   * @param pest pest
+   * @return built entity
+   */
+  private CultivationObservationEventPest build(UUID id, CultivationObservationEvent event, Pest pest) {
+    CultivationObservationEventPest cultivationPestEventPest = new CultivationObservationEventPest();
+    cultivationPestEventPest.setEvent(event);
+    cultivationPestEventPest.setPest(pest);
+    cultivationPestEventPest.setId(id);
+    return cultivationPestEventPest;
+  }
+
 }
@@ -65,166 +65,6 @@ public class CutPackingDAO extends AbstractDAO<CutPacking> {
         return persist(cutPacking);
     }
 
-    /**
-     * Updates a cut packing product
-     *
-     * @param cutPacking a cut packing to update
-     * @param product a new product
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateProduct(CutPacking cutPacking, Product product, UUID modifierId) {
-        cutPacking.setProduct(product);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing production line
-     *
-     * @param cutPacking a cut packing to update
-     * @param productionLine a new production line
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateProductionLine(CutPacking cutPacking, ProductionLine productionLine, UUID modifierId) {
-        cutPacking.setProductionLine(productionLine);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing weight
-     *
-     * @param cutPacking a cut packing to update
-     * @param weight a new weight
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateWeight(CutPacking cutPacking, double weight, UUID modifierId) {
-        cutPacking.setWeight(weight);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing sowing day
-     *
-     * @param cutPacking a cut packing to update
-     * @param sowingDay a new sowing day
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateSowingDay(CutPacking cutPacking, OffsetDateTime sowingDay, UUID modifierId) {
-        cutPacking.setSowingDay(sowingDay);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing cutting day
-     *
-     * @param cutPacking a cut packing to update
-     * @param cuttingDay a new cutting day
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateCuttingDay(CutPacking cutPacking, OffsetDateTime cuttingDay, UUID modifierId) {
-        cutPacking.setCuttingDay(cuttingDay);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing producer
-     *
-     * @param cutPacking a cut packing to update
-     * @param producer a new producer
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateProducer(CutPacking cutPacking, String producer, UUID modifierId) {
-        cutPacking.setProducer(producer);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing contact information
-     *
-     * @param cutPacking a cut packing to update
-     * @param contactInformation a new contact information
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateContactInformation(CutPacking cutPacking, String contactInformation, UUID modifierId) {
-        cutPacking.setContactInformation(contactInformation);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing gutter count
-     *
-     * @param cutPacking a cut packing to update
-     * @param gutterCount a new gutter count
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateGutterCount(CutPacking cutPacking, int gutterCount, UUID modifierId) {
-        cutPacking.setGutterCount(gutterCount);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing gutter hole count
-     *
-     * @param cutPacking a cut packing to update
-     * @param gutterHoleCount a new gutter hole count
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateGutterHoleCount(CutPacking cutPacking, int gutterHoleCount, UUID modifierId) {
-        cutPacking.setGutterHoleCount(gutterHoleCount);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
-    /**
-     * Updates a cut packing storage condition
-     *
-     * @param cutPacking a cut packing to update
-     * @param storageCondition a new storage condition
-     * @param modifierId the id of the user who is modifying this cut packing
-     *
-     * @return updated cut packing
-     */
-    public CutPacking updateStorageCondition(CutPacking cutPacking, String storageCondition, UUID modifierId) {
-        cutPacking.setStorageCondition(storageCondition);
-        cutPacking.setLastModifierId(modifierId);
-
-        return persist(cutPacking);
-    }
-
     /**
      * Lists cut packings
      *
@@ -235,9 +75,10 @@ public class CutPackingDAO extends AbstractDAO<CutPacking> {
      * @param productionLine return only packings belonging to this production line
      * @param createdBefore  return only packing created after this date
      * @param createdAfter   return only packing created before this date
+     * @param after          return only packings after this cursor
      * @return cut packings
      */
-    public List<CutPacking> list(Facility facility, Integer firstResult, Integer maxResults, Product product, ProductionLine productionLine, OffsetDateTime createdBefore, OffsetDateTime createdAfter) {
+    public List<CutPacking> list(Facility facility, Integer firstResult, Integer maxResults, Product product, ProductionLine productionLine, OffsetDateTime createdBefore, OffsetDateTime createdAfter, ListCursor after) {
         EntityManager entityManager = getEntityManager();
 
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
@@ -245,11 +86,12 @@ public class CutPackingDAO extends AbstractDAO<CutPacking> {
         Root<CutPacking> root = criteria.from(CutPacking.class);
 
         criteria.select(root);
+        root.fetch(CutPacking_.product, JoinType.LEFT);
+        root.fetch(CutPacking_.productionLine, JoinType.LEFT);
 
         List<Predicate> restrictions = new ArrayList<>();
 
         if (facility != null) {
-            root.fetch(CutPacking_.product, JoinType.LEFT);
             restrictions.add(criteriaBuilder.equal(root.get(CutPacking_.product).get(Product_.facility), facility));
         }
 
@@ -269,8 +111,12 @@ public class CutPackingDAO extends AbstractDAO<CutPacking> {
             restrictions.add(criteriaBuilder.greaterThanOrEqualTo(root.get(CutPacking_.createdAt), createdAfter));
         }
 
+        if (after != null) {
+            restrictions.add(after.toRestriction(criteriaBuilder, root.get(CutPacking_.createdAt), root.get(CutPacking_.id)));
+        }
+
         criteria.where(criteriaBuilder.and(restrictions.toArray(new Predicate[0])));
-        criteria.orderBy(criteriaBuilder.desc(root.get(CutPacking_.createdAt)));
+        criteria.orderBy(criteriaBuilder.desc(root.get(CutPacking_.createdAt)), criteriaBuilder.desc(root.get(CutPacking_.id)));
 
         TypedQuery<CutPacking> query = entityManager.createQuery(criteria);
 
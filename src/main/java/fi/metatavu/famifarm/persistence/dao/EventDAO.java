@@ -62,22 +62,26 @@ public class EventDAO extends AbstractEventDAO<Event> {
    * @param firstResult first result
    * @param eventType event type
    * @param maxResults max results
+   * @param after return only events after this cursor
    *
    * @return list of events
    */
-  public List<Event> listForRestApi(Facility facility, Product product, OffsetDateTime startAfter, OffsetDateTime startBefore, Integer firstResult, EventType eventType, Integer maxResults) {
+  public List<Event> listForRestApi(Facility facility, Product product, OffsetDateTime startAfter, OffsetDateTime startBefore, Integer firstResult, EventType eventType, Integer maxResults, ListCursor after) {
     EntityManager entityManager = getEntityManager();
     CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
     CriteriaQuery<Event> criteria = criteriaBuilder.createQuery(Event.class);
     Root<? extends Event>root = getRoot(criteria, eventType);
     criteria.select(root);
-    criteria.orderBy(criteriaBuilder.desc(root.get(Event_.createdAt)));
+    criteria.orderBy(criteriaBuilder.desc(root.get(Event_.createdAt)), criteriaBuilder.desc(root.get(Event_.id)));
 
     List<Predicate> restrictions = new ArrayList<>();
 
+    if (after != null) {
+      restrictions.add(after.toRestriction(criteriaBuilder, root.get(Event_.createdAt), root.get(Event_.id)));
+    }
+
     if (facility != null) {
-      root.fetch(Event_.product, JoinType.LEFT);
-      restrictions.add(criteriaBuilder.equal(root.get(Event_.product).get(Product_.facility), facility));
+      restrictions.add(criteriaBuilder.equal(root.get(Event_.facility), facility));
     }
 
     if (product != null) {
@@ -164,7 +168,10 @@ public class EventDAO extends AbstractEventDAO<Event> {
   }
 
   /**
-   * Lists events between dates and event type sorted by start time ascending
+   * Lists events for reports between dates and event type sorted by start time ascending.
+   * 
+   * Product and product name are fetched in the same query. When event type is given, production line and 
+   * wastage reason of the event type are fetched as well.
    *
    * @param facility facility
    * @param createdBefore created before
@@ -172,19 +179,19 @@ public class EventDAO extends AbstractEventDAO<Event> {
    * @param eventType event type
    * @return list of events
    */
-  public List<Event> listByTimeFrameAndType(Facility facility, OffsetDateTime createdBefore, OffsetDateTime createdAfter, EventType eventType) {
+  public List<Event> listReportEventsByTimeFrameAndType(Facility facility, OffsetDateTime createdBefore, OffsetDateTime createdAfter, EventType eventType) {
     EntityManager entityManager = getEntityManager();
     CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
     CriteriaQuery<Event> criteria = criteriaBuilder.createQuery(Event.class);
     Root<? extends Event>root = getRoot(criteria, eventType);
     criteria.select(root);
     criteria.orderBy(criteriaBuilder.asc(root.get(Event_.startTime)));
+    fetchReportAssociations(root, eventType);
 
     List<Predicate> restrictions = new ArrayList<>();
 
     if (facility != null) {
-      root.fetch(Event_.product, JoinType.LEFT);
-      restrictions.add(criteriaBuilder.equal(root.get(Event_.product).get(Product_.facility), facility));
+      restrictions.add(criteriaBuilder.equal(root.get(Event_.facility), facility));
     }
 
     if (createdBefore != null) {
@@ -202,19 +209,22 @@ public class EventDAO extends AbstractEventDAO<Event> {
   }
 
   /**
-   * Lists events between dates
+   * Lists events of all types for reports between dates.
+   * 
+   * Product and product name are fetched in the same query. 
    *
    * @param facility facility
    * @param startBefore start before
    * @param startAfter start after
    * @return list of events
    */
-  public List<Event> listByFacilityAndStartTimeAfterAndStartTimeBefore(Facility facility, OffsetDateTime startBefore, OffsetDateTime startAfter) {
+  public List<Event> listReportEvents(Facility facility, OffsetDateTime startBefore, OffsetDateTime startAfter) {
     EntityManager entityManager = getEntityManager();
     CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
     CriteriaQuery<Event> criteria = criteriaBuilder.createQuery(Event.class);
     Root<Event> root = criteria.from(Event.class);
     criteria.select(root);
+    fetchReportAssociations(root, null);
 
     List<Predicate> restrictions = new ArrayList<>();
 
@@ -227,7 +237,7 @@ public class EventDAO extends AbstractEventDAO<Event> {
     }
 
     if (facility != null) {
-        restrictions.add(criteriaBuilder.equal(root.get(Event_.product).get(Product_.facility), facility));
+      restrictions.add(criteriaBuilder.equal(root.get(Event_.facility), facility));
     }
 
     criteria.where(criteriaBuilder.and(restrictions.toArray(new Predicate[0])));
@@ -235,6 +245,41 @@ public class EventDAO extends AbstractEventDAO<Event> {
     return query.getResultList();
   }
 
+  /**
+   * Adds fetch joins for associations used by reports. 
+   * 
+   * Associations declared in event subclasses can be fetched only when the query root is the subclass
+   *
+   * @param root query root
+   * @param eventType event type of the root or null if root is the event base class
+   */
+  @SuppressWarnings("unchecked")
+  private void fetchReportAssociations(Root<? extends Event> root, EventType eventType) {
+    root.fetch(Event_.product, JoinType.INNER).fetch(Product_.name, JoinType.INNER);
+
+    if (eventType == null) {
+      return;
+    }
+
+    switch (eventType) {
+      case HARVEST:
+        ((Root<HarvestEvent>) root).fetch(HarvestEvent_.productionLine, JoinType.LEFT);
+        break;
+      case SOWING:
+        ((Root<SowingEvent>) root).fetch(SowingEvent_.productionLine, JoinType.LEFT);
+        break;
+      case PLANTING:
+        ((Root<PlantingEvent>) root).fetch(PlantingEvent_.productionLine, JoinType.LEFT);
+        break;
+      case WASTAGE:
+        ((Root<WastageEvent>) root).fetch(WastageEvent_.productionLine, JoinType.LEFT);
+        ((Root<WastageEvent>) root).fetch(WastageEvent_.wastageReason, JoinType.INNER).fetch(WastageReason_.reason, JoinType.INNER);
+        break;
+      default:
+        break;
+    }
+  }
+
   /**
    * Lists events by product optionally limited by first and max results. Sorts result by descending start time 
    * 
@@ -6,9 +6,12 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Root;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * DAO class for harvest baskets
@@ -25,11 +28,18 @@ public class HarvestBasketDAO extends AbstractDAO<HarvestBasket> {
      * @return created harvest basket
      */
     public HarvestBasket create(UUID id, Float weight, HarvestEvent harvestEvent) {
-        HarvestBasket harvestBasket = new HarvestBasket();
-        harvestBasket.setId(id);
-        harvestBasket.setWeight(weight);
-        harvestBasket.setHarvestEvent(harvestEvent);
-        return persist(harvestBasket);
+        return persist(build(id, weight, harvestEvent));
+    }
+
+    /**
+     * Creates new harvest baskets with given weights in a single batch
+     *
+     * @param weights basket weights
+     * @param harvestEvent harvest event
+     * @return created harvest baskets
+     */
+    public List<HarvestBasket> createAll(Collection<Float> weights, HarvestEvent harvestEvent) {
+        return persistAll(weights.stream().map(weight -> build(generateId(), weight, harvestEvent)).collect(Collectors.toList()));
     }
 
     /**
@@ -48,4 +58,63 @@ public class HarvestBasketDAO extends AbstractDAO<HarvestBasket> {
         criteria.where(criteriaBuilder.equal(root.get(HarvestBasket_.harvestEvent), harvestEvent));
         return entityManager.createQuery(criteria).getResultList();
     }
+
+    /**
+     * Lists harvest baskets of given harvest events with a single query
+     *
+     * @param harvestEvents harvest events
+     * @return list of harvest baskets
+     */
+    public List<HarvestBasket> listByHarvestEvents(Collection<HarvestEvent> harvestEvents) {
+        EntityManager entityManager = getEntityManager();
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<HarvestBasket> criteria = criteriaBuilder.createQuery(HarvestBasket.class);
+        Root<HarvestBasket> root = criteria.from(HarvestBasket.class);
+        criteria.select(root);
+        criteria.where(root.get(HarvestBasket_.harvestEvent).in(harvestEvents));
+        return entityManager.createQuery(criteria).getResultList();
+    }
+
+    /**
+     * Lists basket counts and total basket weights of given harvest events grouped by harvest event
+     *
+     * @param harvestEvents harvest events
+     * @return basket totals of harvest events that have baskets
+     */
+    public List<HarvestBasketTotals> listTotalsByHarvestEvents(Collection<HarvestEvent> harvestEvents) {
+        EntityManager entityManager = getEntityManager();
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<HarvestBasketTotals> criteria = criteriaBuilder.createQuery(HarvestBasketTotals.class);
+        Root<HarvestBasket> root = criteria.from(HarvestBasket.class);
+        Path<UUID> harvestEventId = root.get(HarvestBasket_.harvestEvent).get(Event_.id);
+
+        criteria.select(criteriaBuilder.construct(
+            HarvestBasketTotals.class,
+            harvestEventId,
+            criteriaBuilder.count(root),
+            criteriaBuilder.sumAsDouble(root.get(HarvestBasket_.weight))
+        ));
+        criteria.where(root.get(HarvestBasket_.harvestEvent).in(harvestEvents));
+        criteria.groupBy(harvestEventId);
+
+        return entityManager.createQuery(criteria).getResultList();
+    }
+
+    /**
+     * Builds new harvest basket entity
+     *
+     * @param id id
+     * @param weight weight
+     * @param harvestEvent harvest event
+     * @return built entity
+     */
+    private HarvestBasket build(UUID id, Float weight, HarvestEvent harvestEvent) {
+        HarvestBasket harvestBasket = new HarvestBasket();
+        harvestBasket.setId(id);
+        harvestBasket.setWeight(weight);
+        harvestBasket.setHarvestEvent(harvestEvent);
+        return harvestBasket;
+    }
 }
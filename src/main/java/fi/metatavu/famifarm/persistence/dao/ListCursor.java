@@ -0,0 +1,95 @@
+package fi.metatavu.famifarm.persistence.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+
+/**
+ * Position of the last returned row in a list sorted by creation time and id in descending order.
+ *
+ * Cursor is passed to clients as an opaque token and used for continuing the list without offset,
+ * which lets database seek directly to the next page instead of scanning the skipped rows.
+ */
+public class ListCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final OffsetDateTime createdAt;
+
+  private final UUID id;
+
+  /**
+   * Constructor
+   *
+   * @param createdAt creation time of the last returned row
+   * @param id id of the last returned row
+   */
+  public ListCursor(OffsetDateTime createdAt, UUID id) {
+    this.createdAt = createdAt;
+    this.id = id;
+  }
+
+  public OffsetDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Creates restriction that limits the list into rows after this cursor
+   *
+   * @param criteriaBuilder criteria builder
+   * @param createdAtPath creation time expression
+   * @param idPath id expression
+   * @return restriction
+   */
+  public Predicate toRestriction(CriteriaBuilder criteriaBuilder, Expression<OffsetDateTime> createdAtPath, Expression<UUID> idPath) {
+    return criteriaBuilder.or(
+      criteriaBuilder.lessThan(createdAtPath, createdAt),
+      criteriaBuilder.and(
+        criteriaBuilder.equal(createdAtPath, createdAt),
+        criteriaBuilder.lessThan(idPath, id)
+      )
+    );
+  }
+
+  /**
+   * Encodes cursor as an opaque token
+   *
+   * @return token
+   */
+  public String toToken() {
+    String value = createdAt.toString() + SEPARATOR + id.toString();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes cursor from a token
+   *
+   * @param token token
+   * @return cursor
+   * @throws IllegalArgumentException when token is not valid
+   */
+  public static ListCursor fromToken(String token) {
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separatorIndex = value.indexOf(SEPARATOR);
+      if (separatorIndex == -1) {
+        throw new IllegalArgumentException("Invalid page token");
+      }
+
+      return new ListCursor(OffsetDateTime.parse(value.substring(0, separatorIndex)), UUID.fromString(value.substring(separatorIndex + 1)));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid page token", e);
+    }
+  }
+
+}
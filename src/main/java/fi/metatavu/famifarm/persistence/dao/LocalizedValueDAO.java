@@ -1,5 +1,6 @@
 package fi.metatavu.famifarm.persistence.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -59,6 +60,24 @@ public class LocalizedValueDAO extends AbstractDAO<LocalizedValue> {
     return entityManager.createQuery(criteria).getResultList();
   }  
   
+  /**
+   * Lists values of all given entries
+   * 
+   * @param entries entries
+   * @return values of given entries
+   */
+  public List<LocalizedValue> listByEntries(Collection<LocalizedEntry> entries) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<LocalizedValue> criteria = criteriaBuilder.createQuery(LocalizedValue.class);
+    Root<LocalizedValue> root = criteria.from(LocalizedValue.class);
+    criteria.select(root);
+    criteria.where(root.get(LocalizedValue_.entry).in(entries));
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
   /**
    * Finds value by entry and locale
    * 
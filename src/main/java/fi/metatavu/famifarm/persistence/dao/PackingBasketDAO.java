@@ -10,7 +10,9 @@ import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -65,6 +67,26 @@ public class PackingBasketDAO extends AbstractDAO<PackingBasket> {
     return query.getResultList();
   }
 
+  /**
+   * Lists packing baskets of all given packings. Products of the baskets are fetched with the same query
+   *
+   * @param packings packings
+   * @return packing baskets of given packings
+   */
+  public List<PackingBasket> listByPackings(Collection<Packing> packings) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<PackingBasket> criteria = criteriaBuilder.createQuery(PackingBasket.class);
+    Root<PackingBasket> root = criteria.from(PackingBasket.class);
+    criteria.select(root);
+    root.fetch(PackingBasket_.product, JoinType.LEFT);
+    criteria.where(root.get(PackingBasket_.packing).in(packings));
+
+    TypedQuery<PackingBasket> query = entityManager.createQuery(criteria);
+    return query.getResultList();
+  }
+
   /**
    * Lists packing backets by product
    *
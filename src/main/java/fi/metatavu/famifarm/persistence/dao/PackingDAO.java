@@ -10,6 +10,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
@@ -82,146 +83,6 @@ public class PackingDAO extends AbstractDAO<Packing>{
       return persist(packing);
     }
 
-  /**
-   * Updates packing campaign
-   *
-   * @param packing packing to be updated
-   * @param campaign new campaign
-   * @param lastModifierId modifier id
-   *
-   * @return update packing
-   */
-    public Packing updateCampaign(Packing packing, Campaign campaign, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setCampaign(campaign);
-      return persist(packing);
-    }
-
-  /**
-   * Updates packing type
-   *
-   * @param packing packing to be updated
-   * @param type packing type
-   * @param lastModifierId modifier id
-   *
-   * @return update packing
-   */
-  public Packing updateType(Packing packing, PackingType type, UUID lastModifierId) {
-    packing.setLastModifierId(lastModifierId);
-    packing.setType(type);
-    return persist(packing);
-  }
-    
-    /**
-     * Updates package size
-     * 
-     * @param packing
-     * @param packageSize
-     * @param lastModifierId
-     * @return updated packing
-     */
-    public Packing updatePackageSize(Packing packing, PackageSize packageSize, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setPackageSize(packageSize);
-      return persist(packing);
-    }
-    
-    /**
-     * Updates packed count
-     * 
-     * @param packing
-     * @param packedCount
-     * @param lastModifierId
-     * @return updated packing
-     */
-    public Packing updatePackedCount(Packing packing, Integer packedCount, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setPackedCount(packedCount);
-      return persist(packing);
-    }
-    
-    /**
-     * Updates package state
-     * 
-     * @param packing
-     * @param packageState
-     * @return updated packing
-     */
-    public Packing updatePackingState(Packing packing, PackingState packingState, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setPackingState(packingState);
-      return persist(packing);
-    }
-    
-    /**
-     * Updates time
-     *
-     * @param time
-     * @param lastModifier modifier
-     * @return updated packing
-     */
-    public Packing updateTime(Packing packing, OffsetDateTime time, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setTime(time);
-      return persist(packing);
-    }
-    
-    /**
-     * Updates product
-     * 
-     * @param packing
-     * @param product
-     * @param lastModifierId
-     * @return updated packing
-     */
-    public Packing updateProduct(Packing packing, Product product, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setProduct(product);
-      return persist(packing);
-    }
-
-    /**
-     * Updates start time
-     *
-     * @param packing
-     * @param startTime
-     * @param lastModifierId
-     * @return updated packing
-     */
-    public Packing updateStartTime(Packing packing, OffsetDateTime startTime, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setStartTime(startTime);
-      return persist(packing);
-    }
-
-    /**
-     * Updates end time
-     *
-     * @param packing
-     * @param endTime
-     * @param lastModifierId
-     * @return updated packing
-     */
-    public Packing updateEndTime(Packing packing, OffsetDateTime endTime, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setEndTime(endTime);
-      return persist(packing);
-    }
-
-    /**
-     * Updates additional information
-     *
-     * @param packing
-     * @param additionalInformation
-     * @param lastModifierId
-     * @return updated packing
-     */
-    public Packing updateAdditionalInformation(Packing packing, String additionalInformation, UUID lastModifierId) {
-      packing.setLastModifierId(lastModifierId);
-      packing.setAdditionalInformation(additionalInformation);
-      return persist(packing);
-    }
-
     /**
      * Updates packaging film batch
      *
@@ -247,9 +108,10 @@ public class PackingDAO extends AbstractDAO<Packing>{
      * @param state
      * @param timeBefore
      * @param timeAfter
+     * @param after return only packings after this cursor
      * @return packings
      */
-    public List<Packing> list(Integer firstResult, Integer maxResults, Facility facility, Product product, Campaign campaign, PackingState state, OffsetDateTime timeBefore, OffsetDateTime timeAfter) {
+    public List<Packing> list(Integer firstResult, Integer maxResults, Facility facility, Product product, Campaign campaign, PackingState state, OffsetDateTime timeBefore, OffsetDateTime timeAfter, ListCursor after) {
       EntityManager entityManager = getEntityManager();
       
       CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
@@ -279,9 +141,13 @@ public class PackingDAO extends AbstractDAO<Packing>{
       if (timeAfter != null) {
         restrictions.add(criteriaBuilder.greaterThanOrEqualTo(root.get(Packing_.time), timeAfter));
       }
+
+      if (after != null) {
+        restrictions.add(after.toRestriction(criteriaBuilder, root.get(Packing_.createdAt), root.get(Packing_.id)));
+      }
       
       criteria.where(criteriaBuilder.and(restrictions.toArray(new Predicate[0])));
-      criteria.orderBy(criteriaBuilder.desc(root.get(Packing_.createdAt)));
+      criteria.orderBy(criteriaBuilder.desc(root.get(Packing_.createdAt)), criteriaBuilder.desc(root.get(Packing_.id)));
       
       TypedQuery<Packing> query = entityManager.createQuery(criteria);
       
@@ -296,6 +162,34 @@ public class PackingDAO extends AbstractDAO<Packing>{
       return query.getResultList(); 
     }
 
+    /**
+     * Lists packings of a facility within time window with their products and package sizes fetched with the same query
+     *
+     * @param facility facility
+     * @param timeBefore packed before
+     * @param timeAfter packed after
+     * @return packings
+     */
+    public List<Packing> listWithProductsAndPackageSizes(Facility facility, OffsetDateTime timeBefore, OffsetDateTime timeAfter) {
+      EntityManager entityManager = getEntityManager();
+
+      CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+      CriteriaQuery<Packing> criteria = criteriaBuilder.createQuery(Packing.class);
+      Root<Packing> root = criteria.from(Packing.class);
+      root.fetch(Packing_.product, JoinType.LEFT);
+      root.fetch(Packing_.packageSize, JoinType.LEFT);
+
+      criteria.select(root);
+      criteria.where(
+        criteriaBuilder.equal(root.get(Packing_.facility), facility),
+        criteriaBuilder.lessThanOrEqualTo(root.get(Packing_.time), timeBefore),
+        criteriaBuilder.greaterThanOrEqualTo(root.get(Packing_.time), timeAfter)
+      );
+      criteria.orderBy(criteriaBuilder.desc(root.get(Packing_.createdAt)), criteriaBuilder.desc(root.get(Packing_.id)));
+
+      return entityManager.createQuery(criteria).getResultList();
+    }
+
     public List<Packing> listByPackagingFilmBatch(PackagingFilmBatch packagingFilmBatch) {
       EntityManager entityManager = getEntityManager();
 
@@ -313,6 +207,5 @@ public class PackingDAO extends AbstractDAO<Packing>{
 
       return query.getResultList();
     }
-
 }
 
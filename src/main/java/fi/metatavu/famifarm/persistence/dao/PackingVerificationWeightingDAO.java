@@ -11,6 +11,7 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -60,4 +61,22 @@ public class PackingVerificationWeightingDAO extends AbstractDAO<PackingVerifica
     TypedQuery<PackingVerificationWeighting> query = entityManager.createQuery(criteria);
     return query.getResultList();
   }
+
+  /**
+   * Lists PackingVerificationWeightings of all given packings
+   *
+   * @param packings packings
+   * @return PackingVerificationWeighting list
+   */
+  public List<PackingVerificationWeighting> listByPackings(Collection<Packing> packings) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<PackingVerificationWeighting> criteria = criteriaBuilder.createQuery(PackingVerificationWeighting.class);
+    Root<PackingVerificationWeighting> root = criteria.from(PackingVerificationWeighting.class);
+    criteria.select(root);
+    criteria.where(root.get(PackingVerificationWeighting_.packing).in(packings));
+    TypedQuery<PackingVerificationWeighting> query = entityManager.createQuery(criteria);
+    return query.getResultList();
+  }
 }
@@ -1,6 +1,7 @@
 package fi.metatavu.famifarm.persistence.dao;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,6 +11,7 @@ import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.PlantingEvent;
@@ -75,9 +77,11 @@ public class PlantingEventDAO extends AbstractEventDAO<PlantingEvent> {
     CriteriaQuery<PlantingEvent> criteria = criteriaBuilder.createQuery(PlantingEvent.class);
     Root<PlantingEvent> root = criteria.from(PlantingEvent.class);
     criteria.select(root);
-    criteria.where(criteriaBuilder.equal(root.get(PlantingEvent_.product), product));
-    criteria.where(criteriaBuilder.equal(root.get(PlantingEvent_.productionLine), productionLine));
-    criteria.where(criteriaBuilder.lessThanOrEqualTo(root.get(PlantingEvent_.startTime), startBefore));
+    criteria.where(
+      criteriaBuilder.equal(root.get(PlantingEvent_.product), product),
+      criteriaBuilder.equal(root.get(PlantingEvent_.productionLine), productionLine),
+      criteriaBuilder.lessThanOrEqualTo(root.get(PlantingEvent_.startTime), startBefore)
+    );
     criteria.orderBy(criteriaBuilder.desc(root.get(PlantingEvent_.startTime)));
     
     TypedQuery<PlantingEvent> query = entityManager.createQuery(criteria);
@@ -87,6 +91,49 @@ public class PlantingEventDAO extends AbstractEventDAO<PlantingEvent> {
     return query.getResultList();
   }
 
+  /**
+   * Lists planting event candidates for resolving the latest planting events of multiple products and production lines
+   * within a time window in a single query.
+   *
+   * Result contains events of given products and production lines that have started before the end of the window and
+   * either within the window or as the latest planting of their product and production line before the window. 
+   * Result is sorted by descending start time
+   *
+   * @param products products
+   * @param productionLines production lines
+   * @param windowStart start of the time window
+   * @param windowEnd end of the time window
+   * @return planting events sorted by descending start time
+   */
+  public List<PlantingEvent> listLatestByProductsAndProductionLines(Collection<Product> products, Collection<ProductionLine> productionLines, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<PlantingEvent> criteria = criteriaBuilder.createQuery(PlantingEvent.class);
+    Root<PlantingEvent> root = criteria.from(PlantingEvent.class);
+
+    Subquery<PlantingEvent> laterBeforeWindow = criteria.subquery(PlantingEvent.class);
+    Root<PlantingEvent> laterRoot = laterBeforeWindow.from(PlantingEvent.class);
+    laterBeforeWindow.select(laterRoot);
+    laterBeforeWindow.where(
+      criteriaBuilder.equal(laterRoot.get(PlantingEvent_.product), root.get(PlantingEvent_.product)),
+      criteriaBuilder.equal(laterRoot.get(PlantingEvent_.productionLine), root.get(PlantingEvent_.productionLine)),
+      criteriaBuilder.greaterThan(laterRoot.get(PlantingEvent_.startTime), root.get(PlantingEvent_.startTime)),
+      criteriaBuilder.lessThanOrEqualTo(laterRoot.get(PlantingEvent_.startTime), windowStart)
+    );
+
+    criteria.select(root);
+    criteria.where(
+      root.get(PlantingEvent_.product).in(products),
+      root.get(PlantingEvent_.productionLine).in(productionLines),
+      criteriaBuilder.lessThanOrEqualTo(root.get(PlantingEvent_.startTime), windowEnd),
+      criteriaBuilder.not(criteriaBuilder.exists(laterBeforeWindow))
+    );
+    criteria.orderBy(criteriaBuilder.desc(root.get(PlantingEvent_.startTime)));
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
   /**
    * Updates productionLine
    *
@@ -0,0 +1,206 @@
+package fi.metatavu.famifarm.persistence.dao;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+import fi.metatavu.famifarm.persistence.model.PrintJob;
+import fi.metatavu.famifarm.persistence.model.PrintJob_;
+import fi.metatavu.famifarm.printing.PrintJobStatus;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * DAO class for print jobs
+ */
+@ApplicationScoped
+public class PrintJobDAO extends AbstractDAO<PrintJob> {
+
+  /**
+   * Creates new print job
+   *
+   * @param id id
+   * @param facility facility
+   * @param printerId printer id
+   * @param status status
+   * @param labelCount number of labels in the job
+   * @param labels printing commands of the labels serialized as JSON array
+   * @param instanceId id of the server instance printing the job
+   * @param creatorId creator id
+   * @return created print job
+   */
+  @SuppressWarnings ("squid:S00107")
+  public PrintJob create(UUID id, Facility facility, String printerId, PrintJobStatus status, int labelCount, String labels, String instanceId, UUID creatorId) {
+    PrintJob printJob = new PrintJob();
+    printJob.setId(id);
+    printJob.setFacility(facility);
+    printJob.setPrinterId(printerId);
+    printJob.setStatus(status);
+    printJob.setLabelCount(labelCount);
+    printJob.setPrintedCount(0);
+    printJob.setAttempts(0);
+    printJob.setLabels(labels);
+    printJob.setInstanceId(instanceId);
+    printJob.setCreatorId(creatorId);
+    return persist(printJob);
+  }
+
+  /**
+   * Lists print jobs by statuses owned by given server instance
+   *
+   * @param statuses statuses
+   * @param instanceId server instance id
+   * @return list of print jobs
+   */
+  public List<PrintJob> listByStatusesAndInstanceId(List<PrintJobStatus> statuses, String instanceId) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<PrintJob> criteria = criteriaBuilder.createQuery(PrintJob.class);
+    Root<PrintJob> root = criteria.from(PrintJob.class);
+    criteria.select(root);
+    criteria.where(
+      root.get(PrintJob_.status).in(statuses),
+      criteriaBuilder.equal(root.get(PrintJob_.instanceId), instanceId)
+    );
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
+  /**
+   * Finds print job by id and locks it for update until the end of the transaction
+   *
+   * @param id print job id
+   * @return found print job or null if not found
+   */
+  public PrintJob findByIdForUpdate(UUID id) {
+    return getEntityManager().find(PrintJob.class, id, LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  /**
+   * Updates status of print jobs with given statuses that have not been modified since given time
+   * with a single update statement
+   *
+   * @param statuses statuses
+   * @param modifiedBefore modified before
+   * @param status new status
+   * @return number of updated rows
+   */
+  public int updateStatusByStatusesAndModifiedAtBefore(List<PrintJobStatus> statuses, OffsetDateTime modifiedBefore, PrintJobStatus status) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<PrintJob> update = criteriaBuilder.createCriteriaUpdate(PrintJob.class);
+    Root<PrintJob> root = update.from(PrintJob.class);
+    update.set(root.get(PrintJob_.status), status);
+    update.set(root.get(PrintJob_.modifiedAt), OffsetDateTime.now());
+    update.where(
+      root.get(PrintJob_.status).in(statuses),
+      criteriaBuilder.lessThan(root.get(PrintJob_.modifiedAt), modifiedBefore)
+    );
+
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+  /**
+   * Updates modification time of print jobs with given statuses owned by given server instance
+   * with a single update statement
+   *
+   * @param statuses statuses
+   * @param instanceId server instance id
+   * @param modifiedAt modification time
+   * @return number of updated rows
+   */
+  public int updateModifiedAtByStatusesAndInstanceId(List<PrintJobStatus> statuses, String instanceId, OffsetDateTime modifiedAt) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<PrintJob> update = criteriaBuilder.createCriteriaUpdate(PrintJob.class);
+    Root<PrintJob> root = update.from(PrintJob.class);
+    update.set(root.get(PrintJob_.modifiedAt), modifiedAt);
+    update.where(
+      root.get(PrintJob_.status).in(statuses),
+      criteriaBuilder.equal(root.get(PrintJob_.instanceId), instanceId)
+    );
+
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+  /**
+   * Lists print jobs with given statuses created before given time
+   *
+   * @param statuses statuses
+   * @param createdBefore created before
+   * @return list of print jobs
+   */
+  public List<PrintJob> listByStatusesAndCreatedAtBefore(List<PrintJobStatus> statuses, OffsetDateTime createdBefore) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<PrintJob> criteria = criteriaBuilder.createQuery(PrintJob.class);
+    Root<PrintJob> root = criteria.from(PrintJob.class);
+    criteria.select(root);
+    criteria.where(
+      root.get(PrintJob_.status).in(statuses),
+      criteriaBuilder.lessThan(root.get(PrintJob_.createdAt), createdBefore)
+    );
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
+  /**
+   * Updates status
+   *
+   * @param printJob print job
+   * @param status status
+   * @return updated print job
+   */
+  public PrintJob updateStatus(PrintJob printJob, PrintJobStatus status) {
+    printJob.setStatus(status);
+    return persist(printJob);
+  }
+
+  /**
+   * Updates number of printed labels
+   *
+   * @param printJob print job
+   * @param printedCount number of printed labels
+   * @return updated print job
+   */
+  public PrintJob updatePrintedCount(PrintJob printJob, int printedCount) {
+    printJob.setPrintedCount(printedCount);
+    return persist(printJob);
+  }
+
+  /**
+   * Updates number of attempts
+   *
+   * @param printJob print job
+   * @param attempts number of attempts
+   * @return updated print job
+   */
+  public PrintJob updateAttempts(PrintJob printJob, int attempts) {
+    printJob.setAttempts(attempts);
+    return persist(printJob);
+  }
+
+  /**
+   * Updates message
+   *
+   * @param printJob print job
+   * @param message message
+   * @return updated print job
+   */
+  public PrintJob updateMessage(PrintJob printJob, String message) {
+    printJob.setMessage(message);
+    return persist(printJob);
+  }
+
+}
@@ -1,5 +1,6 @@
 package fi.metatavu.famifarm.persistence.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -55,4 +56,22 @@ public class ProductAllowedHarvestTypeDAO extends AbstractDAO<ProductAllowedHarv
     
     return entityManager.createQuery(criteria).getResultList();
   }
+
+  /**
+   * Lists allowed harvest types of all given products
+   * 
+   * @param products products
+   * @return allowed harvest types of given products
+   */
+  public List<ProductAllowedHarvestType> listByProducts(Collection<Product> products) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ProductAllowedHarvestType> criteria = criteriaBuilder.createQuery(ProductAllowedHarvestType.class);
+    Root<ProductAllowedHarvestType> root = criteria.from(ProductAllowedHarvestType.class);
+    criteria.select(root);
+    criteria.where(root.get(ProductAllowedHarvestType_.product).in(products));
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
 }
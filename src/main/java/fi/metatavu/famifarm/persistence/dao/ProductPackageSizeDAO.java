@@ -8,8 +8,10 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Root;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * DAO class for product package size
@@ -28,11 +30,18 @@ public class ProductPackageSizeDAO extends AbstractDAO<ProductPackageSize> {
      * @return created product package size
      */
     public ProductPackageSize create(UUID id, Product product, PackageSize packageSize) {
-        ProductPackageSize productPackageSize = new ProductPackageSize();
-        productPackageSize.setId(id);
-        productPackageSize.setProduct(product);
-        productPackageSize.setPackageSize(packageSize);
-        return persist(productPackageSize);
+        return persist(build(id, product, packageSize));
+    }
+
+    /**
+     * Creates new ProductPackageSizes for given package sizes in a single batch
+     *
+     * @param product product
+     * @param packageSizes package sizes
+     * @return created product package sizes
+     */
+    public List<ProductPackageSize> createAll(Product product, Collection<PackageSize> packageSizes) {
+        return persistAll(packageSizes.stream().map(packageSize -> build(generateId(), product, packageSize)).collect(Collectors.toList()));
     }
 
     /**
@@ -69,6 +78,23 @@ public class ProductPackageSizeDAO extends AbstractDAO<ProductPackageSize> {
         return entityManager.createQuery(criteria).getResultList();
     }
 
+    /**
+     * Lists by products
+     *
+     * @param products products
+     * @return list of product package size entries of given products
+     */
+    public List<ProductPackageSize> listByProducts(Collection<Product> products) {
+        EntityManager entityManager = getEntityManager();
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductPackageSize> criteria = criteriaBuilder.createQuery(ProductPackageSize.class);
+        Root<ProductPackageSize> root = criteria.from(ProductPackageSize.class);
+        criteria.select(root);
+        criteria.where(root.get(ProductPackageSize_.product).in(products));
+        return entityManager.createQuery(criteria).getResultList();
+    }
+
     /**
      * Updates product package size
      *
@@ -80,4 +106,20 @@ public class ProductPackageSizeDAO extends AbstractDAO<ProductPackageSize> {
         productPackageSize.setPackageSize(packageSize);
         return persist(productPackageSize);
     }
+
+    /**
+     * Builds new ProductPackageSize entity
+     *
+     * @param id id
+     * @param product product
+     * @param packageSize packageSize
+     * @return built entity
+     */
+    private ProductPackageSize build(UUID id, Product product, PackageSize packageSize) {
+        ProductPackageSize productPackageSize = new ProductPackageSize();
+        productPackageSize.setId(id);
+        productPackageSize.setProduct(product);
+        productPackageSize.setPackageSize(packageSize);
+        return productPackageSize;
+    }
 }
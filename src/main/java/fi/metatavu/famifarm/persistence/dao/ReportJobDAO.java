@@ -0,0 +1,246 @@
+package fi.metatavu.famifarm.persistence.dao;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import fi.metatavu.famifarm.persistence.model.ReportJob;
+import fi.metatavu.famifarm.persistence.model.ReportJob_;
+import fi.metatavu.famifarm.reporting.ReportFormat;
+import fi.metatavu.famifarm.reporting.ReportJobStatus;
+import fi.metatavu.famifarm.reporting.ReportType;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * DAO class for report jobs
+ */
+@ApplicationScoped
+public class ReportJobDAO extends AbstractDAO<ReportJob> {
+
+  /**
+   * Creates new report job
+   *
+   * @param id id
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale as language tag
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   * @param status status
+   * @param instanceId id of the server instance generating the report
+   * @param watermark report watermark of the facility when the job was created
+   * @param creatorId creator id
+   * @return created report job
+   */
+  @SuppressWarnings ("squid:S00107")
+  public ReportJob create(UUID id, ReportType type, ReportFormat format, Facility facility, String locale, String fromTime, String toTime, ReportJobStatus status, String instanceId, long watermark, UUID creatorId) {
+    ReportJob reportJob = new ReportJob();
+    reportJob.setId(id);
+    reportJob.setType(type);
+    reportJob.setFormat(format);
+    reportJob.setFacility(facility);
+    reportJob.setLocale(locale);
+    reportJob.setFromTime(fromTime);
+    reportJob.setToTime(toTime);
+    reportJob.setStatus(status);
+    reportJob.setInstanceId(instanceId);
+    reportJob.setWatermark(watermark);
+    reportJob.setCreatorId(creatorId);
+    return persist(reportJob);
+  }
+
+  /**
+   * Finds latest report job with given parameters, watermark and one of the statuses created after given time
+   *
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale as language tag
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   * @param watermark report watermark of the facility
+   * @param statuses statuses
+   * @param createdAfter created after
+   * @return found report job or null if not found
+   */
+  @SuppressWarnings ("squid:S00107")
+  public ReportJob findLatestByParameters(ReportType type, ReportFormat format, Facility facility, String locale, String fromTime, String toTime, long watermark, List<ReportJobStatus> statuses, OffsetDateTime createdAfter) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ReportJob> criteria = criteriaBuilder.createQuery(ReportJob.class);
+    Root<ReportJob> root = criteria.from(ReportJob.class);
+
+    List<Predicate> restrictions = new ArrayList<>();
+    restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.type), type));
+    restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.format), format));
+    restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.facility), facility));
+    restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.locale), locale));
+    restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.watermark), watermark));
+    restrictions.add(root.get(ReportJob_.status).in(statuses));
+    restrictions.add(criteriaBuilder.greaterThan(root.get(ReportJob_.createdAt), createdAfter));
+
+    if (fromTime == null) {
+      restrictions.add(criteriaBuilder.isNull(root.get(ReportJob_.fromTime)));
+    } else {
+      restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.fromTime), fromTime));
+    }
+
+    if (toTime == null) {
+      restrictions.add(criteriaBuilder.isNull(root.get(ReportJob_.toTime)));
+    } else {
+      restrictions.add(criteriaBuilder.equal(root.get(ReportJob_.toTime), toTime));
+    }
+
+    criteria.select(root);
+    criteria.where(criteriaBuilder.and(restrictions.toArray(new Predicate[0])));
+    criteria.orderBy(criteriaBuilder.desc(root.get(ReportJob_.createdAt)));
+
+    TypedQuery<ReportJob> query = entityManager.createQuery(criteria);
+    query.setMaxResults(1);
+
+    return getSingleResult(query);
+  }
+
+  /**
+   * Lists report jobs by statuses owned by given server instance
+   *
+   * @param statuses statuses
+   * @param instanceId server instance id
+   * @return list of report jobs
+   */
+  public List<ReportJob> listByStatusesAndInstanceId(List<ReportJobStatus> statuses, String instanceId) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ReportJob> criteria = criteriaBuilder.createQuery(ReportJob.class);
+    Root<ReportJob> root = criteria.from(ReportJob.class);
+    criteria.select(root);
+    criteria.where(
+      criteriaBuilder.and(
+        root.get(ReportJob_.status).in(statuses),
+        criteriaBuilder.equal(root.get(ReportJob_.instanceId), instanceId)
+      )
+    );
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
+  /**
+   * Finds report job by id and locks it for update until the end of the transaction
+   *
+   * @param id report job id
+   * @return found report job or null if not found
+   */
+  public ReportJob findByIdForUpdate(UUID id) {
+    return getEntityManager().find(ReportJob.class, id, LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  /**
+   * Updates status of report jobs with given statuses that have not been modified since given time
+   * with a single update statement
+   *
+   * @param statuses statuses
+   * @param modifiedBefore modified before
+   * @param status new status
+   * @return number of updated rows
+   */
+  public int updateStatusByStatusesAndModifiedAtBefore(List<ReportJobStatus> statuses, OffsetDateTime modifiedBefore, ReportJobStatus status) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<ReportJob> update = criteriaBuilder.createCriteriaUpdate(ReportJob.class);
+    Root<ReportJob> root = update.from(ReportJob.class);
+    update.set(root.get(ReportJob_.status), status);
+    update.set(root.get(ReportJob_.modifiedAt), OffsetDateTime.now());
+    update.where(
+      criteriaBuilder.and(
+        root.get(ReportJob_.status).in(statuses),
+        criteriaBuilder.lessThan(root.get(ReportJob_.modifiedAt), modifiedBefore)
+      )
+    );
+
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+  /**
+   * Updates modification time of report jobs with given statuses owned by given server instance 
+   * with a single update statement
+   *
+   * @param statuses statuses
+   * @param instanceId server instance id
+   * @param modifiedAt modification time
+   * @return number of updated rows
+   */
+  public int updateModifiedAtByStatusesAndInstanceId(List<ReportJobStatus> statuses, String instanceId, OffsetDateTime modifiedAt) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<ReportJob> update = criteriaBuilder.createCriteriaUpdate(ReportJob.class);
+    Root<ReportJob> root = update.from(ReportJob.class);
+    update.set(root.get(ReportJob_.modifiedAt), modifiedAt);
+    update.where(
+      criteriaBuilder.and(
+        root.get(ReportJob_.status).in(statuses),
+        criteriaBuilder.equal(root.get(ReportJob_.instanceId), instanceId)
+      )
+    );
+
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+  /**
+   * Lists report jobs created before given time
+   *
+   * @param createdBefore created before
+   * @return list of report jobs
+   */
+  public List<ReportJob> listByCreatedAtBefore(OffsetDateTime createdBefore) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ReportJob> criteria = criteriaBuilder.createQuery(ReportJob.class);
+    Root<ReportJob> root = criteria.from(ReportJob.class);
+    criteria.select(root);
+    criteria.where(criteriaBuilder.lessThan(root.get(ReportJob_.createdAt), createdBefore));
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
+  /**
+   * Updates status
+   *
+   * @param reportJob report job
+   * @param status status
+   * @return updated report job
+   */
+  public ReportJob updateStatus(ReportJob reportJob, ReportJobStatus status) {
+    reportJob.setStatus(status);
+    return persist(reportJob);
+  }
+
+  /**
+   * Updates content type
+   *
+   * @param reportJob report job
+   * @param contentType content type
+   * @return updated report job
+   */
+  public ReportJob updateContentType(ReportJob reportJob, String contentType) {
+    reportJob.setContentType(contentType);
+    return persist(reportJob);
+  }
+
+}
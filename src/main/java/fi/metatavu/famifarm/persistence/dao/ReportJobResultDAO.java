@@ -0,0 +1,55 @@
+package fi.metatavu.famifarm.persistence.dao;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.Root;
+
+import fi.metatavu.famifarm.persistence.model.ReportJobResult;
+import fi.metatavu.famifarm.persistence.model.ReportJobResult_;
+
+/**
+ * DAO class for report job results
+ */
+@ApplicationScoped
+public class ReportJobResultDAO extends AbstractDAO<ReportJobResult> {
+
+  /**
+   * Creates new report job result
+   *
+   * @param id id of the report job
+   * @param data report data
+   * @return created report job result
+   */
+  public ReportJobResult create(UUID id, byte[] data) {
+    ReportJobResult reportJobResult = new ReportJobResult();
+    reportJobResult.setId(id);
+    reportJobResult.setData(data);
+    return persist(reportJobResult);
+  }
+
+  /**
+   * Deletes report job results by report job ids without loading the report data
+   *
+   * @param ids report job ids
+   */
+  public void deleteByIds(Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaDelete<ReportJobResult> criteria = criteriaBuilder.createCriteriaDelete(ReportJobResult.class);
+    Root<ReportJobResult> root = criteria.from(ReportJobResult.class);
+    criteria.where(root.get(ReportJobResult_.id).in(ids));
+
+    entityManager.createQuery(criteria).executeUpdate();
+  }
+
+}
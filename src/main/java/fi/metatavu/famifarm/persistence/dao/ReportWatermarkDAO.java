@@ -0,0 +1,59 @@
+package fi.metatavu.famifarm.persistence.dao;
+
+import java.time.OffsetDateTime;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+import fi.metatavu.famifarm.persistence.model.ReportWatermark;
+import fi.metatavu.famifarm.persistence.model.ReportWatermark_;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * DAO class for report watermarks
+ */
+@ApplicationScoped
+public class ReportWatermarkDAO extends AbstractDAO<ReportWatermark> {
+
+  /**
+   * Returns current watermark of a facility
+   *
+   * @param facility facility
+   * @return current watermark or null if facility does not have a watermark
+   */
+  public Long findWatermarkByFacility(Facility facility) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> criteria = criteriaBuilder.createQuery(Long.class);
+    Root<ReportWatermark> root = criteria.from(ReportWatermark.class);
+    criteria.select(root.get(ReportWatermark_.watermark));
+    criteria.where(criteriaBuilder.equal(root.get(ReportWatermark_.facility), facility));
+
+    return getSingleResult(entityManager.createQuery(criteria));
+  }
+
+  /**
+   * Increments watermark of a facility with a single update statement
+   *
+   * @param facility facility
+   * @return number of updated rows
+   */
+  public int incrementWatermark(Facility facility) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<ReportWatermark> update = criteriaBuilder.createCriteriaUpdate(ReportWatermark.class);
+    Root<ReportWatermark> root = update.from(ReportWatermark.class);
+    update.set(root.get(ReportWatermark_.watermark), criteriaBuilder.sum(root.get(ReportWatermark_.watermark), 1L));
+    update.set(root.get(ReportWatermark_.modifiedAt), OffsetDateTime.now());
+    update.where(criteriaBuilder.equal(root.get(ReportWatermark_.facility), facility));
+
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+}
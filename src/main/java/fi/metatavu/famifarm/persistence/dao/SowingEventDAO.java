@@ -1,6 +1,7 @@
 package fi.metatavu.famifarm.persistence.dao;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -9,6 +10,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.persistence.model.ProductionLine;
@@ -73,6 +75,33 @@ public class SowingEventDAO extends AbstractEventDAO<SowingEvent> {
     return entityManager.createQuery(criteria).getResultList();
   }
 
+  /**
+   * Lists the earliest sowing event of each given product
+   *
+   * @param products products
+   * @return earliest sowing events of the products
+   */
+  public List<SowingEvent> listFirstByProducts(Collection<Product> products) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<SowingEvent> criteria = criteriaBuilder.createQuery(SowingEvent.class);
+    Root<SowingEvent> root = criteria.from(SowingEvent.class);
+
+    Subquery<OffsetDateTime> firstStartTime = criteria.subquery(OffsetDateTime.class);
+    Root<SowingEvent> subRoot = firstStartTime.from(SowingEvent.class);
+    firstStartTime.select(criteriaBuilder.least(subRoot.get(SowingEvent_.startTime)));
+    firstStartTime.where(criteriaBuilder.equal(subRoot.get(SowingEvent_.product), root.get(SowingEvent_.product)));
+
+    criteria.select(root);
+    criteria.where(
+      root.get(SowingEvent_.product).in(products),
+      criteriaBuilder.equal(root.get(SowingEvent_.startTime), firstStartTime)
+    );
+
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
   /**
    * Updates productionLine
    *
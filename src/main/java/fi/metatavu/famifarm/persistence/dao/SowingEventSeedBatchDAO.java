@@ -1,7 +1,9 @@
 package fi.metatavu.famifarm.persistence.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.persistence.EntityManager;
@@ -30,11 +32,18 @@ public class SowingEventSeedBatchDAO extends AbstractDAO<SowingEventSeedBatch> {
    * @param lastModifier modifier
    */
   public SowingEventSeedBatch create(UUID id, SowingEvent sowingEvent, SeedBatch seedBatch) {
-    SowingEventSeedBatch sowingEventSeedBatch = new SowingEventSeedBatch();
-    sowingEventSeedBatch.setSowingEvent(sowingEvent);
-    sowingEventSeedBatch.setSeedBatch(seedBatch);
-    sowingEventSeedBatch.setId(id);
-    return persist(sowingEventSeedBatch);
+    return persist(build(id, sowingEvent, seedBatch));
+  }
+
+  /**
+   * Creates new sowing event seed batches for given seed batches in a single batch
+   *
+   * @param sowingEvent sowing event
+   * @param seedBatches seed batches
+   * @return created sowing event seed batches
+   */
+  public List<SowingEventSeedBatch> createAll(SowingEvent sowingEvent, Collection<SeedBatch> seedBatches) {
+    return persistAll(seedBatches.stream().map(seedBatch -> build(generateId(), sowingEvent, seedBatch)).collect(Collectors.toList()));
   }
 
   /**
@@ -55,6 +64,24 @@ public class SowingEventSeedBatchDAO extends AbstractDAO<SowingEventSeedBatch> {
     return entityManager.createQuery(criteria).getResultList();
   }
 
+  /**
+   * Lists sowing event seed batches of given events with a single query
+   * 
+   * @param sowingEvents sowing events
+   * @return sowing event seed batches
+   */
+  public List<SowingEventSeedBatch> listBySowingEvents(Collection<SowingEvent> sowingEvents) {
+    EntityManager entityManager = getEntityManager();
+
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<SowingEventSeedBatch> criteria = criteriaBuilder.createQuery(SowingEventSeedBatch.class);
+    Root<SowingEventSeedBatch> root = criteria.from(SowingEventSeedBatch.class);
+    criteria.select(root);
+    criteria.where(root.get(SowingEventSeedBatch_.sowingEvent).in(sowingEvents));
+    
+    return entityManager.createQuery(criteria).getResultList();
+  }
+
   /**
    * Lists seed batches by event
    * 
@@ -73,4 +100,20 @@ public class SowingEventSeedBatchDAO extends AbstractDAO<SowingEventSeedBatch> {
     return entityManager.createQuery(criteria).getResultList();
   }
 
+  /**
+   * Builds new sowing event seed batch entity
+   *
+   * @param id id
+   * @param sowingEvent sowing event
+   * @param seedBatch seed batch
+   * @return built entity
+   */
+  private SowingEventSeedBatch build(UUID id, SowingEvent sowingEvent, SeedBatch seedBatch) {
+    SowingEventSeedBatch sowingEventSeedBatch = new SowingEventSeedBatch();
+    sowingEventSeedBatch.setSowingEvent(sowingEvent);
+    sowingEventSeedBatch.setSeedBatch(seedBatch);
+    sowingEventSeedBatch.setId(id);
+    return sowingEventSeedBatch;
+  }
+
 }
@@ -111,58 +111,39 @@ public class StorageDiscardDAO extends AbstractDAO<StorageDiscard> {
     }
 
     /**
-     * Updates discard amount field
+     * Lists wasted packed units of storage discards grouped by product.
      *
-     * @param entity original storage discard entity
-     * @param discardAmount new discard amount
-     * @param modifierId modifier id
-     * @return updated entity
-     */
-    public StorageDiscard updateDiscardAmount(StorageDiscard entity, Integer discardAmount, UUID modifierId) {
-        entity.setDiscardAmount(discardAmount);
-        entity.setLastModifierId(modifierId);
-        return persist(entity);
-    }
-
-    /**
-     * Updates discard date field
-     *
-     * @param entity original entity
-     * @param discardDate new discard date
-     * @param userId modifier id
-     * @return updated entity
-     */
-    public StorageDiscard updateDiscardDate(StorageDiscard entity, OffsetDateTime discardDate, UUID userId) {
-        entity.setLastModifierId(userId);
-        entity.setDiscardDate(discardDate);
-        return persist(entity);
-    }
-
-    /**
-     * Updates product field
+     * Wasted units of a discard are the discarded amount multiplied by the size of its package size.
      *
-     * @param entity original entity
-     * @param product new product field
-     * @param userId modifier id
-     * @return updated entity
+     * @param fromTime discarded after
+     * @param toTime discarded before
+     * @param facility facility
+     * @return totals of products with storage discards
      */
-    public StorageDiscard updateProduct(StorageDiscard entity, Product product, UUID userId) {
-        entity.setLastModifierId(userId);
-        entity.setProduct(product);
-        return persist(entity);
-    }
+    public List<StorageDiscardTotals> listTotalsByProduct(OffsetDateTime fromTime, OffsetDateTime toTime, Facility facility) {
+        EntityManager entityManager = getEntityManager();
 
-    /**
-     * Updates package size
-     *
-     * @param entity original entity
-     * @param packageSize new package size field
-     * @param userId modifier id
-     * @return updated entity
-     */
-    public StorageDiscard updatePackageSize(StorageDiscard entity, PackageSize packageSize, UUID userId) {
-        entity.setLastModifierId(userId);
-        entity.setPackageSize(packageSize);
-        return persist(entity);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StorageDiscardTotals> criteria = criteriaBuilder.createQuery(StorageDiscardTotals.class);
+        Root<StorageDiscard> root = criteria.from(StorageDiscard.class);
+        Join<StorageDiscard, Product> product = root.join(StorageDiscard_.product);
+        Join<StorageDiscard, PackageSize> packageSize = root.join(StorageDiscard_.packageSize);
+        Path<UUID> productId = product.get(Product_.id);
+
+        criteria.select(criteriaBuilder.construct(
+            StorageDiscardTotals.class,
+            productId,
+            criteriaBuilder.sumAsLong(criteriaBuilder.prod(packageSize.get(PackageSize_.size), root.get(StorageDiscard_.discardAmount)))
+        ));
+
+        criteria.where(
+            criteriaBuilder.greaterThanOrEqualTo(root.get(StorageDiscard_.discardDate), fromTime),
+            criteriaBuilder.lessThanOrEqualTo(root.get(StorageDiscard_.discardDate), toTime),
+            criteriaBuilder.equal(product.get(Product_.facility), facility),
+            criteriaBuilder.equal(packageSize.get(PackageSize_.facility), facility)
+        );
+        criteria.groupBy(productId);
+
+        return entityManager.createQuery(criteria).getResultList();
     }
 }
@@ -6,7 +6,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-public class CutPacking {
+public class CutPacking implements ModifiableEntity {
     @Id
     @Column(nullable = false)
     @NotNull
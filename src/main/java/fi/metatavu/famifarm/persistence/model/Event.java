@@ -7,6 +7,8 @@ import java.util.UUID;
 import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.Id;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
@@ -20,6 +22,7 @@ import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import fi.metatavu.famifarm.rest.model.EventType;
+import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
  * JPA base class for all event entities
@@ -30,7 +33,7 @@ import fi.metatavu.famifarm.rest.model.EventType;
 @Cacheable(true)
 @Cache(usage = CacheConcurrencyStrategy.TRANSACTIONAL)
 @Inheritance(strategy = InheritanceType.JOINED)
-public class Event {
+public class Event implements ModifiableEntity {
 
   @Id
   @Column(nullable = false)
@@ -40,6 +43,11 @@ public class Event {
   @ManyToOne(optional = false)
   private Product product;
 
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  @NotNull
+  private Facility facility;
+
   @Column(nullable = false)
   @NotNull  
   private Integer remainingUnits; 
@@ -95,8 +103,22 @@ public class Event {
     return product;
   }
 
+  /**
+   * Sets product of the event. Facility of the event is kept in sync with the facility of the product.
+   *
+   * @param product product
+   */
   public void setProduct(Product product) {
     this.product = product;
+    this.facility = product != null ? product.getFacility() : null;
+  }
+
+  public Facility getFacility() {
+    return facility;
+  }
+
+  public void setFacility(Facility facility) {
+    this.facility = facility;
   }
 
   public OffsetDateTime getStartTime() {
@@ -0,0 +1,40 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.util.UUID;
+
+/**
+ * Basket count and total basket weight of a single harvest event
+ */
+public class HarvestBasketTotals {
+
+  private final UUID harvestEventId;
+
+  private final long basketCount;
+
+  private final double totalWeight;
+
+  /**
+   * Constructor
+   *
+   * @param harvestEventId harvest event id
+   * @param basketCount number of baskets
+   * @param totalWeight total weight of baskets
+   */
+  public HarvestBasketTotals(UUID harvestEventId, Long basketCount, Double totalWeight) {
+    this.harvestEventId = harvestEventId;
+    this.basketCount = basketCount != null ? basketCount : 0L;
+    this.totalWeight = totalWeight != null ? totalWeight : 0d;
+  }
+
+  public UUID getHarvestEventId() {
+    return harvestEventId;
+  }
+
+  public long getBasketCount() {
+    return basketCount;
+  }
+
+  public double getTotalWeight() {
+    return totalWeight;
+  }
+}
@@ -0,0 +1,17 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.util.UUID;
+
+/**
+ * Interface for entities that keep track of the user who last modified them
+ */
+public interface ModifiableEntity {
+
+  /**
+   * Sets id of the user who last modified the entity
+   *
+   * @param lastModifierId last modifier id
+   */
+  void setLastModifierId(UUID lastModifierId);
+
+}
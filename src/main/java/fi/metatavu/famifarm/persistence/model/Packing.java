@@ -22,7 +22,7 @@ import fi.metatavu.famifarm.rest.model.PackingState;
 @Entity
 @Cacheable(true)
 @Cache(usage = CacheConcurrencyStrategy.TRANSACTIONAL)
-public class Packing {
+public class Packing implements ModifiableEntity {
   @ManyToOne
   private PackageSize packageSize;
 
@@ -0,0 +1,184 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+import fi.metatavu.famifarm.printing.PrintJobStatus;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * Queued job printing one or more labels
+ */
+@Entity
+public class PrintJob {
+
+  @Id
+  @Column(nullable = false)
+  @NotNull
+  private UUID id;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private Facility facility;
+
+  @Column(nullable = false)
+  @NotNull
+  private String printerId;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private PrintJobStatus status;
+
+  @Column(nullable = false)
+  @NotNull
+  private Integer labelCount;
+
+  @Column(nullable = false)
+  @NotNull
+  private Integer printedCount;
+
+  @Column(nullable = false)
+  @NotNull
+  private Integer attempts;
+
+  @Column
+  private String message;
+
+  @Column(nullable = false)
+  @NotNull
+  private String instanceId;
+
+  @Column
+  @Lob
+  private String labels;
+
+  @Column(nullable = false)
+  @NotNull
+  private UUID creatorId;
+
+  @Column(nullable = false)
+  private OffsetDateTime createdAt;
+
+  @Column(nullable = false)
+  private OffsetDateTime modifiedAt;
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public Facility getFacility() {
+    return facility;
+  }
+
+  public void setFacility(Facility facility) {
+    this.facility = facility;
+  }
+
+  public String getPrinterId() {
+    return printerId;
+  }
+
+  public void setPrinterId(String printerId) {
+    this.printerId = printerId;
+  }
+
+  public PrintJobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(PrintJobStatus status) {
+    this.status = status;
+  }
+
+  public Integer getLabelCount() {
+    return labelCount;
+  }
+
+  public void setLabelCount(Integer labelCount) {
+    this.labelCount = labelCount;
+  }
+
+  public Integer getPrintedCount() {
+    return printedCount;
+  }
+
+  public void setPrintedCount(Integer printedCount) {
+    this.printedCount = printedCount;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public void setInstanceId(String instanceId) {
+    this.instanceId = instanceId;
+  }
+
+  public String getLabels() {
+    return labels;
+  }
+
+  public void setLabels(String labels) {
+    this.labels = labels;
+  }
+
+  public UUID getCreatorId() {
+    return creatorId;
+  }
+
+  public void setCreatorId(UUID creatorId) {
+    this.creatorId = creatorId;
+  }
+
+  public OffsetDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(OffsetDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public OffsetDateTime getModifiedAt() {
+    return modifiedAt;
+  }
+
+  public void setModifiedAt(OffsetDateTime modifiedAt) {
+    this.modifiedAt = modifiedAt;
+  }
+
+  @PrePersist
+  public void onCreate() {
+    setCreatedAt(OffsetDateTime.now());
+    setModifiedAt(OffsetDateTime.now());
+  }
+
+  @PreUpdate
+  public void onUpdate() {
+    setModifiedAt(OffsetDateTime.now());
+  }
+}
@@ -0,0 +1,198 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+import fi.metatavu.famifarm.reporting.ReportFormat;
+import fi.metatavu.famifarm.reporting.ReportJobStatus;
+import fi.metatavu.famifarm.reporting.ReportType;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * Asynchronously generated report
+ */
+@Entity
+public class ReportJob {
+
+  @Id
+  @Column(nullable = false)
+  @NotNull
+  private UUID id;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private ReportType type;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private ReportFormat format;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private Facility facility;
+
+  @Column(nullable = false)
+  @NotNull
+  private String locale;
+
+  @Column
+  private String fromTime;
+
+  @Column
+  private String toTime;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private ReportJobStatus status;
+
+  @Column
+  private String contentType;
+
+  @Column(nullable = false)
+  @NotNull
+  private UUID creatorId;
+
+  @Column(nullable = false)
+  @NotNull
+  private String instanceId;
+
+  @Column(nullable = false)
+  @NotNull
+  private Long watermark;
+
+  @Column(nullable = false)
+  private OffsetDateTime createdAt;
+
+  @Column(nullable = false)
+  private OffsetDateTime modifiedAt;
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public ReportType getType() {
+    return type;
+  }
+
+  public void setType(ReportType type) {
+    this.type = type;
+  }
+
+  public ReportFormat getFormat() {
+    return format;
+  }
+
+  public void setFormat(ReportFormat format) {
+    this.format = format;
+  }
+
+  public Facility getFacility() {
+    return facility;
+  }
+
+  public void setFacility(Facility facility) {
+    this.facility = facility;
+  }
+
+  public String getLocale() {
+    return locale;
+  }
+
+  public void setLocale(String locale) {
+    this.locale = locale;
+  }
+
+  public String getFromTime() {
+    return fromTime;
+  }
+
+  public void setFromTime(String fromTime) {
+    this.fromTime = fromTime;
+  }
+
+  public String getToTime() {
+    return toTime;
+  }
+
+  public void setToTime(String toTime) {
+    this.toTime = toTime;
+  }
+
+  public ReportJobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(ReportJobStatus status) {
+    this.status = status;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public void setContentType(String contentType) {
+    this.contentType = contentType;
+  }
+
+  public UUID getCreatorId() {
+    return creatorId;
+  }
+
+  public void setCreatorId(UUID creatorId) {
+    this.creatorId = creatorId;
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public void setInstanceId(String instanceId) {
+    this.instanceId = instanceId;
+  }
+
+  public Long getWatermark() {
+    return watermark;
+  }
+
+  public void setWatermark(Long watermark) {
+    this.watermark = watermark;
+  }
+
+  public OffsetDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(OffsetDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public OffsetDateTime getModifiedAt() {
+    return modifiedAt;
+  }
+
+  public void setModifiedAt(OffsetDateTime modifiedAt) {
+    this.modifiedAt = modifiedAt;
+  }
+
+  @PrePersist
+  public void onCreate() {
+    setCreatedAt(OffsetDateTime.now());
+    setModifiedAt(OffsetDateTime.now());
+  }
+
+  @PreUpdate
+  public void onUpdate() {
+    setModifiedAt(OffsetDateTime.now());
+  }
+}
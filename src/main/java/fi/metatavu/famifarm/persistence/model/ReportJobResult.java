@@ -0,0 +1,42 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.util.UUID;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Result of an asynchronously generated report.
+ * 
+ * Stored separately from the report job so that polling job status does not load the report data
+ */
+@Entity
+public class ReportJobResult {
+
+  @Id
+  @Column(nullable = false)
+  @NotNull
+  private UUID id;
+
+  @Column(nullable = false)
+  @NotNull
+  @Lob
+  private byte[] data;
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  public void setData(byte[] data) {
+    this.data = data;
+  }
+
+}
@@ -0,0 +1,53 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.time.OffsetDateTime;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * Per facility counter that is incremented whenever data used by reports changes
+ */
+@Entity
+public class ReportWatermark {
+
+  @Id
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private Facility facility;
+
+  @Column(nullable = false)
+  @NotNull
+  private Long watermark;
+
+  @Column(nullable = false)
+  private OffsetDateTime modifiedAt;
+
+  public Facility getFacility() {
+    return facility;
+  }
+
+  public void setFacility(Facility facility) {
+    this.facility = facility;
+  }
+
+  public Long getWatermark() {
+    return watermark;
+  }
+
+  public void setWatermark(Long watermark) {
+    this.watermark = watermark;
+  }
+
+  public OffsetDateTime getModifiedAt() {
+    return modifiedAt;
+  }
+
+  public void setModifiedAt(OffsetDateTime modifiedAt) {
+    this.modifiedAt = modifiedAt;
+  }
+
+}
@@ -15,7 +15,7 @@ import java.util.UUID;
 @Entity
 @Cacheable(true)
 @Cache(usage = CacheConcurrencyStrategy.TRANSACTIONAL)
-public class StorageDiscard {
+public class StorageDiscard implements ModifiableEntity {
 
     @Id
     @Column(nullable = false)
@@ -0,0 +1,32 @@
+package fi.metatavu.famifarm.persistence.model;
+
+import java.util.UUID;
+
+/**
+ * Total wasted packed units of storage discards of a single product
+ */
+public class StorageDiscardTotals {
+
+  private final UUID productId;
+
+  private final long wastedUnits;
+
+  /**
+   * Constructor
+   *
+   * @param productId product id
+   * @param wastedUnits number of wasted packed units
+   */
+  public StorageDiscardTotals(UUID productId, Long wastedUnits) {
+    this.productId = productId;
+    this.wastedUnits = wastedUnits != null ? wastedUnits : 0L;
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public long getWastedUnits() {
+    return wastedUnits;
+  }
+}
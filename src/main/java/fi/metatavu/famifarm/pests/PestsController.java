@@ -6,10 +6,12 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.dao.PestDAO;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.Pest;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
@@ -25,6 +27,12 @@ public class PestsController {
   
   @Inject
   private PestDAO pestDAO;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Creates new pest
@@ -35,7 +43,7 @@ public class PestsController {
    * @return created pest
    */
   public Pest createPest(LocalizedEntry name, Facility facility, UUID creatorId) {
-    return pestDAO.create(UUID.randomUUID(), name, facility, creatorId, creatorId);
+    return pestDAO.create(idController.generateId(), name, facility, creatorId, creatorId);
   }
 
   /**
@@ -69,6 +77,7 @@ public class PestsController {
    */
   public Pest updatePest(Pest pest, LocalizedEntry name, UUID lastModifierId) {
     pestDAO.updateName(pest, name, lastModifierId);
+    reportWatermarkController.bumpWatermark(pest.getFacility());
     return pest;
   }
 
@@ -80,6 +89,7 @@ public class PestsController {
   public void deletePest(Pest pest) {
     LocalizedEntry name = pest.getName();
     pestDAO.delete(pest);
+    reportWatermarkController.bumpWatermark(pest.getFacility());
     localizedValueController.deleteEntry(name);
   }
   
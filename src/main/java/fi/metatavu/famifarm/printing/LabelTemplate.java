@@ -0,0 +1,129 @@
+package fi.metatavu.famifarm.printing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled ZPL label template.
+ *
+ * Template source is split once into literal segments and ${name} placeholders, so rendering a label is a
+ * single pass appending segments into a buffer. Placeholder values are transliterated into characters
+ * supported by the printer font while they are appended.
+ */
+public class LabelTemplate {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private static final char[] TRANSLITERATIONS = createTransliterations();
+
+    private final String[] literals;
+
+    private final String[] placeholders;
+
+    private final int estimatedLength;
+
+    /**
+     * Constructor
+     *
+     * @param literals literal segments. Placeholder i is rendered between literals i and i + 1
+     * @param placeholders placeholder names
+     * @param estimatedLength estimated length of a rendered label
+     */
+    private LabelTemplate(String[] literals, String[] placeholders, int estimatedLength) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.estimatedLength = estimatedLength;
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * Each line of the source is terminated with CRLF as expected by the printers.
+     *
+     * @param source template source
+     * @return compiled template
+     * @throws IllegalArgumentException when the source contains an unterminated placeholder
+     */
+    public static LabelTemplate compile(String source) {
+        String normalized = String.join(LINE_SEPARATOR, source.strip().split("\\R")) + LINE_SEPARATOR;
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int start = normalized.indexOf("${", position);
+            if (start == -1) {
+                literals.add(normalized.substring(position));
+                break;
+            }
+
+            int end = normalized.indexOf('}', start);
+            if (end == -1) {
+                throw new IllegalArgumentException(String.format("Unterminated placeholder at %d", start));
+            }
+
+            literals.add(normalized.substring(position, start));
+            placeholders.add(normalized.substring(start + 2, end));
+            position = end + 1;
+        }
+
+        return new LabelTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]), normalized.length() + placeholders.size() * 16);
+    }
+
+    /**
+     * Renders the template. Missing values are rendered as empty strings
+     *
+     * @param values placeholder values
+     * @return printing commands
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder result = new StringBuilder(estimatedLength);
+
+        for (int i = 0; i < placeholders.length; i++) {
+            result.append(literals[i]);
+            appendTransliterated(result, values.get(placeholders[i]));
+        }
+
+        return result.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * Appends value to the buffer replacing characters not supported by the printer font
+     *
+     * @param result buffer
+     * @param value value or null
+     */
+    private static void appendTransliterated(StringBuilder result, String value) {
+        if (value == null) {
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            result.append(c < TRANSLITERATIONS.length ? TRANSLITERATIONS[c] : c);
+        }
+    }
+
+    /**
+     * Creates transliteration table for Latin-1 characters
+     *
+     * @return transliteration table
+     */
+    private static char[] createTransliterations() {
+        char[] result = new char[256];
+        for (char c = 0; c < result.length; c++) {
+            result[c] = c;
+        }
+
+        result['Ä'] = 'A';
+        result['Ö'] = 'O';
+        result['ä'] = 'a';
+        result['ö'] = 'o';
+        result['Å'] = 'O';
+        result['å'] = 'o';
+
+        return result;
+    }
+
+}
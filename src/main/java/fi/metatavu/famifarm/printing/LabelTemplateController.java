@@ -0,0 +1,115 @@
+package fi.metatavu.famifarm.printing;
+
+import fi.metatavu.famifarm.rest.model.Facility;
+import io.quarkus.runtime.Startup;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Controller for label templates.
+ *
+ * Templates are compiled once on startup. Default templates are read from the class path
+ * and can be replaced per facility and label type by pointing famifarm.printing.templates.{facility}.{label-type}
+ * into a template file, e.g. famifarm.printing.templates.juva.cut-packing=/etc/famifarm/juva-cut-packing.zpl
+ */
+@ApplicationScoped
+@Startup
+public class LabelTemplateController {
+
+    private static final String DEFAULT_TEMPLATE_RESOURCE = "fi/metatavu/famifarm/printing/labels/%s.zpl";
+
+    private static final String TEMPLATE_FILE_PROPERTY = "famifarm.printing.templates.%s.%s";
+
+    private Map<Facility, Map<LabelType, LabelTemplate>> templates;
+
+    /**
+     * Compiles templates
+     */
+    @PostConstruct
+    public void init() {
+        Map<LabelType, LabelTemplate> defaultTemplates = new EnumMap<>(LabelType.class);
+        for (LabelType labelType : LabelType.values()) {
+            defaultTemplates.put(labelType, LabelTemplate.compile(readDefaultTemplate(labelType)));
+        }
+
+        templates = new EnumMap<>(Facility.class);
+        for (Facility facility : Facility.values()) {
+            Map<LabelType, LabelTemplate> facilityTemplates = new EnumMap<>(defaultTemplates);
+
+            for (LabelType labelType : LabelType.values()) {
+                getTemplateFile(facility, labelType)
+                    .ifPresent(templateFile -> facilityTemplates.put(labelType, LabelTemplate.compile(readTemplateFile(templateFile))));
+            }
+
+            templates.put(facility, facilityTemplates);
+        }
+    }
+
+    /**
+     * Returns compiled template of a label type for a facility
+     *
+     * @param facility facility
+     * @param labelType label type
+     * @return compiled template
+     */
+    public LabelTemplate getTemplate(Facility facility, LabelType labelType) {
+        return templates.get(facility).get(labelType);
+    }
+
+    /**
+     * Returns configured template file of a label type for a facility
+     *
+     * @param facility facility
+     * @param labelType label type
+     * @return configured template file or empty if default template should be used
+     */
+    private Optional<String> getTemplateFile(Facility facility, LabelType labelType) {
+        String property = String.format(TEMPLATE_FILE_PROPERTY, facility.name().toLowerCase(), labelType.getKey());
+        return ConfigProvider.getConfig().getOptionalValue(property, String.class);
+    }
+
+    /**
+     * Reads a template file
+     *
+     * @param templateFile template file path
+     * @return template source
+     */
+    private String readTemplateFile(String templateFile) {
+        try {
+            return Files.readString(Path.of(templateFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Failed to read label template %s", templateFile), e);
+        }
+    }
+
+    /**
+     * Reads default template of a label type from the class path
+     *
+     * @param labelType label type
+     * @return template source
+     */
+    private String readDefaultTemplate(LabelType labelType) {
+        String resource = String.format(DEFAULT_TEMPLATE_RESOURCE, labelType.getKey());
+
+        try (InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalStateException(String.format("Label template %s not found", resource));
+            }
+
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Failed to read label template %s", resource), e);
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package fi.metatavu.famifarm.printing;
+
+/**
+ * Enumeration for label types
+ */
+public enum LabelType {
+
+    BASIC_PACKING ("basic-packing"),
+
+    CAMPAIGN_PACKING ("campaign-packing"),
+
+    CUT_PACKING ("cut-packing");
+
+    private final String key;
+
+    /**
+     * Constructor
+     *
+     * @param key key used in template file names and configuration
+     */
+    LabelType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns key used in template file names and configuration
+     *
+     * @return key
+     */
+    public String getKey() {
+        return key;
+    }
+
+}
@@ -0,0 +1,469 @@
+package fi.metatavu.famifarm.printing;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fi.metatavu.famifarm.ids.IdController;
+import fi.metatavu.famifarm.instances.InstanceController;
+import fi.metatavu.famifarm.persistence.dao.PrintJobDAO;
+import fi.metatavu.famifarm.persistence.model.PrintJob;
+import fi.metatavu.famifarm.rest.model.Facility;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.RunOptions;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Controller for print jobs.
+ *
+ * Labels are rendered when the job is submitted and sent to the print server on an executor with a bounded queue.
+ * Jobs that do not fit into the queue are failed. Callers either poll the job or wait for it to finish for a bounded
+ * time. When the print server can not be reached or responds with a server error, the labels not yet printed are
+ * retried with an exponentially growing delay. Retries run on a separate scheduled executor, so jobs waiting for
+ * a retry do not take places from new jobs.
+ *
+ * Rendered labels are stored with the job and each job records the instance printing it. While the instance is
+ * running, it renews the lease of its unfinished jobs periodically. On startup the instance resumes its own
+ * unfinished jobs from the first label not yet printed, so a label being sent when the instance stopped may be
+ * printed twice. Unfinished jobs of any instance that have not been updated within the lease period are considered
+ * abandoned and marked as failed. Stored status is checked before each attempt and a finished job is never
+ * printed or updated again.
+ */
+@ApplicationScoped
+public class PrintJobController {
+
+  private static final int MAX_MESSAGE_LENGTH = 191;
+
+  private static final List<PrintJobStatus> PENDING_STATUSES = List.of(PrintJobStatus.QUEUED, PrintJobStatus.PRINTING);
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Inject
+  private Logger logger;
+
+  @Inject
+  private PrintingController printingController;
+
+  @Inject
+  private PrintJobDAO printJobDAO;
+
+  @Inject
+  private IdController idController;
+
+  @Inject
+  private InstanceController instanceController;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.threads", defaultValue = "2")
+  private int threads;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.queue-size", defaultValue = "100")
+  private int queueSize;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.max-attempts", defaultValue = "5")
+  private int maxAttempts;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.retry-delay-ms", defaultValue = "1000")
+  private long retryDelay;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.retention-minutes", defaultValue = "1440")
+  private long retentionMinutes;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.lease-minutes", defaultValue = "30")
+  private long leaseMinutes;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.heartbeat-seconds", defaultValue = "60")
+  private long heartbeatSeconds;
+
+  @ConfigProperty(name = "famifarm.printing.jobs.wait-seconds", defaultValue = "60")
+  private long waitSeconds;
+
+  private final Map<UUID, CompletableFuture<PrintJob>> pendingPrintJobs = new ConcurrentHashMap<>();
+
+  private ThreadPoolExecutor executor;
+
+  private ScheduledThreadPoolExecutor scheduledExecutor;
+
+  /**
+   * Initializes executors. Scheduled executor runs retries and lease renewals
+   */
+  @PostConstruct
+  public void init() {
+    executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize));
+    scheduledExecutor = new ScheduledThreadPoolExecutor(threads);
+    scheduledExecutor.scheduleWithFixedDelay(this::renewPrintJobLeases, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Shuts down the executors
+   */
+  @PreDestroy
+  public void destroy() {
+    scheduledExecutor.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Marks abandoned jobs as failed and resumes jobs left unfinished by previous run of this instance
+   *
+   * @param event startup event
+   */
+  public void onStart(@Observes StartupEvent event) {
+    failAbandonedPrintJobs();
+
+    QuarkusTransaction.call(requireNew(), () -> printJobDAO.listByStatusesAndInstanceId(PENDING_STATUSES, instanceController.getInstanceId()))
+      .forEach(this::resumePrintJob);
+  }
+
+  /**
+   * Submits new print job
+   *
+   * @param facility facility
+   * @param printerId printer id
+   * @param labels printing commands of each label
+   * @param creatorId creator id
+   * @return submitted print job
+   */
+  public PrintJob submitPrintJob(Facility facility, String printerId, List<String> labels, UUID creatorId) {
+    deleteExpiredPrintJobs();
+    failAbandonedPrintJobs();
+
+    String serializedLabels = writeLabels(labels);
+    PrintJob printJob = QuarkusTransaction.call(requireNew(), () -> printJobDAO.create(idController.generateId(), facility, printerId, PrintJobStatus.QUEUED, labels.size(), serializedLabels, instanceController.getInstanceId(), creatorId));
+    pendingPrintJobs.put(printJob.getId(), new CompletableFuture<>());
+
+    return executePrintJob(printJob, labels, 0, 1);
+  }
+
+  /**
+   * Submits new print job and waits for it to finish. If the job does not finish within the wait period,
+   * the job is left printing and returned in its current state
+   *
+   * @param facility facility
+   * @param printerId printer id
+   * @param labels printing commands of each label
+   * @param creatorId creator id
+   * @return finished print job or pending print job if waiting timed out
+   */
+  public PrintJob printLabels(Facility facility, String printerId, List<String> labels, UUID creatorId) {
+    UUID printJobId = submitPrintJob(facility, printerId, labels, creatorId).getId();
+
+    CompletableFuture<PrintJob> finishedJob = pendingPrintJobs.get(printJobId);
+    if (finishedJob != null) {
+      try {
+        return finishedJob.get(waitSeconds, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | TimeoutException e) {
+        logger.warn("Print job {} did not finish within {} seconds", printJobId, waitSeconds);
+      }
+    }
+
+    return findPrintJob(printJobId);
+  }
+
+  /**
+   * Finds print job by id
+   *
+   * @param printJobId print job id
+   * @return found print job or null if not found
+   */
+  public PrintJob findPrintJob(UUID printJobId) {
+    return QuarkusTransaction.call(requireNew(), () -> printJobDAO.findById(printJobId));
+  }
+
+  /**
+   * Resumes an unfinished print job from the first label not yet printed
+   *
+   * @param printJob print job
+   */
+  private void resumePrintJob(PrintJob printJob) {
+    List<String> labels = readLabels(printJob);
+    if (labels == null) {
+      updatePrintJob(printJob.getId(), PrintJobStatus.FAILED, printJob.getPrintedCount(), printJob.getAttempts(), "Labels of the print job are not available");
+      return;
+    }
+
+    logger.info("Resuming print job {}", printJob.getId());
+    updatePrintJob(printJob.getId(), PrintJobStatus.QUEUED, printJob.getPrintedCount(), printJob.getAttempts(), null);
+    executePrintJob(printJob, labels, printJob.getPrintedCount(), printJob.getAttempts() + 1);
+  }
+
+  /**
+   * Queues a print job to the executor or marks it as failed if the executor rejects it because its queue is full
+   *
+   * @param printJob print job
+   * @param labels printing commands of each label
+   * @param printedCount number of labels already printed
+   * @param attempt number of the attempt starting from 1
+   * @return print job
+   */
+  private PrintJob executePrintJob(PrintJob printJob, List<String> labels, int printedCount, int attempt) {
+    UUID printJobId = printJob.getId();
+    String printerId = printJob.getPrinterId();
+
+    try {
+      executor.execute(() -> runPrintJob(printJobId, printerId, labels, printedCount, attempt));
+    } catch (RejectedExecutionException e) {
+      logger.warn("Print job queue is full, rejected print job {}", printJobId);
+      return updatePrintJob(printJobId, PrintJobStatus.FAILED, printedCount, attempt - 1, "Print queue is full");
+    }
+
+    return printJob;
+  }
+
+  /**
+   * Sends labels of a print job to the print server. Executed on print job executor thread or on scheduled
+   * executor thread when retrying.
+   *
+   * Job is printed only if it is still queued. Number of printed labels is stored after each label, so that
+   * an interrupted job can be resumed, and printing stops if the job has been finished elsewhere
+   *
+   * @param printJobId print job id
+   * @param printerId printer id
+   * @param labels printing commands of each label
+   * @param printedCount number of labels already printed
+   * @param attempt number of the attempt starting from 1
+   */
+  private void runPrintJob(UUID printJobId, String printerId, List<String> labels, int printedCount, int attempt) {
+    int printed = printedCount;
+
+    try {
+      if (!startPrintJob(printJobId, printed, attempt)) {
+        return;
+      }
+
+      while (printed < labels.size()) {
+        int status = printingController.executePrintCommands(labels.get(printed), printerId);
+        if (status == 429 || status > 499) {
+          throw new IOException(String.format("Print server responded with status %d", status));
+        }
+
+        if (status > 299) {
+          updatePrintJob(printJobId, PrintJobStatus.FAILED, printed, attempt, String.format("Print server responded with status %d", status));
+          return;
+        }
+
+        printed++;
+
+        if (printed < labels.size()) {
+          PrintJob printJob = updatePrintJob(printJobId, PrintJobStatus.PRINTING, printed, attempt, null);
+          if (printJob.getStatus() != PrintJobStatus.PRINTING) {
+            logger.warn("Print job {} was finished while printing, stopping", printJobId);
+            return;
+          }
+        }
+      }
+
+      updatePrintJob(printJobId, PrintJobStatus.PRINTED, printed, attempt, null);
+    } catch (IOException e) {
+      retryPrintJob(printJobId, printerId, labels, printed, attempt, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      updatePrintJob(printJobId, PrintJobStatus.FAILED, printed, attempt, "Printing was interrupted");
+    } catch (Exception e) {
+      logger.error(String.format("Failed to print print job %s", printJobId), e);
+      updatePrintJob(printJobId, PrintJobStatus.FAILED, printed, attempt, e.getMessage());
+    }
+  }
+
+  /**
+   * Schedules the labels not yet printed to be retried or marks the job as failed when there are no attempts left
+   *
+   * @param printJobId print job id
+   * @param printerId printer id
+   * @param labels printing commands of each label
+   * @param printedCount number of labels already printed
+   * @param attempt number of the failed attempt
+   * @param cause cause of the failure
+   */
+  private void retryPrintJob(UUID printJobId, String printerId, List<String> labels, int printedCount, int attempt, IOException cause) {
+    if (attempt >= maxAttempts) {
+      logger.error(String.format("Failed to print print job %s after %d attempts", printJobId, attempt), cause);
+      updatePrintJob(printJobId, PrintJobStatus.FAILED, printedCount, attempt, cause.getMessage());
+      return;
+    }
+
+    long delay = retryDelay << Math.min(attempt - 1, 10);
+    logger.warn("Failed to print print job {}, retrying in {} ms: {}", printJobId, delay, cause.getMessage());
+    updatePrintJob(printJobId, PrintJobStatus.QUEUED, printedCount, attempt, cause.getMessage());
+    scheduledExecutor.schedule(() -> runPrintJob(printJobId, printerId, labels, printedCount, attempt + 1), delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Marks a queued print job as printing in a new transaction
+   *
+   * @param printJobId print job id
+   * @param printedCount number of printed labels
+   * @param attempt number of the attempt
+   * @return whether the job was still queued and may be printed
+   */
+  private boolean startPrintJob(UUID printJobId, int printedCount, int attempt) {
+    boolean started = QuarkusTransaction.call(requireNew(), () -> {
+      PrintJob printJob = printJobDAO.findByIdForUpdate(printJobId);
+      if (printJob.getStatus() != PrintJobStatus.QUEUED) {
+        return false;
+      }
+
+      printJobDAO.updatePrintedCount(printJob, printedCount);
+      printJobDAO.updateAttempts(printJob, attempt);
+      printJobDAO.updateMessage(printJob, null);
+      printJobDAO.updateStatus(printJob, PrintJobStatus.PRINTING);
+      return true;
+    });
+
+    if (!started) {
+      logger.warn("Print job {} is no longer queued, skipping", printJobId);
+      notifyFinished(findPrintJob(printJobId));
+    }
+
+    return started;
+  }
+
+  /**
+   * Updates print job in a new transaction. Finished jobs are not updated. When the job finishes,
+   * callers waiting for it are notified
+   *
+   * @param printJobId print job id
+   * @param status status
+   * @param printedCount number of printed labels
+   * @param attempts number of attempts
+   * @param message message or null
+   * @return updated print job or the finished job as stored if the job has already finished
+   */
+  private PrintJob updatePrintJob(UUID printJobId, PrintJobStatus status, int printedCount, int attempts, String message) {
+    PrintJob result = QuarkusTransaction.call(requireNew(), () -> {
+      PrintJob printJob = printJobDAO.findByIdForUpdate(printJobId);
+      if (!PENDING_STATUSES.contains(printJob.getStatus())) {
+        return printJob;
+      }
+
+      printJobDAO.updatePrintedCount(printJob, printedCount);
+      printJobDAO.updateAttempts(printJob, attempts);
+      printJobDAO.updateMessage(printJob, StringUtils.abbreviate(message, MAX_MESSAGE_LENGTH));
+      return printJobDAO.updateStatus(printJob, status);
+    });
+
+    notifyFinished(result);
+    return result;
+  }
+
+  /**
+   * Notifies callers waiting for a print job if the job has finished
+   *
+   * @param printJob print job
+   */
+  private void notifyFinished(PrintJob printJob) {
+    if (PENDING_STATUSES.contains(printJob.getStatus())) {
+      return;
+    }
+
+    CompletableFuture<PrintJob> finishedJob = pendingPrintJobs.remove(printJob.getId());
+    if (finishedJob != null) {
+      finishedJob.complete(printJob);
+    }
+  }
+
+  /**
+   * Marks pending print jobs that have not been updated within the lease period as failed.
+   * These jobs have been left behind by instances that have stopped renewing their leases
+   */
+  private void failAbandonedPrintJobs() {
+    OffsetDateTime leaseStart = OffsetDateTime.now().minusMinutes(leaseMinutes);
+
+    QuarkusTransaction.run(requireNew(), () ->
+      printJobDAO.updateStatusByStatusesAndModifiedAtBefore(PENDING_STATUSES, leaseStart, PrintJobStatus.FAILED)
+    );
+  }
+
+  /**
+   * Renews leases of pending print jobs of this instance. Executed periodically on the scheduled executor
+   */
+  private void renewPrintJobLeases() {
+    try {
+      QuarkusTransaction.run(requireNew(), () ->
+        printJobDAO.updateModifiedAtByStatusesAndInstanceId(PENDING_STATUSES, instanceController.getInstanceId(), OffsetDateTime.now())
+      );
+    } catch (Exception e) {
+      logger.error("Failed to renew print job leases", e);
+    }
+  }
+
+  /**
+   * Serializes printing commands of labels for storing them with the print job
+   *
+   * @param labels printing commands of each label
+   * @return serialized labels
+   */
+  private String writeLabels(List<String> labels) {
+    try {
+      return objectMapper.writeValueAsString(labels);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize labels", e);
+    }
+  }
+
+  /**
+   * Reads printing commands of labels stored with a print job
+   *
+   * @param printJob print job
+   * @return printing commands of each label or null if labels are not available
+   */
+  private List<String> readLabels(PrintJob printJob) {
+    if (printJob.getLabels() == null) {
+      return null;
+    }
+
+    try {
+      return objectMapper.readValue(printJob.getLabels(), new TypeReference<List<String>>() {});
+    } catch (JsonProcessingException e) {
+      logger.error(String.format("Failed to read labels of print job %s", printJob.getId()), e);
+      return null;
+    }
+  }
+
+  /**
+   * Deletes finished print jobs older than the retention period
+   */
+  private void deleteExpiredPrintJobs() {
+    OffsetDateTime retentionStart = OffsetDateTime.now().minusMinutes(retentionMinutes);
+
+    QuarkusTransaction.run(requireNew(), () ->
+      printJobDAO.deleteAll(printJobDAO.listByStatusesAndCreatedAtBefore(List.of(PrintJobStatus.PRINTED, PrintJobStatus.FAILED), retentionStart))
+    );
+  }
+
+  /**
+   * Returns transaction options for running in a new transaction
+   *
+   * @return transaction options
+   */
+  private RunOptions requireNew() {
+    return QuarkusTransaction.runOptions().semantic(RunOptions.Semantic.REQUIRE_NEW);
+  }
+
+}
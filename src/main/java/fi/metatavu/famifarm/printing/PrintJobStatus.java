@@ -0,0 +1,13 @@
+package fi.metatavu.famifarm.printing;
+
+/**
+ * Status of a print job
+ */
+public enum PrintJobStatus {
+
+  QUEUED,
+  PRINTING,
+  PRINTED,
+  FAILED
+
+}
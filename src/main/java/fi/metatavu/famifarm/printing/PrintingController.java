@@ -8,153 +8,147 @@ import fi.metatavu.famifarm.persistence.model.CutPacking;
 import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.rest.model.PackingType;
 import fi.metatavu.famifarm.rest.model.Printer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A controller class for printing packing id qr code
+ *
+ * Labels are rendered from templates compiled by {@link LabelTemplateController}. Requests to the print server
+ * are sent with a shared HTTP client, which keeps connections to the server open between labels.
  */
 @ApplicationScoped
 public class PrintingController {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
     @Inject
     private LocalizedValueController localizedValueController;
 
+    @Inject
+    private LabelTemplateController labelTemplateController;
+
+    @ConfigProperty(name = "famifarm.printing.url", defaultValue = "https://famifarm-print.metatavu.io/rest/v1")
+    private String printServerUrl;
+
+    @ConfigProperty(name = "famifarm.printing.timeout-seconds", defaultValue = "30")
+    private long timeoutSeconds;
+
+    private HttpClient httpClient;
+
+    /**
+     * Initializes the HTTP client
+     */
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(timeoutSeconds))
+            .build();
+    }
+
     /**
-     * Prints a QR code
+     * Creates printing commands of a QR code label
      *
-     * @param printerId the id of a printer to use
      * @param packing a packing to print
      * @param locale locale
      *
-     * @return HTTP status returned by the printing server
-     * @throws IOException thrown when printing goes wrong
+     * @return printing commands
      */
-    public int printQrCode(String printerId, Packing packing, Locale locale) throws IOException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-        String packingTime = formatter.format(packing.getTime());
+    public String createLabel(Packing packing, Locale locale) {
+        Map<String, String> values = new HashMap<>();
+        values.put("packingTime", DATE_FORMATTER.format(packing.getTime()));
+        values.put("id", packing.getId().toString());
+
         if (packing.getType() == PackingType.BASIC) {
-            String productName = localizedValueController.getValue(packing.getProduct().getName(), locale);
-            String packageSize = localizedValueController.getValue(packing.getPackageSize().getName(), locale);
-            List<String> lines = new ArrayList<String>();
-            lines.add("^XA");
-            lines.add(String.format("^FO30,30,2^AfN,40,30^FD%s^FS", replaceUmlauts(productName)));
-            lines.add(String.format("^FO30,85,2^AfN,40,30^FD%d * %s^FS", packing.getPackedCount(), replaceUmlauts(packageSize)));
-            lines.add(String.format("^FO30,155,2^AfN,40,30^FD%s^FS", packingTime));
-            lines.add(String.format("^FO480,155,2^BQN,2,10,H,0^FD:::%s^FS", packing.getId().toString()));
-            lines.add("^XZ");
-            return executePrintCommands(lines, printerId);
-        } else {
-            String campaignName = packing.getCampaign().getName();
-            List<String> lines = new ArrayList<String>();
-            lines.add("^XA");
-            lines.add(String.format("^FO30,30,2^AfN,40,30^FD%s^FS", replaceUmlauts(campaignName)));
-            lines.add("^FO30,85,2^AfN,40,30^FD^FS");
-            lines.add(String.format("^FO30,155,2^AfN,40,30^FD%s^FS", packingTime));
-            lines.add(String.format("^FO480,155,2^BQN,2,10,H,0^FD:::%s^FS", packing.getId().toString()));
-            lines.add("^XZ");
-            return executePrintCommands(lines, printerId);
+            values.put("productName", localizedValueController.getValue(packing.getProduct().getName(), locale));
+            values.put("packageSize", localizedValueController.getValue(packing.getPackageSize().getName(), locale));
+            values.put("packedCount", String.valueOf(packing.getPackedCount()));
+            return labelTemplateController.getTemplate(packing.getFacility(), LabelType.BASIC_PACKING).render(values);
         }
+
+        values.put("campaignName", packing.getCampaign().getName());
+        return labelTemplateController.getTemplate(packing.getFacility(), LabelType.CAMPAIGN_PACKING).render(values);
     }
 
     /**
-     * Prints a QR code
+     * Creates printing commands of a QR code label
      *
-     * @param printerId the id of a printer to use
      * @param cutPacking a packing to print
      * @param locale locale
      *
-     * @return HTTP status returned by the printing server
-     * @throws IOException thrown when printing goes wrong
+     * @return printing commands
      */
-    public int printQrCode(String printerId, CutPacking cutPacking, Locale locale) throws IOException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-        String sowingTime = formatter.format(cutPacking.getSowingDay());
-        String cuttingTime = formatter.format(cutPacking.getCuttingDay());
-        DecimalFormat df2 = new DecimalFormat("#.##");
-        String kilos = df2.format(cutPacking.getWeight());
-        String productName = localizedValueController.getValue(cutPacking.getProduct().getName(), locale);
-        List<String> lines = new ArrayList<>();
-        lines.add("^XA");
-        lines.add("^CF0,80");
-        lines.add(String.format("^FO15,30^FD%s^FS", replaceUmlauts(productName)));
-        lines.add("^CF0,60");
-        lines.add(String.format("^FO15,170^FDWeight: %s kg^FS", kilos));
-        lines.add(String.format("^FO15,240^FDSowed: %s^FS", sowingTime));
-        lines.add(String.format("^FO15,310^FDCut: %s^FS", cuttingTime));
-        lines.add("^CF0,30");
-        lines.add(String.format("^FO15,500^FDStorage conditions: %s^FS", replaceUmlauts(cutPacking.getStorageCondition())));
-        lines.add(String.format("^FO15,550^FDManufacturer: %s^FS", replaceUmlauts(cutPacking.getProducer())));
-        lines.add(String.format("^FO15,600^FDContact: %s^FS", replaceUmlauts(cutPacking.getContactInformation())));
-        lines.add("^FO50,700^GB700,1,2,B,0^FS");
-        lines.add(String.format("^FO250,800^BQN,2,10,H^FD:::%s^FS", cutPacking.getId().toString()));
-        lines.add("^CF0,30");
-        lines.add(String.format("^FO100,1130^FD%s^FS", cutPacking.getId().toString()));
-        lines.add("^XZ");
-
-        return executePrintCommands(lines, printerId);
+    public String createLabel(CutPacking cutPacking, Locale locale) {
+        Map<String, String> values = new HashMap<>();
+        values.put("productName", localizedValueController.getValue(cutPacking.getProduct().getName(), locale));
+        values.put("weight", new DecimalFormat("#.##").format(cutPacking.getWeight()));
+        values.put("sowingTime", DATE_FORMATTER.format(cutPacking.getSowingDay()));
+        values.put("cuttingTime", DATE_FORMATTER.format(cutPacking.getCuttingDay()));
+        values.put("storageCondition", cutPacking.getStorageCondition());
+        values.put("producer", cutPacking.getProducer());
+        values.put("contactInformation", cutPacking.getContactInformation());
+        values.put("id", cutPacking.getId().toString());
+
+        return labelTemplateController.getTemplate(cutPacking.getProduct().getFacility(), LabelType.CUT_PACKING).render(values);
     }
 
     /**
-     * Executes printing commands
+     * Sends printing commands to a printer
      *
-     * @param lines strings that contain printing commands
+     * @param command printing commands
      * @param printerId the id of a printer to use
      * @return HTTP status returned by the printing server
      * @throws IOException thrown when printing goes wrong
+     * @throws InterruptedException thrown when waiting for the printing server is interrupted
      */
-    private int executePrintCommands (List<String> lines, String printerId) throws IOException {
-        URL url = new URL("https://famifarm-print.metatavu.io/rest/v1/printers/"+printerId+"/raw");
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("POST");
-        connection.setDoOutput(true);
-        String command = String.format("%s%s", lines.stream().collect( Collectors.joining("\r\n" ) ), "\r\n");
+    public int executePrintCommands(String command, String printerId) throws IOException, InterruptedException {
         Map<String, String> commandObject = new HashMap<>();
-        commandObject.put("command",command);
-        byte[] data = new ObjectMapper().writeValueAsBytes(commandObject);
-        int length = data.length;
-        connection.setFixedLengthStreamingMode(length);
-        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-        connection.connect();
-        try(OutputStream os = connection.getOutputStream()) {
-            os.write(data);
-        }
-        int responseCode = connection.getResponseCode();
-        connection.disconnect();
-        return responseCode;
-    }
+        commandObject.put("command", command);
+
+        HttpRequest request = HttpRequest.newBuilder(getPrintServerUri(String.format("printers/%s/raw", URLEncoder.encode(printerId, StandardCharsets.UTF_8))))
+            .timeout(Duration.ofSeconds(timeoutSeconds))
+            .header("Content-Type", "application/json; charset=UTF-8")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(commandObject)))
+            .build();
 
-    private String replaceUmlauts(String input) {
-        return input.replaceAll("Ä", "A").replaceAll("Ö", "O").replaceAll("ä", "a").replaceAll("ö", "o").replaceAll("Å", "O").replaceAll("å", "o");
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
     }
 
     public List<Printer> getPrinters() throws IOException {
-        URL url = new URL("https://famifarm-print.metatavu.io/rest/v1/printers/");
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        int status = connection.getResponseCode();
-        BufferedReader in = new BufferedReader(
-                new InputStreamReader(connection.getInputStream()));
-        String inputLine;
-        StringBuffer content = new StringBuffer();
-        while ((inputLine = in.readLine()) != null) {
-            content.append(inputLine);
+        HttpRequest request = HttpRequest.newBuilder(getPrintServerUri("printers/"))
+            .timeout(Duration.ofSeconds(timeoutSeconds))
+            .GET()
+            .build();
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while listing printers", e);
+        }
+
+        if (response.statusCode() > 299) {
+            throw new IOException(String.format("Print server responded with status %d", response.statusCode()));
         }
-        in.close();
-        connection.disconnect();
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<TranslatedPrinter> translatedPrinters = objectMapper.readValue(content.toString(), new TypeReference<List<TranslatedPrinter>>(){});
+
+        List<TranslatedPrinter> translatedPrinters = objectMapper.readValue(response.body(), new TypeReference<List<TranslatedPrinter>>(){});
         List<Printer> printers = new ArrayList<>();
         for (TranslatedPrinter translatedPrinter: translatedPrinters) {
             Printer printer = new Printer();
@@ -165,6 +159,28 @@ public class PrintingController {
 
         return printers;
     }
+
+    /**
+     * Returns whether a printer is available in the print server
+     *
+     * @param printerId printer id
+     * @return whether printer is available
+     * @throws IOException thrown when listing printers fails
+     */
+    public boolean isPrinterAvailable(String printerId) throws IOException {
+        return getPrinters().stream().anyMatch(printer -> printer.getId().equals(printerId));
+    }
+
+    /**
+     * Returns URI of a print server resource
+     *
+     * @param path path relative to the print server URL
+     * @return URI
+     */
+    private URI getPrintServerUri(String path) {
+        String baseUrl = printServerUrl.endsWith("/") ? printServerUrl : printServerUrl + "/";
+        return URI.create(baseUrl + path);
+    }
 }
 
 class TranslatedPrinter {
@@ -173,5 +189,3 @@ class TranslatedPrinter {
     @JsonProperty("friendlyName")
     String friendlyName;
 }
-
-
@@ -6,11 +6,13 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.CutPackingDAO;
 import fi.metatavu.famifarm.persistence.dao.ProductionLineDAO;
 import fi.metatavu.famifarm.persistence.model.CutPacking;
 import fi.metatavu.famifarm.persistence.model.ProductionLine;
 import fi.metatavu.famifarm.rest.model.Facility;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 @ApplicationScoped
 public class ProductionLineController {
@@ -21,6 +23,12 @@ public class ProductionLineController {
   @Inject
   private CutPackingDAO cutPackingDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
   /**
    * Creates new production line
    *
@@ -31,7 +39,8 @@ public class ProductionLineController {
    * @return created production line
    */
   public ProductionLine createProductionLine(Facility facility, String lineNumber, Integer defaultGutterHoleCount, UUID userId) {
-    return productionLineDAO.create(UUID.randomUUID(), facility, lineNumber, defaultGutterHoleCount, userId, userId);
+    reportWatermarkController.bumpWatermark(facility);
+    return productionLineDAO.create(idController.generateId(), facility, lineNumber, defaultGutterHoleCount, userId, userId);
   }
 
   /**
@@ -68,6 +77,7 @@ public class ProductionLineController {
   public ProductionLine updateProductionLine(ProductionLine productionLine, String lineNumber, Integer defaultGutterHoleCount, UUID lastModifierId) {
     productionLineDAO.updateLineNumber(productionLine, lineNumber, lastModifierId);
     productionLineDAO.updateDefaultGutterHoleCount(productionLine, defaultGutterHoleCount, lastModifierId);
+    reportWatermarkController.bumpWatermark(productionLine.getFacility());
     return productionLine;
   }
 
@@ -77,12 +87,13 @@ public class ProductionLineController {
    * @param productionLine productionLine to be deleted
    */
   public void deleteProductionLine(ProductionLine productionLine) {
-    List<CutPacking> cutPackings = cutPackingDAO.list(null, null, null, null, productionLine, null, null);
+    List<CutPacking> cutPackings = cutPackingDAO.list(null, null, null, null, productionLine, null, null, null);
 
     for (CutPacking cutPacking : cutPackings) {
       cutPackingDAO.delete(cutPacking);
     }
 
     productionLineDAO.delete(productionLine);
+    reportWatermarkController.bumpWatermark(productionLine.getFacility());
   }
 }
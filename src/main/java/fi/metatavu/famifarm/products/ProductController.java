@@ -1,16 +1,21 @@
 package fi.metatavu.famifarm.products;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.*;
 import fi.metatavu.famifarm.rest.model.Facility;
 import fi.metatavu.famifarm.rest.model.HarvestEventType;
 import fi.metatavu.famifarm.persistence.model.*;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 
 @ApplicationScoped
 public class ProductController {
@@ -24,6 +29,9 @@ public class ProductController {
   @Inject
   CutPackingDAO cutPackingDAO;
 
+  @Inject
+  ReportWatermarkController reportWatermarkController;
+
   @Inject
   ProductPackageSizeDAO productPackageSizeDAO;
 
@@ -33,6 +41,9 @@ public class ProductController {
   @Inject
   PackingBasketDAO packingBasketDAO;
 
+  @Inject
+  IdController idController;
+
   /**
    * Creates new product
    * 
@@ -47,8 +58,9 @@ public class ProductController {
    * @return created product
    */
   public Product createProduct(LocalizedEntry name, List<PackageSize> packageSizes, boolean isSubcontractorProduct, boolean active, boolean isEndProduct, boolean isRawMaterial, Double salesWeight, Facility facility, UUID creatorId) {
-    Product product = productDAO.create(UUID.randomUUID(), name, isSubcontractorProduct, active, isEndProduct, isRawMaterial, salesWeight, facility, creatorId, creatorId);
-    packageSizes.forEach(packageSize -> productPackageSizeDAO.create(UUID.randomUUID(), product, packageSize));
+    Product product = productDAO.create(idController.generateId(), name, isSubcontractorProduct, active, isEndProduct, isRawMaterial, salesWeight, facility, creatorId, creatorId);
+    productPackageSizeDAO.createAll(product, packageSizes);
+    reportWatermarkController.bumpWatermark(facility);
     return product;
   }
 
@@ -94,14 +106,8 @@ public class ProductController {
     productDAO.updateName(product, name, lastModifierId);
 
     if (packageSizes != null) {
-      List<ProductPackageSize> existingPackageSizes = productPackageSizeDAO.listByProduct(product);
-      for (ProductPackageSize productPackageSize : existingPackageSizes) {
-        productPackageSizeDAO.delete(productPackageSize);
-      }
-
-      for (PackageSize packageSize : packageSizes) {
-        productPackageSizeDAO.create(UUID.randomUUID(), product, packageSize);
-      }
+      productPackageSizeDAO.deleteAll(productPackageSizeDAO.listByProduct(product));
+      productPackageSizeDAO.createAll(product, packageSizes);
     }
 
     productDAO.updateIsSubcontractorProduct(product, isSubcontractorProduct, lastModifierId);
@@ -109,6 +115,7 @@ public class ProductController {
     productDAO.updateIsEndProduct(product, isEndProduct, lastModifierId);
     productDAO.updateIsRawMaterial(product, isRawMaterial, lastModifierId);
     productDAO.updateSalesWeight(product, salesWeight, lastModifierId);
+    reportWatermarkController.bumpWatermark(product.getFacility());
     return product;
   }
 
@@ -124,7 +131,7 @@ public class ProductController {
       campaignProductDAO.delete(campaignProduct);
     }
 
-    List<CutPacking> cutPackings = cutPackingDAO.list(null, null, null, product, null, null, null);
+    List<CutPacking> cutPackings = cutPackingDAO.list(null, null, null, product, null, null, null, null);
 
     for (CutPacking cutPacking : cutPackings) {
       cutPackingDAO.delete(cutPacking);
@@ -146,6 +153,7 @@ public class ProductController {
       .forEach(productAllowedHarvestTypeDAO::delete);
 
     productDAO.delete(product);
+    reportWatermarkController.bumpWatermark(product.getFacility());
   }
 
   /**
@@ -175,6 +183,44 @@ public class ProductController {
     return productAllowedHarvestTypeDAO.listByProduct(product);
   }
 
+  /**
+   * Lists package size ids of given products with a single query
+   *
+   * @param products products
+   * @return package size ids mapped by product ids. Products without package sizes are not included
+   */
+  public Map<UUID, List<UUID>> listPackageSizesForProducts(Collection<Product> products) {
+    Map<UUID, List<UUID>> result = new HashMap<>();
+    if (products.isEmpty()) {
+      return result;
+    }
+
+    for (ProductPackageSize productPackageSize : productPackageSizeDAO.listByProducts(products)) {
+      result.computeIfAbsent(productPackageSize.getProduct().getId(), productId -> new ArrayList<>()).add(productPackageSize.getPackageSize().getId());
+    }
+
+    return result;
+  }
+
+  /**
+   * Lists allowed harvest types of given products with a single query
+   *
+   * @param products products
+   * @return allowed harvest types mapped by product ids. Products without allowed harvest types are not included
+   */
+  public Map<UUID, List<HarvestEventType>> listAllowedHarvestTypesForProducts(Collection<Product> products) {
+    Map<UUID, List<HarvestEventType>> result = new HashMap<>();
+    if (products.isEmpty()) {
+      return result;
+    }
+
+    for (ProductAllowedHarvestType allowedHarvestType : productAllowedHarvestTypeDAO.listByProducts(products)) {
+      result.computeIfAbsent(allowedHarvestType.getProduct().getId(), productId -> new ArrayList<>()).add(allowedHarvestType.getHarvestType());
+    }
+
+    return result;
+  }
+
   /**
    * Creates new allowed harvest type for product
    * 
@@ -183,7 +229,7 @@ public class ProductController {
    * @return created allowed harvest type
    */
   public ProductAllowedHarvestType createAllowedHarvestType(HarvestEventType type, Product product) {
-    return productAllowedHarvestTypeDAO.create(UUID.randomUUID(), type, product);
+    return productAllowedHarvestTypeDAO.create(idController.generateId(), type, product);
   }
 
 
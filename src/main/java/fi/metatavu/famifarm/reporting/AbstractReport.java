@@ -5,8 +5,12 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.inject.Inject;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Abstract class for reports which parses dates and users
@@ -31,6 +35,16 @@ public abstract class AbstractReport implements Report {
     return userCache.get(userId);
   }
 
+  /**
+   * Resolves formatted names of given users with a single bulk lookup
+   *
+   * @param userIds user ids
+   * @return user cache instance containing formatted names of given users
+   */
+  protected Map<UUID, String> getFormattedUsers(Collection<UUID> userIds) {
+    return new HashMap<>(userController.getUserDisplayNames(userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet())));
+  }
+
   /**
    * Parse date
    *
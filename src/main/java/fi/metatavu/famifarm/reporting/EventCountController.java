@@ -1,7 +1,11 @@
 package fi.metatavu.famifarm.reporting;
 
 import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -9,9 +13,9 @@ import javax.inject.Inject;
 
 import fi.metatavu.famifarm.campaigns.CampaignController;
 import fi.metatavu.famifarm.discards.StorageDiscardController;
-import fi.metatavu.famifarm.events.EventController;
+import fi.metatavu.famifarm.events.HarvestEventController;
 import fi.metatavu.famifarm.events.PlantingEventController;
-import fi.metatavu.famifarm.persistence.dao.HarvestBasketDAO;
+import fi.metatavu.famifarm.events.SowingEventController;
 import fi.metatavu.famifarm.persistence.model.*;
 import fi.metatavu.famifarm.rest.model.EventType;
 import fi.metatavu.famifarm.rest.model.Facility;
@@ -27,10 +31,10 @@ import fi.metatavu.famifarm.rest.model.PotType;
 public class EventCountController {
 
   @Inject
-  private EventController eventController;
+  private SowingEventController sowingEventController;
 
   @Inject
-  public HarvestBasketDAO harvestBasketDAO;
+  private HarvestEventController harvestEventController;
 
   @Inject
   private PlantingEventController plantingEventController;
@@ -42,70 +46,105 @@ public class EventCountController {
   private StorageDiscardController storageDiscardController;
 
   /**
-   * Counts packed units by product
+   * Counts packed units for all products in a single pass.
+   *
+   * Campaign packings are expanded into the products of their campaigns. Products of all campaigns are loaded
+   * with a single query.
    *
    * @param packings list of packings to count from
-   * @param product product to count by
-   * @return number of packed units
+   * @return number of packed units mapped by product id
    */
-  public Double countPackedUnitsByProduct(List<Packing> packings, Product product) {
-    List<Packing> productPackings = packings.stream().filter(packing -> packing.getType() == PackingType.BASIC && packing.getProduct().getId().equals(product.getId())).collect(Collectors.toList());
-    Double count = 0d;
-    for (Packing packing : productPackings) {
-      if (packing.getPackedCount() != null &&
-          packing.getPackageSize() != null &&
-          packing.getPackageSize().getSize() != null) {
-            count+= packing.getPackedCount() * packing.getPackageSize().getSize();
-          }
+  public Map<UUID, Double> countPackedUnitsByProduct(List<Packing> packings) {
+    Map<UUID, Double> result = new HashMap<>();
+    Map<UUID, Campaign> campaigns = new HashMap<>();
+
+    for (Packing packing : packings) {
+      if (packing.getType() == PackingType.BASIC) {
+        if (packing.getPackedCount() != null &&
+            packing.getPackageSize() != null &&
+            packing.getPackageSize().getSize() != null) {
+          result.merge(packing.getProduct().getId(), (double) packing.getPackedCount() * packing.getPackageSize().getSize(), Double::sum);
+        }
+      } else if (packing.getType() == PackingType.CAMPAIGN && packing.getCampaign() != null) {
+        campaigns.putIfAbsent(packing.getCampaign().getId(), packing.getCampaign());
+      }
     }
-    List<Packing> campaingPackings = packings.stream().filter(packing -> packing.getType() == PackingType.CAMPAIGN).collect(Collectors.toList());
-    for (Packing campaingPacking : campaingPackings) {
-      Campaign campaing = campaingPacking.getCampaign();
-      if (campaing != null) {
-        List<CampaignProduct> campaignProducts = campaingController.listCampaingProductsByCampaign(campaing);
-        Integer campaingProductCount = campaignProducts
-          .stream()
-          .filter(campaingProduct -> campaingProduct.getProduct() != null && campaingProduct.getProduct().getId().equals(product.getId()))
-          .mapToInt(CampaignProduct::getCount)
-          .sum();
-          count += campaingProductCount;
+
+    Map<UUID, List<CampaignProduct>> campaignProducts = campaingController.listCampaignProductsByCampaigns(campaigns.values())
+      .stream()
+      .filter(campaignProduct -> campaignProduct.getProduct() != null)
+      .collect(Collectors.groupingBy(campaignProduct -> campaignProduct.getCampaign().getId()));
+
+    for (Packing packing : packings) {
+      if (packing.getType() == PackingType.CAMPAIGN && packing.getCampaign() != null) {
+        for (CampaignProduct campaignProduct : campaignProducts.getOrDefault(packing.getCampaign().getId(), Collections.emptyList())) {
+          result.merge(campaignProduct.getProduct().getId(), (double) campaignProduct.getCount(), Double::sum);
+        }
       }
     }
-    return count;
+
+    return result;
   }
 
   /**
-   * Counts wasted packed units by product
-   * 
-   * @param product product to count by
+   * Counts wasted packed units for all products with a single aggregate query
+   *
    * @param fromTime time to count from
    * @param toTime time to count to
    * @param facility facility
-   * @return number of wasted, already packed units
+   * @return number of wasted, already packed units mapped by product id
    */
-  public Double countWastedPackedUnitsByProduct(Product product, OffsetDateTime fromTime, OffsetDateTime toTime, Facility facility) {
-    List<StorageDiscard> storageDiscards = storageDiscardController.listStorageDiscards(null, null, fromTime, toTime, product, facility);
-    Double wastedPackedUnits = 0d;
-    for (StorageDiscard storageDiscard : storageDiscards) {
-      wastedPackedUnits += (storageDiscard.getPackageSize().getSize() * storageDiscard.getDiscardAmount());
-    }
-    return wastedPackedUnits;
+  public Map<UUID, Double> countWastedPackedUnitsByProduct(OffsetDateTime fromTime, OffsetDateTime toTime, Facility facility) {
+    return storageDiscardController.listStorageDiscardTotals(fromTime, toTime, facility)
+      .stream()
+      .collect(Collectors.toMap(StorageDiscardTotals::getProductId, totals -> (double) totals.getWastedUnits()));
   }
 
   /**
-   * Counts units from list of events by event type and product
-   * 
+   * Counts units from list of events for all products and event types in a single pass
+   *
    * @param events list of events to count from
-   * @param product product to count by
-   * @param eventType event type to count by
-   * @return  number of processed units
+   * @return unit counts mapped by product id
    */
-  public Double countUnitsByProductAndEventType(List<Event> events, Product product, EventType eventType) {
-    List<Event> productEvents = events.stream()
-        .filter(event -> event.getProduct().getId().equals(product.getId()))
-        .collect(Collectors.toList());
-    
-    return countUnitsByEventType(productEvents, eventType);
+  public Map<UUID, ProductUnitCounts> countUnitsByProduct(List<Event> events) {
+    Map<UUID, ProductUnitCounts> result = new HashMap<>();
+    Map<UUID, PotType> sowingPotTypes = getFirstSowingPotTypes(events);
+    Map<UUID, PlantingEvent> latestPlantings = getLatestPlantings(events);
+
+    for (Event event : events) {
+      Product product = event.getProduct();
+      ProductUnitCounts productUnitCounts = result.computeIfAbsent(product.getId(), productId -> new ProductUnitCounts(product));
+      productUnitCounts.add(event.getType(), countUnits(event, sowingPotTypes, latestPlantings));
+    }
+
+    return result;
+  }
+
+  /**
+   * Counts units of a single event
+   *
+   * @param event event to count units from
+   * @param sowingPotTypes pot types of the first sowings of the products mapped by product id
+   * @param latestPlantings latest plantings before harvest events mapped by harvest event id
+   * @return number of processed units
+   */
+  private double countUnits(Event event, Map<UUID, PotType> sowingPotTypes, Map<UUID, PlantingEvent> latestPlantings) {
+    switch (event.getType()) {
+      case SOWING:
+        return countSowedUnits((SowingEvent) event);
+      case TABLE_SPREAD:
+        return countSpreadUnits((TableSpreadEvent) event, sowingPotTypes);
+      case WASTAGE:
+        return ((WastageEvent) event).getAmount();
+      case PLANTING:
+        return countPlantedUnits((PlantingEvent) event);
+      case CULTIVATION_OBSERVATION:
+        return 0d; //Cultivation observation events dont store amount
+      case HARVEST:
+        return countHarvestedUnits((HarvestEvent) event, latestPlantings);
+      default:
+        return 0d;
+    }
   }
 
   /**
@@ -144,8 +183,7 @@ public class EventCountController {
     Double count = 0d;
     for (Event event : events) {
       if (event.getType() == EventType.SOWING) {
-        SowingEvent sowingEvent = (SowingEvent) event;
-        count += (sowingEvent.getAmount() * getTraySizeForPotType(sowingEvent));
+        count += countSowedUnits((SowingEvent) event);
       }
     }
 
@@ -160,10 +198,10 @@ public class EventCountController {
    */
   public Double countSpreadUnits(List<Event> events) {
     Double count = 0d;
+    Map<UUID, PotType> sowingPotTypes = getFirstSowingPotTypes(events);
     for (Event event : events) {
       if (event.getType() == EventType.TABLE_SPREAD) {
-        TableSpreadEvent tableSpreadEvent = (TableSpreadEvent) event;
-        count += (tableSpreadEvent.getTrayCount() * getPotTypeAmount(event));
+        count += countSpreadUnits((TableSpreadEvent) event, sowingPotTypes);
       }
     }
     
@@ -180,8 +218,7 @@ public class EventCountController {
     Double count = 0d;
     for (Event event : events) {
       if (event.getType() == EventType.PLANTING) {
-        PlantingEvent plantingEvent = (PlantingEvent) event;
-        count += (plantingEvent.getGutterCount() * plantingEvent.getGutterHoleCount());
+        count += countPlantedUnits((PlantingEvent) event);
       }
     }
 
@@ -196,12 +233,11 @@ public class EventCountController {
    */
   public Double countHarvestedUnits(List<Event> events) {
     Double count = 0d;
+    Map<UUID, PlantingEvent> latestPlantings = getLatestPlantings(events);
 
     for (Event event : events) {
       if (event.getType() == EventType.HARVEST) {
-        HarvestEvent harvestEvent = (HarvestEvent) event;
-        Integer gutterHoleCount = getGutterHoleCount(harvestEvent);
-        count += (harvestEvent.getGutterCount() * gutterHoleCount);
+        count += countHarvestedUnits((HarvestEvent) event, latestPlantings);
       }
     }
     
@@ -234,14 +270,15 @@ public class EventCountController {
    * @return number of baskets
    */
   public Double countHarvestedBaskets(List<Event> events) {
+    List<HarvestEvent> harvestEvents = events.stream()
+      .filter(event -> event.getType() == EventType.HARVEST)
+      .map(HarvestEvent.class::cast)
+      .collect(Collectors.toList());
+
     double count = 0d;
 
-    for (Event event : events) {
-      if (event.getType() == EventType.HARVEST) {
-        HarvestEvent harvestEvent = (HarvestEvent) event;
-        List<HarvestBasket> harvestBaskets = harvestBasketDAO.listByHarvestEvent(harvestEvent);
-        count += harvestBaskets.size();
-      }
+    for (HarvestBasketTotals harvestBasketTotals : harvestEventController.getHarvestBasketTotals(harvestEvents).values()) {
+      count += harvestBasketTotals.getBasketCount();
     }
 
     return count;
@@ -265,35 +302,104 @@ public class EventCountController {
     return count;
   }
 
+  /**
+   * Counts sowed units of a single sowing event
+   *
+   * @param sowingEvent sowing event
+   * @return number of sowed units
+   */
+  private double countSowedUnits(SowingEvent sowingEvent) {
+    return sowingEvent.getAmount() * getTraySizeForPotType(sowingEvent);
+  }
+
+  /**
+   * Counts spread units of a single table spread event
+   *
+   * @param tableSpreadEvent table spread event
+   * @param sowingPotTypes pot types of the first sowings of the products mapped by product id
+   * @return number of spread units
+   */
+  private double countSpreadUnits(TableSpreadEvent tableSpreadEvent, Map<UUID, PotType> sowingPotTypes) {
+    return tableSpreadEvent.getTrayCount() * getPotTypeAmount(tableSpreadEvent, sowingPotTypes);
+  }
+
+  /**
+   * Counts planted units of a single planting event
+   *
+   * @param plantingEvent planting event
+   * @return number of planted units
+   */
+  private double countPlantedUnits(PlantingEvent plantingEvent) {
+    return plantingEvent.getGutterCount() * plantingEvent.getGutterHoleCount();
+  }
+
+  /**
+   * Counts harvested units of a single harvest event
+   *
+   * @param harvestEvent harvest event
+   * @return number of harvested units
+   */
+  private double countHarvestedUnits(HarvestEvent harvestEvent, Map<UUID, PlantingEvent> latestPlantings) {
+    return harvestEvent.getGutterCount() * getGutterHoleCount(harvestEvent, latestPlantings);
+  }
+
   /**
    * Gets gutter hole count for harvest event
    * if it is not available, tries to make quess by checking last planting event
    * 
    * @param event harvest event
+   * @param latestPlantings latest plantings before harvest events mapped by harvest event id
    * @return gutter hole count
    */
-  private Integer getGutterHoleCount(HarvestEvent event) {
-    if (event.getGutterHoleCount() != null && event.getGutterHoleCount() > 0) {
+  private Integer getGutterHoleCount(HarvestEvent event, Map<UUID, PlantingEvent> latestPlantings) {
+    if (hasGutterHoleCount(event)) {
       return event.getGutterHoleCount();
     }
 
-    return guessGutterHoleCount(event);
+    return guessGutterHoleCount(event, latestPlantings);
   } 
 
+  /**
+   * Returns whether harvest event has gutter hole count
+   *
+   * @param event harvest event
+   * @return whether harvest event has gutter hole count
+   */
+  private boolean hasGutterHoleCount(HarvestEvent event) {
+    return event.getGutterHoleCount() != null && event.getGutterHoleCount() > 0;
+  }
+
+  /**
+   * Resolves latest plantings for all harvest events without gutter hole count in a single query
+   *
+   * @param events events
+   * @return latest plantings before harvest events mapped by harvest event id
+   */
+  private Map<UUID, PlantingEvent> getLatestPlantings(List<Event> events) {
+    List<HarvestEvent> harvestEvents = events.stream()
+      .filter(event -> event.getType() == EventType.HARVEST)
+      .map(HarvestEvent.class::cast)
+      .filter(harvestEvent -> !hasGutterHoleCount(harvestEvent))
+      .filter(harvestEvent -> harvestEvent.getProductionLine() != null)
+      .collect(Collectors.toList());
+
+    return plantingEventController.findLatestPlantingEventsByHarvestEvents(harvestEvents);
+  }
+
   /**
    * Tries to guess gutter hole count for harvest event
    * 
    * @param event harvest event
+   * @param latestPlantings latest plantings before harvest events mapped by harvest event id
    * @return gutter hole count
    */
-  private Integer guessGutterHoleCount(HarvestEvent event) {
-    List<PlantingEvent> latestPlantings = plantingEventController.listLatestPlatingEventByProductAndProductionLine(event.getProduct(), event.getProductionLine(), event.getStartTime());
-    if (latestPlantings.isEmpty()) {
+  private Integer guessGutterHoleCount(HarvestEvent event, Map<UUID, PlantingEvent> latestPlantings) {
+    PlantingEvent latestPlanting = latestPlantings.get(event.getId());
+    if (latestPlanting == null) {
       Integer defaultGutterHoleCount = event.getProductionLine().getDefaultGutterHoleCount();
       return defaultGutterHoleCount != null ? defaultGutterHoleCount : 0;
     }
 
-    PlantingEvent latestPlanting = latestPlantings.get(0);
     Integer gutterHoleCount = latestPlanting.getGutterHoleCount();
     return gutterHoleCount != null ? gutterHoleCount : 0;
   } 
@@ -317,20 +423,37 @@ public class EventCountController {
     }
   }
 
+  /**
+   * Resolves pot types of the first sowings of all products with table spread events in a single query
+   *
+   * @param events events
+   * @return pot types of the first sowings mapped by product id
+   */
+  private Map<UUID, PotType> getFirstSowingPotTypes(List<Event> events) {
+    Map<UUID, Product> spreadProducts = new HashMap<>();
+    for (Event event : events) {
+      if (event.getType() == EventType.TABLE_SPREAD) {
+        spreadProducts.putIfAbsent(event.getProduct().getId(), event.getProduct());
+      }
+    }
+
+    return sowingEventController.getFirstSowingPotTypes(spreadProducts.values());
+  }
+
   /**
    * Get tray type as int
    * 
    * @param event
+   * @param sowingPotTypes pot types of the first sowings of the products mapped by product id
    * @return amount
    */
-  private int getPotTypeAmount(Event event) {
-    List<Event> batchEvents = eventController.listEvents(event.getProduct(), null, null);
-    SowingEvent sowingEvent = (SowingEvent) batchEvents.stream().filter(batchEvent -> batchEvent.getType() == EventType.SOWING).findFirst().orElse(null);
-    if (sowingEvent == null) {
+  private int getPotTypeAmount(Event event, Map<UUID, PotType> sowingPotTypes) {
+    UUID productId = event.getProduct().getId();
+    if (!sowingPotTypes.containsKey(productId)) {
       return 0;
     }
 
-    if (PotType.LARGE == sowingEvent.getPotType()) {
+    if (PotType.LARGE == sowingPotTypes.get(productId)) {
       return 35;
     }
 
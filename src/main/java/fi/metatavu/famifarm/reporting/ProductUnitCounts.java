@@ -0,0 +1,51 @@
+package fi.metatavu.famifarm.reporting;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import fi.metatavu.famifarm.persistence.model.Product;
+import fi.metatavu.famifarm.rest.model.EventType;
+
+/**
+ * Accumulator for unit counts of a single product grouped by event type
+ */
+public class ProductUnitCounts {
+
+  private final Product product;
+
+  private final Map<EventType, Double> counts;
+
+  /**
+   * Constructor
+   *
+   * @param product product
+   */
+  public ProductUnitCounts(Product product) {
+    this.product = product;
+    this.counts = new EnumMap<>(EventType.class);
+  }
+
+  /**
+   * Adds units to given event type
+   *
+   * @param eventType event type
+   * @param units units to add
+   */
+  public void add(EventType eventType, double units) {
+    counts.merge(eventType, units, Double::sum);
+  }
+
+  /**
+   * Returns counted units for given event type
+   *
+   * @param eventType event type
+   * @return number of units or 0 if there were no events of given type
+   */
+  public Double getCount(EventType eventType) {
+    return counts.getOrDefault(eventType, 0d);
+  }
+
+  public Product getProduct() {
+    return product;
+  }
+}
@@ -0,0 +1,172 @@
+package fi.metatavu.famifarm.reporting;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * Cache for created reports bounded by the total size of cached report data.
+ * 
+ * Cache size is limited in bytes rather than in entries, so that the heap used by the cache stays bounded 
+ * regardless of how large individual reports are. Reports larger than the max entry size are not cached.
+ * 
+ * Entries are keyed by report parameters and tagged with the facility watermark they were created with. 
+ * Entries with an outdated watermark are never returned. Entries also expire after configured time to live, 
+ * which bounds staleness of data that is not covered by the watermark, e.g. user names read from Keycloak.
+ */
+@ApplicationScoped
+public class ReportCache {
+
+  @ConfigProperty(name = "famifarm.reports.cache.max-size-bytes", defaultValue = "33554432")
+  private long maxSizeBytes;
+
+  @ConfigProperty(name = "famifarm.reports.cache.max-entry-size", defaultValue = "2097152")
+  private int maxEntrySize;
+
+  @ConfigProperty(name = "famifarm.reports.cache.ttl-seconds", defaultValue = "600")
+  private long ttlSeconds;
+
+  private Cache<String, CachedReport> entries;
+
+  /**
+   * Initializes the cache
+   */
+  @PostConstruct
+  public void init() {
+    entries = Caffeine.newBuilder()
+      .maximumWeight(Math.max(maxSizeBytes, 0L))
+      .weigher((String key, CachedReport cachedReport) -> cachedReport.getData().length)
+      .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  /**
+   * Returns cached report if it has been created with given watermark
+   *
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   * @param watermark current watermark of the facility
+   * @return cached report or null if not found, outdated or expired
+   */
+  @SuppressWarnings ("squid:S00107")
+  public CachedReport get(ReportType type, ReportFormat format, Facility facility, Locale locale, String fromTime, String toTime, long watermark) {
+    String key = getKey(type, format, facility, locale, fromTime, toTime);
+    CachedReport cachedReport = entries.getIfPresent(key);
+    if (cachedReport == null) {
+      return null;
+    }
+
+    if (cachedReport.getWatermark() != watermark) {
+      entries.invalidate(key);
+      return null;
+    }
+
+    return cachedReport;
+  }
+
+  /**
+   * Stores report into the cache. Reports larger than max entry size are not stored
+   *
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   * @param watermark watermark of the facility when report creation was started
+   * @param contentType content type
+   * @param data report data
+   */
+  @SuppressWarnings ("squid:S00107")
+  public void put(ReportType type, ReportFormat format, Facility facility, Locale locale, String fromTime, String toTime, long watermark, String contentType, byte[] data) {
+    if (data.length > getMaxEntrySize()) {
+      return;
+    }
+
+    entries.put(getKey(type, format, facility, locale, fromTime, toTime), new CachedReport(watermark, System.currentTimeMillis(), contentType, data));
+  }
+
+  /**
+   * Returns max size of a single cache entry in bytes. Entry can not be larger than the whole cache
+   *
+   * @return max size of a single cache entry in bytes or 0 if caching is disabled
+   */
+  public int getMaxEntrySize() {
+    return (int) Math.max(Math.min(maxEntrySize, maxSizeBytes), 0L);
+  }
+
+  /**
+   * Returns cache key for report parameters
+   *
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   * @return cache key
+   */
+  private String getKey(ReportType type, ReportFormat format, Facility facility, Locale locale, String fromTime, String toTime) {
+    return String.join("|", type.name(), format.name(), facility.name(), locale.toLanguageTag(), String.valueOf(fromTime), String.valueOf(toTime));
+  }
+
+  /**
+   * Cached report
+   */
+  public static class CachedReport {
+
+    private final long watermark;
+
+    private final long createdAt;
+
+    private final String contentType;
+
+    private final byte[] data;
+
+    /**
+     * Constructor
+     *
+     * @param watermark watermark of the facility when report creation was started
+     * @param createdAt time when the entry was created in milliseconds
+     * @param contentType content type
+     * @param data report data
+     */
+    public CachedReport(long watermark, long createdAt, String contentType, byte[] data) {
+      this.watermark = watermark;
+      this.createdAt = createdAt;
+      this.contentType = contentType;
+      this.data = data;
+    }
+
+    public long getWatermark() {
+      return watermark;
+    }
+
+    public long getCreatedAt() {
+      return createdAt;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public byte[] getData() {
+      return data;
+    }
+
+  }
+
+}
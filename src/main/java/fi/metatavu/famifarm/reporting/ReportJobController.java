@@ -0,0 +1,382 @@
+package fi.metatavu.famifarm.reporting;
+
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+import fi.metatavu.famifarm.ids.IdController;
+import fi.metatavu.famifarm.instances.InstanceController;
+import fi.metatavu.famifarm.persistence.dao.ReportJobDAO;
+import fi.metatavu.famifarm.persistence.dao.ReportJobResultDAO;
+import fi.metatavu.famifarm.persistence.model.ReportJob;
+import fi.metatavu.famifarm.persistence.model.ReportJobResult;
+import fi.metatavu.famifarm.rest.model.Facility;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.RunOptions;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Controller for asynchronous report jobs.
+ * 
+ * Reports are generated on a bounded executor and the results are stored in the database, so that any server 
+ * instance can serve them. Jobs with identical parameters and report watermark are deduplicated so that a report 
+ * is generated only once while a job is pending and reused while the result is retained and the data is unchanged.
+ * 
+ * Each job records the instance generating it. While the instance is running, it renews the lease of its unfinished 
+ * jobs periodically by updating their modification time. On startup the instance fails its own unfinished jobs and 
+ * unfinished jobs of any instance that have not been updated within the lease period are considered abandoned. 
+ * Job is generated only if it is still queued when its turn comes and its result is stored only if the job has not
+ * been failed in the meantime.
+ */
+@ApplicationScoped
+public class ReportJobController {
+
+  private static final List<ReportJobStatus> PENDING_STATUSES = List.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING);
+
+  private static final List<ReportJobStatus> REUSABLE_STATUSES = List.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING, ReportJobStatus.READY);
+
+  private static final int SUBMIT_LOCK_COUNT = 64;
+
+  @Inject
+  private Logger logger;
+
+  @Inject
+  private ReportController reportController;
+
+  @Inject
+  private ReportJobDAO reportJobDAO;
+
+  @Inject
+  private ReportJobResultDAO reportJobResultDAO;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
+  @Inject
+  private InstanceController instanceController;
+
+  @ConfigProperty(name = "famifarm.reports.jobs.threads", defaultValue = "2")
+  private int threads;
+
+  @ConfigProperty(name = "famifarm.reports.jobs.queue-size", defaultValue = "50")
+  private int queueSize;
+
+  @ConfigProperty(name = "famifarm.reports.jobs.retention-minutes", defaultValue = "60")
+  private long retentionMinutes;
+
+  @ConfigProperty(name = "famifarm.reports.jobs.lease-minutes", defaultValue = "30")
+  private long leaseMinutes;
+
+  @ConfigProperty(name = "famifarm.reports.jobs.heartbeat-seconds", defaultValue = "60")
+  private long heartbeatSeconds;
+
+  private final Object[] submitLocks = new Object[SUBMIT_LOCK_COUNT];
+
+  private ThreadPoolExecutor executor;
+
+  private ScheduledExecutorService heartbeatExecutor;
+
+  /**
+   * Initializes executors and submit locks
+   */
+  @PostConstruct
+  public void init() {
+    for (int i = 0; i < submitLocks.length; i++) {
+      submitLocks[i] = new Object();
+    }
+
+    executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize));
+    heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
+    heartbeatExecutor.scheduleWithFixedDelay(this::renewReportJobLeases, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Shuts down the executors
+   */
+  @PreDestroy
+  public void destroy() {
+    heartbeatExecutor.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Marks jobs left unfinished by previous run of this instance and abandoned jobs of other instances as failed
+   *
+   * @param event startup event
+   */
+  public void onStart(@Observes StartupEvent event) {
+    QuarkusTransaction.run(requireNew(), () -> 
+      reportJobDAO.listByStatusesAndInstanceId(PENDING_STATUSES, instanceController.getInstanceId())
+        .forEach(reportJob -> reportJobDAO.updateStatus(reportJob, ReportJobStatus.FAILED))
+    );
+
+    failAbandonedReportJobs();
+  }
+
+  /**
+   * Submits new report job. If identical job with current report watermark is already pending or its result 
+   * is still retained, existing job is returned instead.
+   * 
+   * Only submissions with identical parameters are serialized. Identical submissions racing on different server 
+   * instances may both generate the report
+   *
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   * @param creatorId creator id
+   * @return submitted or existing report job
+   */
+  @SuppressWarnings ("squid:S00107")
+  public ReportJob submitReportJob(ReportType type, ReportFormat format, Facility facility, Locale locale, String fromTime, String toTime, UUID creatorId) {
+    String languageTag = locale.toLanguageTag();
+    String jobKey = String.join("|", type.name(), format.name(), facility.name(), languageTag, String.valueOf(fromTime), String.valueOf(toTime));
+
+    deleteExpiredReportJobs();
+    failAbandonedReportJobs();
+
+    AtomicBoolean created = new AtomicBoolean(false);
+    ReportJob reportJob;
+
+    synchronized (getSubmitLock(jobKey)) {
+      reportJob = QuarkusTransaction.call(requireNew(), () -> {
+        long watermark = reportWatermarkController.getWatermark(facility);
+        ReportJob existingJob = reportJobDAO.findLatestByParameters(type, format, facility, languageTag, fromTime, toTime, watermark, REUSABLE_STATUSES, getRetentionStart());
+        if (existingJob != null) {
+          return existingJob;
+        }
+
+        created.set(true);
+        return reportJobDAO.create(idController.generateId(), type, format, facility, languageTag, fromTime, toTime, ReportJobStatus.QUEUED, instanceController.getInstanceId(), watermark, creatorId);
+      });
+    }
+
+    if (!created.get()) {
+      return reportJob;
+    }
+
+    UUID reportJobId = reportJob.getId();
+
+    try {
+      executor.execute(() -> runReportJob(reportJobId, type, format, facility, locale, fromTime, toTime));
+    } catch (RejectedExecutionException e) {
+      logger.warn("Report job queue is full, rejected report job {}", reportJobId);
+      return updateReportJobStatus(reportJobId, ReportJobStatus.FAILED, null);
+    }
+
+    return reportJob;
+  }
+
+  /**
+   * Finds report job by id
+   *
+   * @param reportJobId report job id
+   * @return found report job or null if not found
+   */
+  public ReportJob findReportJob(UUID reportJobId) {
+    return QuarkusTransaction.call(requireNew(), () -> reportJobDAO.findById(reportJobId));
+  }
+
+  /**
+   * Finds result data of a report job
+   *
+   * @param reportJob report job
+   * @return result data or null if not found
+   */
+  public byte[] findResultData(ReportJob reportJob) {
+    return QuarkusTransaction.call(requireNew(), () -> {
+      ReportJobResult reportJobResult = reportJobResultDAO.findById(reportJob.getId());
+      return reportJobResult != null ? reportJobResult.getData() : null;
+    });
+  }
+
+  /**
+   * Generates report of a report job and stores the result. Executed on report job executor thread
+   *
+   * @param reportJobId report job id
+   * @param type report type
+   * @param format report format
+   * @param facility facility
+   * @param locale locale
+   * @param fromTime from time parameter
+   * @param toTime to time parameter
+   */
+  @SuppressWarnings ("squid:S00107")
+  private void runReportJob(UUID reportJobId, ReportType type, ReportFormat format, Facility facility, Locale locale, String fromTime, String toTime) {
+    ManagedContext requestContext = Arc.container().requestContext();
+    requestContext.activate();
+
+    try {
+      if (!startReportJob(reportJobId)) {
+        return;
+      }
+
+      Report report = reportController.getReport(type, format);
+      if (report == null) {
+        throw new ReportException(new IllegalArgumentException(String.format("Report %s is not available as %s", type, format)));
+      }
+
+      Map<String, String> parameters = new HashMap<>();
+
+      if (fromTime != null) {
+        parameters.put("fromTime", fromTime);
+      }
+
+      if (toTime != null) {
+        parameters.put("toTime", toTime);
+      }
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      report.createReport(output, facility, locale, parameters);
+      byte[] data = output.toByteArray();
+
+      QuarkusTransaction.run(requireNew(), () -> {
+        ReportJob reportJob = reportJobDAO.findByIdForUpdate(reportJobId);
+        if (reportJob.getStatus() != ReportJobStatus.RUNNING) {
+          logger.warn("Report job {} was marked {} while running, discarding the result", reportJobId, reportJob.getStatus());
+          return;
+        }
+
+        reportJobResultDAO.create(reportJobId, data);
+        reportJobDAO.updateContentType(reportJob, report.getContentType());
+        reportJobDAO.updateStatus(reportJob, ReportJobStatus.READY);
+      });
+    } catch (Exception e) {
+      logger.error(String.format("Failed to create report for report job %s", reportJobId), e);
+      updateReportJobStatus(reportJobId, ReportJobStatus.FAILED, null);
+    } finally {
+      requestContext.terminate();
+    }
+  }
+
+  /**
+   * Marks a queued report job as running in a new transaction
+   *
+   * @param reportJobId report job id
+   * @return whether the job was still queued and may be run
+   */
+  private boolean startReportJob(UUID reportJobId) {
+    return QuarkusTransaction.call(requireNew(), () -> {
+      ReportJob reportJob = reportJobDAO.findByIdForUpdate(reportJobId);
+      if (reportJob == null || reportJob.getStatus() != ReportJobStatus.QUEUED) {
+        logger.warn("Report job {} is no longer queued, skipping", reportJobId);
+        return false;
+      }
+
+      reportJobDAO.updateStatus(reportJob, ReportJobStatus.RUNNING);
+      return true;
+    });
+  }
+
+  /**
+   * Updates report job status in a new transaction
+   *
+   * @param reportJobId report job id
+   * @param status status
+   * @param contentType content type of the result or null if not available
+   * @return updated report job
+   */
+  private ReportJob updateReportJobStatus(UUID reportJobId, ReportJobStatus status, String contentType) {
+    return QuarkusTransaction.call(requireNew(), () -> {
+      ReportJob reportJob = reportJobDAO.findById(reportJobId);
+      reportJobDAO.updateContentType(reportJob, contentType);
+      return reportJobDAO.updateStatus(reportJob, status);
+    });
+  }
+
+  /**
+   * Marks pending report jobs that have not been updated within the lease period as failed. 
+   * These jobs have been left behind by instances that have stopped renewing their leases
+   */
+  private void failAbandonedReportJobs() {
+    OffsetDateTime leaseStart = OffsetDateTime.now().minusMinutes(leaseMinutes);
+
+    QuarkusTransaction.run(requireNew(), () -> 
+      reportJobDAO.updateStatusByStatusesAndModifiedAtBefore(PENDING_STATUSES, leaseStart, ReportJobStatus.FAILED)
+    );
+  }
+
+  /**
+   * Renews leases of pending report jobs of this instance. Executed periodically on the heartbeat executor
+   */
+  private void renewReportJobLeases() {
+    try {
+      QuarkusTransaction.run(requireNew(), () -> 
+        reportJobDAO.updateModifiedAtByStatusesAndInstanceId(PENDING_STATUSES, instanceController.getInstanceId(), OffsetDateTime.now())
+      );
+    } catch (Exception e) {
+      logger.error("Failed to renew report job leases", e);
+    }
+  }
+
+  /**
+   * Deletes report jobs and their results older than the retention period
+   */
+  private void deleteExpiredReportJobs() {
+    QuarkusTransaction.run(requireNew(), () -> {
+      List<ReportJob> reportJobs = reportJobDAO.listByCreatedAtBefore(getRetentionStart()).stream()
+        .filter(reportJob -> reportJob.getStatus() == ReportJobStatus.READY || reportJob.getStatus() == ReportJobStatus.FAILED)
+        .collect(Collectors.toList());
+
+      reportJobResultDAO.deleteByIds(reportJobs.stream().map(ReportJob::getId).collect(Collectors.toList()));
+      reportJobDAO.deleteAll(reportJobs);
+    });
+  }
+
+  /**
+   * Returns lock that serializes submissions of jobs with given deduplication key
+   *
+   * @param jobKey deduplication key of the job
+   * @return lock object
+   */
+  private Object getSubmitLock(String jobKey) {
+    return submitLocks[Math.floorMod(jobKey.hashCode(), submitLocks.length)];
+  }
+
+  /**
+   * Returns start of the result retention period
+   *
+   * @return start of the result retention period
+   */
+  private OffsetDateTime getRetentionStart() {
+    return OffsetDateTime.now().minusMinutes(retentionMinutes);
+  }
+
+  /**
+   * Returns transaction options for running in a new transaction
+   *
+   * @return transaction options
+   */
+  private RunOptions requireNew() {
+    return QuarkusTransaction.runOptions().semantic(RunOptions.Semantic.REQUIRE_NEW);
+  }
+
+}
@@ -0,0 +1,13 @@
+package fi.metatavu.famifarm.reporting;
+
+/**
+ * Status of an asynchronous report job
+ */
+public enum ReportJobStatus {
+
+  QUEUED,
+  RUNNING,
+  READY,
+  FAILED
+
+}
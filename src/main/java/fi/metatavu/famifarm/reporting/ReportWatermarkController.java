@@ -0,0 +1,176 @@
+package fi.metatavu.famifarm.reporting;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+import fi.metatavu.famifarm.persistence.dao.ReportWatermarkDAO;
+import fi.metatavu.famifarm.rest.model.Facility;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.RunOptions;
+
+/**
+ * Controller for report watermarks.
+ *
+ * Watermark is a per facility counter stored in the database. Controllers changing data read by reports mark
+ * the facility as changed, so cached reports created with an older watermark can be recognized as stale on every
+ * server instance.
+ *
+ * Changed facilities are collected per transaction and each watermark is incremented once after the transaction
+ * has committed, in a short transaction of its own. Business transactions therefore never wait for the watermark
+ * row lock and transactions creating many entities issue a single update statement per facility.
+ */
+@ApplicationScoped
+public class ReportWatermarkController {
+
+  private static final String RESOURCE_KEY = ReportWatermarkController.class.getName();
+
+  @Inject
+  private Logger logger;
+
+  @Inject
+  private ReportWatermarkDAO reportWatermarkDAO;
+
+  @Inject
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+  @ConfigProperty(name = "famifarm.reports.watermark.timeout-ms", defaultValue = "5000")
+  private long timeoutMs;
+
+  private ExecutorService executor;
+
+  /**
+   * Initializes the executor
+   */
+  @PostConstruct
+  public void init() {
+    executor = Executors.newFixedThreadPool(Facility.values().length);
+  }
+
+  /**
+   * Shuts down the executor
+   */
+  @PreDestroy
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns current watermark of a facility
+   *
+   * @param facility facility
+   * @return current watermark
+   */
+  public long getWatermark(Facility facility) {
+    Long watermark = reportWatermarkDAO.findWatermarkByFacility(facility);
+    return watermark != null ? watermark : 0L;
+  }
+
+  /**
+   * Marks report data of a facility as changed. Watermark is incremented after the current transaction commits
+   *
+   * @param facility facility
+   */
+  public void bumpWatermark(Facility facility) {
+    if (facility == null) {
+      return;
+    }
+
+    if (transactionSynchronizationRegistry.getTransactionKey() == null) {
+      incrementWatermarks(EnumSet.of(facility));
+      return;
+    }
+
+    getChangedFacilities().add(facility);
+  }
+
+  /**
+   * Marks report data of all facilities as changed. Used for changes to data that is shared between facilities
+   */
+  public void bumpAllWatermarks() {
+    for (Facility facility : Facility.values()) {
+      bumpWatermark(facility);
+    }
+  }
+
+  /**
+   * Returns facilities changed in the current transaction. Increment of the watermarks is registered
+   * with the transaction when the first facility is changed
+   *
+   * @return facilities changed in the current transaction
+   */
+  @SuppressWarnings("unchecked")
+  private Set<Facility> getChangedFacilities() {
+    Set<Facility> changedFacilities = (Set<Facility>) transactionSynchronizationRegistry.getResource(RESOURCE_KEY);
+    if (changedFacilities != null) {
+      return changedFacilities;
+    }
+
+    Set<Facility> result = EnumSet.noneOf(Facility.class);
+    transactionSynchronizationRegistry.putResource(RESOURCE_KEY, result);
+    transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+
+      @Override
+      public void beforeCompletion() {
+        // Watermarks are incremented only after a successful commit
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          incrementWatermarks(result);
+        }
+      }
+
+    });
+
+    return result;
+  }
+
+  /**
+   * Increments watermarks of given facilities in a new transaction and waits for it to complete.
+   *
+   * Increment runs on the executor, because the completed transaction is still associated with
+   * the calling thread during transaction synchronization callbacks
+   *
+   * @param facilities facilities
+   */
+  private void incrementWatermarks(Set<Facility> facilities) {
+    Future<?> future = executor.submit(() -> QuarkusTransaction.run(requireNew(), () -> facilities.forEach(reportWatermarkDAO::incrementWatermark)));
+
+    try {
+      future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.error("Interrupted while incrementing report watermarks of {}", facilities);
+    } catch (ExecutionException | TimeoutException e) {
+      logger.error(String.format("Failed to increment report watermarks of %s", facilities), e);
+    }
+  }
+
+  /**
+   * Returns transaction options for running in a new transaction
+   *
+   * @return transaction options
+   */
+  private RunOptions requireNew() {
+    return QuarkusTransaction.runOptions().semantic(RunOptions.Semantic.REQUIRE_NEW);
+  }
+
+}
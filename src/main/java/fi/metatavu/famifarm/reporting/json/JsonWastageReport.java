@@ -3,6 +3,7 @@ package fi.metatavu.famifarm.reporting.json;
 import fi.metatavu.famifarm.events.EventController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
+import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.WastageEvent;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.rest.model.EventType;
@@ -15,6 +16,7 @@ import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Wastage report in json format
@@ -39,7 +41,7 @@ public class JsonWastageReport extends AbstractJsonReport {
    */
   @Override
   public void createReport(OutputStream output, Facility facility, Locale locale, Map<String, String> parameters) throws ReportException {
-    List<Event> events = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
+    List<Event> events = eventController.listReportEvents(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
     List<fi.metatavu.famifarm.reporting.json.models.Event> translatedEvents = translateEvents(events, locale);
     try {
       getObjectMapper().writeValue(output, translatedEvents);
@@ -51,7 +53,11 @@ public class JsonWastageReport extends AbstractJsonReport {
   private List<fi.metatavu.famifarm.reporting.json.models.Event> translateEvents(List<Event> events, Locale locale) {
     List<fi.metatavu.famifarm.reporting.json.models.Event> translatedEvents = new ArrayList<>(events.size());
     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-    Map<UUID, String> userCache = new HashMap<>();
+    Map<UUID, String> userCache = getFormattedUsers(events.stream()
+      .filter(event -> event.getType() == EventType.WASTAGE)
+      .map(Event::getCreatorId)
+      .collect(Collectors.toList()));
+    Map<UUID, String> localizedValues = getLocalizedValues(events, locale);
 
     for (Event original : events) {
       if (original.getType() == EventType.WASTAGE) {
@@ -74,8 +80,8 @@ public class JsonWastageReport extends AbstractJsonReport {
         }
 
         translated.setUser(getFormattedUser(wastageEvent.getCreatorId(), userCache));
-        translated.setProductName(localizedValueController.getValue(wastageEvent.getProduct().getName(), locale));
-        translated.setWastageReason(localizedValueController.getValue(wastageEvent.getWastageReason().getReason(), locale));
+        translated.setProductName(localizedValues.get(wastageEvent.getProduct().getName().getId()));
+        translated.setWastageReason(localizedValues.get(wastageEvent.getWastageReason().getReason().getId()));
         translated.setAdditionalInformation(wastageEvent.getAdditionalInformation());
         translated.setAmount(wastageEvent.getAmount());
         translatedEvents.add(translated);
@@ -83,4 +89,28 @@ public class JsonWastageReport extends AbstractJsonReport {
     }
     return translatedEvents;
   }
+
+  /**
+   * Loads product names and wastage reasons of wastage events with a single lookup
+   *
+   * @param events events
+   * @param locale locale
+   * @return localized values mapped by entry ids
+   */
+  private Map<UUID, String> getLocalizedValues(List<Event> events, Locale locale) {
+    List<LocalizedEntry> entries = new ArrayList<>();
+
+    for (Event event : events) {
+      if (event.getType() == EventType.WASTAGE) {
+        WastageEvent wastageEvent = (WastageEvent) event;
+        entries.add(wastageEvent.getProduct().getName());
+
+        if (wastageEvent.getWastageReason() != null) {
+          entries.add(wastageEvent.getWastageReason().getReason());
+        }
+      }
+    }
+
+    return localizedValueController.getValues(entries, locale);
+  }
 }
@@ -4,11 +4,9 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -19,6 +17,7 @@ import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.EventCountController;
+import fi.metatavu.famifarm.reporting.ProductUnitCounts;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.rest.model.EventType;
 import fi.metatavu.famifarm.rest.model.Facility;
@@ -76,21 +75,14 @@ public abstract class XlsxEventCountReport extends AbstractXlsxReport {
       
       // Values
 
-      List<Event> events = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
-      Map<UUID, ReportRow> rowLookup = new HashMap<>();
-      events.stream().forEach(event -> {
-        Product product = event.getProduct();
-        if (!rowLookup.containsKey(product.getId())) {
-          rowLookup.put(
-            product.getId(),
-            new ReportRow(localizedValueController.getValue(product.getName(), locale),
-            eventCountController.countUnitsByProductAndEventType(events, product, getEventType()))
-          );
-        }
-      });
+      List<Event> events = eventController.listReportEvents(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
+      List<ReportRow> rows = new ArrayList<>();
+      for (ProductUnitCounts productUnitCounts : eventCountController.countUnitsByProduct(events).values()) {
+        Product product = productUnitCounts.getProduct();
+        rows.add(new ReportRow(localizedValueController.getValue(product.getName(), locale), productUnitCounts.getCount(getEventType())));
+      }
 
       int rowIndex = 4;
-      List<ReportRow> rows = new ArrayList<>(rowLookup.values());
       Collections.sort(rows);
 
       for (ReportRow row : rows) {
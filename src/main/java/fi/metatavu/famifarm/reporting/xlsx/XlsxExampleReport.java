@@ -1,11 +1,11 @@
 package fi.metatavu.famifarm.reporting.xlsx;
 
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -32,8 +32,6 @@ public class XlsxExampleReport extends AbstractXlsxReport {
 
   @Override
   public void createReport(OutputStream output, Facility facility, Locale locale, Map<String, String> parameters) throws ReportException {
-    Map<UUID, String> userCache = new HashMap<>();
-    
     try (XlsxBuilder xlsxBuilder = new XlsxBuilder()) {
       String sheetId = xlsxBuilder.createSheet(localesController.getString(locale, "reports.xls_example.sheet1"));
       
@@ -52,6 +50,7 @@ public class XlsxExampleReport extends AbstractXlsxReport {
       // Values
       
       List<Event> events = eventController.listEvents(null, 0, 100);
+      Map<UUID, String> userCache = getFormattedUsers(events.stream().map(Event::getCreatorId).collect(Collectors.toList()));
       for (int i = 0; i < events.size(); i++) {
         int rowIndex = i + 1;
         Event event = events.get(i);
@@ -70,12 +70,13 @@ public class XlsxGrowthTimeReport extends AbstractXlsxReport {
 
       int rowIndex = 4;
       DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-      List<Event> events = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
+      List<Event> events = eventController.listReportEvents(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
       List<HarvestEvent> harvestEvents = events
         .stream()
         .filter(e -> e.getType().equals(EventType.HARVEST))
         .map(e -> (HarvestEvent) e)
         .collect(Collectors.toList());
+      Map<UUID, Double> averageWeights = getAverageWeights(events);
       
       for (HarvestEvent event: harvestEvents) {
         String harvestDateString = event.getEndTime() != null ? event.getEndTime().format(formatter) : "TIETO PUUTTUU";
@@ -84,7 +85,7 @@ public class XlsxGrowthTimeReport extends AbstractXlsxReport {
         xlsxBuilder.setCellValue(sheetId, rowIndex, productIndex, localizedValueController.getValue(event.getProduct().getName(), locale));
         xlsxBuilder.setCellValue(sheetId, rowIndex, packingDateIndex, harvestDateString);
         xlsxBuilder.setCellValue(sheetId, rowIndex, sowingDateIndex, sowingDateString);
-        xlsxBuilder.setCellValue(sheetId, rowIndex, averageWeightIndex, getAverageWeight(events, event.getProduct()));
+        xlsxBuilder.setCellValue(sheetId, rowIndex, averageWeightIndex, getAverageWeight(averageWeights, event.getProduct()));
         xlsxBuilder.setCellValue(sheetId, rowIndex, growthTimeIndex, getGrowthTime(event));
         rowIndex++;
       }
@@ -104,22 +105,34 @@ public class XlsxGrowthTimeReport extends AbstractXlsxReport {
     return (Long) (packingDate.getTime() - sowingDate.getTime()) / (1000*60*60*24);
   }
 
-  private double getAverageWeight(List<Event> events, Product product) {
+  /**
+   * Returns average weight of a product
+   *
+   * @param averageWeights average observed weights by product id
+   * @param product product
+   * @return average weight, 0 when product has no weight observations or -1 when product is missing
+   */
+  private double getAverageWeight(Map<UUID, Double> averageWeights, Product product) {
     if (product == null) {
       return -1d;
     }
-    UUID productId = product.getId();
+
+    return averageWeights.getOrDefault(product.getId(), 0d);
+  }
+
+  /**
+   * Averages weights of cultivation observation events by product in a single pass over the events
+   *
+   * @param events events
+   * @return average observed weights by product id
+   */
+  private Map<UUID, Double> getAverageWeights(List<Event> events) {
     return events
       .stream()
-      .filter( e -> {
-        return EventType.CULTIVATION_OBSERVATION.equals(e.getType()) 
-          && e.getProduct() != null 
-          && productId.equals(e.getProduct().getId());
-      })
-      .filter(e -> ((CultivationObservationEvent) e).getWeight() != null)
-      .collect(Collectors.averagingDouble(e -> {
-        return ((CultivationObservationEvent) e).getWeight();
-      }));
+      .filter(e -> EventType.CULTIVATION_OBSERVATION.equals(e.getType()) && e.getProduct() != null)
+      .map(e -> (CultivationObservationEvent) e)
+      .filter(e -> e.getWeight() != null)
+      .collect(Collectors.groupingBy(e -> e.getProduct().getId(), Collectors.averagingDouble(CultivationObservationEvent::getWeight)));
   }
 
 }
@@ -52,6 +52,7 @@ public class XlsxPackedReport extends AbstractXlsxReport {
 
             List<Packing> packings = packingController.listPackings(null, null, facility, null, null, null, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
 
+            Map<UUID, Double> packedUnits = eventCountController.countPackedUnitsByProduct(packings);
             Map<UUID, ReportRow> rowLookup = new HashMap<>();
             packings.stream().forEach(packing -> {
                 Product product = packing.getProduct();
@@ -59,7 +60,7 @@ public class XlsxPackedReport extends AbstractXlsxReport {
                     rowLookup.put(
                             product.getId(),
                             new ReportRow(localizedValueController.getValue(product.getName(), locale),
-                                    eventCountController.countPackedUnitsByProduct(packings, product)
+                                    packedUnits.getOrDefault(product.getId(), 0d)
                     ));
                 }
             });
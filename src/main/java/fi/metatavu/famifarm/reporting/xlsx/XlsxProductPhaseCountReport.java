@@ -4,11 +4,9 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -19,6 +17,7 @@ import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.EventCountController;
+import fi.metatavu.famifarm.reporting.ProductUnitCounts;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.rest.model.EventType;
 import fi.metatavu.famifarm.rest.model.Facility;
@@ -74,22 +73,20 @@ public class XlsxProductPhaseCountReport extends AbstractXlsxReport {
 
       // Values
 
-      List<Event> events = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
-      Map<UUID, ReportRow> rowLookup = new HashMap<>();
-      events.stream().forEach(event -> {
-        Product product = event.getProduct();
-        if (!rowLookup.containsKey(product.getId())) {
-          ReportRow row = new ReportRow(localizedValueController.getValue(product.getName(), locale));
-          row.setSowedCount(eventCountController.countUnitsByProductAndEventType(events, product, EventType.SOWING));
-          row.setSpreadCount(eventCountController.countUnitsByProductAndEventType(events, product, EventType.TABLE_SPREAD));
-          row.setPlantedCount(eventCountController.countUnitsByProductAndEventType(events, product, EventType.PLANTING));
-          row.setHarvestedCount(eventCountController.countUnitsByProductAndEventType(events, product, EventType.HARVEST));
-          row.setWastedCount(eventCountController.countUnitsByProductAndEventType(events, product, EventType.WASTAGE));
-        }
-      });
+      List<Event> events = eventController.listReportEvents(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
+      List<ReportRow> rows = new ArrayList<>();
+      for (ProductUnitCounts productUnitCounts : eventCountController.countUnitsByProduct(events).values()) {
+        Product product = productUnitCounts.getProduct();
+        ReportRow row = new ReportRow(localizedValueController.getValue(product.getName(), locale));
+        row.setSowedCount(productUnitCounts.getCount(EventType.SOWING));
+        row.setSpreadCount(productUnitCounts.getCount(EventType.TABLE_SPREAD));
+        row.setPlantedCount(productUnitCounts.getCount(EventType.PLANTING));
+        row.setHarvestedCount(productUnitCounts.getCount(EventType.HARVEST));
+        row.setWastedCount(productUnitCounts.getCount(EventType.WASTAGE));
+        rows.add(row);
+      }
 
       int rowIndex = 5;
-      List<ReportRow> rows = new ArrayList<>(rowLookup.values());
       Collections.sort(rows);
 
       for (ReportRow row : rows) {
@@ -3,12 +3,13 @@ package fi.metatavu.famifarm.reporting.xlsx;
 import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -16,6 +17,7 @@ import fi.metatavu.famifarm.events.EventController;
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
+import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.WastageEvent;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.rest.model.EventType;
@@ -39,7 +41,6 @@ public class XlsxWastageReport extends AbstractXlsxReport {
 
   @Override
   public void createReport(OutputStream output, Facility facility, Locale locale, Map<String, String> parameters) throws ReportException {
-    Map<UUID, String> userCache = new HashMap<>();
     try (XlsxBuilder xlsxBuilder = new XlsxBuilder()) {
       String sheetId = xlsxBuilder.createSheet(localesController.getString(locale, "reports.wastage.title"));
       
@@ -72,8 +73,13 @@ public class XlsxWastageReport extends AbstractXlsxReport {
       
       int rowIndex = 4;
       
-      List<Event> events = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
+      List<Event> events = eventController.listReportEvents(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
       DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"); 
+      Map<UUID, String> localizedValues = getLocalizedValues(events, locale);
+      Map<UUID, String> userCache = getFormattedUsers(events.stream()
+        .filter(event -> event.getType() == EventType.WASTAGE)
+        .map(Event::getCreatorId)
+        .collect(Collectors.toList()));
       
       for (int j = 0; j < events.size(); j++) {
         Event event = events.get(j);
@@ -85,9 +91,9 @@ public class XlsxWastageReport extends AbstractXlsxReport {
           xlsxBuilder.setCellValue(sheetId, rowIndex, lineIndex, wastageEvent.getProductionLine() != null ? wastageEvent.getProductionLine().getLineNumber() : "");
           xlsxBuilder.setCellValue(sheetId, rowIndex, dateIndex, endTime.format(formatter));
           xlsxBuilder.setCellValue(sheetId, rowIndex, workerIndex, getFormattedUser(event.getCreatorId(), userCache));
-          xlsxBuilder.setCellValue(sheetId, rowIndex, productIndex, localizedValueController.getValue(event.getProduct().getName(), locale));
+          xlsxBuilder.setCellValue(sheetId, rowIndex, productIndex, localizedValues.get(event.getProduct().getName().getId()));
           xlsxBuilder.setCellValue(sheetId, rowIndex, phaseIndex, wastageEvent.getPhase() != null ? wastageEvent.getPhase().toString() : "");
-          xlsxBuilder.setCellValue(sheetId, rowIndex, reasonIndex, wastageEvent.getWastageReason() != null ? localizedValueController.getValue(wastageEvent.getWastageReason().getReason(), locale) : "");
+          xlsxBuilder.setCellValue(sheetId, rowIndex, reasonIndex, wastageEvent.getWastageReason() != null ? localizedValues.get(wastageEvent.getWastageReason().getReason().getId()) : "");
           xlsxBuilder.setCellValue(sheetId, rowIndex, additionalInformationIndex, wastageEvent.getAdditionalInformation());
           xlsxBuilder.setCellValue(sheetId, rowIndex, amountIndex, wastageEvent.getAmount() != null ? wastageEvent.getAmount() : 0);
           rowIndex++;
@@ -100,4 +106,28 @@ public class XlsxWastageReport extends AbstractXlsxReport {
       throw new ReportException(e);
     }
   }
+
+  /**
+   * Loads product names and wastage reasons of wastage events with a single lookup
+   *
+   * @param events events
+   * @param locale locale
+   * @return localized values mapped by entry ids
+   */
+  private Map<UUID, String> getLocalizedValues(List<Event> events, Locale locale) {
+    List<LocalizedEntry> entries = new ArrayList<>();
+
+    for (Event event : events) {
+      if (event.getType() == EventType.WASTAGE) {
+        WastageEvent wastageEvent = (WastageEvent) event;
+        entries.add(wastageEvent.getProduct().getName());
+
+        if (wastageEvent.getWastageReason() != null) {
+          entries.add(wastageEvent.getWastageReason().getReason());
+        }
+      }
+    }
+
+    return localizedValueController.getValues(entries, locale);
+  }
 }
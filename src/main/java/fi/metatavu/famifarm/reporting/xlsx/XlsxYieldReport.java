@@ -5,7 +5,6 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -22,6 +21,7 @@ import fi.metatavu.famifarm.persistence.model.Event;
 import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.EventCountController;
+import fi.metatavu.famifarm.reporting.ProductUnitCounts;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.rest.model.EventType;
 import fi.metatavu.famifarm.rest.model.Facility;
@@ -81,27 +81,25 @@ public class XlsxYieldReport extends AbstractXlsxReport {
       
       // Values
       
-      List<Event> events = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, toTimeOffset, fromTimeOffset);
+      List<Event> events = eventController.listReportEvents(facility, toTimeOffset, fromTimeOffset);
       List<Packing> packings = packingController.listPackings(null, null, facility, null, null, null, toTimeOffset, fromTimeOffset);
-      Map<UUID, ReportRow> rowLookup = new HashMap<>();
-      events.stream().forEach(event -> {
-        Product product = event.getProduct();
-        if (!rowLookup.containsKey(product.getId())) {
-          rowLookup.put(
-            product.getId(),
-            new ReportRow(
-              localizedValueController.getValue(product.getName(), locale),
-              eventCountController.countUnitsByProductAndEventType(events, product, EventType.HARVEST),
-              eventCountController.countPackedUnitsByProduct(packings, product),
-              eventCountController.countUnitsByProductAndEventType(events, product, EventType.WASTAGE),
-              eventCountController.countWastedPackedUnitsByProduct(product, toTimeOffset, fromTimeOffset, facility)
-            )
-          );
-        }
-      });
+      Map<UUID, Double> packedUnits = eventCountController.countPackedUnitsByProduct(packings);
+      Map<UUID, Double> wastedPackedUnits = eventCountController.countWastedPackedUnitsByProduct(fromTimeOffset, toTimeOffset, facility);
+      List<ReportRow> rows = new ArrayList<>();
+      for (ProductUnitCounts productUnitCounts : eventCountController.countUnitsByProduct(events).values()) {
+        Product product = productUnitCounts.getProduct();
+        rows.add(
+          new ReportRow(
+            localizedValueController.getValue(product.getName(), locale),
+            productUnitCounts.getCount(EventType.HARVEST),
+            packedUnits.getOrDefault(product.getId(), 0d),
+            productUnitCounts.getCount(EventType.WASTAGE),
+            wastedPackedUnits.getOrDefault(product.getId(), 0d)
+          )
+        );
+      }
 
       int rowIndex = 4;
-      List<ReportRow> rows = new ArrayList<>(rowLookup.values());
       Collections.sort(rows);
       
       for (ReportRow row : rows) {
@@ -67,7 +67,7 @@ public class XlsxlSummaryReport extends AbstractXlsxReport {
 
             // Values
             int rowIndex = headerRow2 + 1;
-            List<Event> allEvents = eventController.listByFacilityAndStartTimeAfterAndStartTimeBefore(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
+            List<Event> allEvents = eventController.listReportEvents(facility, parseDate(parameters.get("toTime")), parseDate(parameters.get("fromTime")));
 
             Map<Product, List<Event>> collectedEvents = allEvents.stream().collect(groupingBy(Event::getProduct));
 
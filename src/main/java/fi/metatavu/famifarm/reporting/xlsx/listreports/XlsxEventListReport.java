@@ -16,7 +16,12 @@ import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
-public abstract class XlsxEventListReport extends AbstractXlsxReport {
+/**
+ * Abstract base class for event list reports
+ *
+ * @param <D> type of the data loaded once per report for all listed events
+ */
+public abstract class XlsxEventListReport<D> extends AbstractXlsxReport {
 
   @Inject
   protected LocalesController localesController;
@@ -61,6 +66,17 @@ public abstract class XlsxEventListReport extends AbstractXlsxReport {
    */
   protected abstract List<ListReportColumn> getReportColumns();
 
+  /**
+   * Loads data needed by the report rows for all listed events at once. 
+   * Reports needing related data should load it here with a fixed number of queries instead of querying per row
+   *
+   * @param events listed events
+   * @return report data passed to each row or null if report does not need any
+   */
+  protected D loadReportData(List<Event> events) {
+    return null;
+  }
+
   /**
    * Sets the column value to the xlsx
    *
@@ -69,10 +85,11 @@ public abstract class XlsxEventListReport extends AbstractXlsxReport {
    * @param sheetId sheetId
    * @param rowIndex rowIndex
    * @param event event
+   * @param reportData data loaded for all listed events
    * @param locale locale
    * @param localizedValueController localizedValueController
    */
-  protected abstract void setColumnValueToXlsx(XlsxBuilder xlsxBuilder, ListReportColumn column, String sheetId, int rowIndex, Event event, Locale locale, LocalizedValueController localizedValueController);
+  protected abstract void setColumnValueToXlsx(XlsxBuilder xlsxBuilder, ListReportColumn column, String sheetId, int rowIndex, Event event, D reportData, Locale locale, LocalizedValueController localizedValueController);
 
   @Override
   public void createReport(OutputStream output, Facility facility, Locale locale, Map<String, String> parameters) throws ReportException {
@@ -97,18 +114,20 @@ public abstract class XlsxEventListReport extends AbstractXlsxReport {
         columnIndex++;
       }
 
-      List<Event> events = eventController.listByTimeFrameAndType(
+      List<Event> events = eventController.listReportEventsByTimeFrameAndType(
         facility,
         toTime,
         fromTime,
         getEventType()
       );
 
+      D reportData = loadReportData(events);
+
       for (Event event : events) {
         rowIndex++;
         columnIndex = 0;
         for (ListReportColumn listReportColumn : listReportColumns) {
-          setColumnValueToXlsx(xlsxBuilder, listReportColumn, sheetId, rowIndex, event, locale, localizedValueController);
+          setColumnValueToXlsx(xlsxBuilder, listReportColumn, sheetId, rowIndex, event, reportData, locale, localizedValueController);
           columnIndex++;
         }
       }
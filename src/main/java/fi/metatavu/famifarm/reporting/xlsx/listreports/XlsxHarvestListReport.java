@@ -3,6 +3,7 @@ package fi.metatavu.famifarm.reporting.xlsx.listreports;
 import fi.metatavu.famifarm.events.HarvestEventController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
+import fi.metatavu.famifarm.persistence.model.HarvestBasketTotals;
 import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.reporting.xlsx.XlsxBuilder;
 import fi.metatavu.famifarm.rest.model.EventType;
@@ -12,9 +13,12 @@ import javax.inject.Inject;
 import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
-public class XlsxHarvestListReport extends XlsxEventListReport {
+public class XlsxHarvestListReport extends XlsxEventListReport<Map<UUID, HarvestBasketTotals>> {
 
   @Inject
   private HarvestEventController harvestEventController;
@@ -63,8 +67,14 @@ public class XlsxHarvestListReport extends XlsxEventListReport {
   }
 
   @Override
-  protected void setColumnValueToXlsx(XlsxBuilder xlsxBuilder, ListReportColumn column, String sheetId, int rowIndex, Event event, Locale locale, LocalizedValueController localizedValueController) {
+  protected Map<UUID, HarvestBasketTotals> loadReportData(List<Event> events) {
+    return harvestEventController.getHarvestBasketTotals(events.stream().map(HarvestEvent.class::cast).collect(Collectors.toList()));
+  }
+
+  @Override
+  protected void setColumnValueToXlsx(XlsxBuilder xlsxBuilder, ListReportColumn column, String sheetId, int rowIndex, Event event, Map<UUID, HarvestBasketTotals> basketTotals, Locale locale, LocalizedValueController localizedValueController) {
     HarvestEvent harvestEvent = (HarvestEvent) event;
+    HarvestBasketTotals harvestBasketTotals = basketTotals.get(harvestEvent.getId());
     switch (column.getColumnIndex()) {
       case productIndex:
         xlsxBuilder.setCellValue(sheetId, rowIndex, productIndex, localizedValueController.getValue(harvestEvent.getProduct().getName(), locale));
@@ -86,21 +96,21 @@ public class XlsxHarvestListReport extends XlsxEventListReport {
         xlsxBuilder.setCellValue(sheetId, rowIndex, tableCountIndex, harvestEvent.getGutterCount());
         break;
       case cropYieldKgIndex:
-        xlsxBuilder.setCellValue(sheetId, rowIndex, cropYieldKgIndex, getYield(harvestEvent));
+        xlsxBuilder.setCellValue(sheetId, rowIndex, cropYieldKgIndex, harvestBasketTotals.getTotalWeight());
         break;
       case basketCountIndex:
-        xlsxBuilder.setCellValue(sheetId, rowIndex, basketCountIndex, getBasketCount(harvestEvent));
+        xlsxBuilder.setCellValue(sheetId, rowIndex, basketCountIndex, harvestBasketTotals.getBasketCount());
         break;
       case kgPerTableIndex:
-        double kgPerTable = getYield(harvestEvent) / harvestEvent.getGutterCount();
+        double kgPerTable = harvestBasketTotals.getTotalWeight() / harvestEvent.getGutterCount();
         xlsxBuilder.setCellValue(sheetId, rowIndex, kgPerTableIndex, kgPerTable);
         break;
       case gramsPerUnitIndex:
-        double kgPerUnit = (getYield(harvestEvent) / harvestEvent.getGutterCount() / harvestEvent.getGutterHoleCount() / 50) * 1000;
+        double kgPerUnit = (harvestBasketTotals.getTotalWeight() / harvestEvent.getGutterCount() / harvestEvent.getGutterHoleCount() / 50) * 1000;
         xlsxBuilder.setCellValue(sheetId, rowIndex, gramsPerUnitIndex, kgPerUnit);
         break;
       case kgPerBasketIndex:
-        double kgPerCart = getYield(harvestEvent) / getBasketCount(harvestEvent);
+        double kgPerCart = harvestBasketTotals.getTotalWeight() / harvestBasketTotals.getBasketCount();
         xlsxBuilder.setCellValue(sheetId, rowIndex, kgPerBasketIndex, kgPerCart);
         break;
       case cuttingHeightIndex:
@@ -108,12 +118,4 @@ public class XlsxHarvestListReport extends XlsxEventListReport {
         break;
     }
   }
-
-  private Double getYield(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).stream().map(e -> (double) e.getWeight()).reduce(0d, Double::sum);
-  }
-
-  private Integer getBasketCount(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).size();
-  }
 }
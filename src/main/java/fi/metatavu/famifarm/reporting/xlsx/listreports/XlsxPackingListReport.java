@@ -2,9 +2,6 @@ package fi.metatavu.famifarm.reporting.xlsx.listreports;
 
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
-import fi.metatavu.famifarm.packings.PackingController;
-import fi.metatavu.famifarm.persistence.dao.PackingBasketDAO;
-import fi.metatavu.famifarm.persistence.dao.PackingVerificationWeightingDAO;
 import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.persistence.model.PackingBasket;
 import fi.metatavu.famifarm.persistence.model.PackingVerificationWeighting;
@@ -13,6 +10,7 @@ import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.reporting.xlsx.AbstractXlsxReport;
 import fi.metatavu.famifarm.reporting.xlsx.XlsxBuilder;
 import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingData;
+import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingDataLoader;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -32,13 +30,7 @@ public class XlsxPackingListReport extends AbstractXlsxReport {
   LocalizedValueController localizedValueController;
 
   @Inject
-  PackingController packingController;
-
-  @Inject
-  PackingBasketDAO packingBasketDAO;
-
-  @Inject
-  PackingVerificationWeightingDAO packingVerificationWeightingDAO;
+  PackingDataLoader packingDataLoader;
 
   final int productIndex = 0;
   final int packingDateIndex = 1;
@@ -57,7 +49,7 @@ public class XlsxPackingListReport extends AbstractXlsxReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<PackingData> entities = getEntities(facility, fromTime, toTime);
+      List<PackingData> entities = packingDataLoader.loadPackingData(facility, fromTime, toTime);
 
       int columnIndex = 0;
       int rowIndex = 0;
@@ -92,7 +84,7 @@ public class XlsxPackingListReport extends AbstractXlsxReport {
       // Add headers for verification weightings
       int verificationWeightingStartIndex = totalUsedMaterialsIndex + dynamicColumns.size() + 1;
       int maxVerificationWeightings = entities.stream()
-        .mapToInt(packingData -> packingVerificationWeightingDAO.listByPacking(packingData.getPacking()).size())
+        .mapToInt(packingData -> packingData.getVerificationWeightings().size())
         .max()
         .orElse(0);
 
@@ -128,7 +120,7 @@ public class XlsxPackingListReport extends AbstractXlsxReport {
         int totalUsedMaterials = columnDynamicValues.values().stream().mapToInt(Integer::intValue).sum();
         xlsxBuilder.setCellValue(sheetId, rowIndex, totalUsedMaterialsIndex + dynamicColumns.size(), totalUsedMaterials);
 
-        List<PackingVerificationWeighting> verificationWeightings = packingVerificationWeightingDAO.listByPacking(packingData.getPacking());
+        List<PackingVerificationWeighting> verificationWeightings = packingData.getVerificationWeightings();
         for (int i = 0; i < verificationWeightings.size(); i++) {
           xlsxBuilder.setCellValue(sheetId, rowIndex, verificationWeightingStartIndex + i, verificationWeightings.get(i).getWeight());
         }
@@ -139,23 +131,4 @@ public class XlsxPackingListReport extends AbstractXlsxReport {
       throw new ReportException(e);
     }
   }
-
-  private List<PackingData> getEntities(Facility facility, OffsetDateTime fromTime, OffsetDateTime toTime) {
-    List<Packing> packings = packingController.listPackings(
-      null,
-      null,
-      facility,
-      null,
-      null,
-      null,
-      toTime,
-      fromTime
-    );
-    return packings.stream().map(
-      packing -> new PackingData(
-        packing,
-        packingBasketDAO.listByPacking(packing)
-      )
-    ).collect(Collectors.toList());
-  }
-}
\ No newline at end of file
+}
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Locale;
 
 @ApplicationScoped
-public class XlsxPlantingListReport extends XlsxEventListReport {
+public class XlsxPlantingListReport extends XlsxEventListReport<Void> {
 
   final int productIndex = 0;
   final int lineIndex = 1;
@@ -48,7 +48,7 @@ public class XlsxPlantingListReport extends XlsxEventListReport {
   }
 
   @Override
-  protected void setColumnValueToXlsx(XlsxBuilder xlsxBuilder, ListReportColumn column, String sheetId, int rowIndex, Event event, Locale locale, LocalizedValueController localizedValueController) {
+  protected void setColumnValueToXlsx(XlsxBuilder xlsxBuilder, ListReportColumn column, String sheetId, int rowIndex, Event event, Void reportData, Locale locale, LocalizedValueController localizedValueController) {
     PlantingEvent plantingEvent = (PlantingEvent) event;
     switch (column.getColumnIndex()) {
       case productIndex:
@@ -2,18 +2,32 @@ package fi.metatavu.famifarm.reporting.xlsx.listreports.data;
 
 import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.persistence.model.PackingBasket;
+import fi.metatavu.famifarm.persistence.model.PackingVerificationWeighting;
 
 import java.util.List;
 
+/**
+ * Packing with its baskets and verification weightings loaded for reports
+ */
 public class PackingData {
 
   private final Packing packing;
 
   private final List<PackingBasket> packingBaskets;
 
-  public PackingData(Packing packing, List<PackingBasket> packingBaskets) {
+  private final List<PackingVerificationWeighting> verificationWeightings;
+
+  /**
+   * Constructor
+   *
+   * @param packing packing
+   * @param packingBaskets baskets of the packing
+   * @param verificationWeightings verification weightings of the packing
+   */
+  public PackingData(Packing packing, List<PackingBasket> packingBaskets, List<PackingVerificationWeighting> verificationWeightings) {
     this.packing = packing;
-    this.packingBaskets = packingBaskets;
+    this.packingBaskets = List.copyOf(packingBaskets);
+    this.verificationWeightings = List.copyOf(verificationWeightings);
   }
 
   public Packing getPacking() {
@@ -23,4 +37,8 @@ public class PackingData {
   public List<PackingBasket> getPackingBaskets() {
     return packingBaskets;
   }
+
+  public List<PackingVerificationWeighting> getVerificationWeightings() {
+    return verificationWeightings;
+  }
 }
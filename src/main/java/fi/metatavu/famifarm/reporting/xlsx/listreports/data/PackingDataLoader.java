@@ -0,0 +1,69 @@
+package fi.metatavu.famifarm.reporting.xlsx.listreports.data;
+
+import fi.metatavu.famifarm.persistence.dao.PackingBasketDAO;
+import fi.metatavu.famifarm.persistence.dao.PackingDAO;
+import fi.metatavu.famifarm.persistence.dao.PackingVerificationWeightingDAO;
+import fi.metatavu.famifarm.persistence.model.Packing;
+import fi.metatavu.famifarm.persistence.model.PackingBasket;
+import fi.metatavu.famifarm.persistence.model.PackingVerificationWeighting;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Loads packings of packing reports.
+ *
+ * Packings with their products and package sizes, baskets with their products and verification weightings
+ * are each loaded with a single query, so the number of queries does not depend on the number of packings.
+ */
+@ApplicationScoped
+public class PackingDataLoader {
+
+  @Inject
+  private PackingDAO packingDAO;
+
+  @Inject
+  private PackingBasketDAO packingBasketDAO;
+
+  @Inject
+  private PackingVerificationWeightingDAO packingVerificationWeightingDAO;
+
+  /**
+   * Loads packings of a facility packed within given time window
+   *
+   * @param facility facility
+   * @param fromTime packed after
+   * @param toTime packed before
+   * @return packings with their baskets and verification weightings
+   */
+  public List<PackingData> loadPackingData(Facility facility, OffsetDateTime fromTime, OffsetDateTime toTime) {
+    List<Packing> packings = packingDAO.listWithProductsAndPackageSizes(facility, toTime, fromTime);
+    if (packings.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<UUID, List<PackingBasket>> packingBaskets = packingBasketDAO.listByPackings(packings)
+      .stream()
+      .collect(Collectors.groupingBy(packingBasket -> packingBasket.getPacking().getId()));
+
+    Map<UUID, List<PackingVerificationWeighting>> verificationWeightings = packingVerificationWeightingDAO.listByPackings(packings)
+      .stream()
+      .collect(Collectors.groupingBy(verificationWeighting -> verificationWeighting.getPacking().getId()));
+
+    return packings.stream()
+      .map(packing -> new PackingData(
+        packing,
+        packingBaskets.getOrDefault(packing.getId(), Collections.emptyList()),
+        verificationWeightings.getOrDefault(packing.getId(), Collections.emptyList())
+      ))
+      .collect(Collectors.toUnmodifiableList());
+  }
+
+}
@@ -4,6 +4,7 @@ import fi.metatavu.famifarm.events.EventController;
 import fi.metatavu.famifarm.events.HarvestEventController;
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
+import fi.metatavu.famifarm.persistence.model.HarvestBasketTotals;
 import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.ReportException;
@@ -67,13 +68,15 @@ public class XlsxHarvestSummaryReport extends AbstractXlsxReport {
       rowIndex++;
 
       Map<Product, RowInfo> products = new LinkedHashMap<>();
+      Map<UUID, HarvestBasketTotals> basketTotals = harvestEventController.getHarvestBasketTotals(events);
 
       for (HarvestEvent event : events) {
         Product product = event.getProduct();
 
         int tableCount = event.getGutterCount();
-        double cropKg = getYield(event);
-        int basketCount = getBasketCount(event);
+        HarvestBasketTotals eventBasketTotals = basketTotals.get(event.getId());
+        double cropKg = eventBasketTotals.getTotalWeight();
+        int basketCount = (int) eventBasketTotals.getBasketCount();
 
 
         if (products.containsKey(product)) {
@@ -113,19 +116,11 @@ public class XlsxHarvestSummaryReport extends AbstractXlsxReport {
   }
 
   private List<HarvestEvent> getEntities(Facility facility, OffsetDateTime fromTime, OffsetDateTime toTime) {
-    return eventController.listByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST).stream()
+    return eventController.listReportEventsByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST).stream()
       .map(event -> (HarvestEvent) event)
       .collect(Collectors.toList());
   }
 
-  private Double getYield(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).stream().map(e -> (double) e.getWeight()).reduce(0d, Double::sum);
-  }
-
-  private Integer getBasketCount(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).size();
-  }
-
   static class RowInfo {
     private final int tableCount;
     private final double yieldKg;
@@ -2,14 +2,12 @@ package fi.metatavu.famifarm.reporting.xlsx.summaryreports;
 
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
-import fi.metatavu.famifarm.packings.PackingController;
-import fi.metatavu.famifarm.persistence.dao.PackingBasketDAO;
-import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.reporting.xlsx.AbstractXlsxReport;
 import fi.metatavu.famifarm.reporting.xlsx.XlsxBuilder;
 import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingData;
+import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingDataLoader;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -17,13 +15,12 @@ import javax.inject.Inject;
 import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class XlsxPackingSummaryReport extends AbstractXlsxReport {
 
   @Inject
-  private PackingController packingController;
+  private PackingDataLoader packingDataLoader;
 
   @Inject
   private LocalesController localesController;
@@ -31,9 +28,6 @@ public class XlsxPackingSummaryReport extends AbstractXlsxReport {
   @Inject
   private LocalizedValueController localizedValueController;
 
-  @Inject
-  private PackingBasketDAO packingBasketDAO;
-
   final int productIndex = 0;
   final int bagAmountIndex = 1;
   final int boxAmountIndex = 2;
@@ -46,7 +40,7 @@ public class XlsxPackingSummaryReport extends AbstractXlsxReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<PackingData> events = getEntities(facility, fromTime, toTime);
+      List<PackingData> events = packingDataLoader.loadPackingData(facility, fromTime, toTime);
 
       int rowIndex = 0;
       int columnIndex = 0;
@@ -103,25 +97,6 @@ public class XlsxPackingSummaryReport extends AbstractXlsxReport {
     }
   }
 
-  private List<PackingData> getEntities(Facility facility, OffsetDateTime fromTime, OffsetDateTime toTime) {
-    List<Packing> packings = packingController.listPackings(
-      null,
-      null,
-      facility,
-      null,
-      null,
-      null,
-      toTime,
-      fromTime
-    );
-    return packings.stream().map(
-      packing -> new PackingData(
-        packing,
-        packingBasketDAO.listByPacking(packing)
-      )
-    ).collect(Collectors.toList());
-  }
-
   static class Pair<A, B> {
     private final A first;
     private final B second;
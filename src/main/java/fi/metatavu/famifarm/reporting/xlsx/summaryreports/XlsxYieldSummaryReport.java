@@ -5,6 +5,7 @@ import fi.metatavu.famifarm.events.HarvestEventController;
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.packings.PackingController;
+import fi.metatavu.famifarm.persistence.model.HarvestBasketTotals;
 import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.persistence.model.Product;
@@ -72,16 +73,17 @@ public class XlsxYieldSummaryReport extends AbstractXlsxReport {
       xlsxBuilder.setCellValue(sheetId, rowIndex, packingIndex, localesController.getString(locale, "reports.yield_summary.packedFromCollected"));
       rowIndex++;
 
-      List<HarvestEvent> harvestEvents = eventController.listByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST).stream().map(HarvestEvent.class::cast).collect(Collectors.toList());
-      List<WastageEvent> wastageEvents = eventController.listByTimeFrameAndType(facility, toTime, fromTime, EventType.WASTAGE).stream().map(WastageEvent.class::cast).collect(Collectors.toList());
+      List<HarvestEvent> harvestEvents = eventController.listReportEventsByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST).stream().map(HarvestEvent.class::cast).collect(Collectors.toList());
+      List<WastageEvent> wastageEvents = eventController.listReportEventsByTimeFrameAndType(facility, toTime, fromTime, EventType.WASTAGE).stream().map(WastageEvent.class::cast).collect(Collectors.toList());
       List<Packing> packingEvents = packingController.listPackings(null,null,facility,null,null,null,toTime,fromTime);
 
       Map<Product, YieldSummaryRow> productYieldSummaryRows = new LinkedHashMap<>();
+      Map<UUID, HarvestBasketTotals> basketTotals = harvestEventController.getHarvestBasketTotals(harvestEvents);
 
       for (HarvestEvent harvestEvent: harvestEvents) {
         Product product = harvestEvent.getProduct();
         YieldSummaryRow yieldSummaryRow = productYieldSummaryRows.computeIfAbsent(product, k -> new YieldSummaryRow());
-        yieldSummaryRow.harvestAmount += getBasketCount(harvestEvent);
+        yieldSummaryRow.harvestAmount += basketTotals.get(harvestEvent.getId()).getBasketCount();
         productYieldSummaryRows.put(product, yieldSummaryRow);
       }
 
@@ -138,10 +140,6 @@ public class XlsxYieldSummaryReport extends AbstractXlsxReport {
     }
   }
 
-  private Integer getBasketCount(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).size();
-  }
-
   static class YieldSummaryRow {
     int harvestAmount;
     int wastageAmount;
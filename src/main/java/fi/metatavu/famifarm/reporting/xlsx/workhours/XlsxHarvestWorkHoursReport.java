@@ -5,6 +5,7 @@ import fi.metatavu.famifarm.events.HarvestEventController;
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
+import fi.metatavu.famifarm.persistence.model.HarvestBasketTotals;
 import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.ReportException;
@@ -21,6 +22,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class XlsxHarvestWorkHoursReport extends AbstractWorkHoursReport {
@@ -53,7 +56,8 @@ public class XlsxHarvestWorkHoursReport extends AbstractWorkHoursReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<Event> events = eventController.listByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST);
+      List<Event> events = eventController.listReportEventsByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST);
+      Map<UUID, HarvestBasketTotals> basketTotals = harvestEventController.getHarvestBasketTotals(events.stream().map(HarvestEvent.class::cast).collect(Collectors.toList()));
 
       int rowIndex = 0;
       int columnIndex = 0;
@@ -91,7 +95,7 @@ public class XlsxHarvestWorkHoursReport extends AbstractWorkHoursReport {
         }
 
         long tableCount = harvestEvent.getGutterCount();
-        double yield = getYield(harvestEvent);
+        double yield = basketTotals.get(harvestEvent.getId()).getTotalWeight();
         double tablePerHour = tableCount / harvestDuration;
         double yieldPerHour = yield / harvestDuration;
 
@@ -113,8 +117,4 @@ public class XlsxHarvestWorkHoursReport extends AbstractWorkHoursReport {
       throw new ReportException(e);
     }
   }
-
-  private Double getYield(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).stream().map(e -> (double) e.getWeight()).reduce(0d, Double::sum);
-  }
 }
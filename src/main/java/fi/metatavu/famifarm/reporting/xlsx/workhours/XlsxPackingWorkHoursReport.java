@@ -2,12 +2,11 @@ package fi.metatavu.famifarm.reporting.xlsx.workhours;
 
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
-import fi.metatavu.famifarm.packings.PackingController;
-import fi.metatavu.famifarm.persistence.dao.PackingBasketDAO;
 import fi.metatavu.famifarm.persistence.model.*;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.reporting.xlsx.XlsxBuilder;
 import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingData;
+import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingDataLoader;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -19,7 +18,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class XlsxPackingWorkHoursReport extends AbstractWorkHoursReport {
@@ -31,10 +29,7 @@ public class XlsxPackingWorkHoursReport extends AbstractWorkHoursReport {
   private LocalizedValueController localizedValueController;
 
   @Inject
-  private PackingBasketDAO packingBasketDAO;
-
-  @Inject
-  private PackingController packingController;
+  private PackingDataLoader packingDataLoader;
 
   final int dateIndex = 0;
   final int productIndex = 1;
@@ -52,7 +47,7 @@ public class XlsxPackingWorkHoursReport extends AbstractWorkHoursReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<PackingData> events = getEntities(facility, fromTime, toTime);
+      List<PackingData> events = packingDataLoader.loadPackingData(facility, fromTime, toTime);
 
       int rowIndex = 0;
       int columnIndex = 0;
@@ -113,23 +108,4 @@ public class XlsxPackingWorkHoursReport extends AbstractWorkHoursReport {
       throw new ReportException(e);
     }
   }
-
-  private List<PackingData> getEntities(Facility facility, OffsetDateTime fromTime, OffsetDateTime toTime) {
-    List<Packing> packings = packingController.listPackings(
-      null,
-      null,
-      facility,
-      null,
-      null,
-      null,
-      toTime,
-      fromTime
-    );
-    return packings.stream().map(
-      packing -> new PackingData(
-        packing,
-        packingBasketDAO.listByPacking(packing)
-      )
-    ).collect(Collectors.toList());
-  }
 }
@@ -48,7 +48,7 @@ public class XlsxPlantingWorkHoursReport extends AbstractWorkHoursReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<Event> events = eventController.listByTimeFrameAndType(facility, toTime, fromTime, EventType.PLANTING);
+      List<Event> events = eventController.listReportEventsByTimeFrameAndType(facility, toTime, fromTime, EventType.PLANTING);
 
       int rowIndex = 0;
       int columnIndex = 0;
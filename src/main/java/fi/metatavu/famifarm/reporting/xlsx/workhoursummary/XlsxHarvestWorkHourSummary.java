@@ -5,6 +5,7 @@ import fi.metatavu.famifarm.events.HarvestEventController;
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.model.Event;
+import fi.metatavu.famifarm.persistence.model.HarvestBasketTotals;
 import fi.metatavu.famifarm.persistence.model.HarvestEvent;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.ReportException;
@@ -20,6 +21,7 @@ import java.io.OutputStream;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class XlsxHarvestWorkHourSummary extends AbstractWorkHoursReport {
@@ -51,7 +53,7 @@ public class XlsxHarvestWorkHourSummary extends AbstractWorkHoursReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<Event> events = eventController.listByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST);
+      List<Event> events = eventController.listReportEventsByTimeFrameAndType(facility, toTime, fromTime, EventType.HARVEST);
 
       int rowIndex = 0;
       int columnIndex = 0;
@@ -72,6 +74,7 @@ public class XlsxHarvestWorkHourSummary extends AbstractWorkHoursReport {
       rowIndex++;
 
       Map<Product, ProductHarvestStats> productPlantingStatsMap = new LinkedHashMap<>();
+      Map<UUID, HarvestBasketTotals> basketTotals = harvestEventController.getHarvestBasketTotals(events.stream().map(HarvestEvent.class::cast).collect(Collectors.toList()));
 
       for (Event event : events) {
         if (event.getStartTime() == null || event.getEndTime() == null) {
@@ -84,7 +87,7 @@ public class XlsxHarvestWorkHourSummary extends AbstractWorkHoursReport {
 
         productPlantingStatsMap.computeIfAbsent(product, k -> new ProductHarvestStats()).durationMinutes += duration.toMinutes();
         productPlantingStatsMap.computeIfAbsent(product, k -> new ProductHarvestStats()).amount += harvestEvent.getGutterCount();
-        productPlantingStatsMap.computeIfAbsent(product, k -> new ProductHarvestStats()).yieldKg += getYield(harvestEvent);
+        productPlantingStatsMap.computeIfAbsent(product, k -> new ProductHarvestStats()).yieldKg += basketTotals.get(harvestEvent.getId()).getTotalWeight();
       }
 
       for (Map.Entry<Product, ProductHarvestStats> entry : productPlantingStatsMap.entrySet()) {
@@ -133,10 +136,6 @@ public class XlsxHarvestWorkHourSummary extends AbstractWorkHoursReport {
     }
   }
 
-  private Double getYield(HarvestEvent harvestEvent) {
-    return harvestEventController.listHarvestBaskets(harvestEvent).stream().map(e -> (double) e.getWeight()).reduce(0d, Double::sum);
-  }
-
   static class ProductHarvestStats {
     long durationMinutes;
     long amount;
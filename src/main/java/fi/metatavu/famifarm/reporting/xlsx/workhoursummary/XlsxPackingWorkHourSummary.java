@@ -3,13 +3,12 @@ package fi.metatavu.famifarm.reporting.xlsx.workhoursummary;
 import fi.metatavu.famifarm.events.EventController;
 import fi.metatavu.famifarm.localization.LocalesController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
-import fi.metatavu.famifarm.packings.PackingController;
-import fi.metatavu.famifarm.persistence.dao.PackingBasketDAO;
 import fi.metatavu.famifarm.persistence.model.Packing;
 import fi.metatavu.famifarm.persistence.model.Product;
 import fi.metatavu.famifarm.reporting.ReportException;
 import fi.metatavu.famifarm.reporting.xlsx.XlsxBuilder;
 import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingData;
+import fi.metatavu.famifarm.reporting.xlsx.listreports.data.PackingDataLoader;
 import fi.metatavu.famifarm.reporting.xlsx.workhours.AbstractWorkHoursReport;
 import fi.metatavu.famifarm.rest.model.Facility;
 
@@ -19,7 +18,6 @@ import java.io.OutputStream;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class XlsxPackingWorkHourSummary extends AbstractWorkHoursReport {
@@ -34,10 +32,7 @@ public class XlsxPackingWorkHourSummary extends AbstractWorkHoursReport {
   private LocalizedValueController localizedValueController;
 
   @Inject
-  private PackingController packingController;
-
-  @Inject
-  private PackingBasketDAO packingBasketDAO;
+  private PackingDataLoader packingDataLoader;
 
   final int productIndex = 0;
   final int durationIndex = 1;
@@ -54,7 +49,7 @@ public class XlsxPackingWorkHourSummary extends AbstractWorkHoursReport {
       OffsetDateTime toTime = parseDate(parameters.get("toTime"));
       OffsetDateTime fromTime = parseDate(parameters.get("fromTime"));
 
-      List<PackingData> events = getEntities(facility, fromTime, toTime);
+      List<PackingData> events = packingDataLoader.loadPackingData(facility, fromTime, toTime);
 
       int rowIndex = 0;
       int columnIndex = 0;
@@ -141,25 +136,6 @@ public class XlsxPackingWorkHourSummary extends AbstractWorkHoursReport {
     }
   }
 
-  private List<PackingData> getEntities(Facility facility, OffsetDateTime fromTime, OffsetDateTime toTime) {
-    List<Packing> packings = packingController.listPackings(
-      null,
-      null,
-      facility,
-      null,
-      null,
-      null,
-      toTime,
-      fromTime
-    );
-    return packings.stream().map(
-      packing -> new PackingData(
-        packing,
-        packingBasketDAO.listByPacking(packing)
-      )
-    ).collect(Collectors.toList());
-  }
-
   static class ProductPackingStats {
     long durationMinutes;
     long bags;
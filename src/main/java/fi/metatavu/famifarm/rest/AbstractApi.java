@@ -20,6 +20,7 @@ import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.slf4j.Logger;
 
 import fi.metatavu.famifarm.localization.LocalizedValueController;
+import fi.metatavu.famifarm.persistence.dao.ListCursor;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.rest.model.ErrorResponse;
 import fi.metatavu.famifarm.rest.model.LocalizedValue;
@@ -34,6 +35,10 @@ public abstract class AbstractApi {
   
   protected static final String NOT_FOUND_MESSAGE = "Not found";
 
+  protected static final String PAGE_TOKEN_PARAMETER = "pageToken";
+
+  protected static final String NEXT_PAGE_TOKEN_HEADER = "Next-Page-Token";
+
   @Inject
   JsonWebToken jwt;
 
@@ -139,6 +144,28 @@ public abstract class AbstractApi {
       .build();
   }
   
+  /**
+   * Constructs ok response for a page of a list. When the page is full, response contains
+   * a token for continuing the list after the last item of the page.
+   * 
+   * @param entity payload
+   * @param pageSize number of items in the page
+   * @param maxResults requested max results
+   * @param lastItemCursor cursor of the last item in the page or null if page is empty
+   * @return response
+   */
+  protected Response createOkPage(Object entity, int pageSize, Integer maxResults, ListCursor lastItemCursor) {
+    Response.ResponseBuilder responseBuilder = Response
+      .status(Response.Status.OK)
+      .entity(entity);
+
+    if (maxResults != null && pageSize >= maxResults && lastItemCursor != null) {
+      responseBuilder.header(NEXT_PAGE_TOKEN_HEADER, lastItemCursor.toToken());
+    }
+
+    return responseBuilder.build();
+  }
+
   /**
    * Constructs no content response
    * 
@@ -212,6 +239,21 @@ public abstract class AbstractApi {
     return Locale.ENGLISH;
   }
   
+  /**
+   * Returns cursor from the page token query parameter
+   * 
+   * @return cursor or null if page token is not given
+   * @throws IllegalArgumentException when page token is invalid
+   */
+  protected ListCursor getPageCursor() {
+    String pageToken = httpServerRequest.getParam(PAGE_TOKEN_PARAMETER);
+    if (pageToken == null || pageToken.isEmpty()) {
+      return null;
+    }
+
+    return ListCursor.fromToken(pageToken);
+  }
+
   /**
    * Creates localized entry from values
    * 
@@ -0,0 +1,112 @@
+package fi.metatavu.famifarm.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+import javax.annotation.security.RolesAllowed;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import fi.metatavu.famifarm.authentication.Roles;
+import fi.metatavu.famifarm.events.EventImportController;
+import fi.metatavu.famifarm.events.EventImportResult;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * REST Services for bulk event imports
+ */
+@Path ("/v1/{facility}/eventImports")
+@RequestScoped
+@Produces (MediaType.APPLICATION_JSON)
+@Consumes (MediaType.APPLICATION_JSON)
+public class EventImportRESTService extends AbstractApi {
+
+  private static final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  @Inject
+  private EventImportController eventImportController;
+
+  /**
+   * Imports a JSON array of events.
+   *
+   * Response is a JSON array containing a result for each imported event in the order of the request.
+   * Import runs while the response is written, and results of each chunk are written and flushed to the client
+   * as soon as the chunk has been persisted. Input that does not start a JSON array is rejected as a bad request
+   * before the response is started.
+   *
+   * @param facility facility
+   * @param body JSON array of events
+   * @return import results
+   */
+  @POST
+  @RolesAllowed({ Roles.ADMIN, Roles.MANAGER })
+  public Response importEvents(@PathParam("facility") Facility facility, InputStream body) {
+    UUID creatorId = getLoggerUserId();
+    JsonParser parser;
+
+    try {
+      parser = eventImportController.openImport(body);
+    } catch (JsonProcessingException e) {
+      return createBadRequest(e.getOriginalMessage());
+    } catch (IOException e) {
+      return createInternalServerError(e.getMessage());
+    }
+
+    StreamingOutput output = outputStream -> {
+      try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+        generator.writeStartArray();
+
+        try {
+          eventImportController.importEvents(parser, facility, creatorId, result -> writeResult(generator, result));
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+
+        generator.writeEndArray();
+      }
+    };
+
+    return Response.ok(output, MediaType.APPLICATION_JSON).build();
+  }
+
+  /**
+   * Writes an import result and flushes it to the client
+   *
+   * @param generator JSON generator
+   * @param result import result
+   */
+  private void writeResult(JsonGenerator generator, EventImportResult result) {
+    try {
+      generator.writeStartObject();
+      generator.writeNumberField("index", result.getIndex());
+      if (result.getId() != null) {
+        generator.writeStringField("id", result.getId().toString());
+      }
+      generator.writeStringField("status", result.getStatus().name());
+      if (result.getMessage() != null) {
+        generator.writeStringField("message", result.getMessage());
+      }
+      generator.writeEndObject();
+      generator.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
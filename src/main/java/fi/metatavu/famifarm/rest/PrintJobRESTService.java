@@ -0,0 +1,124 @@
+package fi.metatavu.famifarm.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.security.RolesAllowed;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+
+import fi.metatavu.famifarm.authentication.Roles;
+import fi.metatavu.famifarm.packings.CutPackingController;
+import fi.metatavu.famifarm.packings.PackingController;
+import fi.metatavu.famifarm.persistence.model.CutPacking;
+import fi.metatavu.famifarm.persistence.model.Packing;
+import fi.metatavu.famifarm.persistence.model.PrintJob;
+import fi.metatavu.famifarm.printing.PrintJobController;
+import fi.metatavu.famifarm.printing.PrintingController;
+import fi.metatavu.famifarm.rest.model.Facility;
+import fi.metatavu.famifarm.rest.translate.PrintJobTranslator;
+
+/**
+ * REST Services for print jobs
+ */
+@Path ("/v1/{facility}/printJobs")
+@RequestScoped
+@Produces (MediaType.APPLICATION_JSON)
+@Consumes (MediaType.APPLICATION_JSON)
+public class PrintJobRESTService extends AbstractApi {
+
+  @Inject
+  private Logger logger;
+
+  @Inject
+  private PrintJobController printJobController;
+
+  @Inject
+  private PrintingController printingController;
+
+  @Inject
+  private PrintJobTranslator printJobTranslator;
+
+  @Inject
+  private PackingController packingController;
+
+  @Inject
+  private CutPackingController cutPackingController;
+
+  /**
+   * Submits a print job printing labels of given packings or cut packings
+   *
+   * @param facility facility
+   * @param body print job request
+   * @return submitted print job
+   */
+  @POST
+  @RolesAllowed({ Roles.WORKER, Roles.ADMIN, Roles.MANAGER })
+  public Response createPrintJob(@PathParam("facility") Facility facility, PrintJobRequest body) {
+    if (body == null || StringUtils.isBlank(body.getPrinterId()) || body.getPackingIds() == null || body.getPackingIds().isEmpty()) {
+      return createBadRequest("Printer id and packing ids are required");
+    }
+
+    try {
+      if (!printingController.isPrinterAvailable(body.getPrinterId())) {
+        return createNotFound("Printer not found!");
+      }
+    } catch (IOException e) {
+      logger.error("Failed to list printers", e);
+      return createInternalServerError(e.getMessage());
+    }
+
+    List<String> labels = new ArrayList<>(body.getPackingIds().size());
+    for (UUID packingId : body.getPackingIds()) {
+      Packing packing = packingController.findById(packingId);
+      if (packing != null && packing.getFacility() == facility) {
+        labels.add(printingController.createLabel(packing, getLocale()));
+        continue;
+      }
+
+      CutPacking cutPacking = cutPackingController.find(packingId);
+      if (cutPacking != null && cutPacking.getProduct().getFacility() == facility) {
+        labels.add(printingController.createLabel(cutPacking, getLocale()));
+        continue;
+      }
+
+      return createBadRequest(String.format("Packing %s not found", packingId));
+    }
+
+    PrintJob printJob = printJobController.submitPrintJob(facility, body.getPrinterId(), labels, getLoggerUserId());
+    return createOk(printJobTranslator.translatePrintJob(printJob));
+  }
+
+  /**
+   * Finds a print job
+   *
+   * @param facility facility
+   * @param printJobId print job id
+   * @return print job
+   */
+  @GET
+  @Path ("/{printJobId}")
+  @RolesAllowed({ Roles.WORKER, Roles.ADMIN, Roles.MANAGER })
+  public Response findPrintJob(@PathParam("facility") Facility facility, @PathParam("printJobId") UUID printJobId) {
+    PrintJob printJob = printJobController.findPrintJob(printJobId);
+    if (printJob == null || printJob.getFacility() != facility) {
+      return createNotFound(NOT_FOUND_MESSAGE);
+    }
+
+    return createOk(printJobTranslator.translatePrintJob(printJob));
+  }
+
+}
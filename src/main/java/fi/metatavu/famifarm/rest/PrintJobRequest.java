@@ -0,0 +1,30 @@
+package fi.metatavu.famifarm.rest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST request for printing labels of packings or cut packings
+ */
+public class PrintJobRequest {
+
+  private String printerId;
+
+  private List<UUID> packingIds;
+
+  public String getPrinterId() {
+    return printerId;
+  }
+
+  public void setPrinterId(String printerId) {
+    this.printerId = printerId;
+  }
+
+  public List<UUID> getPackingIds() {
+    return packingIds;
+  }
+
+  public void setPackingIds(List<UUID> packingIds) {
+    this.packingIds = packingIds;
+  }
+}
@@ -0,0 +1,102 @@
+package fi.metatavu.famifarm.rest;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import fi.metatavu.famifarm.printing.PrintJobStatus;
+
+/**
+ * REST representation of a print job
+ */
+public class PrintJobResponse {
+
+  private UUID id;
+
+  private String printerId;
+
+  private PrintJobStatus status;
+
+  private Integer labelCount;
+
+  private Integer printedCount;
+
+  private Integer attempts;
+
+  private String message;
+
+  private OffsetDateTime createdAt;
+
+  private OffsetDateTime modifiedAt;
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public String getPrinterId() {
+    return printerId;
+  }
+
+  public void setPrinterId(String printerId) {
+    this.printerId = printerId;
+  }
+
+  public PrintJobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(PrintJobStatus status) {
+    this.status = status;
+  }
+
+  public Integer getLabelCount() {
+    return labelCount;
+  }
+
+  public void setLabelCount(Integer labelCount) {
+    this.labelCount = labelCount;
+  }
+
+  public Integer getPrintedCount() {
+    return printedCount;
+  }
+
+  public void setPrintedCount(Integer printedCount) {
+    this.printedCount = printedCount;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  public OffsetDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(OffsetDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public OffsetDateTime getModifiedAt() {
+    return modifiedAt;
+  }
+
+  public void setModifiedAt(OffsetDateTime modifiedAt) {
+    this.modifiedAt = modifiedAt;
+  }
+}
@@ -0,0 +1,120 @@
+package fi.metatavu.famifarm.rest;
+
+import java.util.UUID;
+
+import javax.annotation.security.RolesAllowed;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang3.EnumUtils;
+
+import fi.metatavu.famifarm.authentication.Roles;
+import fi.metatavu.famifarm.persistence.model.ReportJob;
+import fi.metatavu.famifarm.reporting.ReportFormat;
+import fi.metatavu.famifarm.reporting.ReportJobController;
+import fi.metatavu.famifarm.reporting.ReportJobStatus;
+import fi.metatavu.famifarm.reporting.ReportType;
+import fi.metatavu.famifarm.rest.model.Facility;
+import fi.metatavu.famifarm.rest.translate.ReportJobTranslator;
+
+/**
+ * REST Services for asynchronous report jobs
+ */
+@Path ("/v1/{facility}/reportJobs")
+@RequestScoped
+@Produces (MediaType.APPLICATION_JSON)
+@Consumes (MediaType.APPLICATION_JSON)
+public class ReportJobRESTService extends AbstractApi {
+
+  @Inject
+  private ReportJobController reportJobController;
+
+  @Inject
+  private ReportJobTranslator reportJobTranslator;
+
+  /**
+   * Submits a report job. Returns existing job if identical report is already being generated or available
+   *
+   * @param facility facility
+   * @param typeParam report type
+   * @param fromTime from time
+   * @param toTime to time
+   * @param reportFormat report format
+   * @return report job
+   */
+  @POST
+  @RolesAllowed({ Roles.ADMIN, Roles.MANAGER })
+  public Response createReportJob(@PathParam("facility") Facility facility, @QueryParam("type") String typeParam, @QueryParam("fromTime") String fromTime, @QueryParam("toTime") String toTime, @QueryParam("format") String reportFormat) {
+    ReportType reportType = EnumUtils.getEnum(ReportType.class, typeParam);
+
+    if (reportType == null) {
+      return createBadRequest(String.format("Invalid report type %s", typeParam));
+    }
+
+    ReportFormat format = EnumUtils.getEnum(ReportFormat.class, reportFormat);
+    if (format == null) {
+      format = ReportFormat.XLS;
+    }
+
+    ReportJob reportJob = reportJobController.submitReportJob(reportType, format, facility, getLocale(), fromTime, toTime, getLoggerUserId());
+    return createOk(reportJobTranslator.translateReportJob(reportJob));
+  }
+
+  /**
+   * Finds a report job
+   *
+   * @param facility facility
+   * @param reportJobId report job id
+   * @return report job
+   */
+  @GET
+  @Path ("/{reportJobId}")
+  @RolesAllowed({ Roles.ADMIN, Roles.MANAGER })
+  public Response findReportJob(@PathParam("facility") Facility facility, @PathParam("reportJobId") UUID reportJobId) {
+    ReportJob reportJob = reportJobController.findReportJob(reportJobId);
+    if (reportJob == null || reportJob.getFacility() != facility) {
+      return createNotFound(NOT_FOUND_MESSAGE);
+    }
+
+    return createOk(reportJobTranslator.translateReportJob(reportJob));
+  }
+
+  /**
+   * Downloads the result of a report job
+   *
+   * @param facility facility
+   * @param reportJobId report job id
+   * @return report data
+   */
+  @GET
+  @Path ("/{reportJobId}/data")
+  @Produces (MediaType.WILDCARD)
+  @RolesAllowed({ Roles.ADMIN, Roles.MANAGER })
+  public Response getReportJobData(@PathParam("facility") Facility facility, @PathParam("reportJobId") UUID reportJobId) {
+    ReportJob reportJob = reportJobController.findReportJob(reportJobId);
+    if (reportJob == null || reportJob.getFacility() != facility) {
+      return createNotFound(NOT_FOUND_MESSAGE);
+    }
+
+    if (reportJob.getStatus() != ReportJobStatus.READY) {
+      return createBadRequest(String.format("Report job %s is %s", reportJobId, reportJob.getStatus()));
+    }
+
+    byte[] data = reportJobController.findResultData(reportJob);
+    if (data == null) {
+      return createNotFound(NOT_FOUND_MESSAGE);
+    }
+
+    return Response.ok(data, reportJob.getContentType()).build();
+  }
+
+}
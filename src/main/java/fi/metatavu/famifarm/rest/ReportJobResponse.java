@@ -0,0 +1,94 @@
+package fi.metatavu.famifarm.rest;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import fi.metatavu.famifarm.reporting.ReportFormat;
+import fi.metatavu.famifarm.reporting.ReportJobStatus;
+import fi.metatavu.famifarm.reporting.ReportType;
+
+/**
+ * REST representation of an asynchronous report job
+ */
+public class ReportJobResponse {
+
+  private UUID id;
+
+  private ReportType type;
+
+  private ReportFormat format;
+
+  private String fromTime;
+
+  private String toTime;
+
+  private ReportJobStatus status;
+
+  private OffsetDateTime createdAt;
+
+  private OffsetDateTime modifiedAt;
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public ReportType getType() {
+    return type;
+  }
+
+  public void setType(ReportType type) {
+    this.type = type;
+  }
+
+  public ReportFormat getFormat() {
+    return format;
+  }
+
+  public void setFormat(ReportFormat format) {
+    this.format = format;
+  }
+
+  public String getFromTime() {
+    return fromTime;
+  }
+
+  public void setFromTime(String fromTime) {
+    this.fromTime = fromTime;
+  }
+
+  public String getToTime() {
+    return toTime;
+  }
+
+  public void setToTime(String toTime) {
+    this.toTime = toTime;
+  }
+
+  public ReportJobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(ReportJobStatus status) {
+    this.status = status;
+  }
+
+  public OffsetDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(OffsetDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public OffsetDateTime getModifiedAt() {
+    return modifiedAt;
+  }
+
+  public void setModifiedAt(OffsetDateTime modifiedAt) {
+    this.modifiedAt = modifiedAt;
+  }
+}
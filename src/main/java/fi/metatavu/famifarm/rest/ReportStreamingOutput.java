@@ -0,0 +1,196 @@
+package fi.metatavu.famifarm.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import fi.metatavu.famifarm.reporting.Report;
+import fi.metatavu.famifarm.reporting.ReportException;
+import fi.metatavu.famifarm.rest.model.Facility;
+
+/**
+ * JAX-RS StreamingOutput that writes report directly into the response while the report is being created. 
+ * 
+ * If report creation fails before anything has been written into the response, given error response is 
+ * returned instead. Failures after the response has been started abort the response.
+ */
+public class ReportStreamingOutput implements StreamingOutput {
+
+  private static Logger logger = LoggerFactory.getLogger(ReportStreamingOutput.class);
+
+  private final Report report;
+
+  private final Facility facility;
+
+  private final Locale locale;
+
+  private final Map<String, String> parameters;
+
+  private final Response errorResponse;
+
+  private final Consumer<byte[]> resultConsumer;
+
+  private final int maxResultSize;
+
+  /**
+   * Constructor
+   *
+   * @param report report
+   * @param facility facility
+   * @param locale locale
+   * @param parameters report parameters
+   * @param errorResponse response to return when report creation fails before anything has been written
+   */
+  public ReportStreamingOutput(Report report, Facility facility, Locale locale, Map<String, String> parameters, Response errorResponse) {
+    this(report, facility, locale, parameters, errorResponse, null, 0);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param report report
+   * @param facility facility
+   * @param locale locale
+   * @param parameters report parameters
+   * @param errorResponse response to return when report creation fails before anything has been written
+   * @param resultConsumer consumer that receives a copy of successfully created report or null
+   * @param maxResultSize max size of a report copy. Copy is dropped as soon as the report grows larger and 
+   *        the report is not passed to result consumer. Copy is not kept at all if the size is not positive
+   */
+  @SuppressWarnings ("squid:S00107")
+  public ReportStreamingOutput(Report report, Facility facility, Locale locale, Map<String, String> parameters, Response errorResponse, Consumer<byte[]> resultConsumer, int maxResultSize) {
+    this.report = report;
+    this.facility = facility;
+    this.locale = locale;
+    this.parameters = parameters;
+    this.errorResponse = errorResponse;
+    this.resultConsumer = resultConsumer;
+    this.maxResultSize = maxResultSize;
+  }
+
+  @Override
+  public void write(OutputStream output) throws IOException {
+    WriteTrackingOutputStream trackingOutput = new WriteTrackingOutputStream(output, resultConsumer != null && maxResultSize > 0 ? maxResultSize : -1);
+
+    try {
+      report.createReport(trackingOutput, facility, locale, parameters);
+    } catch (ReportException e) {
+      if (!trackingOutput.isWritten()) {
+        logger.error("Failed to create report", e);
+        throw new WebApplicationException(e, errorResponse);
+      }
+
+      logger.error("Failed to stream report", e);
+      throw new IOException("Failed to stream report", e);
+    }
+
+    trackingOutput.flush();
+
+    byte[] result = trackingOutput.getCopy();
+    if (resultConsumer != null && result != null) {
+      resultConsumer.accept(result);
+    }
+  }
+
+  /**
+   * Output stream wrapper that keeps track whether anything has been written into the underlying stream.
+   * 
+   * Optionally keeps a copy of written data as long as it does not exceed given size
+   */
+  private static class WriteTrackingOutputStream extends FilterOutputStream {
+
+    private final int maxCopySize;
+
+    private ByteArrayOutputStream copy;
+
+    private boolean written;
+
+    /**
+     * Constructor
+     *
+     * @param output underlying output stream
+     * @param maxCopySize max size of the copy of written data or -1 if copy should not be kept
+     */
+    public WriteTrackingOutputStream(OutputStream output, int maxCopySize) {
+      super(output);
+      this.written = false;
+      this.maxCopySize = maxCopySize;
+      this.copy = maxCopySize >= 0 ? new ByteArrayOutputStream() : null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      written = true;
+      out.write(b);
+
+      if (ensureCopyCapacity(1)) {
+        copy.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      written = true;
+      out.write(b, off, len);
+
+      if (ensureCopyCapacity(len)) {
+        copy.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Response stream is closed by the container
+      flush();
+    }
+
+    /**
+     * Returns whether anything has been written into the underlying stream
+     *
+     * @return whether anything has been written into the underlying stream
+     */
+    public boolean isWritten() {
+      return written;
+    }
+
+    /**
+     * Returns copy of written data
+     *
+     * @return copy of written data or null if copy was not kept or the data exceeded max copy size
+     */
+    public byte[] getCopy() {
+      return copy != null ? copy.toByteArray() : null;
+    }
+
+    /**
+     * Checks whether given amount of bytes still fit into the copy. Copy is discarded when it would grow too large
+     *
+     * @param length number of bytes to be written
+     * @return whether bytes should be written into the copy
+     */
+    private boolean ensureCopyCapacity(int length) {
+      if (copy == null) {
+        return false;
+      }
+
+      if (copy.size() + length > maxCopySize) {
+        copy = null;
+        return false;
+      }
+
+      return true;
+    }
+  }
+
+}
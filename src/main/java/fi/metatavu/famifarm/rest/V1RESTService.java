@@ -9,13 +9,17 @@ import fi.metatavu.famifarm.discards.StorageDiscardController;
 import fi.metatavu.famifarm.drafts.DraftController;
 import fi.metatavu.famifarm.events.*;
 import fi.metatavu.famifarm.filmbatches.PackagingFilmBatchController;
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.packagesizes.PackageSizeController;
 import fi.metatavu.famifarm.packings.CutPackingController;
 import fi.metatavu.famifarm.packings.CutPackingInvalidParametersException;
 import fi.metatavu.famifarm.packings.PackingController;
 import fi.metatavu.famifarm.performedcultivationactions.PerformedCultivationActionsController;
+import fi.metatavu.famifarm.persistence.dao.ListCursor;
 import fi.metatavu.famifarm.persistence.model.*;
 import fi.metatavu.famifarm.pests.PestsController;
+import fi.metatavu.famifarm.printing.PrintJobController;
+import fi.metatavu.famifarm.printing.PrintJobStatus;
 import fi.metatavu.famifarm.printing.PrintingController;
 import fi.metatavu.famifarm.productionlines.ProductionLineController;
 import fi.metatavu.famifarm.products.ProductController;
@@ -55,11 +59,11 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -75,6 +79,8 @@ public class V1RESTService extends AbstractApi implements V1Api {
 
   private static final String FAILED_TO_READ_EVENT_DATA = "Failed to read event data";
 
+  private static final String REPORT_CACHE_HEADER = "Report-Cache";
+
   @Inject
   CampaignTranslator campaignTranslator;
 
@@ -174,6 +180,12 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Inject
   ReportController reportController;
 
+  @Inject
+  ReportCache reportCache;
+
+  @Inject
+  ReportWatermarkController reportWatermarkController;
+
   @Inject
   DraftController draftController;
 
@@ -189,6 +201,12 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Inject
   PrintingController printingController;
 
+  @Inject
+  PrintJobController printJobController;
+
+  @Inject
+  PrintJobTranslator printJobTranslator;
+
   @Inject
   CutPackingController cutPackingController;
 
@@ -207,6 +225,9 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Inject
   PackagingFilmBatchTranslator packagingFilmBatchTranslator;
 
+  @Inject
+  IdController idController;
+
   @Override
   @RolesAllowed({ Roles.ADMIN, Roles.MANAGER, Roles.WORKER })
   @Transactional
@@ -259,7 +280,7 @@ public class V1RESTService extends AbstractApi implements V1Api {
           return createNotFound(NOT_FOUND_MESSAGE);
         }
         PackingBasket packingBasket = new PackingBasket();
-        packingBasket.setId(UUID.randomUUID());
+        packingBasket.setId(idController.generateId());
         packingBasket.setProduct(basketProduct);
         packingBasket.setCount(basket.getBasketCount());
         validPackingBaskets.add(packingBasket);
@@ -348,7 +369,18 @@ public class V1RESTService extends AbstractApi implements V1Api {
       createdAfterTime = OffsetDateTime.parse(createdAfter);
     }
 
-    return createOk(packingController.listPackings(firstResult, maxResults, facility, product, campaign, status, createdBeforeTime, createdAfterTime).stream().map(packing -> packingTranslator.translate(packing)).collect(Collectors.toList()));
+    ListCursor after;
+    try {
+      after = getPageCursor();
+    } catch (IllegalArgumentException e) {
+      return createBadRequest(e.getMessage());
+    }
+
+    List<fi.metatavu.famifarm.persistence.model.Packing> packings = packingController.listPackings(firstResult, maxResults, facility, product, campaign, status, createdBeforeTime, createdAfterTime, after);
+    fi.metatavu.famifarm.persistence.model.Packing lastPacking = packings.isEmpty() ? null : packings.get(packings.size() - 1);
+    ListCursor lastCursor = lastPacking != null ? new ListCursor(lastPacking.getCreatedAt(), lastPacking.getId()) : null;
+
+    return createOkPage(packingTranslator.translate(packings), packings.size(), maxResults, lastCursor);
   }
 
   @Override
@@ -408,7 +440,7 @@ public class V1RESTService extends AbstractApi implements V1Api {
           return createNotFound(NOT_FOUND_MESSAGE);
         }
         PackingBasket packingBasket = new PackingBasket();
-        packingBasket.setId(UUID.randomUUID());
+        packingBasket.setId(idController.generateId());
         packingBasket.setPacking(packing);
         packingBasket.setProduct(basketProduct);
         packingBasket.setCount(basket.getBasketCount());
@@ -482,8 +514,7 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Override
   @RolesAllowed({ Roles.ADMIN, Roles.MANAGER, Roles.WORKER })
   public Response listSeeds(Facility facility, Integer firstResult, Integer maxResults) {
-    List<Seed> result = seedsController.listSeeds(facility, firstResult, maxResults).stream().map(seedsTranslator::translateSeed)
-        .collect(Collectors.toList());
+    List<Seed> result = seedsTranslator.translateSeeds(seedsController.listSeeds(facility, firstResult, maxResults));
 
     return createOk(result);
   }
@@ -1159,9 +1190,19 @@ public class V1RESTService extends AbstractApi implements V1Api {
       createdAfter = OffsetDateTime.parse(createdAfterString);
     }
 
-    List<fi.metatavu.famifarm.persistence.model.CutPacking> cutPackings = cutPackingController.list(facility, firstResult, maxResults, productToFilterBy, null, createdBefore, createdAfter);
-    List<CutPacking> translatedCutPackings = cutPackings.stream().map(cutPackingTranslator::translate).collect(Collectors.toList());
-    return createOk(translatedCutPackings);
+    ListCursor after;
+    try {
+      after = getPageCursor();
+    } catch (IllegalArgumentException e) {
+      return createBadRequest(e.getMessage());
+    }
+
+    List<fi.metatavu.famifarm.persistence.model.CutPacking> cutPackings = cutPackingController.list(facility, firstResult, maxResults, productToFilterBy, null, createdBefore, createdAfter, after);
+    List<CutPacking> translatedCutPackings = cutPackingTranslator.translate(cutPackings);
+    fi.metatavu.famifarm.persistence.model.CutPacking lastCutPacking = cutPackings.isEmpty() ? null : cutPackings.get(cutPackings.size() - 1);
+    ListCursor lastCursor = lastCutPacking != null ? new ListCursor(lastCutPacking.getCreatedAt(), lastCutPacking.getId()) : null;
+
+    return createOkPage(translatedCutPackings, cutPackings.size(), maxResults, lastCursor);
   }
 
   @Override
@@ -1177,17 +1218,25 @@ public class V1RESTService extends AbstractApi implements V1Api {
     
     OffsetDateTime createdAfterTime = createdAfter != null ? OffsetDateTime.parse(createdAfter) : null;
 
-    List<Event> result = eventController.listEventsRest(facility, product, createdAfterTime, createdBeforeTime, firstResult, eventType, maxResults).stream().map(this::translateEvent)
-        .collect(Collectors.toList());
+    ListCursor after;
+    try {
+      after = getPageCursor();
+    } catch (IllegalArgumentException e) {
+      return createBadRequest(e.getMessage());
+    }
 
-    return createOk(result);
+    List<fi.metatavu.famifarm.persistence.model.Event> events = eventController.listEventsRest(facility, product, createdAfterTime, createdBeforeTime, firstResult, eventType, maxResults, after);
+    List<Event> result = translateEvents(events);
+    fi.metatavu.famifarm.persistence.model.Event lastEvent = events.isEmpty() ? null : events.get(events.size() - 1);
+    ListCursor lastCursor = lastEvent != null ? new ListCursor(lastEvent.getCreatedAt(), lastEvent.getId()) : null;
+
+    return createOkPage(result, events.size(), maxResults, lastCursor);
   }
 
   @Override
   @RolesAllowed({ Roles.WORKER, Roles.ADMIN, Roles.MANAGER })
   public Response listPackageSizes(Facility facility, Integer firstResult, Integer maxResults) {
-    List<PackageSize> result = packageSizeController.listPackageSizes(facility, firstResult, maxResults).stream()
-        .map(packageSizeTranslator::translatePackageSize).collect(Collectors.toList());
+    List<PackageSize> result = packageSizeTranslator.translatePackageSizes(packageSizeController.listPackageSizes(facility, firstResult, maxResults));
 
     return createOk(result);
   }
@@ -1204,9 +1253,8 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Override
   @RolesAllowed({ Roles.WORKER, Roles.ADMIN, Roles.MANAGER })
   public Response listPerformedCultivationActions(Facility facility, Integer firstResult, Integer maxResults) {
-    List<PerformedCultivationAction> result = performedCultivationActionsController
-        .listPerformedCultivationActions(facility, firstResult, maxResults).stream()
-        .map(performedCultivationActionTranslator::translatePerformedCultivationAction).collect(Collectors.toList());
+    List<PerformedCultivationAction> result = performedCultivationActionTranslator.translatePerformedCultivationActions(performedCultivationActionsController
+        .listPerformedCultivationActions(facility, firstResult, maxResults));
 
     return createOk(result);
   }
@@ -1223,8 +1271,7 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Override
   @RolesAllowed({ Roles.WORKER, Roles.ADMIN, Roles.MANAGER })
   public Response listProducts(Facility facility, Integer firstResult, Integer maxResults, Boolean includeInActiveProducts, Boolean includeSubcontractorProducts, Boolean filterByEndProduct, Boolean filterByRawMaterials) {
-    List<Product> result = productController.listProducts(facility, firstResult, maxResults, includeSubcontractorProducts, includeInActiveProducts, filterByEndProduct, filterByRawMaterials).stream()
-        .map(productsTranslator::translateProduct).collect(Collectors.toList());
+    List<Product> result = productsTranslator.translateProducts(productController.listProducts(facility, firstResult, maxResults, includeSubcontractorProducts, includeInActiveProducts, filterByEndProduct, filterByRawMaterials));
 
     return createOk(result);
   }
@@ -1245,8 +1292,7 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Override
   @RolesAllowed({ Roles.ADMIN, Roles.MANAGER, Roles.WORKER })
   public Response listWastageReasons(Facility facility, Integer firstResult, Integer maxResults) {
-    List<WastageReason> result = wastageReasonsController.listWastageReasons(firstResult, maxResults, facility).stream()
-        .map(wastageReasonsTranslator::translateWastageReason).collect(Collectors.toList());
+    List<WastageReason> result = wastageReasonsTranslator.translateWastageReasons(wastageReasonsController.listWastageReasons(firstResult, maxResults, facility));
 
     return createOk(result);
   }
@@ -1259,37 +1305,26 @@ public class V1RESTService extends AbstractApi implements V1Api {
     fi.metatavu.famifarm.persistence.model.CutPacking cutPacking = cutPackingController.find(packingId);
 
     try {
-      List<Printer> printers = printingController.getPrinters();
-      Printer correctPrinter = null;
-      for (Printer printer : printers) {
-        if (printer.getId().equals(printerId)) {
-          correctPrinter = printer;
-        }
-      }
-
-      if (correctPrinter == null) {
+      if (!printingController.isPrinterAvailable(printerId)) {
         return createNotFound("Printer not found!");
       }
 
-      Integer status = null;
-
       if (packing == null && cutPacking == null) {
         return createBadRequest("Packing not found!");
       }
 
-      if (packing != null) {
-        status = printingController.printQrCode(printerId, packing, getLocale());
-      }
+      String label = packing != null ? printingController.createLabel(packing, getLocale()) : printingController.createLabel(cutPacking, getLocale());
+      fi.metatavu.famifarm.persistence.model.PrintJob printJob = printJobController.printLabels(facility, printerId, Collections.singletonList(label), getLoggerUserId());
 
-      if (cutPacking != null) {
-        status = printingController.printQrCode(printerId, cutPacking, getLocale());
+      if (printJob.getStatus() == PrintJobStatus.PRINTED) {
+        return Response.status(200).build();
       }
 
-      if (status > 299) {
-        return Response.status(status).build();
-      } else {
-        return Response.status(200).build();
+      if (printJob.getStatus() == PrintJobStatus.FAILED) {
+        return createInternalServerError(String.format("Failed to print: %s", printJob.getMessage()));
       }
+
+      return Response.status(Status.ACCEPTED).entity(printJobTranslator.translatePrintJob(printJob)).build();
     } catch (Exception e) {
       this.logger.error("Failed to print qr code", e);
       return createInternalServerError(e.getMessage());
@@ -1621,25 +1656,25 @@ public class V1RESTService extends AbstractApi implements V1Api {
       format = fi.metatavu.famifarm.reporting.ReportFormat.XLS;
     }
 
+    Locale locale = getLocale();
+    long watermark = reportWatermarkController.getWatermark(facility);
+    ReportCache.CachedReport cachedReport = reportCache.get(reportType, format, facility, locale, fromTime, toTime, watermark);
+    if (cachedReport != null) {
+      return Response.ok(cachedReport.getData(), cachedReport.getContentType()).header(REPORT_CACHE_HEADER, "HIT").build();
+    }
+
     Report report = reportController.getReport(reportType, format);
 
     if (report == null) {
       return createInternalServerError("Failed construct report");
     }
 
-    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-      report.createReport(output, facility, getLocale(), parameters);
-      return streamResponse(output.toByteArray(), report.getContentType());
-    } catch (ReportException e) {
-      this.logger.error("Failed to create report", e);
-      return createInternalServerError("Failed create report");
-    } catch (IOException e) {
-      this.logger.error("Failed to stream report", e);
-      return createInternalServerError("Failed to stream report");
-    } catch (Exception e) {
-      this.logger.error("Failed to output report", e);
-      return createInternalServerError("Failed to output report");
-    }
+    ReportFormat reportCacheFormat = format;
+    String contentType = report.getContentType();
+    Consumer<byte[]> cacheWriter = data -> reportCache.put(reportType, reportCacheFormat, facility, locale, fromTime, toTime, watermark, contentType, data);
+
+    ReportStreamingOutput output = new ReportStreamingOutput(report, facility, locale, parameters, createInternalServerError("Failed create report"), cacheWriter, reportCache.getMaxEntrySize());
+    return Response.ok(output, contentType).header(REPORT_CACHE_HEADER, "MISS").build();
   }
 
   @RolesAllowed({ Roles.ADMIN, Roles.MANAGER, Roles.WORKER })
@@ -1752,8 +1787,7 @@ public class V1RESTService extends AbstractApi implements V1Api {
   @Override
   @RolesAllowed({ Roles.WORKER, Roles.ADMIN, Roles.MANAGER })
   public Response listPests(Facility facility, Integer firstResult, Integer maxResults) {
-    List<Pest> result = pestsController.listPests(facility, firstResult, maxResults).stream().map(pestsTranslator::translatePest)
-        .collect(Collectors.toList());
+    List<Pest> result = pestsTranslator.translatePests(pestsController.listPests(facility, firstResult, maxResults));
 
     return createOk(result);
   }
@@ -1789,6 +1823,46 @@ public class V1RESTService extends AbstractApi implements V1Api {
     return createOk(pestsTranslator.translatePest(pestsController.updatePest(pest, name, loggerUserId)));
   }
 
+  /**
+   * Translates list of events. Events of each type are translated in a single batch and returned in 
+   * the original order
+   * 
+   * @param events events
+   * @return translated events
+   */
+  private List<Event> translateEvents(List<fi.metatavu.famifarm.persistence.model.Event> events) {
+    Map<UUID, Event> translated = new HashMap<>();
+    translateEvents(events, EventType.SOWING, sowingEventTranslator, translated);
+    translateEvents(events, EventType.TABLE_SPREAD, tableSpreadEventTranslator, translated);
+    translateEvents(events, EventType.CULTIVATION_OBSERVATION, cultivationObservationEventTranslator, translated);
+    translateEvents(events, EventType.HARVEST, harvestEventTranslator, translated);
+    translateEvents(events, EventType.PLANTING, plantingEventTranslator, translated);
+    translateEvents(events, EventType.WASTAGE, wastageEventTranslator, translated);
+
+    return events.stream()
+      .map(event -> translated.get(event.getId()))
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Translates events of given type and puts the results into given map
+   * 
+   * @param events events
+   * @param type event type to translate
+   * @param translator translator of the event type
+   * @param translated map for translated events by event id
+   */
+  @SuppressWarnings("unchecked")
+  private <J extends fi.metatavu.famifarm.persistence.model.Event> void translateEvents(List<fi.metatavu.famifarm.persistence.model.Event> events, EventType type, AbstractEventTranslator<?, J> translator, Map<UUID, Event> translated) {
+    List<J> typeEvents = events.stream()
+      .filter(event -> event.getType() == type)
+      .map(event -> (J) event)
+      .collect(Collectors.toList());
+
+    translator.translateEvents(typeEvents).forEach(event -> translated.put(event.getId(), event));
+  }
+
   private Event translateEvent(fi.metatavu.famifarm.persistence.model.Event event) {
     switch (event.getType()) {
     case SOWING:
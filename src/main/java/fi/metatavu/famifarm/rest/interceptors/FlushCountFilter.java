@@ -0,0 +1,47 @@
+package fi.metatavu.famifarm.rest.interceptors;
+
+import fi.metatavu.famifarm.persistence.FlushCounter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * JaxRs filter for reporting the number of persistence context flushes and SQL statements done during a request
+ */
+@Provider
+public class FlushCountFilter implements ContainerResponseFilter {
+
+    private static final String FLUSH_COUNT_HEADER = "Flush-Count";
+
+    private static final String STATEMENT_COUNT_HEADER = "Statement-Count";
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    FlushCounter flushCounter;
+
+    @ConfigProperty(name = "famifarm.metrics.flush-count-header", defaultValue = "false")
+    boolean flushCountHeader;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        int flushCount = flushCounter.getCount();
+        int statementCount = flushCounter.getStatementCount();
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} {} flushed persistence context {} times and prepared {} statements", requestContext.getMethod(), requestContext.getUriInfo().getPath(), flushCount, statementCount);
+        }
+
+        if (flushCountHeader) {
+            responseContext.getHeaders().add(FLUSH_COUNT_HEADER, flushCount);
+            responseContext.getHeaders().add(STATEMENT_COUNT_HEADER, statementCount);
+        }
+    }
+
+}
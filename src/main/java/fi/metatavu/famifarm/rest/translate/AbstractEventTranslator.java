@@ -1,5 +1,12 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 import fi.metatavu.famifarm.rest.model.Event;
 import fi.metatavu.famifarm.rest.model.EventType;
 
@@ -24,17 +31,25 @@ public abstract class AbstractEventTranslator <R, J extends fi.metatavu.famifarm
       return null;
     }
     
-    Event result = new Event();
-    result.setId(event.getId());
-    result.setProductId(event.getProduct().getId());
-    result.setData(translateEventData(event));
-    result.setEndTime(event.getEndTime());
-    result.setStartTime(event.getStartTime());
-    result.setType(getType());
-    result.setUserId(event.getCreatorId());
-    result.setAdditionalInformation(event.getAdditionalInformation());
+    return translateEvent(event, translateEventData(event));
+  }
 
-    return result;
+  /**
+   * Translates list of events from JPA into REST entities
+   * 
+   * @param events events
+   * @return translated events
+   */
+  public List<Event> translateEvents(List<J> events) {
+    if (events.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<UUID, R> eventData = translateEventData(events);
+    
+    return events.stream()
+      .map(event -> translateEvent(event, eventData.get(event.getId())))
+      .collect(Collectors.toList());
   }
   
   /**
@@ -52,4 +67,38 @@ public abstract class AbstractEventTranslator <R, J extends fi.metatavu.famifarm
    */
   protected abstract R translateEventData(J event);
 
+  /**
+   * Translates data of given events. Translators that load related rows for event data override this to load 
+   * the rows of all events at once
+   * 
+   * @param events events
+   * @return event data mapped by event ids
+   */
+  protected Map<UUID, R> translateEventData(List<J> events) {
+    Map<UUID, R> result = new HashMap<>();
+    events.forEach(event -> result.put(event.getId(), translateEventData(event)));
+    return result;
+  }
+
+  /**
+   * Translates event from JPA into REST entity using given event data
+   * 
+   * @param event event
+   * @param eventData translated event data
+   * @return translated event
+   */
+  private Event translateEvent(J event, R eventData) {
+    Event result = new Event();
+    result.setId(event.getId());
+    result.setProductId(event.getProduct().getId());
+    result.setData(eventData);
+    result.setEndTime(event.getEndTime());
+    result.setStartTime(event.getStartTime());
+    result.setType(getType());
+    result.setUserId(event.getCreatorId());
+    result.setAdditionalInformation(event.getAdditionalInformation());
+
+    return result;
+  }
+
 }
@@ -1,7 +1,14 @@
 package fi.metatavu.famifarm.rest.translate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -28,16 +35,59 @@ public abstract class AbstractTranslator {
   protected List<LocalizedValue> translatelocalizedValue(LocalizedEntry entry) {
     List<LocalizedValue> result = new ArrayList<>();
     
-    localizedValueController.listLocalizedValues(entry).stream().map(localizedValue -> {
-      LocalizedValue restItem = new LocalizedValue();
-      
-      restItem.setLanguage(localizedValue.getLocale().getLanguage());
-      restItem.setValue(localizedValue.getValue());
-      
-      return restItem;
-    }).forEach(result::add);
+    localizedValueController.listLocalizedValues(entry).stream().map(this::translateLocalizedValueItem).forEach(result::add);
     
     return result;
   }
+
+  /**
+   * Translates JPA localized entries into lists of REST localized values. Values of all entries are loaded with a single query
+   * 
+   * @param entries JPA localized entries
+   * @return lists of REST localized values mapped by entry ids. Entries without values are not included
+   */
+  protected Map<UUID, List<LocalizedValue>> translateLocalizedValues(Collection<LocalizedEntry> entries) {
+    Map<UUID, List<LocalizedValue>> result = new HashMap<>();
+
+    localizedValueController.listLocalizedValues(entries).forEach((entryId, localizedValues) -> 
+      result.put(entryId, localizedValues.stream().map(this::translateLocalizedValueItem).collect(Collectors.toList()))
+    );
+
+    return result;
+  }
+
+  /**
+   * Translates list of JPA objects with a localized entry into REST objects. Localized values of all objects are 
+   * loaded with a single query
+   * 
+   * @param <E> JPA object type
+   * @param <R> REST object type
+   * @param entities JPA objects
+   * @param entryExtractor function returning the localized entry of a JPA object
+   * @param translator function translating a JPA object using its translated localized values
+   * @return REST objects
+   */
+  protected <E, R> List<R> translateWithLocalizedValues(List<E> entities, Function<E, LocalizedEntry> entryExtractor, BiFunction<E, List<LocalizedValue>, R> translator) {
+    Map<UUID, List<LocalizedValue>> localizedValues = translateLocalizedValues(entities.stream().map(entryExtractor).collect(Collectors.toList()));
+
+    return entities.stream()
+      .map(entity -> translator.apply(entity, localizedValues.getOrDefault(entryExtractor.apply(entity).getId(), new ArrayList<>())))
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Translates single JPA localized value into REST localized value
+   * 
+   * @param localizedValue JPA localized value
+   * @return REST localized value
+   */
+  private LocalizedValue translateLocalizedValueItem(fi.metatavu.famifarm.persistence.model.LocalizedValue localizedValue) {
+    LocalizedValue restItem = new LocalizedValue();
+    
+    restItem.setLanguage(localizedValue.getLocale().getLanguage());
+    restItem.setValue(localizedValue.getValue());
+    
+    return restItem;
+  }
   
 }
@@ -1,5 +1,11 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -30,10 +36,36 @@ public class CultivationObservationEventTranslator extends AbstractEventTranslat
       return null;
     }
     
+    return translateEventData(event, cultivationObservationEventController.listEventPerformedActionIds(event), cultivationObservationEventController.listEventPestIds(event));
+  }
+
+  @Override
+  protected Map<UUID, CultivationObservationEventData> translateEventData(List<CultivationObservationEvent> events) {
+    Map<UUID, List<UUID>> performedActionIds = cultivationObservationEventController.listEventPerformedActionIds(events);
+    Map<UUID, List<UUID>> pestIds = cultivationObservationEventController.listEventPestIds(events);
+    Map<UUID, CultivationObservationEventData> result = new HashMap<>();
+
+    for (CultivationObservationEvent event : events) {
+      UUID eventId = event.getId();
+      result.put(eventId, translateEventData(event, performedActionIds.getOrDefault(eventId, new ArrayList<>()), pestIds.getOrDefault(eventId, new ArrayList<>())));
+    }
+
+    return result;
+  }
+
+  /**
+   * Translates cultivation observation event data using given related ids
+   * 
+   * @param event event
+   * @param performedActionIds performed cultivation action ids of the event
+   * @param pestIds pest ids of the event
+   * @return event data
+   */
+  private CultivationObservationEventData translateEventData(CultivationObservationEvent event, List<UUID> performedActionIds, List<UUID> pestIds) {
     CultivationObservationEventData result = new CultivationObservationEventData();
     result.setLuminance(event.getLuminance());
-    result.setPerformedActionIds(cultivationObservationEventController.listEventPerformedActionIds(event));
-    result.setPestIds(cultivationObservationEventController.listEventPestIds(event));
+    result.setPerformedActionIds(performedActionIds);
+    result.setPestIds(pestIds);
     result.setWeight(event.getWeight());
     
     return result;
@@ -3,6 +3,8 @@ package fi.metatavu.famifarm.rest.translate;
 import fi.metatavu.famifarm.rest.model.CutPacking;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class CutPackingTranslator extends AbstractTranslator  {
@@ -29,4 +31,18 @@ public class CutPackingTranslator extends AbstractTranslator  {
 
         return cutPacking;
     }
+
+    /**
+     * Translates a list of JPA cut packings into REST cut packings.
+     *
+     * Translation reads only the product and production line ids, so packings listed with their
+     * product and production line fetched are translated without further queries
+     *
+     * @param entities JPA entities to translate
+     *
+     * @return translated REST entities
+     */
+    public List<CutPacking> translate(List<fi.metatavu.famifarm.persistence.model.CutPacking> entities) {
+        return entities.stream().map(this::translate).collect(Collectors.toList());
+    }
 }
@@ -9,6 +9,11 @@ import fi.metatavu.famifarm.rest.model.EventType;
 import fi.metatavu.famifarm.rest.model.HarvestBasket;
 import fi.metatavu.famifarm.rest.model.HarvestEventData;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -32,7 +37,28 @@ public class HarvestEventTranslator extends AbstractEventTranslator<HarvestEvent
     if (event == null) {
       return null;
     }
-    
+
+    return translateEventData(event, harvestBasketDAO.listByHarvestEvent(event));
+  }
+
+  @Override
+  protected Map<UUID, HarvestEventData> translateEventData(List<HarvestEvent> events) {
+    Map<UUID, List<fi.metatavu.famifarm.persistence.model.HarvestBasket>> baskets = harvestBasketDAO.listByHarvestEvents(events).stream()
+      .collect(Collectors.groupingBy(harvestBasket -> harvestBasket.getHarvestEvent().getId()));
+
+    Map<UUID, HarvestEventData> result = new HashMap<>();
+    events.forEach(event -> result.put(event.getId(), translateEventData(event, baskets.getOrDefault(event.getId(), new ArrayList<>()))));
+    return result;
+  }
+
+  /**
+   * Translates harvest event data using given baskets
+   * 
+   * @param event event
+   * @param baskets baskets of the event
+   * @return event data
+   */
+  private HarvestEventData translateEventData(HarvestEvent event, List<fi.metatavu.famifarm.persistence.model.HarvestBasket> baskets) {
     HarvestEventData result = new HarvestEventData();
     result.setProductionLineId(event.getProductionLine() != null ? event.getProductionLine().getId() : null);
     result.setType(event.getHarvestType());
@@ -41,7 +67,7 @@ public class HarvestEventTranslator extends AbstractEventTranslator<HarvestEvent
     result.setSowingDate(event.getSowingDate());
     result.setCuttingHeight(event.getCuttingHeight());
 
-    result.setBaskets(harvestBasketDAO.listByHarvestEvent(event).stream().map(harvestBasketEntity -> {
+    result.setBaskets(baskets.stream().map(harvestBasketEntity -> {
       HarvestBasket harvestBasket = new HarvestBasket();
       harvestBasket.setWeight(harvestBasketEntity.getWeight());
       return harvestBasket;
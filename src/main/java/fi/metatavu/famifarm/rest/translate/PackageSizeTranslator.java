@@ -1,7 +1,10 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.List;
+
 import javax.enterprise.context.ApplicationScoped;
 
+import fi.metatavu.famifarm.rest.model.LocalizedValue;
 import fi.metatavu.famifarm.rest.model.PackageSize;
 
 /**
@@ -12,6 +15,16 @@ import fi.metatavu.famifarm.rest.model.PackageSize;
 @ApplicationScoped
 public class PackageSizeTranslator extends AbstractTranslator {
   
+  /**
+   * Translates list of JPA package size objects into REST objects
+   * 
+   * @param packageSizes JPA package size objects
+   * @return REST package sizes
+   */
+  public List<PackageSize> translatePackageSizes(List<fi.metatavu.famifarm.persistence.model.PackageSize> packageSizes) {
+    return translateWithLocalizedValues(packageSizes, fi.metatavu.famifarm.persistence.model.PackageSize::getName, this::translatePackageSize);
+  }
+
   /**
    * Translates JPA package size object into REST seed object
    * 
@@ -23,9 +36,20 @@ public class PackageSizeTranslator extends AbstractTranslator {
       return null;
     }
     
+    return translatePackageSize(packageSize, translatelocalizedValue(packageSize.getName()));
+  }
+
+  /**
+   * Translates JPA package size object into REST object using given localized values
+   * 
+   * @param packageSize JPA package size object
+   * @param name translated localized values
+   * @return REST package size
+   */
+  private PackageSize translatePackageSize(fi.metatavu.famifarm.persistence.model.PackageSize packageSize, List<LocalizedValue> name) {
     PackageSize result = new PackageSize();
     result.setId(packageSize.getId());
-    result.setName(translatelocalizedValue(packageSize.getName()));
+    result.setName(name);
     result.setSize(packageSize.getSize());
 
     return result;
@@ -9,7 +9,11 @@ import fi.metatavu.famifarm.rest.model.PackingUsedBasket;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +32,30 @@ public class PackingTranslator {
   @Inject
   PackingBasketDAO packingBasketDAO;
 
+  /**
+   * Translates list of JPA packing objects into REST packing objects. 
+   * 
+   * Baskets and verification weightings of all packings are loaded with one query each
+   *
+   * @param packings JPA packing objects
+   * @return REST packings
+   */
+  public List<Packing> translate(List<fi.metatavu.famifarm.persistence.model.Packing> packings) {
+    if (packings.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<UUID, List<PackingBasket>> packingBaskets = packingBasketDAO.listByPackings(packings).stream()
+      .collect(Collectors.groupingBy(packingBasket -> packingBasket.getPacking().getId()));
+
+    Map<UUID, List<PackingVerificationWeighting>> weightings = packingVerificationWeightingDAO.listByPackings(packings).stream()
+      .collect(Collectors.groupingBy(weighting -> weighting.getPacking().getId()));
+
+    return packings.stream()
+      .map(packing -> translate(packing, packingBaskets.getOrDefault(packing.getId(), new ArrayList<>()), weightings.getOrDefault(packing.getId(), new ArrayList<>())))
+      .collect(Collectors.toList());
+  }
+
   /**
    * Translates JPA batch object into REST batch object
    * 
@@ -38,7 +66,19 @@ public class PackingTranslator {
     if (packing == null) {
       return null;
     }
-    
+
+    return translate(packing, packingBasketDAO.listByPacking(packing), packingVerificationWeightingDAO.listByPacking(packing));
+  }
+
+  /**
+   * Translates JPA packing object into REST packing object using given child rows
+   *
+   * @param packing JPA packing object
+   * @param packingBaskets baskets of the packing
+   * @param weightings verification weightings of the packing
+   * @return REST packing
+   */
+  private Packing translate(fi.metatavu.famifarm.persistence.model.Packing packing, List<PackingBasket> packingBaskets, List<PackingVerificationWeighting> weightings) {
     Packing result = new Packing();
     result.setId(packing.getId());
 
@@ -63,7 +103,6 @@ public class PackingTranslator {
     result.setEndTime(packing.getEndTime());
     result.setAdditionalInformation(packing.getAdditionalInformation());
 
-    List<PackingBasket> packingBaskets = packingBasketDAO.listByPacking(packing);
     if (packingBaskets != null) {
       result.setBasketsUsed(
         packingBaskets.stream().map(packingBasket -> {
@@ -76,7 +115,6 @@ public class PackingTranslator {
       );
     }
 
-    List<PackingVerificationWeighting> weightings = packingVerificationWeightingDAO.listByPacking(packing);
     if (weightings != null) {
       result.setVerificationWeightings(
         weightings.stream().map(weighting -> {
@@ -1,7 +1,10 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.List;
+
 import javax.enterprise.context.ApplicationScoped;
 
+import fi.metatavu.famifarm.rest.model.LocalizedValue;
 import fi.metatavu.famifarm.rest.model.PerformedCultivationAction;
 
 /**
@@ -12,6 +15,16 @@ import fi.metatavu.famifarm.rest.model.PerformedCultivationAction;
 @ApplicationScoped
 public class PerformedCultivationActionTranslator extends AbstractTranslator {
   
+  /**
+   * Translates list of JPA performed cultivation action objects into REST objects
+   * 
+   * @param performedCultivationActions JPA performed cultivation action objects
+   * @return REST performed cultivation actions
+   */
+  public List<PerformedCultivationAction> translatePerformedCultivationActions(List<fi.metatavu.famifarm.persistence.model.PerformedCultivationAction> performedCultivationActions) {
+    return translateWithLocalizedValues(performedCultivationActions, fi.metatavu.famifarm.persistence.model.PerformedCultivationAction::getName, this::translatePerformedCultivationAction);
+  }
+
   /**
    * Translates JPA performed cultivation action object into REST performed cultivation action object
    * 
@@ -23,9 +36,20 @@ public class PerformedCultivationActionTranslator extends AbstractTranslator {
       return null;
     }
     
+    return translatePerformedCultivationAction(performedCultivationAction, translatelocalizedValue(performedCultivationAction.getName()));
+  }
+
+  /**
+   * Translates JPA performed cultivation action object into REST object using given localized values
+   * 
+   * @param performedCultivationAction JPA performed cultivation action object
+   * @param name translated localized values
+   * @return REST performed cultivation action
+   */
+  private PerformedCultivationAction translatePerformedCultivationAction(fi.metatavu.famifarm.persistence.model.PerformedCultivationAction performedCultivationAction, List<LocalizedValue> name) {
     PerformedCultivationAction result = new PerformedCultivationAction();
     result.setId(performedCultivationAction.getId());
-    result.setName(translatelocalizedValue(performedCultivationAction.getName()));
+    result.setName(name);
 
     return result;
   }
@@ -1,7 +1,10 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.List;
+
 import javax.enterprise.context.ApplicationScoped;
 
+import fi.metatavu.famifarm.rest.model.LocalizedValue;
 import fi.metatavu.famifarm.rest.model.Pest;
 
 /**
@@ -12,6 +15,16 @@ import fi.metatavu.famifarm.rest.model.Pest;
 @ApplicationScoped
 public class PestsTranslator extends AbstractTranslator {
   
+  /**
+   * Translates list of JPA pest objects into REST objects
+   * 
+   * @param pests JPA pest objects
+   * @return REST pests
+   */
+  public List<Pest> translatePests(List<fi.metatavu.famifarm.persistence.model.Pest> pests) {
+    return translateWithLocalizedValues(pests, fi.metatavu.famifarm.persistence.model.Pest::getName, this::translatePest);
+  }
+
   /**
    * Translates JPA pest object into REST pest object
    * 
@@ -23,9 +36,20 @@ public class PestsTranslator extends AbstractTranslator {
       return null;
     }
     
+    return translatePest(pest, translatelocalizedValue(pest.getName()));
+  }
+
+  /**
+   * Translates JPA pest object into REST object using given localized values
+   * 
+   * @param pest JPA pest object
+   * @param name translated localized values
+   * @return REST pest
+   */
+  private Pest translatePest(fi.metatavu.famifarm.persistence.model.Pest pest, List<LocalizedValue> name) {
     Pest result = new Pest();
     result.setId(pest.getId());
-    result.setName(translatelocalizedValue(pest.getName()));
+    result.setName(name);
 
     return result;
   }
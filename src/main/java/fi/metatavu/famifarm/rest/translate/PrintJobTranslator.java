@@ -0,0 +1,39 @@
+package fi.metatavu.famifarm.rest.translate;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import fi.metatavu.famifarm.persistence.model.PrintJob;
+import fi.metatavu.famifarm.rest.PrintJobResponse;
+
+/**
+ * Translator for print jobs
+ */
+@ApplicationScoped
+public class PrintJobTranslator extends AbstractTranslator {
+
+  /**
+   * Translates JPA print job object into REST print job object
+   *
+   * @param printJob JPA print job object
+   * @return REST print job
+   */
+  public PrintJobResponse translatePrintJob(PrintJob printJob) {
+    if (printJob == null) {
+      return null;
+    }
+
+    PrintJobResponse result = new PrintJobResponse();
+    result.setId(printJob.getId());
+    result.setPrinterId(printJob.getPrinterId());
+    result.setStatus(printJob.getStatus());
+    result.setLabelCount(printJob.getLabelCount());
+    result.setPrintedCount(printJob.getPrintedCount());
+    result.setAttempts(printJob.getAttempts());
+    result.setMessage(printJob.getMessage());
+    result.setCreatedAt(printJob.getCreatedAt());
+    result.setModifiedAt(printJob.getModifiedAt());
+
+    return result;
+  }
+
+}
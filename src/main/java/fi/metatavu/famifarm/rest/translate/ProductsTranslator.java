@@ -1,6 +1,9 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -8,6 +11,7 @@ import javax.inject.Inject;
 
 import fi.metatavu.famifarm.products.ProductController;
 import fi.metatavu.famifarm.rest.model.HarvestEventType;
+import fi.metatavu.famifarm.rest.model.LocalizedValue;
 import fi.metatavu.famifarm.rest.model.Product;
 
 /**
@@ -21,6 +25,29 @@ public class ProductsTranslator extends AbstractTranslator {
   @Inject
   private ProductController productController;
 
+  /**
+   * Translates list of JPA product objects into REST product objects. 
+   * 
+   * Names, package sizes and allowed harvest types of all products are loaded with one query each
+   * 
+   * @param products JPA product objects
+   * @return REST products
+   */
+  public List<Product> translateProducts(List<fi.metatavu.famifarm.persistence.model.Product> products) {
+    Map<UUID, List<LocalizedValue>> names = translateLocalizedValues(products.stream().map(fi.metatavu.famifarm.persistence.model.Product::getName).collect(Collectors.toList()));
+    Map<UUID, List<UUID>> packageSizeIds = productController.listPackageSizesForProducts(products);
+    Map<UUID, List<HarvestEventType>> allowedHarvestTypes = productController.listAllowedHarvestTypesForProducts(products);
+
+    return products.stream()
+      .map(product -> translateProduct(
+        product,
+        names.getOrDefault(product.getName().getId(), new ArrayList<>()),
+        packageSizeIds.getOrDefault(product.getId(), new ArrayList<>()),
+        allowedHarvestTypes.getOrDefault(product.getId(), new ArrayList<>())
+      ))
+      .collect(Collectors.toList());
+  }
+
   /**
    * Translates JPA product object into REST product object
    * 
@@ -32,16 +59,29 @@ public class ProductsTranslator extends AbstractTranslator {
       return null;
     }
     
-    Product result = new Product();
     List<HarvestEventType> allowedHarvestTypes = productController
       .listAllowedHarvestTypes(product)
       .stream()
       .map((allowedHarvestType) -> allowedHarvestType.getHarvestType())
       .collect(Collectors.toList());
 
+    return translateProduct(product, translatelocalizedValue(product.getName()), productController.listPackageSizesForProduct(product), allowedHarvestTypes);
+  }
+
+  /**
+   * Translates JPA product object into REST product object using given child values
+   * 
+   * @param product JPA product object
+   * @param name translated name
+   * @param packageSizeIds default package size ids
+   * @param allowedHarvestTypes allowed harvest types
+   * @return REST Product
+   */
+  private Product translateProduct(fi.metatavu.famifarm.persistence.model.Product product, List<LocalizedValue> name, List<UUID> packageSizeIds, List<HarvestEventType> allowedHarvestTypes) {
+    Product result = new Product();
     result.setId(product.getId());
-    result.setName(translatelocalizedValue(product.getName()));
-    result.setDefaultPackageSizeIds(productController.listPackageSizesForProduct(product));
+    result.setName(name);
+    result.setDefaultPackageSizeIds(packageSizeIds);
     result.setAllowedHarvestTypes(allowedHarvestTypes);
     result.setIsSubcontractorProduct(product.isSubcontractorProduct());
     result.setActive(product.isActive());
@@ -52,4 +92,4 @@ public class ProductsTranslator extends AbstractTranslator {
     return result;
   }
   
-}
\ No newline at end of file
+}
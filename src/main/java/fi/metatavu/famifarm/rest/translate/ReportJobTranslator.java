@@ -0,0 +1,38 @@
+package fi.metatavu.famifarm.rest.translate;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import fi.metatavu.famifarm.persistence.model.ReportJob;
+import fi.metatavu.famifarm.rest.ReportJobResponse;
+
+/**
+ * Translator for report jobs
+ */
+@ApplicationScoped
+public class ReportJobTranslator extends AbstractTranslator {
+
+  /**
+   * Translates JPA report job object into REST report job object
+   *
+   * @param reportJob JPA report job object
+   * @return REST report job
+   */
+  public ReportJobResponse translateReportJob(ReportJob reportJob) {
+    if (reportJob == null) {
+      return null;
+    }
+
+    ReportJobResponse result = new ReportJobResponse();
+    result.setId(reportJob.getId());
+    result.setType(reportJob.getType());
+    result.setFormat(reportJob.getFormat());
+    result.setFromTime(reportJob.getFromTime());
+    result.setToTime(reportJob.getToTime());
+    result.setStatus(reportJob.getStatus());
+    result.setCreatedAt(reportJob.getCreatedAt());
+    result.setModifiedAt(reportJob.getModifiedAt());
+
+    return result;
+  }
+
+}
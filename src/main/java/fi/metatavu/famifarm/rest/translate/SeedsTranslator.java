@@ -1,7 +1,10 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.List;
+
 import javax.enterprise.context.ApplicationScoped;
 
+import fi.metatavu.famifarm.rest.model.LocalizedValue;
 import fi.metatavu.famifarm.rest.model.Seed;
 
 /**
@@ -12,6 +15,16 @@ import fi.metatavu.famifarm.rest.model.Seed;
 @ApplicationScoped
 public class SeedsTranslator extends AbstractTranslator {
   
+  /**
+   * Translates list of JPA seed objects into REST objects
+   * 
+   * @param seeds JPA seed objects
+   * @return REST seeds
+   */
+  public List<Seed> translateSeeds(List<fi.metatavu.famifarm.persistence.model.Seed> seeds) {
+    return translateWithLocalizedValues(seeds, fi.metatavu.famifarm.persistence.model.Seed::getName, this::translateSeed);
+  }
+
   /**
    * Translates JPA seed object into REST seed object
    * 
@@ -23,9 +36,20 @@ public class SeedsTranslator extends AbstractTranslator {
       return null;
     }
     
+    return translateSeed(seed, translatelocalizedValue(seed.getName()));
+  }
+
+  /**
+   * Translates JPA seed object into REST object using given localized values
+   * 
+   * @param seed JPA seed object
+   * @param name translated localized values
+   * @return REST seed
+   */
+  private Seed translateSeed(fi.metatavu.famifarm.persistence.model.Seed seed, List<LocalizedValue> name) {
     Seed result = new Seed();
     result.setId(seed.getId());
-    result.setName(translatelocalizedValue(seed.getName()));
+    result.setName(name);
 
     return result;
   }
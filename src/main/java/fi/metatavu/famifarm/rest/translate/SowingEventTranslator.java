@@ -1,6 +1,9 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -35,15 +38,33 @@ public class SowingEventTranslator extends AbstractEventTranslator<SowingEventDa
       return null;
     }
     
-    SowingEventData result = new SowingEventData();
-    result.setAmount(event.getAmount());
-    result.setPotType(event.getPotType());
-    result.setProductionLineId(event.getProductionLine() != null ? event.getProductionLine().getId() : null);
-    
     List<UUID> seedBatchIds = sowingEventController.listSowingEventSeedBatches(event).stream()
       .map(SeedBatch::getId)
       .collect(Collectors.toList());
     
+    return translateEventData(event, seedBatchIds);
+  }
+
+  @Override
+  protected Map<UUID, SowingEventData> translateEventData(List<SowingEvent> events) {
+    Map<UUID, List<UUID>> seedBatchIds = sowingEventController.listSowingEventSeedBatchIds(events);
+    Map<UUID, SowingEventData> result = new HashMap<>();
+    events.forEach(event -> result.put(event.getId(), translateEventData(event, seedBatchIds.getOrDefault(event.getId(), new ArrayList<>()))));
+    return result;
+  }
+
+  /**
+   * Translates sowing event data using given seed batch ids
+   * 
+   * @param event event
+   * @param seedBatchIds seed batch ids of the event
+   * @return event data
+   */
+  private SowingEventData translateEventData(SowingEvent event, List<UUID> seedBatchIds) {
+    SowingEventData result = new SowingEventData();
+    result.setAmount(event.getAmount());
+    result.setPotType(event.getPotType());
+    result.setProductionLineId(event.getProductionLine() != null ? event.getProductionLine().getId() : null);
     result.setSeedBatchIds(seedBatchIds);
     
     return result;
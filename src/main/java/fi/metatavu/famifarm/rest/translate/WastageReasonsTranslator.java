@@ -1,7 +1,10 @@
 package fi.metatavu.famifarm.rest.translate;
 
+import java.util.List;
+
 import javax.enterprise.context.ApplicationScoped;
 
+import fi.metatavu.famifarm.rest.model.LocalizedValue;
 import fi.metatavu.famifarm.rest.model.WastageReason;
 
 /**
@@ -12,6 +15,16 @@ import fi.metatavu.famifarm.rest.model.WastageReason;
 @ApplicationScoped
 public class WastageReasonsTranslator extends AbstractTranslator {
   
+  /**
+   * Translates list of JPA wastage reason objects into REST objects
+   * 
+   * @param wastageReasons JPA wastage reason objects
+   * @return REST wastage reasons
+   */
+  public List<WastageReason> translateWastageReasons(List<fi.metatavu.famifarm.persistence.model.WastageReason> wastageReasons) {
+    return translateWithLocalizedValues(wastageReasons, fi.metatavu.famifarm.persistence.model.WastageReason::getReason, this::translateWastageReason);
+  }
+
   /**
    * Translates JPA wastage reason object into REST wastage reason object
    * 
@@ -23,9 +36,20 @@ public class WastageReasonsTranslator extends AbstractTranslator {
       return null;
     }
     
+    return translateWastageReason(wastageReason, translatelocalizedValue(wastageReason.getReason()));
+  }
+
+  /**
+   * Translates JPA wastage reason object into REST object using given localized values
+   * 
+   * @param wastageReason JPA wastage reason object
+   * @param reason translated localized values
+   * @return REST wastage reason
+   */
+  private WastageReason translateWastageReason(fi.metatavu.famifarm.persistence.model.WastageReason wastageReason, List<LocalizedValue> reason) {
     WastageReason result = new WastageReason();
     result.setId(wastageReason.getId());
-    result.setReason(translatelocalizedValue(wastageReason.getReason()));
+    result.setReason(reason);
 
     return result;
   }
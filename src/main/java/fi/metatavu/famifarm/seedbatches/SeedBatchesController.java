@@ -7,9 +7,11 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.persistence.dao.SeedBatchDAO;
 import fi.metatavu.famifarm.persistence.model.Seed;
 import fi.metatavu.famifarm.persistence.model.SeedBatch;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
@@ -24,6 +26,12 @@ public class SeedBatchesController {
   @Inject
   private SeedBatchDAO seedBatchDAO;
 
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
+
   /**
    * Creates new seed batch
    * 
@@ -34,7 +42,7 @@ public class SeedBatchesController {
    * @return created seed batch
    */
   public SeedBatch createSeedBatch(String code, Seed seed, OffsetDateTime time, UUID userId) {
-    return seedBatchDAO.create(UUID.randomUUID(), code, seed, time, userId, userId);
+    return seedBatchDAO.create(idController.generateId(), code, seed, time, userId, userId);
   }
 
   /**
@@ -75,6 +83,7 @@ public class SeedBatchesController {
     seedBatchDAO.updateSeed(seedBatch, seed, lastModifierId);
     seedBatchDAO.updateTime(seedBatch, time, lastModifierId);
     seedBatchDAO.updateActive(seedBatch, active, lastModifierId);
+    reportWatermarkController.bumpWatermark(seed.getFacility());
     return seedBatch;
   }
 
@@ -85,6 +94,7 @@ public class SeedBatchesController {
    */
   public void deleteSeedBatch(SeedBatch seedBatch) {
     seedBatchDAO.delete(seedBatch);
+    reportWatermarkController.bumpWatermark(seedBatch.getSeed().getFacility());
   }
 
 }
@@ -6,10 +6,12 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.dao.SeedDAO;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.Seed;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
@@ -25,6 +27,12 @@ public class SeedsController {
   
   @Inject
   private SeedDAO seedDAO;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Creates new seed
@@ -35,7 +43,7 @@ public class SeedsController {
    * @return created seed
    */
   public Seed createSeed(Facility facility, LocalizedEntry name, UUID creatorId) {
-    return seedDAO.create(UUID.randomUUID(), facility, name, creatorId, creatorId);
+    return seedDAO.create(idController.generateId(), facility, name, creatorId, creatorId);
   }
 
   /**
@@ -69,6 +77,7 @@ public class SeedsController {
    */
   public Seed updateSeed(Seed seed, LocalizedEntry name, UUID lastModifierId) {
     seedDAO.updateName(seed, name, lastModifierId);
+    reportWatermarkController.bumpWatermark(seed.getFacility());
     return seed;
   }
 
@@ -80,6 +89,7 @@ public class SeedsController {
   public void deleteSeed(Seed seed) {
     LocalizedEntry name = seed.getName();
     seedDAO.delete(seed);
+    reportWatermarkController.bumpWatermark(seed.getFacility());
     localizedValueController.deleteEntry(name);
   }
   
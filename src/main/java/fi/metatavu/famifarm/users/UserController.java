@@ -1,12 +1,30 @@
 package fi.metatavu.famifarm.users;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.client.ClientBuilder;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
@@ -19,6 +37,14 @@ import org.slf4j.Logger;
 /**
  * User controller
  * 
+ * Keycloak admin client is created once and shared between requests. The client keeps its access token and 
+ * refreshes it when it expires, so user lookups do not authenticate against Keycloak on every call. Resolved 
+ * display names are kept in a bounded cache for a configurable time.
+ * 
+ * Requests to Keycloak have connect and read timeouts and bulk lookups wait for the results for a bounded time, 
+ * so an unresponsive Keycloak delays responses only by the configured timeouts. Users not resolved in time are 
+ * displayed by their ids.
+ * 
  * @author Antti Leppä
  */
 @ApplicationScoped
@@ -42,9 +68,59 @@ public class UserController {
   @ConfigProperty(name = "famifarm.keycloak.admin.url") 
   private String keycloakAdminUrl;
 
+  @ConfigProperty(name = "famifarm.keycloak.admin.connection-pool-size", defaultValue = "10")
+  private int connectionPoolSize;
+
+  @ConfigProperty(name = "famifarm.keycloak.admin.connect-timeout-ms", defaultValue = "5000")
+  private long connectTimeoutMs;
+
+  @ConfigProperty(name = "famifarm.keycloak.admin.read-timeout-ms", defaultValue = "10000")
+  private long readTimeoutMs;
+
+  @ConfigProperty(name = "famifarm.users.display-name-timeout-ms", defaultValue = "15000")
+  private long displayNameTimeoutMs;
+
+  @ConfigProperty(name = "famifarm.users.display-name-cache.size", defaultValue = "1000")
+  private int displayNameCacheSize;
+
+  @ConfigProperty(name = "famifarm.users.display-name-cache.ttl-minutes", defaultValue = "10")
+  private long displayNameCacheTtlMinutes;
+
   @Inject
   private Logger logger;
 
+  private final Map<UUID, CachedDisplayName> displayNameCache = new LinkedHashMap<UUID, CachedDisplayName>(16, 0.75f, true) {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<UUID, CachedDisplayName> eldest) {
+      return size() > displayNameCacheSize;
+    }
+
+  };
+
+  private ExecutorService executor;
+
+  private Keycloak keycloakClient;
+
+  /**
+   * Initializes executor for bulk user lookups
+   */
+  @PostConstruct
+  public void init() {
+    executor = Executors.newFixedThreadPool(connectionPoolSize);
+  }
+
+  /**
+   * Shuts down the executor and closes the Keycloak client
+   */
+  @PreDestroy
+  public void destroy() {
+    executor.shutdownNow();
+    closeKeycloakClient();
+  }
+
   /**
    * Returns user's display name 
    * 
@@ -52,18 +128,97 @@ public class UserController {
    * @return display name
    */
   public String getUserDisplayName(UUID userId) {
+    String cached = getCachedDisplayName(userId);
+    if (cached != null) {
+      return cached;
+    }
+
+    return resolveUserDisplayName(userId);
+  }
+
+  /**
+   * Returns display names of given users. Users missing from the cache are resolved from Keycloak concurrently. 
+   * Users that are not resolved within the display name timeout are returned with their ids as display names
+   * 
+   * @param userIds user ids
+   * @return display names by user id
+   */
+  public Map<UUID, String> getUserDisplayNames(Collection<UUID> userIds) {
+    Map<UUID, String> result = new HashMap<>(userIds.size());
+    Map<UUID, CompletableFuture<String>> pending = new HashMap<>();
+    Set<UUID> uniqueIds = new LinkedHashSet<>(userIds);
+
+    for (UUID userId : uniqueIds) {
+      if (userId == null) {
+        continue;
+      }
+
+      String cached = getCachedDisplayName(userId);
+      if (cached != null) {
+        result.put(userId, cached);
+      } else {
+        pending.put(userId, CompletableFuture.supplyAsync(() -> resolveUserDisplayName(userId), executor));
+      }
+    }
+
+    long deadline = System.currentTimeMillis() + displayNameTimeoutMs;
+    pending.forEach((userId, displayName) -> result.put(userId, awaitDisplayName(userId, displayName, deadline)));
+
+    return result;
+  }
+
+  /**
+   * Waits for display name being resolved until given deadline
+   * 
+   * @param userId user id
+   * @param displayName pending display name
+   * @param deadline deadline in epoch milliseconds
+   * @return display name or user id if display name was not resolved before the deadline
+   */
+  private String awaitDisplayName(UUID userId, CompletableFuture<String> displayName, long deadline) {
     try {
-      Keycloak keycloakClient = getKeycloakClient();
-      RealmResource realm = keycloakClient.realm(getRealm());
+      return displayName.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (TimeoutException e) {
+      logger.warn("Timed out while resolving user {} display name", userId);
+    } catch (ExecutionException e) {
+      if (logger.isErrorEnabled()) {
+        logger.error(String.format("Failed to resolve user %s display name", userId), e);
+      }
+    }
+
+    displayName.cancel(true);
+    return userId.toString();
+  }
+
+  /**
+   * Resolves user's display name from Keycloak and stores it into the cache
+   * 
+   * @param userId user id
+   * @return display name or user id if display name could not be resolved
+   */
+  private String resolveUserDisplayName(UUID userId) {
+    Keycloak client = getKeycloakClient();
+
+    try {
+      RealmResource realm = client.realm(getRealm());
       
       UsersResource users = realm.users();
       UserResource userResource = users.get(userId.toString());
       if (userResource != null) {
         UserRepresentation representation = userResource.toRepresentation();
         if (representation != null) {
-          return getUserDisplayName(representation);
+          String displayName = getUserDisplayName(representation);
+          putCachedDisplayName(userId, displayName);
+          return displayName;
         }
       }
+    } catch (NotAuthorizedException e) {
+      replaceKeycloakClient(client);
+      if (logger.isErrorEnabled()) {
+        logger.error(String.format("Failed to resolve user %s display name", userId), e);
+      }
     } catch (Exception e) {
       if (logger.isErrorEnabled()) {
         logger.error(String.format("Failed to resolve user %s display name", userId), e);
@@ -73,6 +228,37 @@ public class UserController {
     return userId.toString();
   }
 
+  /**
+   * Returns display name from the cache
+   * 
+   * @param userId user id
+   * @return cached display name or null if not cached or expired
+   */
+  private synchronized String getCachedDisplayName(UUID userId) {
+    CachedDisplayName cached = displayNameCache.get(userId);
+    if (cached == null) {
+      return null;
+    }
+
+    if (cached.getExpiresAt() < System.currentTimeMillis()) {
+      displayNameCache.remove(userId);
+      return null;
+    }
+
+    return cached.getDisplayName();
+  }
+
+  /**
+   * Stores display name into the cache
+   * 
+   * @param userId user id
+   * @param displayName display name
+   */
+  private synchronized void putCachedDisplayName(UUID userId, String displayName) {
+    long expiresAt = System.currentTimeMillis() + Duration.ofMinutes(displayNameCacheTtlMinutes).toMillis();
+    displayNameCache.put(userId, new CachedDisplayName(displayName, expiresAt));
+  }
+
   /**
    * Formats user representation to display name
    * 
@@ -100,11 +286,46 @@ public class UserController {
   }
   
   /**
-   * Constructs a Keycloak client
+   * Returns shared Keycloak client. Client is constructed when needed for the first time
+   * 
+   * @return Keycloak client 
+   */
+  private synchronized Keycloak getKeycloakClient() {
+    if (keycloakClient == null || keycloakClient.isClosed()) {
+      keycloakClient = createKeycloakClient();
+    }
+
+    return keycloakClient;
+  }
+
+  /**
+   * Closes failed Keycloak client if it is still the shared client. New client is constructed on next use. 
+   * If another thread has already replaced the failed client, the replacement is kept
+   * 
+   * @param failedClient client that failed
+   */
+  private synchronized void replaceKeycloakClient(Keycloak failedClient) {
+    if (keycloakClient == failedClient) {
+      closeKeycloakClient();
+    }
+  }
+
+  /**
+   * Closes shared Keycloak client. New client is constructed on next use
+   */
+  private synchronized void closeKeycloakClient() {
+    if (keycloakClient != null) {
+      keycloakClient.close();
+      keycloakClient = null;
+    }
+  }
+
+  /**
+   * Constructs a Keycloak client with a pooled HTTP client with connect and read timeouts
    * 
    * @return Keycloak client 
    */
-  private Keycloak getKeycloakClient() {
+  private Keycloak createKeycloakClient() {
     String serverUrl = getServerUrl();
     String realm = getRealm();
     String adminUser = getAdminUser();
@@ -112,6 +333,8 @@ public class UserController {
     String clientId = getClientId();
     String clientSecret = getClientSecret();
 
+    ResteasyClientBuilder clientBuilder = (ResteasyClientBuilder) ClientBuilder.newBuilder();
+
     return KeycloakBuilder.builder()
       .serverUrl(serverUrl)
       .realm(realm)
@@ -120,6 +343,12 @@ public class UserController {
       .clientId(clientId)
       .clientSecret(clientSecret)
       .grantType(OAuth2Constants.PASSWORD)
+      .resteasyClient(clientBuilder
+        .connectionPoolSize(connectionPoolSize)
+        .maxPooledPerRoute(connectionPoolSize)
+        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+        .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+        .build())
       .build();
   }
 
@@ -176,5 +405,35 @@ public class UserController {
   private String getServerUrl() {
     return keycloakAdminUrl;
   }
+
+  /**
+   * Display name stored in the cache
+   */
+  private static class CachedDisplayName {
+
+    private final String displayName;
+
+    private final long expiresAt;
+
+    /**
+     * Constructor
+     *
+     * @param displayName display name
+     * @param expiresAt expiration time in epoch milliseconds
+     */
+    public CachedDisplayName(String displayName, long expiresAt) {
+      this.displayName = displayName;
+      this.expiresAt = expiresAt;
+    }
+
+    public String getDisplayName() {
+      return displayName;
+    }
+
+    public long getExpiresAt() {
+      return expiresAt;
+    }
+
+  }
   
 }
\ No newline at end of file
@@ -6,10 +6,12 @@ import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import fi.metatavu.famifarm.ids.IdController;
 import fi.metatavu.famifarm.localization.LocalizedValueController;
 import fi.metatavu.famifarm.persistence.dao.WastageReasonDAO;
 import fi.metatavu.famifarm.persistence.model.LocalizedEntry;
 import fi.metatavu.famifarm.persistence.model.WastageReason;
+import fi.metatavu.famifarm.reporting.ReportWatermarkController;
 import fi.metatavu.famifarm.rest.model.Facility;
 
 /**
@@ -25,6 +27,12 @@ public class WastageReasonsController {
   
   @Inject
   private WastageReasonDAO wastageReasonDAO;
+
+  @Inject
+  private ReportWatermarkController reportWatermarkController;
+
+  @Inject
+  private IdController idController;
   
   /**
    * Creates new wastage reason
@@ -35,7 +43,7 @@ public class WastageReasonsController {
    * @return created wastage reason
    */
   public WastageReason createWastageReason(LocalizedEntry reason, UUID creatorId, Facility facility) {
-    return wastageReasonDAO.create(UUID.randomUUID(), reason, creatorId, creatorId, facility);
+    return wastageReasonDAO.create(idController.generateId(), reason, creatorId, creatorId, facility);
   }
 
   /**
@@ -69,6 +77,7 @@ public class WastageReasonsController {
    */
   public WastageReason updateWastageReason(WastageReason wastageReason, LocalizedEntry reason, UUID lastModifierId) {
     wastageReasonDAO.updateReason(wastageReason, reason, lastModifierId);
+    reportWatermarkController.bumpWatermark(wastageReason.getFacility());
     return wastageReason;
   }
 
@@ -80,6 +89,7 @@ public class WastageReasonsController {
   public void deleteWastageReason(WastageReason wastageReason) {
     LocalizedEntry reason = wastageReason.getReason();
     wastageReasonDAO.delete(wastageReason);
+    reportWatermarkController.bumpWatermark(wastageReason.getFacility());
     localizedValueController.deleteEntry(reason);
   }
   
@@ -1,5 +1,6 @@
 package fi.metatavu.famifarm.test.functional;
 
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.Lists;
 import fi.metatavu.famifarm.client.model.*;
 import fi.metatavu.famifarm.test.functional.builder.TestBuilder;
@@ -107,6 +108,136 @@ public class EventTestsIT extends AbstractFunctionalTest {
     }
   }
   
+  @Test
+  public void testImportEvents() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Seed seed = builder.admin().seeds().create(builder.createLocalizedEntry("Rocket", "Rucola"));
+      SeedBatch seedBatch = builder.admin().seedBatches().create("123", seed, OffsetDateTime.now(), Facility.JOROINEN);
+      PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, Facility.JOROINEN);
+      Product product = builder.admin().products().create(builder.createLocalizedEntry("Product name", "Tuotteen nimi"), Lists.newArrayList(packageSize), false, Facility.JOROINEN);
+      ProductionLine productionLine = builder.admin().productionLines().create("4", 8, Facility.JOROINEN);
+      ProductionLine productionLineJuva = builder.admin().productionLines().create("4", 8, Facility.JUVA);
+      OffsetDateTime startTime = OffsetDateTime.of(2020, 2, 3, 4, 5, 6, 0, ZoneOffset.UTC);
+      OffsetDateTime endTime = OffsetDateTime.of(2020, 2, 3, 4, 10, 6, 0, ZoneOffset.UTC);
+
+      SowingEventData sowingData = new SowingEventData();
+      sowingData.setAmount(12);
+      sowingData.setProductionLineId(productionLine.getId());
+      sowingData.setSeedBatchIds(Collections.singletonList(seedBatch.getId()));
+      sowingData.setPotType(PotType.PAPER);
+
+      TableSpreadEventData tableSpreadData = new TableSpreadEventData();
+      tableSpreadData.setTrayCount(5);
+
+      SowingEventData juvaSowingData = new SowingEventData();
+      juvaSowingData.setAmount(12);
+      juvaSowingData.setProductionLineId(productionLineJuva.getId());
+      juvaSowingData.setSeedBatchIds(Collections.singletonList(seedBatch.getId()));
+      juvaSowingData.setPotType(PotType.PAPER);
+
+      List<Event> events = Arrays.asList(
+        createImportEvent(product.getId(), EventType.SOWING, startTime, endTime, sowingData),
+        createImportEvent(product.getId(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData),
+        createImportEvent(UUID.randomUUID(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData),
+        createImportEvent(product.getId(), EventType.SOWING, startTime, endTime, juvaSowingData)
+      );
+
+      List<Map<String, Object>> results = builder.admin().events().importEvents(Facility.JOROINEN, events);
+      assertEquals(4, results.size());
+
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(i, results.get(i).get("index"));
+      }
+
+      assertEquals("CREATED", results.get(0).get("status"));
+      assertEquals("CREATED", results.get(1).get("status"));
+      assertEquals("FAILED", results.get(2).get("status"));
+      assertEquals("FAILED", results.get(3).get("status"));
+      assertNotNull(results.get(2).get("message"));
+      assertNotNull(results.get(3).get("message"));
+
+      builder.admin().events().assertCount(product.getId(), Facility.JOROINEN, EventType.SOWING, 1);
+      builder.admin().events().assertCount(product.getId(), Facility.JOROINEN, EventType.TABLE_SPREAD, 1);
+
+      Event importedSowing = builder.admin().events().findEvent(UUID.fromString((String) results.get(0).get("id")));
+      Map<?, ?> importedSowingData = (Map<?, ?>) importedSowing.getData();
+      assertEquals(12, importedSowingData.get("amount"));
+      assertEquals(productionLine.getId().toString(), importedSowingData.get("productionLineId"));
+    }
+  }
+
+  @Test
+  public void testImportEventsChunkRollback() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, Facility.JOROINEN);
+      Product product = builder.admin().products().create(builder.createLocalizedEntry("Product name", "Tuotteen nimi"), Lists.newArrayList(packageSize), false, Facility.JOROINEN);
+      OffsetDateTime startTime = OffsetDateTime.of(2020, 2, 3, 4, 5, 6, 0, ZoneOffset.UTC);
+      OffsetDateTime endTime = OffsetDateTime.of(2020, 2, 3, 4, 10, 6, 0, ZoneOffset.UTC);
+
+      TableSpreadEventData tableSpreadData = new TableSpreadEventData();
+      tableSpreadData.setTrayCount(5);
+
+      // Test profile imports events in chunks of two. Event without start time fails only when the chunk is persisted
+      List<Event> events = Arrays.asList(
+        createImportEvent(product.getId(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData),
+        createImportEvent(product.getId(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData),
+        createImportEvent(product.getId(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData),
+        createImportEvent(product.getId(), EventType.TABLE_SPREAD, null, endTime, tableSpreadData),
+        createImportEvent(product.getId(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData)
+      );
+
+      List<Map<String, Object>> results = builder.admin().events().importEvents(Facility.JOROINEN, events);
+      assertEquals(5, results.size());
+
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(i, results.get(i).get("index"));
+      }
+
+      assertEquals("CREATED", results.get(0).get("status"));
+      assertEquals("CREATED", results.get(1).get("status"));
+      assertEquals("FAILED", results.get(2).get("status"));
+      assertEquals("FAILED", results.get(3).get("status"));
+      assertEquals("CREATED", results.get(4).get("status"));
+      assertEquals("Failed to persist events", results.get(2).get("message"));
+      assertEquals("Failed to persist events", results.get(3).get("message"));
+
+      builder.admin().events().assertCount(product.getId(), Facility.JOROINEN, EventType.TABLE_SPREAD, 3);
+    }
+  }
+
+  @Test
+  public void testImportEventsUnreadableEvent() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, Facility.JOROINEN);
+      Product product = builder.admin().products().create(builder.createLocalizedEntry("Product name", "Tuotteen nimi"), Lists.newArrayList(packageSize), false, Facility.JOROINEN);
+      OffsetDateTime startTime = OffsetDateTime.of(2020, 2, 3, 4, 5, 6, 0, ZoneOffset.UTC);
+      OffsetDateTime endTime = OffsetDateTime.of(2020, 2, 3, 4, 10, 6, 0, ZoneOffset.UTC);
+
+      TableSpreadEventData tableSpreadData = new TableSpreadEventData();
+      tableSpreadData.setTrayCount(5);
+
+      Event event = createImportEvent(product.getId(), EventType.TABLE_SPREAD, startTime, endTime, tableSpreadData);
+      String json = getObjectMapper().writer().without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(Arrays.asList(event, event, event));
+
+      // Array is cut in the middle of the fourth event, after the first chunk and one event of the second chunk
+      String body = json.substring(0, json.length() - 1) + ",{\"productId\":";
+
+      List<Map<String, Object>> results = builder.admin().events().importEvents(Facility.JOROINEN, body);
+      assertEquals(4, results.size());
+
+      for (int i = 0; i < 3; i++) {
+        assertEquals(i, results.get(i).get("index"));
+        assertEquals("CREATED", results.get(i).get("status"));
+      }
+
+      assertEquals(3, results.get(3).get("index"));
+      assertEquals("FAILED", results.get(3).get("status"));
+      assertNotNull(results.get(3).get("message"));
+
+      builder.admin().events().assertCount(product.getId(), Facility.JOROINEN, EventType.TABLE_SPREAD, 3);
+    }
+  }
+
   @Test
   public void testDeleteSowingEvent() throws Exception {
     try (TestBuilder builder = new TestBuilder()) {
@@ -596,4 +727,25 @@ public class EventTestsIT extends AbstractFunctionalTest {
       builder.invalid().events().assertCreateFailStatus(401, Facility.JOROINEN, product, startTime, endTime, amount, productionLine, Arrays.asList(seedBatch));
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Creates event for the bulk import
+   *
+   * @param productId product id
+   * @param type event type
+   * @param startTime start time
+   * @param endTime end time
+   * @param data event data
+   * @return event
+   */
+  private Event createImportEvent(UUID productId, EventType type, OffsetDateTime startTime, OffsetDateTime endTime, Object data) {
+    Event event = new Event();
+    event.setProductId(productId);
+    event.setType(type);
+    event.setStartTime(startTime);
+    event.setEndTime(endTime);
+    event.setData(data);
+    return event;
+  }
+
+}
@@ -9,16 +9,32 @@ import io.quarkus.test.junit.QuarkusTest;
 import org.junit.Ignore;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @QuarkusTest
 @QuarkusTestResource(KeycloakResource.class)
 public class PackingTestsIT extends AbstractFunctionalTest {
+
+  @Inject
+  DataSource dataSource;
+
   @Test
   @Ignore
   public void testCreatePacking() throws Exception {
@@ -105,6 +121,43 @@ public class PackingTestsIT extends AbstractFunctionalTest {
     }
   }
 
+  @Test
+  public void testListPackingPages() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      List<LocalizedValue> testEntry = new ArrayList<>();
+      LocalizedValue testValue = new LocalizedValue();
+
+      testValue.setLanguage("en");
+      testValue.setValue("test value");
+      testEntry.add(testValue);
+
+      PackageSize size = builder.admin().packageSizes().create(testEntry, 100, Facility.JOROINEN);
+      Product product = builder.admin().products().create(testEntry, Lists.newArrayList(size), false, Facility.JOROINEN);
+
+      for (int i = 0; i < 5; i++) {
+        builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 0, PackingState.IN_STORE, size, Facility.JOROINEN);
+      }
+
+      List<Packing> pagedPackings = new ArrayList<>();
+      String pageToken = builder.admin().packings().listPage(Facility.JOROINEN, 2, null, pagedPackings);
+      assertEquals(2, pagedPackings.size());
+      assertNotNull(pageToken);
+
+      pageToken = builder.admin().packings().listPage(Facility.JOROINEN, 2, pageToken, pagedPackings);
+      assertEquals(4, pagedPackings.size());
+      assertNotNull(pageToken);
+
+      pageToken = builder.admin().packings().listPage(Facility.JOROINEN, 2, pageToken, pagedPackings);
+      assertEquals(5, pagedPackings.size());
+      assertNull(pageToken);
+
+      List<Packing> packings = builder.admin().packings().list(null, null, null, null, null, null, Facility.JOROINEN);
+      assertEquals(packings.stream().map(Packing::getId).collect(Collectors.toList()), pagedPackings.stream().map(Packing::getId).collect(Collectors.toList()));
+
+      builder.admin().packings().assertListPageFailStatus(400, Facility.JOROINEN, "invalid");
+    }
+  }
+
   @Test
   public void testUpdatePacking() throws Exception {
     try (TestBuilder builder = new TestBuilder()) {
@@ -154,6 +207,115 @@ public class PackingTestsIT extends AbstractFunctionalTest {
     }
   }
   
+  @Test
+  public void testUpdatePackingBasketsAndWeightings() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      List<LocalizedValue> testEntry = builder.createLocalizedEntry("test value");
+      PackageSize size = builder.admin().packageSizes().create(testEntry, 100, Facility.JOROINEN);
+      Product product1 = builder.admin().products().create(testEntry, Lists.newArrayList(size), false, Facility.JOROINEN);
+      Product product2 = builder.admin().products().create(testEntry, Lists.newArrayList(size), false, Facility.JOROINEN);
+
+      OffsetDateTime time1 = OffsetDateTime.of(2022, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+      OffsetDateTime time2 = OffsetDateTime.of(2022, 1, 1, 11, 0, 0, 0, ZoneOffset.UTC);
+      PackingUsedBasket basket1 = new PackingUsedBasket().basketCount(1).productId(product1.getId());
+      PackingUsedBasket basket2 = new PackingUsedBasket().basketCount(2).productId(product2.getId());
+      PackingVerificationWeighing weighing1 = new PackingVerificationWeighing().time(time1).weight(100.0f);
+      PackingVerificationWeighing weighing2 = new PackingVerificationWeighing().time(time2).weight(200.0f);
+
+      Packing packing = builder.admin().packings().create(product1.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 0, PackingState.IN_STORE, size, Facility.JOROINEN,
+        Lists.newArrayList(weighing1, weighing2), Lists.newArrayList(basket1, basket2), null, null, null, null);
+
+      Map<UUID, Object> originalBaskets = listPackingBasketProducts(packing.getId());
+      Map<UUID, Object> originalWeightings = listVerificationWeightingWeights(packing.getId());
+      assertEquals(2, originalBaskets.size());
+      assertEquals(2, originalWeightings.size());
+
+      // Unchanged rows are kept
+      packing.setBasketsUsed(Lists.newArrayList(basket1, basket2));
+      packing.setVerificationWeightings(Lists.newArrayList(weighing1, weighing2));
+      builder.admin().packings().update(packing, Facility.JOROINEN);
+      assertEquals(originalBaskets, listPackingBasketProducts(packing.getId()));
+      assertEquals(originalWeightings, listVerificationWeightingWeights(packing.getId()));
+
+      // Reordered rows are kept
+      packing.setBasketsUsed(Lists.newArrayList(basket2, basket1));
+      packing.setVerificationWeightings(Lists.newArrayList(weighing2, weighing1));
+      builder.admin().packings().update(packing, Facility.JOROINEN);
+      assertEquals(originalBaskets, listPackingBasketProducts(packing.getId()));
+      assertEquals(originalWeightings, listVerificationWeightingWeights(packing.getId()));
+
+      // Duplicate rows are added next to the existing rows
+      packing.setBasketsUsed(Lists.newArrayList(basket1, basket2, basket1));
+      packing.setVerificationWeightings(Lists.newArrayList(weighing1, weighing2, weighing1));
+      builder.admin().packings().update(packing, Facility.JOROINEN);
+
+      Map<UUID, Object> duplicatedBaskets = listPackingBasketProducts(packing.getId());
+      Map<UUID, Object> duplicatedWeightings = listVerificationWeightingWeights(packing.getId());
+      assertEquals(3, duplicatedBaskets.size());
+      assertEquals(3, duplicatedWeightings.size());
+      assertTrue(duplicatedBaskets.entrySet().containsAll(originalBaskets.entrySet()));
+      assertTrue(duplicatedWeightings.entrySet().containsAll(originalWeightings.entrySet()));
+      assertEquals(2, duplicatedBaskets.values().stream().filter(product1.getId()::equals).count());
+      assertEquals(2, duplicatedWeightings.values().stream().filter(Float.valueOf(100.0f)::equals).count());
+
+      Packing foundPacking = builder.admin().packings().find(packing.getId(), Facility.JOROINEN);
+      assertEquals(3, foundPacking.getBasketsUsed().size());
+      assertEquals(3, foundPacking.getVerificationWeightings().size());
+
+      // Removed rows are deleted and the remaining rows are kept
+      packing.setBasketsUsed(Lists.newArrayList(basket2));
+      packing.setVerificationWeightings(Lists.newArrayList(weighing2));
+      builder.admin().packings().update(packing, Facility.JOROINEN);
+
+      Map<UUID, Object> remainingBaskets = listPackingBasketProducts(packing.getId());
+      Map<UUID, Object> remainingWeightings = listVerificationWeightingWeights(packing.getId());
+      assertEquals(1, remainingBaskets.size());
+      assertEquals(1, remainingWeightings.size());
+      assertTrue(originalBaskets.entrySet().containsAll(remainingBaskets.entrySet()));
+      assertTrue(originalWeightings.entrySet().containsAll(remainingWeightings.entrySet()));
+      assertEquals(product2.getId(), remainingBaskets.values().iterator().next());
+      assertEquals(200.0f, remainingWeightings.values().iterator().next());
+
+      foundPacking = builder.admin().packings().find(packing.getId(), Facility.JOROINEN);
+      assertEquals(1, foundPacking.getBasketsUsed().size());
+      assertEquals(2, (int) foundPacking.getBasketsUsed().get(0).getBasketCount());
+      assertEquals(product2.getId(), foundPacking.getBasketsUsed().get(0).getProductId());
+      assertEquals(1, foundPacking.getVerificationWeightings().size());
+      assertEquals(200.0f, foundPacking.getVerificationWeightings().get(0).getWeight(), 0.001f);
+    }
+  }
+
+  @Test
+  public void testUpdatePackingPersistenceMetrics() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      List<LocalizedValue> testEntry = builder.createLocalizedEntry("test value");
+      PackageSize size = builder.admin().packageSizes().create(testEntry, 100, Facility.JOROINEN);
+      Product product = builder.admin().products().create(testEntry, Lists.newArrayList(size), false, Facility.JOROINEN);
+      Packing packing = builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 0, PackingState.IN_STORE, size, Facility.JOROINEN);
+
+      packing.setPackedCount(5);
+      builder.admin().packings().updateWithMetrics(packing, Facility.JOROINEN);
+
+      packing.setPackedCount(10);
+      Map<String, Integer> singleFieldMetrics = builder.admin().packings().updateWithMetrics(packing, Facility.JOROINEN);
+
+      packing.setPackedCount(20);
+      packing.setAdditionalInformation("changed");
+      packing.setTime(packing.getTime().minusDays(1));
+      packing.setStartTime(OffsetDateTime.now().minusHours(2));
+      packing.setEndTime(OffsetDateTime.now().minusHours(1));
+      Map<String, Integer> multiFieldMetrics = builder.admin().packings().updateWithMetrics(packing, Facility.JOROINEN);
+
+      assertTrue(singleFieldMetrics.get("Flush-Count") > 0);
+      assertTrue(singleFieldMetrics.get("Statement-Count") > 0);
+      assertEquals(singleFieldMetrics, multiFieldMetrics);
+
+      Packing foundPacking = builder.admin().packings().find(packing.getId(), Facility.JOROINEN);
+      assertEquals(20, (int) foundPacking.getPackedCount());
+      assertEquals("changed", foundPacking.getAdditionalInformation());
+    }
+  }
+
   @Test
   public void testDeletePacking() throws Exception {
     try (TestBuilder builder = new TestBuilder()) {
@@ -206,5 +368,90 @@ public class PackingTestsIT extends AbstractFunctionalTest {
       assertEquals(PackingState.REMOVED, updatedPacking.getState());
     }
   }
-  
+
+  /**
+   * Lists stored packing baskets of a packing
+   *
+   * @param packingId packing id
+   * @return basket product ids mapped by basket ids
+   * @throws SQLException thrown when query fails
+   */
+  private Map<UUID, Object> listPackingBasketProducts(UUID packingId) throws SQLException {
+    return listPackingRows("SELECT id, product_id FROM packingbasket WHERE packing_id = ?", packingId, resultSet -> toUuid(resultSet.getBytes(2)));
+  }
+
+  /**
+   * Lists stored verification weightings of a packing
+   *
+   * @param packingId packing id
+   * @return weights mapped by verification weighting ids
+   * @throws SQLException thrown when query fails
+   */
+  private Map<UUID, Object> listVerificationWeightingWeights(UUID packingId) throws SQLException {
+    return listPackingRows("SELECT id, weight FROM packingverificationweighting WHERE packing_id = ?", packingId, resultSet -> resultSet.getFloat(2));
+  }
+
+  /**
+   * Lists stored child rows of a packing
+   *
+   * @param sql query selecting row id and value by packing id
+   * @param packingId packing id
+   * @param valueReader reader for the row value
+   * @return row values mapped by row ids
+   * @throws SQLException thrown when query fails
+   */
+  private Map<UUID, Object> listPackingRows(String sql, UUID packingId, RowValueReader valueReader) throws SQLException {
+    Map<UUID, Object> result = new HashMap<>();
+
+    try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setBytes(1, toBytes(packingId));
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          result.put(toUuid(resultSet.getBytes(1)), valueReader.read(resultSet));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Converts UUID into binary form used in the database
+   *
+   * @param uuid UUID
+   * @return binary UUID
+   */
+  private byte[] toBytes(UUID uuid) {
+    return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+  }
+
+  /**
+   * Converts binary UUID from the database into UUID
+   *
+   * @param bytes binary UUID
+   * @return UUID
+   */
+  private UUID toUuid(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+
+  /**
+   * Reader for a value of a result set row
+   */
+  @FunctionalInterface
+  private interface RowValueReader {
+
+    /**
+     * Reads value of the current row
+     *
+     * @param resultSet result set
+     * @return value
+     * @throws SQLException thrown when reading fails
+     */
+    Object read(ResultSet resultSet) throws SQLException;
+
+  }
+
 }
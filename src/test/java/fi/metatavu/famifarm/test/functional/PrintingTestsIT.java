@@ -6,13 +6,17 @@ import fi.metatavu.famifarm.test.functional.builder.TestBuilder;
 
 import io.quarkus.test.junit.QuarkusTest;
 import fi.metatavu.famifarm.test.functional.resources.KeycloakResource;
+import fi.metatavu.famifarm.test.functional.resources.PrintServerResource;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import io.quarkus.test.common.QuarkusTestResource;
 
 /**
@@ -20,6 +24,7 @@ import io.quarkus.test.common.QuarkusTestResource;
  */
 @QuarkusTest
 @QuarkusTestResource(KeycloakResource.class)
+@QuarkusTestResource(PrintServerResource.class)
 public class PrintingTestsIT extends AbstractFunctionalTest {
     @Test
     public void testPrinters() throws Exception {
@@ -38,4 +43,77 @@ public class PrintingTestsIT extends AbstractFunctionalTest {
             }
         }
     }
+
+    @Test
+    public void testPrint() throws Exception {
+        try (TestBuilder builder = new TestBuilder()) {
+            PrintServerResource.reset();
+
+            PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, Facility.JOROINEN);
+            Product product = builder.admin().products().create(builder.createLocalizedEntry("Test product"), Lists.newArrayList(packageSize), false, Facility.JOROINEN);
+            Packing packing = builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 5, PackingState.IN_STORE, packageSize, Facility.JOROINEN);
+
+            builder.admin().printers().print(packing.getId(), PrintServerResource.PRINTER_ID);
+            assertEquals(1, PrintServerResource.getReceivedCommands().size());
+            assertTrue(PrintServerResource.getReceivedCommands().get(0).contains(packing.getId().toString()));
+
+            PrintServerResource.failNextPrints(1);
+            builder.admin().printers().print(packing.getId(), PrintServerResource.PRINTER_ID);
+            assertEquals(2, PrintServerResource.getReceivedCommands().size());
+
+            PrintServerResource.rejectNextPrints(1);
+            builder.admin().printers().assertPrintFailStatus(500, packing.getId(), PrintServerResource.PRINTER_ID);
+            assertEquals(2, PrintServerResource.getReceivedCommands().size());
+
+            builder.admin().printers().assertPrintFailStatus(404, packing.getId(), "unknown-printer");
+        }
+    }
+
+    @Test
+    public void testPrintJob() throws Exception {
+        try (TestBuilder builder = new TestBuilder()) {
+            PrintServerResource.reset();
+
+            PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, Facility.JOROINEN);
+            Product product = builder.admin().products().create(builder.createLocalizedEntry("Valkokärpässieni"), Lists.newArrayList(packageSize), false, Facility.JOROINEN);
+            Packing packing1 = builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 5, PackingState.IN_STORE, packageSize, Facility.JOROINEN);
+            Packing packing2 = builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 3, PackingState.IN_STORE, packageSize, Facility.JOROINEN);
+
+            Map<String, Object> printJob = builder.admin().printers().createPrintJob(PrintServerResource.PRINTER_ID, List.of(packing1.getId(), packing2.getId()));
+            assertNotNull(printJob.get("id"));
+            assertEquals(2, printJob.get("labelCount"));
+
+            Map<String, Object> printedJob = builder.admin().printers().waitPrintJob(printJob.get("id"));
+            assertEquals("PRINTED", printedJob.get("status"));
+            assertEquals(2, printedJob.get("printedCount"));
+
+            List<String> commands = PrintServerResource.getReceivedCommands();
+            assertEquals(2, commands.size());
+            assertTrue(commands.get(0).contains(packing1.getId().toString()));
+            assertTrue(commands.get(0).contains("Valkokarpassieni"));
+            assertTrue(commands.get(1).contains(packing2.getId().toString()));
+
+            builder.admin().printers().assertCreatePrintJobFailStatus(404, "unknown-printer", List.of(packing1.getId()));
+            builder.admin().printers().assertCreatePrintJobFailStatus(400, PrintServerResource.PRINTER_ID, List.of(UUID.randomUUID()));
+        }
+    }
+
+    @Test
+    public void testPrintJobRetry() throws Exception {
+        try (TestBuilder builder = new TestBuilder()) {
+            PrintServerResource.reset();
+
+            PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, Facility.JOROINEN);
+            Product product = builder.admin().products().create(builder.createLocalizedEntry("Test product"), Lists.newArrayList(packageSize), false, Facility.JOROINEN);
+            Packing packing = builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 5, PackingState.IN_STORE, packageSize, Facility.JOROINEN);
+
+            PrintServerResource.failNextPrints(1);
+
+            Map<String, Object> printJob = builder.admin().printers().createPrintJob(PrintServerResource.PRINTER_ID, List.of(packing.getId()));
+            Map<String, Object> printedJob = builder.admin().printers().waitPrintJob(printJob.get("id"));
+            assertEquals("PRINTED", printedJob.get("status"));
+            assertEquals(2, printedJob.get("attempts"));
+            assertEquals(1, PrintServerResource.getReceivedCommands().size());
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package fi.metatavu.famifarm.test.functional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+import fi.metatavu.famifarm.client.model.EventType;
+import fi.metatavu.famifarm.client.model.Facility;
+import fi.metatavu.famifarm.client.model.PackageSize;
+import fi.metatavu.famifarm.client.model.PackingState;
+import fi.metatavu.famifarm.client.model.PackingType;
+import fi.metatavu.famifarm.client.model.Product;
+import fi.metatavu.famifarm.client.model.ProductionLine;
+import fi.metatavu.famifarm.test.functional.builder.TestBuilder;
+import fi.metatavu.famifarm.test.functional.resources.KeycloakResource;
+import fi.metatavu.famifarm.test.functional.resources.QueryRecorder;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Tests that list queries of the DAO classes are served by indexes.
+ *
+ * Tests record the statements sent to the database while list endpoints are called and run EXPLAIN for each of them.
+ * Test tables are nearly empty, so EXPLAIN runs with max_seeks_for_key lowered to make the optimizer prefer indexes
+ * over scanning small tables. Any full table scan left in the plan fails the test.
+ */
+@QuarkusTest
+@QuarkusTestResource(KeycloakResource.class)
+public class QueryPlanTestsIT extends AbstractFunctionalTest {
+
+  private static final String TEST_JSON = "{\"test\": \"test data\"}";
+
+  @Inject
+  DataSource dataSource;
+
+  @Test
+  public void testEventListQueryPlans() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      Product product = createProduct(builder, facility);
+      createSowingEvent(builder, product, facility);
+
+      QueryRecorder.start();
+      builder.admin().events().assertCount(null, facility, null, 1);
+      builder.admin().events().assertCount(product.getId(), facility, null, 1);
+      builder.admin().events().assertCount(null, facility, EventType.SOWING, 1);
+      assertNoFullTableScans(QueryRecorder.stop(), "event");
+    }
+  }
+
+  @Test
+  public void testPackingListQueryPlans() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, facility);
+      Product product = builder.admin().products().create(builder.createLocalizedEntry("Product name", "Tuotteen nimi"), Lists.newArrayList(packageSize), false, facility);
+      ProductionLine productionLine = builder.admin().productionLines().create("4", 8, facility);
+      builder.admin().packings().create(product.getId(), null, PackingType.BASIC, OffsetDateTime.now(), 0, PackingState.IN_STORE, packageSize, facility);
+      builder.admin().cutPackings().create(10, product.getId(), productionLine.getId(), OffsetDateTime.now(), OffsetDateTime.now().minusDays(14), "Producer", "Contact information", "Storage condition", 10, 100, facility);
+
+      QueryRecorder.start();
+      builder.admin().packings().list(null, 50, null, null, null, null, facility);
+      builder.admin().packings().list(null, null, null, PackingState.IN_STORE, OffsetDateTime.now().minusDays(1), OffsetDateTime.now().plusDays(1), facility);
+      builder.admin().packings().list(null, null, product.getId(), null, null, null, facility);
+      builder.admin().cutPackings().list(null, null, null, OffsetDateTime.now().plusDays(1), OffsetDateTime.now().minusDays(1), facility);
+      builder.admin().cutPackings().list(null, null, product.getId(), null, null, facility);
+      assertNoFullTableScans(QueryRecorder.stop(), "packing", "cutpacking");
+    }
+  }
+
+  @Test
+  public void testStorageDiscardListQueryPlans() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, facility);
+      Product product = builder.admin().products().create(builder.createLocalizedEntry("Product name", "Tuotteen nimi"), Lists.newArrayList(packageSize), false, facility);
+      builder.admin().storageDiscards().create(OffsetDateTime.now(), 30, product.getId(), packageSize.getId(), facility);
+
+      QueryRecorder.start();
+      builder.admin().storageDiscards().list(facility, 0, 50, null, null, null);
+      builder.admin().storageDiscards().list(facility, 0, 50, OffsetDateTime.now().minusDays(1).toString(), OffsetDateTime.now().plusDays(1).toString(), product.getId());
+      assertNoFullTableScans(QueryRecorder.stop(), "storagediscard");
+    }
+  }
+
+  @Test
+  public void testDraftListQueryPlans() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      UUID userId = builder.admin().drafts().create("test", TEST_JSON, facility).getUserId();
+
+      QueryRecorder.start();
+      builder.admin().drafts().assertCount(1, userId, "test", facility);
+      assertNoFullTableScans(QueryRecorder.stop(), "draft");
+    }
+  }
+
+  /**
+   * Creates test product
+   *
+   * @param builder test builder
+   * @param facility facility
+   * @return created product
+   */
+  private Product createProduct(TestBuilder builder, Facility facility) {
+    PackageSize packageSize = builder.admin().packageSizes().create(builder.createLocalizedEntry("Test PackageSize"), 8, facility);
+    return builder.admin().products().create(builder.createLocalizedEntry("Product name", "Tuotteen nimi"), Lists.newArrayList(packageSize), false, facility);
+  }
+
+  /**
+   * Runs EXPLAIN for recorded statements and asserts that none of them scans a table fully
+   *
+   * @param statements recorded statements
+   * @param expectedTables tables that recorded statements are expected to read
+   * @throws SQLException thrown when query fails
+   */
+  private void assertNoFullTableScans(List<String> statements, String... expectedTables) throws SQLException {
+    for (String expectedTable : expectedTables) {
+      String fromClause = String.format(" from %s ", expectedTable);
+      assertTrue(statements.stream().anyMatch(statement -> statement.toLowerCase().contains(fromClause)), String.format("No statements reading %s were recorded", expectedTable));
+    }
+
+    List<String> failures = new ArrayList<>();
+
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("SET SESSION max_seeks_for_key = 1");
+
+      try {
+        for (String sql : statements) {
+          List<String> scannedTables = getFullyScannedTables(statement, sql);
+          if (!scannedTables.isEmpty()) {
+            failures.add(String.format("%s scans tables %s", sql, scannedTables));
+          }
+        }
+      } finally {
+        statement.execute("SET SESSION max_seeks_for_key = DEFAULT");
+      }
+    }
+
+    assertTrue(failures.isEmpty(), String.join("\n", failures));
+  }
+
+  /**
+   * Runs EXPLAIN for a statement and returns tables that are scanned fully
+   *
+   * @param statement JDBC statement
+   * @param sql explained statement
+   * @return fully scanned tables
+   * @throws SQLException thrown when query fails
+   */
+  private List<String> getFullyScannedTables(Statement statement, String sql) throws SQLException {
+    List<String> result = new ArrayList<>();
+
+    try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+      while (resultSet.next()) {
+        if ("ALL".equals(resultSet.getString("type"))) {
+          result.add(resultSet.getString("table"));
+        }
+      }
+    }
+
+    return result;
+  }
+
+}
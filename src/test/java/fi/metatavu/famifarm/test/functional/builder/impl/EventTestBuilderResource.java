@@ -1,17 +1,25 @@
 package fi.metatavu.famifarm.test.functional.builder.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import feign.FeignException;
 import fi.metatavu.famifarm.client.ApiClient;
 import fi.metatavu.famifarm.client.api.EventsApi;
+import fi.metatavu.famifarm.client.auth.HttpBearerAuth;
 import fi.metatavu.famifarm.client.model.*;
 import fi.metatavu.famifarm.rest.model.CultivationObservationEventData;
 import fi.metatavu.famifarm.test.functional.builder.AbstractTestBuilderResource;
 import org.json.JSONException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -244,6 +252,53 @@ public class EventTestBuilderResource  extends AbstractTestBuilderResource<Event
     return addClosable(getApi().createEvent(event, facility));
   }
   
+  /**
+   * Imports events with the bulk import endpoint
+   *
+   * @param facility facility
+   * @param events events
+   * @return import results
+   * @throws IOException thrown when request fails
+   */
+  public List<Map<String, Object>> importEvents(Facility facility, List<Event> events) throws IOException {
+    return importEvents(facility, getObjectMapper().writeValueAsString(events));
+  }
+
+  /**
+   * Imports events with the bulk import endpoint using given request body as is
+   *
+   * @param facility facility
+   * @param body request body
+   * @return import results
+   * @throws IOException thrown when request fails
+   */
+  public List<Map<String, Object>> importEvents(Facility facility, String body) throws IOException {
+    HttpBearerAuth bearerAuth = (HttpBearerAuth) getApiClient().getAuthorization("BearerAuth");
+    URL url = new URL(String.format("%s/v1/%s/eventImports", getApiClient().getBasePath(), facility));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("Content-Type", "application/json");
+    connection.setRequestProperty("Authorization", String.format("Bearer %s", bearerAuth.getBearerToken()));
+
+    try (OutputStream outputStream = connection.getOutputStream()) {
+      outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertEquals(200, connection.getResponseCode());
+
+    List<Map<String, Object>> results;
+    try (InputStream inputStream = connection.getInputStream()) {
+      results = getObjectMapper().readValue(inputStream, new TypeReference<List<Map<String, Object>>>() {});
+    }
+
+    results.stream()
+      .filter(result -> result.get("id") != null)
+      .forEach(result -> addClosable(getApi().findEvent(facility, UUID.fromString((String) result.get("id")))));
+
+    return results;
+  }
+
   /**
    * Finds an Event
    * 
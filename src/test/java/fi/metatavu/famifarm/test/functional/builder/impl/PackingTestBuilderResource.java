@@ -4,13 +4,21 @@ import feign.FeignException;
 import fi.metatavu.famifarm.client.ApiClient;
 import fi.metatavu.famifarm.client.api.PackingsApi;
 import fi.metatavu.famifarm.client.model.*;
+import fi.metatavu.famifarm.client.auth.HttpBearerAuth;
 import fi.metatavu.famifarm.test.functional.builder.AbstractTestBuilderResource;
 import org.json.JSONException;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -141,6 +149,50 @@ public class PackingTestBuilderResource extends AbstractTestBuilderResource<Pack
 
     return getApi().listPackings(facility, firstResult, maxResults, productId, null, packingState, createdAfterStr, createdBeforeStr);
   }
+
+  /**
+   * Lists a page of packings continuing from given page token
+   *
+   * @param facility facility
+   * @param maxResults max results
+   * @param pageToken token returned with the previous page or null for the first page
+   * @param result list where the packings of the page are added
+   * @return token for the next page or null if the page was the last one
+   * @throws IOException thrown when request fails
+   */
+  public String listPage(Facility facility, int maxResults, String pageToken, List<Packing> result) throws IOException {
+    String query = String.format("maxResults=%d", maxResults);
+    if (pageToken != null) {
+      query += String.format("&pageToken=%s", pageToken);
+    }
+
+    HttpBearerAuth bearerAuth = (HttpBearerAuth) getApiClient().getAuthorization("BearerAuth");
+    URL url = new URL(String.format("%s/v1/%s/packings?%s", getApiClient().getBasePath(), facility, query));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty("Authorization", String.format("Bearer %s", bearerAuth.getBearerToken()));
+
+    try (InputStream inputStream = connection.getInputStream()) {
+      result.addAll(getObjectMapper().readValue(inputStream, new TypeReference<List<Packing>>() {}));
+    }
+
+    return connection.getHeaderField("Next-Page-Token");
+  }
+
+  /**
+   * Asserts that listing packings with given page token fails with given status
+   *
+   * @param expectedStatus expected status
+   * @param facility facility
+   * @param pageToken page token
+   * @throws IOException thrown when request fails
+   */
+  public void assertListPageFailStatus(int expectedStatus, Facility facility, String pageToken) throws IOException {
+    HttpBearerAuth bearerAuth = (HttpBearerAuth) getApiClient().getAuthorization("BearerAuth");
+    URL url = new URL(String.format("%s/v1/%s/packings?maxResults=1&pageToken=%s", getApiClient().getBasePath(), facility, pageToken));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty("Authorization", String.format("Bearer %s", bearerAuth.getBearerToken()));
+    assertEquals(expectedStatus, connection.getResponseCode());
+  }
   
   /**
    * Finds a packing by id
@@ -162,6 +214,35 @@ public class PackingTestBuilderResource extends AbstractTestBuilderResource<Pack
     return getApi().updatePacking(packing, facility, packing.getId());
   }
   
+  /**
+   * Updates a packing and returns persistence metrics reported for the request
+   *
+   * @param packing packing
+   * @param facility facility
+   * @return values of Flush-Count and Statement-Count response headers mapped by header names
+   * @throws IOException thrown when request fails
+   */
+  public Map<String, Integer> updateWithMetrics(Packing packing, Facility facility) throws IOException {
+    HttpBearerAuth bearerAuth = (HttpBearerAuth) getApiClient().getAuthorization("BearerAuth");
+    URL url = new URL(String.format("%s/v1/%s/packings/%s", getApiClient().getBasePath(), facility, packing.getId()));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod("PUT");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("Authorization", String.format("Bearer %s", bearerAuth.getBearerToken()));
+    connection.setRequestProperty("Content-Type", "application/json");
+
+    try (OutputStream outputStream = connection.getOutputStream()) {
+      outputStream.write(getObjectMapper().writeValueAsBytes(packing));
+    }
+
+    assertEquals(200, connection.getResponseCode());
+
+    Map<String, Integer> result = new HashMap<>();
+    result.put("Flush-Count", Integer.parseInt(connection.getHeaderField("Flush-Count")));
+    result.put("Statement-Count", Integer.parseInt(connection.getHeaderField("Statement-Count")));
+    return result;
+  }
+
   /**
    * Deletes a packing
    * 
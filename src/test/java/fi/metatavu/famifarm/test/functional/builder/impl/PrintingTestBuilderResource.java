@@ -1,16 +1,29 @@
 package fi.metatavu.famifarm.test.functional.builder.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import feign.FeignException;
 import fi.metatavu.famifarm.client.ApiClient;
 import fi.metatavu.famifarm.client.api.PrintersApi;
+import fi.metatavu.famifarm.client.auth.HttpBearerAuth;
 
 import fi.metatavu.famifarm.client.model.Facility;
 import fi.metatavu.famifarm.client.model.PrintData;
 import fi.metatavu.famifarm.client.model.Printer;
 import fi.metatavu.famifarm.test.functional.builder.AbstractTestBuilderResource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
 /**
  * Test builder resource for printing packing qr codes
  */
@@ -38,6 +51,22 @@ public class PrintingTestBuilderResource extends AbstractTestBuilderResource<Pri
         getApi().print(printData, Facility.JOROINEN, printerId);
     }
 
+    /**
+     * Asserts that printing a qr code fails with given status
+     *
+     * @param expectedStatus expected status
+     * @param packingId packing id
+     * @param printerId printer id
+     */
+    public void assertPrintFailStatus(int expectedStatus, UUID packingId, String printerId) {
+        try {
+            print(packingId, printerId);
+            fail(String.format("Expected print to fail with status %d.", expectedStatus));
+        } catch (FeignException e) {
+            assertEquals(expectedStatus, e.status());
+        }
+    }
+
     /**
      * Lists connected printers
      *
@@ -47,6 +76,101 @@ public class PrintingTestBuilderResource extends AbstractTestBuilderResource<Pri
         return getApi().listPrinters(Facility.JOROINEN);
     }
 
+    /**
+     * Submits a print job
+     *
+     * @param printerId printer id
+     * @param packingIds ids of packings to print
+     * @return print job
+     * @throws IOException thrown when request fails
+     */
+    public Map<String, Object> createPrintJob(String printerId, List<UUID> packingIds) throws IOException {
+        HttpURLConnection connection = openPrintJobConnection(printerId, packingIds);
+
+        try (InputStream inputStream = connection.getInputStream()) {
+            return getObjectMapper().readValue(inputStream, new TypeReference<Map<String, Object>>() {});
+        }
+    }
+
+    /**
+     * Asserts that submitting a print job fails with given status
+     *
+     * @param expectedStatus expected status
+     * @param printerId printer id
+     * @param packingIds ids of packings to print
+     * @throws IOException thrown when request fails
+     */
+    public void assertCreatePrintJobFailStatus(int expectedStatus, String printerId, List<UUID> packingIds) throws IOException {
+        HttpURLConnection connection = openPrintJobConnection(printerId, packingIds);
+        assertEquals(expectedStatus, connection.getResponseCode());
+    }
+
+    /**
+     * Waits until print job has finished
+     *
+     * @param printJobId print job id
+     * @return finished print job
+     * @throws IOException thrown when request fails
+     * @throws InterruptedException thrown when waiting is interrupted
+     */
+    public Map<String, Object> waitPrintJob(Object printJobId) throws IOException, InterruptedException {
+        URL url = new URL(String.format("%s/v1/%s/printJobs/%s", getApiClient().getBasePath(), Facility.JOROINEN, printJobId));
+
+        for (int i = 0; i < 60; i++) {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestProperty("Authorization", getAuthorization());
+
+            try (InputStream inputStream = connection.getInputStream()) {
+                Map<String, Object> printJob = getObjectMapper().readValue(inputStream, new TypeReference<Map<String, Object>>() {});
+                if ("PRINTED".equals(printJob.get("status")) || "FAILED".equals(printJob.get("status"))) {
+                    return printJob;
+                }
+            }
+
+            Thread.sleep(500);
+        }
+
+        fail(String.format("Print job %s did not finish", printJobId));
+        return null;
+    }
+
+    /**
+     * Opens a connection posting a print job request
+     *
+     * @param printerId printer id
+     * @param packingIds ids of packings to print
+     * @return connection
+     * @throws IOException thrown when request fails
+     */
+    private HttpURLConnection openPrintJobConnection(String printerId, List<UUID> packingIds) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("printerId", printerId);
+        body.put("packingIds", packingIds);
+
+        URL url = new URL(String.format("%s/v1/%s/printJobs", getApiClient().getBasePath(), Facility.JOROINEN));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Authorization", getAuthorization());
+        connection.setRequestProperty("Content-Type", "application/json");
+
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            getObjectMapper().writeValue(outputStream, body);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Returns authorization header value of the API client
+     *
+     * @return authorization header value
+     */
+    private String getAuthorization() {
+        HttpBearerAuth bearerAuth = (HttpBearerAuth) getApiClient().getAuthorization("BearerAuth");
+        return String.format("Bearer %s", bearerAuth.getBearerToken());
+    }
+
     @Override
     public void clean(PrintData printData) {
     }
@@ -2,9 +2,14 @@ package fi.metatavu.famifarm.test.functional.builder.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.time.OffsetDateTime;
 import java.util.Date;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 
 import fi.metatavu.famifarm.client.model.Facility;
 import fi.metatavu.famifarm.reporting.ReportFormat;
@@ -16,6 +21,7 @@ import org.apache.poi.ss.usermodel.WorkbookFactory;
 
 import fi.metatavu.famifarm.client.ApiClient;
 import fi.metatavu.famifarm.client.api.ReportsApi;
+import fi.metatavu.famifarm.client.auth.HttpBearerAuth;
 import fi.metatavu.famifarm.test.functional.builder.AbstractTestBuilderResource;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +54,95 @@ public class ReportTestBuilderResource extends AbstractTestBuilderResource<Objec
     return getBinaryData(apiClient, new URL(String.format("%s/v1/%s/reports/%s?fromTime=%s&toTime=%s&format=%s", apiClient.getBasePath(), facility, type, fromTime, toTime, reportFormat)));
   }
 
+  /**
+   * Creates report with given type and returns whether it was served from the report cache
+   *
+   * @param facility facility
+   * @param type type
+   * @param fromTime from time
+   * @param toTime to time
+   * @param reportFormat report format
+   * @return value of the Report-Cache response header
+   * @throws IOException thrown when request fails
+   */
+  public String getReportCacheStatus(Facility facility, String type, String fromTime, String toTime, ReportFormat reportFormat) throws IOException {
+    ApiClient apiClient = getApiClient();
+    URL url = new URL(String.format("%s/v1/%s/reports/%s?fromTime=%s&toTime=%s&format=%s", apiClient.getBasePath(), facility, type, fromTime, toTime, reportFormat));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty("Authorization", getAuthorization());
+
+    try (InputStream inputStream = connection.getInputStream()) {
+      inputStream.readAllBytes();
+      return connection.getHeaderField("Report-Cache");
+    }
+  }
+
+  /**
+   * Submits a report job
+   *
+   * @param facility facility
+   * @param type type
+   * @param fromTime from time
+   * @param toTime to time
+   * @return report job
+   * @throws IOException thrown when request fails
+   */
+  public Map<String, Object> createReportJob(Facility facility, String type, String fromTime, String toTime) throws IOException {
+    ApiClient apiClient = getApiClient();
+    URL url = new URL(String.format("%s/v1/%s/reportJobs?type=%s&fromTime=%s&toTime=%s", apiClient.getBasePath(), facility, type, fromTime, toTime));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty("Authorization", getAuthorization());
+
+    try (InputStream inputStream = connection.getInputStream()) {
+      return getObjectMapper().readValue(inputStream, new TypeReference<Map<String, Object>>() {});
+    }
+  }
+
+  /**
+   * Waits until report job has finished
+   *
+   * @param facility facility
+   * @param reportJobId report job id
+   * @return finished report job
+   * @throws IOException thrown when request fails
+   * @throws InterruptedException thrown when waiting is interrupted
+   */
+  public Map<String, Object> waitReportJob(Facility facility, Object reportJobId) throws IOException, InterruptedException {
+    ApiClient apiClient = getApiClient();
+    URL url = new URL(String.format("%s/v1/%s/reportJobs/%s", apiClient.getBasePath(), facility, reportJobId));
+
+    for (int i = 0; i < 60; i++) {
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      connection.setRequestProperty("Authorization", getAuthorization());
+
+      try (InputStream inputStream = connection.getInputStream()) {
+        Map<String, Object> reportJob = getObjectMapper().readValue(inputStream, new TypeReference<Map<String, Object>>() {});
+        if ("READY".equals(reportJob.get("status")) || "FAILED".equals(reportJob.get("status"))) {
+          return reportJob;
+        }
+      }
+
+      Thread.sleep(500);
+    }
+
+    fail(String.format("Report job %s did not finish", reportJobId));
+    return null;
+  }
+
+  /**
+   * Downloads the result of a report job
+   *
+   * @param facility facility
+   * @param reportJobId report job id
+   * @return report data
+   * @throws IOException thrown when request fails
+   */
+  public byte[] getReportJobData(Facility facility, Object reportJobId) throws IOException {
+    ApiClient apiClient = getApiClient();
+    return getBinaryData(apiClient, new URL(String.format("%s/v1/%s/reportJobs/%s/data", apiClient.getBasePath(), facility, reportJobId)));
+  }
+
   /**
    * Asserts that cell's value is expected
    * 
@@ -152,6 +247,16 @@ public class ReportTestBuilderResource extends AbstractTestBuilderResource<Objec
     return cell;
   }
 
+  /**
+   * Returns authorization header value of the API client
+   *
+   * @return authorization header value
+   */
+  private String getAuthorization() {
+    HttpBearerAuth bearerAuth = (HttpBearerAuth) getApiClient().getAuthorization("BearerAuth");
+    return String.format("Bearer %s", bearerAuth.getBearerToken());
+  }
+
   @Override
   public void clean(Object t) {
     // Nothing to clean 
@@ -0,0 +1,81 @@
+package fi.metatavu.famifarm.test.functional.reporttests;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import fi.metatavu.famifarm.client.model.Facility;
+import fi.metatavu.famifarm.test.functional.AbstractFunctionalTest;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.Test;
+
+import fi.metatavu.famifarm.test.functional.builder.TestBuilder;
+
+import io.quarkus.test.junit.QuarkusTest;
+import fi.metatavu.famifarm.test.functional.resources.KeycloakResource;
+import io.quarkus.test.common.QuarkusTestResource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for asynchronous report jobs
+ */
+@QuarkusTest
+@QuarkusTestResource(KeycloakResource.class)
+public class ReportJobTestsIT extends AbstractFunctionalTest {
+
+  @Test
+  public void testWastageReportJob() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      builder.admin().wastageReasons();
+      createWastageEvent(builder, facility);
+      createWastageEvent(builder, facility);
+
+      String fromTime = OffsetDateTime.of(2018, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+      String toTime = OffsetDateTime.of(2021, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+
+      Map<String, Object> reportJob = builder.admin().reports().createReportJob(facility, "WASTAGE", fromTime, toTime);
+      assertNotNull(reportJob.get("id"));
+
+      Map<String, Object> duplicateJob = builder.admin().reports().createReportJob(facility, "WASTAGE", fromTime, toTime);
+      assertEquals(reportJob.get("id"), duplicateJob.get("id"));
+
+      Map<String, Object> finishedJob = builder.admin().reports().waitReportJob(facility, reportJob.get("id"));
+      assertEquals("READY", finishedJob.get("status"));
+
+      byte[] data = builder.admin().reports().getReportJobData(facility, reportJob.get("id"));
+      assertNotNull(data);
+
+      try (Workbook workbook = builder.admin().reports().loadWorkbook(data)) {
+        builder.admin().reports().assertCellValue("Product name", workbook, 0, 4, 3);
+        builder.admin().reports().assertCellValue("Test reason", workbook, 0, 5, 5);
+      }
+    }
+  }
+
+  @Test
+  public void testReportJobReuseFollowsWatermark() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      createWastageEvent(builder, facility);
+
+      String fromTime = OffsetDateTime.of(2018, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+      String toTime = OffsetDateTime.of(2021, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+
+      Map<String, Object> reportJob = builder.admin().reports().createReportJob(facility, "WASTAGE", fromTime, toTime);
+      assertEquals("READY", builder.admin().reports().waitReportJob(facility, reportJob.get("id")).get("status"));
+
+      Map<String, Object> reusedJob = builder.admin().reports().createReportJob(facility, "WASTAGE", fromTime, toTime);
+      assertEquals(reportJob.get("id"), reusedJob.get("id"));
+
+      createWastageEvent(builder, facility);
+
+      Map<String, Object> refreshedJob = builder.admin().reports().createReportJob(facility, "WASTAGE", fromTime, toTime);
+      assertNotEquals(reportJob.get("id"), refreshedJob.get("id"));
+      assertEquals("READY", builder.admin().reports().waitReportJob(facility, refreshedJob.get("id")).get("status"));
+      assertNotNull(builder.admin().reports().getReportJobData(facility, refreshedJob.get("id")));
+    }
+  }
+
+}
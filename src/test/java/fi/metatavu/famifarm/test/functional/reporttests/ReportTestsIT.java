@@ -106,6 +106,57 @@ public class ReportTestsIT extends AbstractFunctionalTest {
     }
   }
 
+  @Test
+  public void testCachedReportInvalidation() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      builder.admin().wastageReasons();
+      createWastageEvent(builder, facility);
+
+      String fromTime = OffsetDateTime.of(2018, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+      String toTime = OffsetDateTime.of(2021, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+
+      ObjectMapper objectMapper = getObjectMapper();
+      CollectionType type = objectMapper.getTypeFactory().constructCollectionType(List.class, fi.metatavu.famifarm.reporting.json.models.Event.class);
+
+      byte[] data = builder.admin().reports().createReport(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON);
+      List<fi.metatavu.famifarm.reporting.json.models.Event> events = objectMapper.readValue(data, type);
+      assertEquals(1, events.size());
+
+      assertEquals("HIT", builder.admin().reports().getReportCacheStatus(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON));
+
+      createWastageEvent(builder, facility);
+
+      assertEquals("MISS", builder.admin().reports().getReportCacheStatus(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON));
+      assertEquals("HIT", builder.admin().reports().getReportCacheStatus(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON));
+
+      byte[] updatedData = builder.admin().reports().createReport(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON);
+      List<fi.metatavu.famifarm.reporting.json.models.Event> updatedEvents = objectMapper.readValue(updatedData, type);
+      assertEquals(2, updatedEvents.size());
+    }
+  }
+
+  @Test
+  public void testCachedReportInvalidationByProductionLine() throws Exception {
+    try (TestBuilder builder = new TestBuilder()) {
+      Facility facility = Facility.JOROINEN;
+      builder.admin().wastageReasons();
+      createWastageEvent(builder, facility);
+      ProductionLine productionLine = builder.admin().productionLines().create("2 B", 7, facility);
+
+      String fromTime = OffsetDateTime.of(2018, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+      String toTime = OffsetDateTime.of(2021, 2, 1, 4, 5, 6, 0, ZoneOffset.UTC).toString();
+
+      assertEquals("MISS", builder.admin().reports().getReportCacheStatus(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON));
+      assertEquals("HIT", builder.admin().reports().getReportCacheStatus(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON));
+
+      productionLine.setLineNumber("2 C");
+      builder.admin().productionLines().updateProductionLine(productionLine, facility);
+
+      assertEquals("MISS", builder.admin().reports().getReportCacheStatus(facility, "WASTAGE", fromTime, toTime, ReportFormat.JSON));
+    }
+  }
+
   @Test
   public void testXlsxGrowthTimeReport() throws Exception {
     try (TestBuilder builder = new TestBuilder()) {
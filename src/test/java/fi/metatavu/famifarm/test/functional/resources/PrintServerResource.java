@@ -0,0 +1,160 @@
+package fi.metatavu.famifarm.test.functional.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+/**
+ * Local stub of the print server.
+ *
+ * Lists a single printer and records printing commands sent to it. Server can be instructed to fail
+ * given number of following print requests for testing retries or to reject them for testing errors.
+ */
+public class PrintServerResource implements QuarkusTestResourceLifecycleManager {
+
+    public static final String PRINTER_ID = "test-printer";
+
+    private static final List<String> receivedCommands = Collections.synchronizedList(new ArrayList<>());
+
+    private static final AtomicInteger failuresRemaining = new AtomicInteger();
+
+    private static final AtomicInteger rejectionsRemaining = new AtomicInteger();
+
+    private HttpServer server;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start print server stub", e);
+        }
+
+        server.createContext("/printers", this::handle);
+        server.start();
+
+        Map<String, String> config = new HashMap<>();
+        config.put("famifarm.printing.url", String.format("http://localhost:%d", server.getAddress().getPort()));
+        config.put("famifarm.printing.jobs.retry-delay-ms", "100");
+        return config;
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Returns printing commands received by the stub
+     *
+     * @return received printing commands
+     */
+    public static List<String> getReceivedCommands() {
+        synchronized (receivedCommands) {
+            return new ArrayList<>(receivedCommands);
+        }
+    }
+
+    /**
+     * Makes the stub respond to given number of following print requests with an error
+     *
+     * @param count number of print requests to fail
+     */
+    public static void failNextPrints(int count) {
+        failuresRemaining.set(count);
+    }
+
+    /**
+     * Makes the stub reject given number of following print requests as bad requests
+     *
+     * @param count number of print requests to reject
+     */
+    public static void rejectNextPrints(int count) {
+        rejectionsRemaining.set(count);
+    }
+
+    /**
+     * Clears received commands, pending failures and pending rejections
+     */
+    public static void reset() {
+        receivedCommands.clear();
+        failuresRemaining.set(0);
+        rejectionsRemaining.set(0);
+    }
+
+    /**
+     * Handles a request to the stub
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException thrown when request handling fails
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+
+        if ("GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 200, String.format("[{\"id\":\"%s\",\"friendlyName\":\"Test printer\"}]", PRINTER_ID));
+            return;
+        }
+
+        if (!path.equals(String.format("/printers/%s/raw", PRINTER_ID))) {
+            respond(exchange, 404, "");
+            return;
+        }
+
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+
+            if (failuresRemaining.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                respond(exchange, 503, "");
+                return;
+            }
+
+            if (rejectionsRemaining.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                respond(exchange, 400, "");
+                return;
+            }
+
+            receivedCommands.add(body);
+        }
+
+        respond(exchange, 200, "");
+    }
+
+    /**
+     * Writes a response
+     *
+     * @param exchange HTTP exchange
+     * @param status status code
+     * @param body response body
+     * @throws IOException thrown when writing fails
+     */
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] data = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, data.length > 0 ? data.length : -1);
+
+        if (data.length > 0) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(data);
+            }
+        }
+
+        exchange.close();
+    }
+
+}
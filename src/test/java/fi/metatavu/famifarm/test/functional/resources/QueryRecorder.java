@@ -0,0 +1,110 @@
+package fi.metatavu.famifarm.test.functional.resources;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.NativeSession;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+
+import io.agroal.api.AgroalPoolInterceptor;
+
+/**
+ * Records select statements sent to the test database.
+ *
+ * Recorder is installed as a MySQL driver query interceptor into connections acquired from the pool. The driver
+ * prepares statements on the client side, so recorded statements contain the bound parameter values and can be
+ * explained as such. Statements are recorded only between {@link #start()} and {@link #stop()}.
+ */
+@ApplicationScoped
+public class QueryRecorder implements AgroalPoolInterceptor {
+
+    private static final List<String> recordedStatements = Collections.synchronizedList(new ArrayList<>());
+
+    private static final List<QueryInterceptor> queryInterceptors = List.of(new RecordingQueryInterceptor());
+
+    private static volatile boolean recording = false;
+
+    /**
+     * Clears recorded statements and starts recording
+     */
+    public static void start() {
+        recordedStatements.clear();
+        recording = true;
+    }
+
+    /**
+     * Stops recording
+     *
+     * @return statements recorded since the recording was started
+     */
+    public static List<String> stop() {
+        recording = false;
+
+        synchronized (recordedStatements) {
+            return new ArrayList<>(recordedStatements);
+        }
+    }
+
+    @Override
+    public void onConnectionAcquire(Connection connection) {
+        try {
+            JdbcConnection jdbcConnection = connection.unwrap(JdbcConnection.class);
+            ((NativeSession) jdbcConnection.getSession()).setQueryInterceptors(queryInterceptors);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to install query recorder", e);
+        }
+    }
+
+    /**
+     * Driver query interceptor recording select statements
+     */
+    private static class RecordingQueryInterceptor implements QueryInterceptor {
+
+        @Override
+        public QueryInterceptor init(MysqlConnection conn, Properties props, Log log) {
+            return this;
+        }
+
+        @Override
+        public <T extends Resultset> T preProcess(Supplier<String> sql, Query interceptedQuery) {
+            if (recording) {
+                String statement = sql.get().trim();
+                if (statement.toLowerCase().startsWith("select")) {
+                    recordedStatements.add(statement);
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public boolean executeTopLevelOnly() {
+            return false;
+        }
+
+        @Override
+        public void destroy() {
+            // Nothing to release
+        }
+
+        @Override
+        public <T extends Resultset> T postProcess(Supplier<String> sql, Query interceptedQuery, T originalResultSet, ServerSession serverSession) {
+            return null;
+        }
+
+    }
+
+}